@@ -0,0 +1,80 @@
+package org.jmagni.jrtsp.benchmark;
+
+import org.jmagni.jrtsp.rtsp.base.ByteUtil;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @class public class ByteUtilBenchmark
+ * @brief ByteUtil 정수 <> 바이트 변환, XOR (FEC) 벤치마크
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ByteUtilBenchmark {
+
+    private short shortValue = 0x1234;
+    private int intValue = 0x12345678;
+    private long longValue = 0x123456789ABCDEF0L;
+
+    private byte[] shortBytes;
+    private byte[] intBytes;
+    private byte[] longBytes;
+
+    private byte[] xorDst;
+    private byte[] xorSrc;
+
+    @Setup
+    public void setup() {
+        shortBytes = ByteUtil.shortToBytes(shortValue, true);
+        intBytes = ByteUtil.intToBytes(intValue, true);
+        longBytes = ByteUtil.longToBytes(longValue, true);
+
+        xorDst = new byte[1200];
+        xorSrc = new byte[1200];
+        for (int i = 0; i < xorSrc.length; i++) {
+            xorSrc[i] = (byte) i;
+        }
+    }
+
+    @Benchmark
+    public byte[] shortToBytes() {
+        return ByteUtil.shortToBytes(shortValue, true);
+    }
+
+    @Benchmark
+    public short bytesToShort() {
+        return ByteUtil.bytesToShort(shortBytes, true);
+    }
+
+    @Benchmark
+    public byte[] intToBytes() {
+        return ByteUtil.intToBytes(intValue, true);
+    }
+
+    @Benchmark
+    public int bytesToInt() {
+        return ByteUtil.bytesToInt(intBytes, true);
+    }
+
+    @Benchmark
+    public byte[] longToBytes() {
+        return ByteUtil.longToBytes(longValue, true);
+    }
+
+    @Benchmark
+    public long bytesToLong() {
+        return ByteUtil.bytesToLong(longBytes, true);
+    }
+
+    @Benchmark
+    public byte[] xor1200() {
+        ByteUtil.xor(xorDst, 0, xorSrc, 0, xorSrc.length);
+        return xorDst;
+    }
+
+}
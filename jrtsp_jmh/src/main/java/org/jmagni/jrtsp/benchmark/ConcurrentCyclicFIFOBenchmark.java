@@ -0,0 +1,59 @@
+package org.jmagni.jrtsp.benchmark;
+
+import org.jmagni.jrtsp.rtsp.base.ConcurrentCyclicFIFO;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @class public class ConcurrentCyclicFIFOBenchmark
+ * @brief Relay 버퍼 (ConcurrentCyclicFIFO) offer/poll 벤치마크
+ *
+ * - offerPoll : 한 스레드가 넣고 바로 꺼낸다. (경합 없는 비용)
+ * - producerConsumer : Ingest 스레드 하나가 넣고 RtpInfoSender 하나가 꺼낸다. (put/take 잠금이 나뉘어 있는지 확인)
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConcurrentCyclicFIFOBenchmark {
+
+    private static final Object ITEM = new Object();
+    private static final int MAX_QUEUED = 4096;
+
+    @State(Scope.Thread)
+    public static class LocalQueue {
+        final ConcurrentCyclicFIFO<Object> fifo = new ConcurrentCyclicFIFO<>();
+    }
+
+    @State(Scope.Group)
+    public static class SharedQueue {
+        final ConcurrentCyclicFIFO<Object> fifo = new ConcurrentCyclicFIFO<>();
+    }
+
+    @Benchmark
+    public Object offerPoll(LocalQueue localQueue) {
+        localQueue.fifo.offer(ITEM);
+        return localQueue.fifo.poll();
+    }
+
+    @Benchmark
+    @Group("producerConsumer")
+    @GroupThreads(1)
+    public boolean offer(SharedQueue sharedQueue) {
+        // 소비자가 느려도 큐가 무한히 커지지 않도록 한다.
+        if (sharedQueue.fifo.size() >= MAX_QUEUED) {
+            return false;
+        }
+        return sharedQueue.fifo.offer(ITEM);
+    }
+
+    @Benchmark
+    @Group("producerConsumer")
+    @GroupThreads(1)
+    public Object poll(SharedQueue sharedQueue) {
+        return sharedQueue.fifo.poll();
+    }
+
+}
@@ -0,0 +1,102 @@
+package org.jmagni.jrtsp.benchmark;
+
+import org.jmagni.jrtsp.rtsp.rtcp.base.RtcpType;
+import org.jmagni.jrtsp.rtsp.rtcp.packet.RtcpCompoundPacket;
+import org.jmagni.jrtsp.rtsp.rtcp.packet.RtcpPacket;
+import org.jmagni.jrtsp.rtsp.rtcp.type.regular.RtcpSenderReport;
+import org.jmagni.jrtsp.rtsp.rtcp.type.regular.base.RtcpHeader;
+import org.jmagni.jrtsp.rtsp.rtcp.type.regular.base.report.RtcpReportBlock;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @class public class RtcpPacketBenchmark
+ * @brief RTCP SR, Report block, 패킷, Compound 패킷 Encode/Decode 벤치마크
+ *
+ * - SR 은 시청자마다 주기적으로 만들고, RR 은 시청자마다 받아서 Compound 로 해석한다.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class RtcpPacketBenchmark {
+
+    private static final long SSRC = 0x12345678L;
+
+    private RtcpReportBlock rtcpReportBlock;
+    private byte[] reportBlockData;
+    private RtcpSenderReport rtcpSenderReport;
+    private byte[] senderReportData;
+    private RtcpPacket rtcpPacket;
+    private byte[] rtcpPacketData;
+    private RtcpCompoundPacket rtcpCompoundPacket;
+    private byte[] compoundPacketData;
+
+    @Setup
+    public void setup() {
+        rtcpReportBlock = new RtcpReportBlock(SSRC, (byte) 12, 3, 65536 + 1000, 40, 0x1234L, 0x10L);
+        reportBlockData = rtcpReportBlock.getByteData();
+
+        List<RtcpReportBlock> rtcpReportBlockList = new ArrayList<>();
+        rtcpReportBlockList.add(rtcpReportBlock);
+        rtcpSenderReport = new RtcpSenderReport(0xE5A1B2C3L, 0x1000L, 90000L, 100, 120000, rtcpReportBlockList, null);
+        senderReportData = rtcpSenderReport.getData();
+
+        RtcpHeader rtcpHeader = new RtcpHeader(
+                2, RtcpPacket.getPacketLengthByBytes(senderReportData.length, false),
+                rtcpReportBlockList.size(), RtcpType.SENDER_REPORT, SSRC
+        );
+        rtcpPacket = new RtcpPacket(rtcpHeader, rtcpSenderReport);
+        rtcpPacketData = rtcpPacket.getData();
+
+        rtcpCompoundPacket = new RtcpCompoundPacket(new ArrayList<>(Collections.singletonList(rtcpPacket)));
+        compoundPacketData = rtcpCompoundPacket.getData();
+    }
+
+    @Benchmark
+    public byte[] encodeReportBlock() {
+        return rtcpReportBlock.getByteData();
+    }
+
+    @Benchmark
+    public RtcpReportBlock decodeReportBlock() {
+        return new RtcpReportBlock(reportBlockData);
+    }
+
+    @Benchmark
+    public byte[] encodeSenderReport() {
+        return rtcpSenderReport.getData();
+    }
+
+    @Benchmark
+    public RtcpSenderReport decodeSenderReport() {
+        return new RtcpSenderReport(senderReportData, 1);
+    }
+
+    @Benchmark
+    public byte[] encodeRtcpPacket() {
+        return rtcpPacket.getData();
+    }
+
+    @Benchmark
+    public RtcpPacket decodeRtcpPacket() {
+        return new RtcpPacket(rtcpPacketData);
+    }
+
+    @Benchmark
+    public byte[] encodeCompoundPacket() {
+        return rtcpCompoundPacket.getData();
+    }
+
+    @Benchmark
+    public RtcpCompoundPacket decodeCompoundPacket() {
+        return new RtcpCompoundPacket(compoundPacketData);
+    }
+
+}
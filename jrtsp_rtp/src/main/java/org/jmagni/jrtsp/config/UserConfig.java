@@ -4,9 +4,15 @@ import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.net.ntp.TimeStamp;
 import org.jmagni.jrtsp.config.base.DefaultConfig;
+import org.jmagni.jrtsp.rtsp.base.MediaType;
 import org.jmagni.jrtsp.rtsp.sdp.SdpParser;
+import org.jmagni.jrtsp.rtsp.stream.rtp.fec.FlexFecEncoder;
 import org.jmagni.jrtsp.rtsp.sdp.base.Sdp;
 
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
 @Getter
 @Slf4j
 public class UserConfig extends DefaultConfig {
@@ -14,6 +20,17 @@ public class UserConfig extends DefaultConfig {
     private static final String SECTION_COMMON = "COMMON";
     private static final String SECTION_RTSP_NETWORK = "RTSP_NETWORK";
     private static final String SECTION_RTSP_SDP = "RTSP_SDP";
+    private static final String SECTION_RTP_RTX = "RTP_RTX";
+    private static final String SECTION_RTCP_FEEDBACK = "RTCP_FEEDBACK";
+    private static final String SECTION_VIDEO_THINNING = "VIDEO_THINNING";
+    private static final String SECTION_RTP_FEC = "RTP_FEC";
+    private static final String SECTION_GOP_CACHE = "GOP_CACHE";
+    private static final String SECTION_RTP_PACKETIZATION = "RTP_PACKETIZATION";
+    private static final String SECTION_SESSION = "SESSION";
+    private static final String SECTION_METRICS = "METRICS";
+    private static final String SECTION_HEALTH = "HEALTH";
+
+    private static final String CONTROL_TRACK_ID_PREFIX = "control:trackID=";
 
     public static final String FIELD_ID = "ID";
     public static final String FIELD_SEND_BUF_SIZE = "SEND_BUF_SIZE";
@@ -23,6 +40,43 @@ public class UserConfig extends DefaultConfig {
     public static final String FIELD_LOCAL_RTSP_LISTEN_PORT = "LOCAL_RTSP_LISTEN_PORT";
     public static final String FIELD_LOCAL_RTCP_PORT_MIN = "LOCAL_RTCP_PORT_MIN";
     public static final String FIELD_LOCAL_RTCP_PORT_MAX = "LOCAL_RTCP_PORT_MAX";
+    public static final String FIELD_PORT_BIND_PROBE = "PORT_BIND_PROBE";
+    public static final String FIELD_RETRANSMISSION_ENABLE = "ENABLE";
+    public static final String FIELD_RETRANSMISSION_CACHE_SIZE = "CACHE_SIZE";
+    public static final String FIELD_RETRANSMISSION_CACHE_WINDOW_MS = "CACHE_WINDOW_MS";
+    public static final String FIELD_RTX_ENABLE = "RTX_ENABLE";
+    public static final String FIELD_RTX_PAYLOAD_TYPE = "RTX_PAYLOAD_TYPE";
+    public static final String FIELD_KEYFRAME_REQUEST_WINDOW_MS = "KEYFRAME_REQUEST_WINDOW_MS";
+    public static final String FIELD_TMMBR_ENABLE = "TMMBR_ENABLE";
+    public static final String FIELD_TMMBR_MIN_BITRATE = "TMMBR_MIN_BITRATE";
+    public static final String FIELD_THINNING_ENABLE = "ENABLE";
+    public static final String FIELD_THINNING_RECOVERY_HOLD_MS = "RECOVERY_HOLD_MS";
+    public static final String FIELD_THINNING_RTT_THRESHOLD_MS = "RTT_THRESHOLD_MS";
+    public static final String FIELD_FEC_ENABLE = "ENABLE";
+    public static final String FIELD_FEC_PAYLOAD_TYPE = "PAYLOAD_TYPE";
+    public static final String FIELD_FEC_MODE = "MODE";
+    public static final String FIELD_FEC_COLUMNS = "COLUMNS";
+    public static final String FIELD_FEC_ROWS = "ROWS";
+    public static final String FIELD_FEC_MIN_GROUP_SIZE = "MIN_GROUP_SIZE";
+    public static final String FIELD_FEC_MAX_GROUP_SIZE = "MAX_GROUP_SIZE";
+    public static final String FIELD_FEC_REPAIR_WINDOW_MS = "REPAIR_WINDOW_MS";
+    public static final String FIELD_GOP_CACHE_ENABLE = "ENABLE";
+    public static final String FIELD_GOP_CACHE_MAX_PACKETS = "MAX_PACKETS";
+    public static final String FIELD_GOP_BURST_FRAME_INTERVAL_MS = "BURST_FRAME_INTERVAL_MS";
+    public static final String FIELD_UDP_MAX_PACKET_SIZE = "UDP_MAX_PACKET_SIZE";
+    public static final String FIELD_TCP_MAX_PACKET_SIZE = "TCP_MAX_PACKET_SIZE";
+    public static final String FIELD_MAX_CALL_COUNT = "MAX_CALL_COUNT";
+    public static final String FIELD_MAX_CALL_COUNT_PER_CONFERENCE = "MAX_CALL_COUNT_PER_CONFERENCE";
+    public static final String FIELD_SESSION_TIMEOUT_SEC = "TIMEOUT_SEC";
+    public static final String FIELD_METRICS_HTTP_IP = "HTTP_IP";
+    public static final String FIELD_METRICS_HTTP_PORT = "HTTP_PORT";
+    public static final String FIELD_METRICS_JMX_ENABLE = "JMX_ENABLE";
+    public static final String FIELD_METRICS_LATENCY_SAMPLE_RATE = "LATENCY_SAMPLE_RATE";
+    public static final String FIELD_LOAD_SHEDDING_ENABLE = "LOAD_SHEDDING_ENABLE";
+    public static final String FIELD_MAX_EVENT_LOOP_LAG_MS = "MAX_EVENT_LOOP_LAG_MS";
+    public static final String FIELD_MAX_PENDING_TASKS = "MAX_PENDING_TASKS";
+    public static final String FIELD_MAX_CHANNEL_OUTBOUND_KB = "MAX_CHANNEL_OUTBOUND_KB";
+    public static final String FIELD_MAX_POOLED_MEMORY_MB = "MAX_POOLED_MEMORY_MB";
 
     private String id = null;
     private int sendBufSize = 0;
@@ -32,6 +86,54 @@ public class UserConfig extends DefaultConfig {
     private int localRtspListenPort = 0;
     private int localRtcpPortMin = 0;
     private int localRtcpPortMax = 0;
+    private boolean portBindProbe = false;
+
+    private boolean retransmissionEnabled = true;
+    private int retransmissionCacheSize = 512;
+    private int retransmissionCacheWindowMs = 1000;
+    private boolean rtxEnabled = false;
+    private int rtxPayloadType = 97;
+
+    private int keyframeRequestWindowMs = 500;
+    private boolean tmmbrEnabled = true;
+    private int tmmbrMinBitrate = 64000;
+
+    private boolean thinningEnabled = true;
+    private int thinningRecoveryHoldMs = 3000;
+    private int thinningRttThresholdMs = 400;
+
+    private boolean fecEnabled = false;
+    private int fecPayloadType = 98;
+    private FlexFecEncoder.Mode fecMode = FlexFecEncoder.Mode.ROW;
+    private int fecColumns = 10;
+    private int fecRows = 4;
+    private int fecMinGroupSize = 4;
+    private int fecMaxGroupSize = 20;
+    private int fecRepairWindowMs = 1000;
+
+    private boolean gopCacheEnabled = true;
+    private int gopCacheMaxPackets = 4096;
+    private int gopBurstFrameIntervalMs = 10;
+
+    private static final int MIN_MAX_PACKET_SIZE = 256; // bytes
+    private int udpMaxPacketSize = 1400;
+    private int tcpMaxPacketSize = 0;
+
+    private int maxCallCount = 100000;
+    private int maxCallCountPerConference = 1000;
+    private int sessionTimeoutSec = 60;
+
+    private String metricsHttpIp = "127.0.0.1";
+    private int metricsHttpPort = 0;
+    private boolean metricsJmxEnabled = true;
+    private int metricsLatencySampleRate = 0;
+
+    // 한도 (0 : 검사 안 함)
+    private boolean loadSheddingEnabled = false;
+    private int maxEventLoopLagMs = 0;
+    private int maxPendingTasks = 0;
+    private int maxChannelOutboundKb = 0;
+    private int maxPooledMemoryMb = 0;
 
     private final SdpParser sdpParser = new SdpParser();
     private String version;
@@ -46,6 +148,12 @@ public class UserConfig extends DefaultConfig {
     String[] audioAttributeList;
     String[] videoAttributeList;
 
+    // SDP 의 control:trackID=N 로 정한 Track ID > 미디어 종류 (SETUP 요청의 Track 을 찾는 기준)
+    private Map<String, MediaType> trackMediaTypeMap = Collections.emptyMap();
+
+    // loadConfig() 때마다 올라간다. (설정으로 만든 캐시의 무효화 기준)
+    private volatile long configVersion = 0;
+
     public UserConfig(String configFileName) {
         super(configFileName);
 
@@ -65,6 +173,16 @@ public class UserConfig extends DefaultConfig {
         loadCommonConfig();
         loadNetworkConfig();
         loadRtspSdpConfig();
+        loadRtpRtxConfig();
+        loadRtcpFeedbackConfig();
+        loadVideoThinningConfig();
+        loadRtpFecConfig();
+        loadGopCacheConfig();
+        loadRtpPacketizationConfig();
+        loadSessionConfig();
+        loadMetricsConfig();
+        loadHealthConfig();
+        configVersion++;
     }
 
     private void loadCommonConfig() {
@@ -125,6 +243,9 @@ public class UserConfig extends DefaultConfig {
             System.exit(1);
         }
 
+        // 포트를 내주기 전에 OS 에서 이미 사용 중인지 bind 해서 확인 (선택)
+        this.portBindProbe = getBooleanValue(SECTION_RTSP_NETWORK, FIELD_PORT_BIND_PROBE, false);
+
         logger.debug("Load [{}] config...(OK)", SECTION_RTSP_NETWORK);
     }
 
@@ -193,10 +314,274 @@ public class UserConfig extends DefaultConfig {
             }
         }
 
+        Map<String, MediaType> newTrackMediaTypeMap = new HashMap<>();
+        putTrackIds(newTrackMediaTypeMap, audioAttributeList, MediaType.AUDIO);
+        putTrackIds(newTrackMediaTypeMap, videoAttributeList, MediaType.VIDEO);
+        trackMediaTypeMap = Collections.unmodifiableMap(newTrackMediaTypeMap);
+
         logger.debug("Load [{}] config...(OK)", SECTION_RTSP_SDP);
     }
 
+    private void putTrackIds(Map<String, MediaType> trackMediaTypeMap, String[] attributeList, MediaType mediaType) {
+        for (String attribute : attributeList) {
+            if (attribute == null || !attribute.startsWith(CONTROL_TRACK_ID_PREFIX)) { continue; }
+
+            String trackId = attribute.substring(CONTROL_TRACK_ID_PREFIX.length()).trim();
+            MediaType prevMediaType = trackMediaTypeMap.putIfAbsent(trackId, mediaType);
+            if (prevMediaType != null && prevMediaType != mediaType) {
+                logger.error("[SECTION_SDP] TRACK ID({}) IS DUPLICATED. ({}, {})", trackId, prevMediaType.getName(), mediaType.getName());
+                System.exit(1);
+            }
+        }
+    }
+
+    /**
+     * @fn public MediaType getMediaTypeByTrackId(String trackId)
+     * @brief SDP 에 정의된 Track ID 의 미디어 종류를 반환하는 함수
+     * @return 미디어 종류, SDP 에 없는 Track 이면 null
+     */
+    public MediaType getMediaTypeByTrackId(String trackId) {
+        if (trackId == null) { return null; }
+        return trackMediaTypeMap.get(trackId);
+    }
+
+    private void loadRtpRtxConfig() {
+        // Optional section : 정의되지 않으면 기본값 사용
+        this.retransmissionEnabled = getBooleanValue(SECTION_RTP_RTX, FIELD_RETRANSMISSION_ENABLE, true);
+
+        this.retransmissionCacheSize = getIntValue(SECTION_RTP_RTX, FIELD_RETRANSMISSION_CACHE_SIZE, 512);
+        if (this.retransmissionCacheSize <= 0) {
+            logger.error("Fail to load [{}-{}]. ({})", SECTION_RTP_RTX, FIELD_RETRANSMISSION_CACHE_SIZE, retransmissionCacheSize);
+            System.exit(1);
+        }
+
+        this.retransmissionCacheWindowMs = getIntValue(SECTION_RTP_RTX, FIELD_RETRANSMISSION_CACHE_WINDOW_MS, 1000);
+        if (this.retransmissionCacheWindowMs <= 0) {
+            logger.error("Fail to load [{}-{}]. ({})", SECTION_RTP_RTX, FIELD_RETRANSMISSION_CACHE_WINDOW_MS, retransmissionCacheWindowMs);
+            System.exit(1);
+        }
+
+        this.rtxEnabled = getBooleanValue(SECTION_RTP_RTX, FIELD_RTX_ENABLE, false);
+
+        this.rtxPayloadType = getIntValue(SECTION_RTP_RTX, FIELD_RTX_PAYLOAD_TYPE, 97);
+        if (this.rtxPayloadType < 96 || this.rtxPayloadType > 127) {
+            logger.error("Fail to load [{}-{}]. Dynamic payload type is required. ({})", SECTION_RTP_RTX, FIELD_RTX_PAYLOAD_TYPE, rtxPayloadType);
+            System.exit(1);
+        }
+
+        logger.debug("Load [{}] config...(OK)", SECTION_RTP_RTX);
+    }
+
+    private void loadRtcpFeedbackConfig() {
+        // Optional section : 정의되지 않으면 기본값 사용
+        this.keyframeRequestWindowMs = getIntValue(SECTION_RTCP_FEEDBACK, FIELD_KEYFRAME_REQUEST_WINDOW_MS, 500);
+        if (this.keyframeRequestWindowMs < 0) {
+            logger.error("Fail to load [{}-{}]. ({})", SECTION_RTCP_FEEDBACK, FIELD_KEYFRAME_REQUEST_WINDOW_MS, keyframeRequestWindowMs);
+            System.exit(1);
+        }
+
+        this.tmmbrEnabled = getBooleanValue(SECTION_RTCP_FEEDBACK, FIELD_TMMBR_ENABLE, true);
+
+        this.tmmbrMinBitrate = getIntValue(SECTION_RTCP_FEEDBACK, FIELD_TMMBR_MIN_BITRATE, 64000);
+        if (this.tmmbrMinBitrate <= 0) {
+            logger.error("Fail to load [{}-{}]. ({})", SECTION_RTCP_FEEDBACK, FIELD_TMMBR_MIN_BITRATE, tmmbrMinBitrate);
+            System.exit(1);
+        }
+
+        logger.debug("Load [{}] config...(OK)", SECTION_RTCP_FEEDBACK);
+    }
+
+    private void loadVideoThinningConfig() {
+        // Optional section : 정의되지 않으면 기본값 사용
+        this.thinningEnabled = getBooleanValue(SECTION_VIDEO_THINNING, FIELD_THINNING_ENABLE, true);
+
+        this.thinningRecoveryHoldMs = getIntValue(SECTION_VIDEO_THINNING, FIELD_THINNING_RECOVERY_HOLD_MS, 3000);
+        if (this.thinningRecoveryHoldMs < 0) {
+            logger.error("Fail to load [{}-{}]. ({})", SECTION_VIDEO_THINNING, FIELD_THINNING_RECOVERY_HOLD_MS, thinningRecoveryHoldMs);
+            System.exit(1);
+        }
+
+        this.thinningRttThresholdMs = getIntValue(SECTION_VIDEO_THINNING, FIELD_THINNING_RTT_THRESHOLD_MS, 400);
+        if (this.thinningRttThresholdMs <= 0) {
+            logger.error("Fail to load [{}-{}]. ({})", SECTION_VIDEO_THINNING, FIELD_THINNING_RTT_THRESHOLD_MS, thinningRttThresholdMs);
+            System.exit(1);
+        }
+
+        logger.debug("Load [{}] config...(OK)", SECTION_VIDEO_THINNING);
+    }
+
+    private void loadRtpFecConfig() {
+        // Optional section : 정의되지 않으면 사용하지 않음
+        this.fecEnabled = getBooleanValue(SECTION_RTP_FEC, FIELD_FEC_ENABLE, false);
+
+        this.fecPayloadType = getIntValue(SECTION_RTP_FEC, FIELD_FEC_PAYLOAD_TYPE, 98);
+        if (this.fecPayloadType < 96 || this.fecPayloadType > 127) {
+            logger.error("Fail to load [{}-{}]. Dynamic payload type is required. ({})", SECTION_RTP_FEC, FIELD_FEC_PAYLOAD_TYPE, fecPayloadType);
+            System.exit(1);
+        }
+
+        String mode = getStrValue(SECTION_RTP_FEC, FIELD_FEC_MODE, FlexFecEncoder.Mode.ROW.name());
+        try {
+            this.fecMode = FlexFecEncoder.Mode.valueOf(mode.trim().toUpperCase());
+        } catch (Exception e) {
+            logger.error("Fail to load [{}-{}]. ({})", SECTION_RTP_FEC, FIELD_FEC_MODE, mode);
+            System.exit(1);
+        }
+
+        this.fecColumns = getIntValue(SECTION_RTP_FEC, FIELD_FEC_COLUMNS, 10);
+        this.fecRows = getIntValue(SECTION_RTP_FEC, FIELD_FEC_ROWS, 4);
+        this.fecMinGroupSize = getIntValue(SECTION_RTP_FEC, FIELD_FEC_MIN_GROUP_SIZE, 4);
+        this.fecMaxGroupSize = getIntValue(SECTION_RTP_FEC, FIELD_FEC_MAX_GROUP_SIZE, 20);
+        if (fecColumns <= 0 || fecColumns > 255 || fecRows <= 0 || fecRows > 255
+                || fecMinGroupSize <= 0 || fecMinGroupSize > fecMaxGroupSize || fecMaxGroupSize > 255) {
+            logger.error("Fail to load [{}]. Group size is wrong. (columns={}, rows={}, min={}, max={})",
+                    SECTION_RTP_FEC, fecColumns, fecRows, fecMinGroupSize, fecMaxGroupSize
+            );
+            System.exit(1);
+        }
+
+        this.fecRepairWindowMs = getIntValue(SECTION_RTP_FEC, FIELD_FEC_REPAIR_WINDOW_MS, 1000);
+        if (this.fecRepairWindowMs <= 0) {
+            logger.error("Fail to load [{}-{}]. ({})", SECTION_RTP_FEC, FIELD_FEC_REPAIR_WINDOW_MS, fecRepairWindowMs);
+            System.exit(1);
+        }
+
+        logger.debug("Load [{}] config...(OK)", SECTION_RTP_FEC);
+    }
+
+    private void loadGopCacheConfig() {
+        // Optional section : 정의되지 않으면 기본값 사용
+        this.gopCacheEnabled = getBooleanValue(SECTION_GOP_CACHE, FIELD_GOP_CACHE_ENABLE, true);
+
+        this.gopCacheMaxPackets = getIntValue(SECTION_GOP_CACHE, FIELD_GOP_CACHE_MAX_PACKETS, 4096);
+        if (this.gopCacheMaxPackets <= 0) {
+            logger.error("Fail to load [{}-{}]. ({})", SECTION_GOP_CACHE, FIELD_GOP_CACHE_MAX_PACKETS, gopCacheMaxPackets);
+            System.exit(1);
+        }
+
+        this.gopBurstFrameIntervalMs = getIntValue(SECTION_GOP_CACHE, FIELD_GOP_BURST_FRAME_INTERVAL_MS, 10);
+        if (this.gopBurstFrameIntervalMs < 0) {
+            logger.error("Fail to load [{}-{}]. ({})", SECTION_GOP_CACHE, FIELD_GOP_BURST_FRAME_INTERVAL_MS, gopBurstFrameIntervalMs);
+            System.exit(1);
+        }
+
+        logger.debug("Load [{}] config...(OK)", SECTION_GOP_CACHE);
+    }
+
+    private void loadRtpPacketizationConfig() {
+        // Optional section : 0 이면 나누지 않음
+        this.udpMaxPacketSize = getIntValue(SECTION_RTP_PACKETIZATION, FIELD_UDP_MAX_PACKET_SIZE, 1400);
+        this.tcpMaxPacketSize = getIntValue(SECTION_RTP_PACKETIZATION, FIELD_TCP_MAX_PACKET_SIZE, 0);
+        if ((udpMaxPacketSize != 0 && (udpMaxPacketSize < MIN_MAX_PACKET_SIZE || udpMaxPacketSize > 65535))
+                || (tcpMaxPacketSize != 0 && (tcpMaxPacketSize < MIN_MAX_PACKET_SIZE || tcpMaxPacketSize > 65535))) {
+            logger.error("Fail to load [{}]. Max packet size is wrong. (udp={}, tcp={})",
+                    SECTION_RTP_PACKETIZATION, udpMaxPacketSize, tcpMaxPacketSize
+            );
+            System.exit(1);
+        }
+
+        logger.debug("Load [{}] config...(OK)", SECTION_RTP_PACKETIZATION);
+    }
+
+    private void loadSessionConfig() {
+        // Optional section : 정의되지 않으면 기본값 사용
+        this.maxCallCount = getIntValue(SECTION_SESSION, FIELD_MAX_CALL_COUNT, 100000);
+        if (this.maxCallCount <= 0) {
+            logger.error("Fail to load [{}-{}]. ({})", SECTION_SESSION, FIELD_MAX_CALL_COUNT, maxCallCount);
+            System.exit(1);
+        }
+
+        this.maxCallCountPerConference = getIntValue(SECTION_SESSION, FIELD_MAX_CALL_COUNT_PER_CONFERENCE, 1000);
+        if (this.maxCallCountPerConference <= 0) {
+            logger.error("Fail to load [{}-{}]. ({})", SECTION_SESSION, FIELD_MAX_CALL_COUNT_PER_CONFERENCE, maxCallCountPerConference);
+            System.exit(1);
+        }
+
+        this.sessionTimeoutSec = getIntValue(SECTION_SESSION, FIELD_SESSION_TIMEOUT_SEC, 60);
+        if (this.sessionTimeoutSec < 0) {
+            logger.error("Fail to load [{}-{}]. ({})", SECTION_SESSION, FIELD_SESSION_TIMEOUT_SEC, sessionTimeoutSec);
+            System.exit(1);
+        }
+
+        logger.debug("Load [{}] config...(OK)", SECTION_SESSION);
+    }
+
+    private void loadMetricsConfig() {
+        // Optional section : 정의되지 않으면 HTTP 는 끄고 JMX 만 사용
+        this.metricsHttpIp = getStrValue(SECTION_METRICS, FIELD_METRICS_HTTP_IP, "127.0.0.1");
+
+        this.metricsHttpPort = getIntValue(SECTION_METRICS, FIELD_METRICS_HTTP_PORT, 0);
+        if (this.metricsHttpPort < 0 || this.metricsHttpPort > 65535) {
+            logger.error("Fail to load [{}-{}]. ({})", SECTION_METRICS, FIELD_METRICS_HTTP_PORT, metricsHttpPort);
+            System.exit(1);
+        }
+
+        this.metricsJmxEnabled = getBooleanValue(SECTION_METRICS, FIELD_METRICS_JMX_ENABLE, true);
+
+        // 평균 N 개 중 하나의 패킷만 Ingest ~ 전송 완료 지연 시간을 잰다. (0 : 끔)
+        this.metricsLatencySampleRate = getIntValue(SECTION_METRICS, FIELD_METRICS_LATENCY_SAMPLE_RATE, 0);
+        if (this.metricsLatencySampleRate < 0) {
+            logger.error("Fail to load [{}-{}]. ({})", SECTION_METRICS, FIELD_METRICS_LATENCY_SAMPLE_RATE, metricsLatencySampleRate);
+            System.exit(1);
+        }
+
+        logger.debug("Load [{}] config...(OK)", SECTION_METRICS);
+    }
+
+    private void loadHealthConfig() {
+        // Optional section : 정의되지 않으면 새 SETUP 을 거절하지 않음
+        this.loadSheddingEnabled = getBooleanValue(SECTION_HEALTH, FIELD_LOAD_SHEDDING_ENABLE, false);
+
+        this.maxEventLoopLagMs = getIntValue(SECTION_HEALTH, FIELD_MAX_EVENT_LOOP_LAG_MS, 0);
+        if (this.maxEventLoopLagMs < 0) {
+            logger.error("Fail to load [{}-{}]. ({})", SECTION_HEALTH, FIELD_MAX_EVENT_LOOP_LAG_MS, maxEventLoopLagMs);
+            System.exit(1);
+        }
+
+        this.maxPendingTasks = getIntValue(SECTION_HEALTH, FIELD_MAX_PENDING_TASKS, 0);
+        if (this.maxPendingTasks < 0) {
+            logger.error("Fail to load [{}-{}]. ({})", SECTION_HEALTH, FIELD_MAX_PENDING_TASKS, maxPendingTasks);
+            System.exit(1);
+        }
+
+        this.maxChannelOutboundKb = getIntValue(SECTION_HEALTH, FIELD_MAX_CHANNEL_OUTBOUND_KB, 0);
+        if (this.maxChannelOutboundKb < 0) {
+            logger.error("Fail to load [{}-{}]. ({})", SECTION_HEALTH, FIELD_MAX_CHANNEL_OUTBOUND_KB, maxChannelOutboundKb);
+            System.exit(1);
+        }
+
+        this.maxPooledMemoryMb = getIntValue(SECTION_HEALTH, FIELD_MAX_POOLED_MEMORY_MB, 0);
+        if (this.maxPooledMemoryMb < 0) {
+            logger.error("Fail to load [{}-{}]. ({})", SECTION_HEALTH, FIELD_MAX_POOLED_MEMORY_MB, maxPooledMemoryMb);
+            System.exit(1);
+        }
+
+        logger.debug("Load [{}] config...(OK)", SECTION_HEALTH);
+    }
+
+    private boolean hasVideoFmtpAttribute() {
+        for (String attribute : videoAttributeList) {
+            if (attribute != null && attribute.startsWith("fmtp:")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public boolean isH264Video() {
+        return videoRtpMap != null && videoRtpMap.toUpperCase().contains("H264");
+    }
+
     public Sdp loadLocalSdpConfig(String id, int localPort, int audioPayloadType, int videoPayloadType) {
+        return loadLocalSdpConfig(id, localPort, audioPayloadType, videoPayloadType, null);
+    }
+
+    /**
+     * @fn public Sdp loadLocalSdpConfig(String id, int localPort, int audioPayloadType, int videoPayloadType, String videoFmtp)
+     * @brief 설정 파일의 SDP 에 Call 정보 (payload type, fmtp) 를 반영해서 로컬 SDP 를 만드는 함수
+     * @param videoFmtp 비디오 fmtp 속성 ("fmtp:..." 형식), 없으면 null
+     */
+    public Sdp loadLocalSdpConfig(String id, int localPort, int audioPayloadType, int videoPayloadType, String videoFmtp) {
         try {
             StringBuilder sdpStr = new StringBuilder();
 
@@ -265,6 +650,12 @@ public class UserConfig extends DefaultConfig {
                 } else {
                     sdpStr.append(String.format(this.video, localPort, 96)); // Default dynamic type : 96
                 }
+                if (rtxEnabled) {
+                    sdpStr.append(" ").append(rtxPayloadType);
+                }
+                if (fecEnabled) {
+                    sdpStr.append(" ").append(fecPayloadType);
+                }
                 sdpStr.append("\r\n");
             }
 
@@ -274,6 +665,35 @@ public class UserConfig extends DefaultConfig {
                 sdpStr.append("\r\n");
             }
 
+            // RFC 6184 : 디코더가 첫 RTP 패킷 전에 SPS/PPS 를 알 수 있도록 한다. (설정 파일에 fmtp 가 있으면 그것을 사용)
+            if (video != null && !video.isEmpty() && videoFmtp != null && !hasVideoFmtpAttribute()) {
+                sdpStr.append("a=");
+                sdpStr.append(videoFmtp);
+                sdpStr.append("\r\n");
+            }
+
+            // RFC 4585 (Generic NACK, PLI) / RFC 5104 (FIR) / RFC 4588 (RTX)
+            if (video != null && !video.isEmpty()) {
+                int videoFeedbackPayloadType = (videoPayloadType != 0) ? videoPayloadType : 96;
+                if (retransmissionEnabled) {
+                    sdpStr.append("a=rtcp-fb:").append(videoFeedbackPayloadType).append(" nack\r\n");
+                }
+                sdpStr.append("a=rtcp-fb:").append(videoFeedbackPayloadType).append(" nack pli\r\n");
+                sdpStr.append("a=rtcp-fb:").append(videoFeedbackPayloadType).append(" ccm fir\r\n");
+                if (tmmbrEnabled) {
+                    sdpStr.append("a=rtcp-fb:").append(videoFeedbackPayloadType).append(" ccm tmmbr\r\n");
+                }
+                // RFC 8627 (FlexFEC), repair-window 는 us 단위
+                if (fecEnabled) {
+                    sdpStr.append("a=rtpmap:").append(fecPayloadType).append(" flexfec/90000\r\n");
+                    sdpStr.append("a=fmtp:").append(fecPayloadType).append(" repair-window=").append(fecRepairWindowMs * 1000L).append("\r\n");
+                }
+                if (retransmissionEnabled && rtxEnabled) {
+                    sdpStr.append("a=rtpmap:").append(rtxPayloadType).append(" rtx/90000\r\n");
+                    sdpStr.append("a=fmtp:").append(rtxPayloadType).append(" apt=").append(videoFeedbackPayloadType).append("\r\n");
+                }
+            }
+
             for (String attribute : videoAttributeList) {
                 sdpStr.append("a=");
                 sdpStr.append(attribute);
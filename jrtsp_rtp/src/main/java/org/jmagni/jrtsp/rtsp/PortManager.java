@@ -3,27 +3,41 @@ package org.jmagni.jrtsp.rtsp;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.concurrent.ConcurrentLinkedQueue;
+import java.net.DatagramSocket;
+import java.net.InetSocketAddress;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
 
 /**
  * @class public class PortManager
- * @brief PortManager class
+ * @brief RTP/RTCP 포트 쌍을 관리하는 클래스
+ *
+ * - 포트 범위 (LOCAL_RTCP_PORT_MIN ~ MAX) 를 (짝수 RTP, 홀수 RTCP) 쌍으로 나누고, 쌍 하나를 비트 하나로 관리한다. (1 = 사용 중)
+ * - takePort() 는 RTP 포트 (짝수) 를 반환한다. RTCP 포트는 항상 RTP 포트 + 1 이다.
+ * - 할당 / 반환은 비트 하나를 CAS 로 바꾸는 것이므로 잠그지 않고 O(1) 이다. (64 쌍 단위 word 에서 빈 비트를 바로 찾음)
+ * - 비트맵을 코어 수만큼 구간 (stripe) 으로 나누고, 스레드마다 자기 구간부터 찾는다. (SETUP 이 몰려도 같은 word 를 두고 경쟁하지 않음)
+ *   > 구간마다 마지막으로 할당한 word 부터 찾는다. (앞쪽의 꽉 찬 word 를 매번 다시 훑지 않음)
+ * - PORT_BIND_PROBE 가 켜져 있으면 내주기 전에 두 포트를 bind 해서 OS 에서 쓰고 있지 않은지 확인한다.
  */
 public class PortManager {
 
     private static final Logger logger = LoggerFactory.getLogger(PortManager.class);
 
+    private static final int BITS_PER_WORD = 64;
+    private static final int MAX_PROBE_RETRY = 8;
+
     private static PortManager portManager = null;
-    private final ConcurrentLinkedQueue<Integer> channelQueues;
+
+    private volatile PortBitmap portBitmap = null;
+    private volatile boolean isBindProbe = false;
 
     private int localPortMin = 0;
     private int localPortMax = 0;
-    private final int portGap = 2;
 
     ////////////////////////////////////////////////////////////////////////////////
 
     public PortManager( ) {
-        channelQueues = new ConcurrentLinkedQueue<>();
+        // Nothing
     }
 
     public static PortManager getInstance ( ) {
@@ -37,66 +51,227 @@ public class PortManager {
     ////////////////////////////////////////////////////////////////////////////////
 
     public void initResource(int localPortMin, int localPortMax) {
+        initResource(localPortMin, localPortMax, false);
+    }
+
+    /**
+     * @fn public void initResource(int localPortMin, int localPortMax, boolean isBindProbe)
+     * @brief 포트 범위를 (짝수 RTP, 홀수 RTCP) 쌍으로 나누어 준비하는 함수
+     * @param localPortMin 포트 범위 시작 (홀수면 다음 짝수부터)
+     * @param localPortMax 포트 범위 끝 (RTCP 포트까지 포함)
+     * @param isBindProbe 내주기 전에 bind 로 사용 여부를 확인할지 여부
+     */
+    public void initResource(int localPortMin, int localPortMax, boolean isBindProbe) {
         this.localPortMin = localPortMin;
         this.localPortMax = localPortMax;
+        this.isBindProbe = isBindProbe;
 
-        for (int idx = localPortMin; idx <= localPortMax; idx += portGap) {
-            try {
-                channelQueues.add(idx);
-            } catch (Exception e) {
-                logger.error("Exception to RTP port resource in Queue", e);
-                return;
-            }
-        }
+        int firstRtpPort = localPortMin + (localPortMin & 1);
+        int pairCount = Math.max(0, (localPortMax - firstRtpPort + 1) / 2);
+        portBitmap = new PortBitmap(firstRtpPort, pairCount, Runtime.getRuntime().availableProcessors());
 
-        logger.info("Ready to RTP port resource in Queue. (port range: {} - {}, gap={})",
-                localPortMin, localPortMax, portGap
+        logger.info("Ready to RTP port resource. (port range: {} - {}, pairs={}, stripes={}, bindProbe={})",
+                localPortMin, localPortMax, pairCount, portBitmap.stripeCount, isBindProbe
         );
     }
 
     public void releaseResource () {
-        channelQueues.clear();
-        logger.info("Release RTP port resource in Queue. (port range: {} - {}, gap={})",
-                localPortMin, localPortMax, portGap
+        portBitmap = null;
+        logger.info("Release RTP port resource. (port range: {} - {})",
+                localPortMin, localPortMax
         );
     }
 
+    /**
+     * @fn public int takePort()
+     * @brief 비어 있는 RTP/RTCP 포트 쌍을 예약하는 함수
+     * @return RTP 포트 (짝수, RTCP 는 + 1), 남은 쌍이 없으면 -1
+     */
     public int takePort () {
-        if (channelQueues.isEmpty()) {
-            logger.warn("RTP port resource in Queue is empty.");
+        PortBitmap curPortBitmap = portBitmap;
+        if (curPortBitmap == null) {
+            logger.warn("RTP port resource is not ready.");
             return -1;
         }
 
-        int port = -1;
+        int[] skippedPairs = null;
+        int skippedCount = 0;
         try {
-            Integer value = channelQueues.poll();
-            if (value != null) {
-                port = value;
+            for (int retry = 0; retry <= MAX_PROBE_RETRY; retry++) {
+                int pair = curPortBitmap.take();
+                if (pair < 0) {
+                    logger.warn("RTP port resource is empty.");
+                    return -1;
+                }
+
+                int port = curPortBitmap.toPort(pair);
+                if (!isBindProbe || isBindable(port)) {
+                    logger.debug("Success to get RTP port(={}) resource.", port);
+                    return port;
+                }
+
+                // OS 에서 사용 중인 포트는 이번 할당이 끝날 때까지 잡아 두고 다음 쌍을 찾는다.
+                if (skippedPairs == null) {
+                    skippedPairs = new int[MAX_PROBE_RETRY + 1];
+                }
+                skippedPairs[skippedCount++] = pair;
+                logger.debug("RTP port(={}) is already bound by another process. Skip it.", port);
             }
-        } catch (Exception e) {
-            logger.warn("Exception to get RTP port resource in Queue.", e);
-        }
 
-        logger.debug("Success to get RTP port(={}) resource in Queue.", port);
-        return port;
+            logger.warn("Fail to get RTP port resource. All probed ports are already bound. (retry={})", MAX_PROBE_RETRY);
+            return -1;
+        } finally {
+            for (int i = 0; i < skippedCount; i++) {
+                curPortBitmap.release(skippedPairs[i]);
+            }
+        }
     }
 
+    /**
+     * @fn public void restorePort(int port)
+     * @brief takePort() 로 예약한 포트 쌍을 반환하는 함수 (RTP 또는 RTCP 포트 어느 쪽으로도 반환 가능)
+     */
     public void restorePort (int port) {
-        if (!channelQueues.contains(port)) {
-            try {
-                channelQueues.offer(port);
-            } catch (Exception e) {
-                logger.warn("Exception to restore RTP port(={}) resource in Queue.", port, e);
-            }
+        PortBitmap curPortBitmap = portBitmap;
+        if (curPortBitmap == null || port <= 0) { return; }
+
+        int pair = curPortBitmap.toPair(port);
+        if (pair < 0) {
+            logger.warn("Fail to restore RTP port(={}). Out of range.", port);
+            return;
+        }
+
+        if (!curPortBitmap.release(pair)) {
+            logger.warn("RTP port(={}) is already restored.", port);
         }
     }
 
+    /**
+     * @fn public void removePort(int port)
+     * @brief 포트 쌍을 할당 대상에서 빼는 함수 (사용 중으로 표시, restorePort 로 되돌릴 수 있음)
+     */
     public void removePort (int port) {
-        try {
-            channelQueues.remove(port);
+        PortBitmap curPortBitmap = portBitmap;
+        if (curPortBitmap == null) { return; }
+
+        int pair = curPortBitmap.toPair(port);
+        if (pair >= 0) {
+            curPortBitmap.mark(pair);
+        }
+    }
+
+    public int getFreePairCount() {
+        PortBitmap curPortBitmap = portBitmap;
+        return curPortBitmap == null ? 0 : curPortBitmap.getFreeCount();
+    }
+
+    public int getTotalPairCount() {
+        PortBitmap curPortBitmap = portBitmap;
+        return curPortBitmap == null ? 0 : curPortBitmap.pairCount;
+    }
+
+    private static boolean isBindable(int rtpPort) {
+        try (DatagramSocket rtpSocket = new DatagramSocket(new InetSocketAddress(rtpPort));
+             DatagramSocket rtcpSocket = new DatagramSocket(new InetSocketAddress(rtpPort + 1))) {
+            return rtpSocket.isBound() && rtcpSocket.isBound();
         } catch (Exception e) {
-            logger.warn("Exception to remove to RTP port(={}) resource in Queue.", port, e);
+            return false;
+        }
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * @class private static class PortBitmap
+     * @brief 포트 쌍 사용 여부 비트맵 (구간별 검색 시작 위치 포함)
+     */
+    private static class PortBitmap {
+
+        private final int firstRtpPort;
+        private final int pairCount;
+        private final AtomicLongArray words;
+        private final int stripeCount;
+        private final AtomicIntegerArray stripeCursors; // 구간마다 다음에 찾기 시작할 word
+
+        private PortBitmap(int firstRtpPort, int pairCount, int stripeCount) {
+            this.firstRtpPort = firstRtpPort;
+            this.pairCount = pairCount;
+
+            int wordCount = Math.max(1, (pairCount + BITS_PER_WORD - 1) / BITS_PER_WORD);
+            this.words = new AtomicLongArray(wordCount);
+            // 범위 밖 비트는 처음부터 사용 중으로 표시
+            int tailBits = pairCount % BITS_PER_WORD;
+            if (pairCount == 0) {
+                words.set(0, -1L);
+            } else if (tailBits != 0) {
+                words.set(wordCount - 1, -1L << tailBits);
+            }
+
+            this.stripeCount = Math.max(1, Math.min(stripeCount, wordCount));
+            int wordsPerStripe = (wordCount + this.stripeCount - 1) / this.stripeCount;
+            this.stripeCursors = new AtomicIntegerArray(this.stripeCount);
+            for (int i = 0; i < this.stripeCount; i++) {
+                stripeCursors.set(i, Math.min(i * wordsPerStripe, wordCount - 1));
+            }
+        }
+
+        private int take() {
+            int wordCount = words.length();
+            int stripe = (int) (Thread.currentThread().getId() % stripeCount);
+            int startWord = stripeCursors.get(stripe);
+
+            // 자기 구간의 마지막 위치부터 전체를 한 바퀴 돈다. (비어 있는 word 는 바로 찾음)
+            for (int i = 0; i < wordCount; i++) {
+                int wordIndex = (startWord + i) % wordCount;
+                long word;
+                while ((word = words.get(wordIndex)) != -1L) {
+                    int bit = Long.numberOfTrailingZeros(~word);
+                    if (words.compareAndSet(wordIndex, word, word | (1L << bit))) {
+                        stripeCursors.set(stripe, wordIndex);
+                        return wordIndex * BITS_PER_WORD + bit;
+                    }
+                }
+            }
+            return -1;
         }
+
+        private boolean release(int pair) {
+            int wordIndex = pair / BITS_PER_WORD;
+            long mask = 1L << (pair % BITS_PER_WORD);
+            while (true) {
+                long word = words.get(wordIndex);
+                if ((word & mask) == 0) { return false; }
+                if (words.compareAndSet(wordIndex, word, word & ~mask)) { return true; }
+            }
+        }
+
+        private void mark(int pair) {
+            int wordIndex = pair / BITS_PER_WORD;
+            long mask = 1L << (pair % BITS_PER_WORD);
+            while (true) {
+                long word = words.get(wordIndex);
+                if ((word & mask) != 0 || words.compareAndSet(wordIndex, word, word | mask)) { return; }
+            }
+        }
+
+        private int toPort(int pair) {
+            return firstRtpPort + pair * 2;
+        }
+
+        private int toPair(int port) {
+            int pair = (port - firstRtpPort) >> 1;
+            if (port < firstRtpPort || pair >= pairCount) { return -1; }
+            return pair;
+        }
+
+        private int getFreeCount() {
+            int usedCount = 0;
+            for (int i = 0; i < words.length(); i++) {
+                usedCount += Long.bitCount(words.get(i));
+            }
+            return words.length() * BITS_PER_WORD - usedCount;
+        }
+
     }
 
 }
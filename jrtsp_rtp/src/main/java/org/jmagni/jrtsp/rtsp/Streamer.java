@@ -8,11 +8,25 @@ import io.netty.channel.ChannelHandlerContext;
 import io.netty.handler.codec.http.DefaultFullHttpResponse;
 import io.netty.handler.codec.rtsp.RtspHeaderNames;
 import io.netty.handler.codec.rtsp.RtspHeaderValues;
+import io.netty.util.Timeout;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.net.ntp.TimeStamp;
 import org.jmagni.jrtsp.rtsp.base.MediaType;
+import org.jmagni.jrtsp.config.UserConfig;
 import org.jmagni.jrtsp.rtsp.base.RtpPacket;
+import org.jmagni.jrtsp.rtsp.codec.h264.H264RtpInspector;
+import org.jmagni.jrtsp.rtsp.codec.h264.H264RtpPacketizer;
 import org.jmagni.jrtsp.rtsp.netty.NettyChannelManager;
+import org.jmagni.jrtsp.rtsp.netty.module.RtspNettyChannel;
+import org.jmagni.jrtsp.rtsp.rtcp.base.RtcpType;
+import org.jmagni.jrtsp.rtsp.rtcp.module.SsrcGenerator;
+import org.jmagni.jrtsp.rtsp.rtcp.type.extended.feedback.base.RtcpFeedbackMessageHeader;
+import org.jmagni.jrtsp.rtsp.rtcp.type.extended.feedback.transportlayer.RtcpNegativeAck;
+import org.jmagni.jrtsp.rtsp.rtcp.type.extended.feedback.transportlayer.RtcpTemporaryMaximumMediaStreamBitRateNotification;
+import org.jmagni.jrtsp.rtsp.rtcp.type.extended.feedback.transportlayer.RtcpTemporaryMaximumMediaStreamBitRateRequest;
+import org.jmagni.jrtsp.rtsp.rtcp.type.extended.feedback.transportlayer.base.RtcpNackBlock;
+import org.jmagni.jrtsp.rtsp.rtcp.type.extended.feedback.transportlayer.base.RtcpTmmbrEntry;
+import org.jmagni.jrtsp.rtsp.rtcp.type.extended.feedback.transportlayer.base.RtcpTransportLayerFeedbackType;
 import org.jmagni.jrtsp.rtsp.rtcp.type.regular.RtcpSenderReport;
 import org.jmagni.jrtsp.rtsp.rtcp.type.regular.base.report.RtcpReportBlock;
 import org.jmagni.jrtsp.rtsp.statistics.RtpStatistics;
@@ -24,14 +38,33 @@ import org.jmagni.jrtsp.rtsp.stream.rtp.AudioRtpMeta;
 import org.jmagni.jrtsp.rtsp.stream.rtp.RtcpInfo;
 import org.jmagni.jrtsp.rtsp.stream.rtp.RtpDto;
 import org.jmagni.jrtsp.rtsp.stream.rtp.VideoRtpMeta;
+import org.jmagni.jrtsp.rtsp.stream.rtp.fec.FlexFecEncoder;
+import org.jmagni.jrtsp.rtsp.stream.rtp.forwarding.RtpSequenceRewriter;
+import org.jmagni.jrtsp.rtsp.stream.rtp.forwarding.VideoThinningPolicy;
+import org.jmagni.jrtsp.rtsp.stream.rtp.gop.GopBurst;
+import org.jmagni.jrtsp.rtsp.stream.rtp.gop.GopCache;
+import org.jmagni.jrtsp.rtsp.stream.rtp.gop.GopPacket;
+import org.jmagni.jrtsp.rtsp.stream.rtp.pacing.BitrateLimiter;
+import org.jmagni.jrtsp.rtsp.stream.rtp.retransmission.RtpRetransmissionCache;
+import org.jmagni.jrtsp.rtsp.stream.rtp.retransmission.RtxPacketEncoder;
+import org.jmagni.jrtsp.service.AppInstance;
+import org.jmagni.jrtsp.service.metrics.PacketLatencyMetrics;
+import org.jmagni.jrtsp.service.metrics.ServerMetrics;
+import org.jmagni.jrtsp.session.CallInfo;
+import org.jmagni.jrtsp.session.SessionManager;
 
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
 import java.util.Queue;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.ReentrantLock;
 
 import static org.jmagni.jrtsp.rtsp.stream.StreamInfo.TCP_RTP_MAGIC_NUMBER;
@@ -41,12 +74,16 @@ import static org.jmagni.jrtsp.rtsp.stream.rtp.base.RtpMeta.*;
 @Slf4j
 public class Streamer {
 
-    private static final int RTP_BURST_BUFFER_COUNT = 50;
+    private static final int VIDEO_CLOCK_RATE = 90000; // Hz
 
-    private boolean isRtpBurstDone = false;
-    private Queue<RtpDto> rtpBurstBuffer;
+    // 새 시청자는 Call 의 GOP 캐시를 먼저 받고 (IDR 부터 바로 복호화 가능) Live 로 넘어간다.
+    // PAUSE 후 PLAY 하면 다시 준비한다. (RTSP 스레드에서 바꾸고 Call 의 EventLoop 에서 읽음)
+    private volatile boolean isGopBurstPrepared = false;
+    private volatile GopBurst gopBurst = null;
+    private Queue<RtpDto> pendingLiveQueue = null; // GOP 를 보내는 동안 들어온 Live 비디오 패킷
 
     private final StreamInfo streamInfo;
+    private final String key; // callId:trackId:sessionId (로그, 레지스트리 조회마다 만들지 않음)
 
     private final LocalNetworkInfo localNetworkInfo;
 
@@ -58,13 +95,51 @@ public class Streamer {
     private final RtcpInfo rtcpInfo = new RtcpInfo();
 
     private final AtomicBoolean isStarted = new AtomicBoolean(false);
+    private final AtomicBoolean isPortRestored = new AtomicBoolean(false);
 
-    private final RtpStatistics rtpStatistics = new RtpStatistics();
+    // TCP (interleaved) 전송 채널, SETUP 의 Transport 에 없으면 RTP 는 Track ID 를 그대로 쓰고 RTCP 는 없음 (-1)
+    private volatile int interleavedRtpChannel;
+    private volatile int interleavedRtcpChannel;
+
+    // PAUSE 중에는 RtpInfoSender 가 이 Streamer 를 바로 건너뛴다. (소켓, RTCP, 세션 상태는 그대로 유지)
+    private volatile boolean isPaused = false;
+
+    // RTSP 세션 만료 (SessionTimeoutManager)
+    private volatile long lastActiveTime = System.currentTimeMillis();
+    private volatile Timeout sessionTimeout = null;
+
+    private final RtpStatistics rtpStatistics;
+
+    // NACK 재전송 중복 방지 (같은 시퀀스 번호는 RTT 안에 한 번만 재전송)
+    private static final int NACK_HISTORY_SIZE = 1024; // power of 2
+    private final int[] nackResentSeqNums = new int[NACK_HISTORY_SIZE];
+    private final long[] nackResentTimes = new long[NACK_HISTORY_SIZE];
+
+    // RFC 4588 RTX 스트림 (시청자마다 독립된 SSRC / 시퀀스 번호)
+    private final long rtxSsrc = SsrcGenerator.generateSsrc();
+    private final AtomicInteger rtxSeqNum = new AtomicInteger(ThreadLocalRandom.current().nextInt(0x10000));
+
+    // TMMBR 로 요청된 최대 전송률 (프레임 단위로 버리고, 버린 뒤에는 다음 Keyframe 까지 건너뛴다)
+    private final BitrateLimiter bitrateLimiter = new BitrateLimiter();
+    private long limitedFrameTimestamp = -1;
+    private boolean isLimitedFrameDropped = false;
+    private boolean isWaitingKeyframeByLimit = false;
+
+    // 혼잡도에 따른 비디오 Thinning, 버린 패킷만큼 시퀀스 번호를 다시 매긴다.
+    private final VideoThinningPolicy videoThinningPolicy = new VideoThinningPolicy();
+    private final RtpSequenceRewriter videoSequenceRewriter = new RtpSequenceRewriter();
+
+    // RFC 8627 FlexFEC (UDP 비디오 시청자만 사용, 시퀀스 번호를 다시 매긴 뒤의 데이터를 보호한다)
+    private final FlexFecEncoder videoFecEncoder;
 
     public Streamer(MediaType mediaType, String callId, String sessionId, String trackId, boolean isTcp, String listenIp, int listenPort) {
         this.streamInfo = new StreamInfo(
                 mediaType, callId, sessionId, trackId
         );
+        this.key = RtspNettyChannel.getStreamerKey(callId, sessionId, trackId);
+        this.interleavedRtpChannel = getDefaultInterleavedChannel(trackId);
+        this.interleavedRtcpChannel = -1;
+        this.rtpStatistics = new RtpStatistics(key, callId);
         if (!isTcp) {
             UdpStream udpStream = new UdpStream();
             udpStream.start(getCallId());
@@ -77,6 +152,19 @@ public class Streamer {
         this.audioRtpMeta = new AudioRtpMeta();
         this.videoRtpMeta = new VideoRtpMeta();
 
+        Arrays.fill(nackResentSeqNums, -1);
+
+        UserConfig userConfig = AppInstance.getInstance().getConfigManager().getUserConfig();
+        if (!isTcp && mediaType == MediaType.VIDEO && userConfig.isFecEnabled()) {
+            this.videoFecEncoder = new FlexFecEncoder(
+                    userConfig.getFecMode(), userConfig.getFecPayloadType(),
+                    SsrcGenerator.generateSsrc(), ThreadLocalRandom.current().nextInt(0x10000),
+                    userConfig.getFecColumns(), userConfig.getFecRows()
+            );
+        } else {
+            this.videoFecEncoder = null;
+        }
+
         log.debug("({}) Streamer({}) is created. (callId={}, trackId={}, localNetworkInfo={})",
                 getKey(), mediaType.getName(), callId, trackId, localNetworkInfo
         );
@@ -123,11 +211,47 @@ public class Streamer {
         this.isStarted.set(isPaused);
     }
 
+    public boolean isPaused() {
+        return isPaused;
+    }
+
+    /**
+     * @fn public void pause()
+     * @brief 전송만 멈추는 함수 (PAUSE), 소켓과 RTCP 채널, 세션 타이머는 닫지 않는다.
+     * 보내던 GOP 버스트는 버린다. (다시 PLAY 하면 그 시점의 GOP 캐시로 새로 만든다)
+     */
+    public void pause() {
+        if (!isStarted.get() || isPaused) { return; }
+
+        isPaused = true;
+        releaseGopBurst();
+        log.debug("({}) Streamer is paused.", getKey());
+    }
+
+    /**
+     * @fn public void resume()
+     * @brief PAUSE 된 전송을 다시 시작하는 함수 (PLAY)
+     * PLAY 응답을 먼저 저장한 뒤 호출해야 한다. 다음 패킷에서 GOP 버스트 (없으면 Live) 기준 RTP-Info 로 응답하고 바로 보낸다.
+     */
+    public void resume() {
+        if (!isPaused) { return; }
+
+        isGopBurstPrepared = false;
+        isPaused = false;
+        log.debug("({}) Streamer is resumed.", getKey());
+    }
+
     public void close () {
         UdpStream udpStream = streamInfo.getUdpStream();
         if (udpStream != null) {
             udpStream.stop(targetNetworkInfo);
         }
+
+        // SETUP 에서 예약한 RTP/RTCP 포트 쌍 반환 (한 번만)
+        int localRtpPort = localNetworkInfo.getListenPort();
+        if (localRtpPort > 0 && isPortRestored.compareAndSet(false, true)) {
+            PortManager.getInstance().restorePort(localRtpPort);
+        }
         log.debug("({}) Streamer is finished.", getKey());
     }
 
@@ -141,15 +265,18 @@ public class Streamer {
     public void stop () {
         rtpStatistics.stop();
 
-        if (rtpBurstBuffer != null) {
-            rtpBurstBuffer.clear();
-            rtpBurstBuffer = null;
+        CallInfo callInfo = SessionManager.getInstance().findCall(getCallId());
+        if (callInfo != null) {
+            callInfo.removeBitrateLimit(getKey());
         }
 
+        releaseGopBurst();
+
         NettyChannelManager.getInstance().deleteRtcpChannel(getKey());
 
         close();
         isStarted.set(false);
+        isPaused = false;
         //log.debug("({}) Streamer is stopped. ({})", getKey(), this);
     }
 
@@ -177,6 +304,14 @@ public class Streamer {
         return videoRtpMeta.getSsrc();
     }
 
+    /**
+     * @fn public long getSsrc()
+     * @brief 이 Track 의 미디어 (오디오 또는 비디오) 원본 SSRC 를 반환하는 함수
+     */
+    public long getSsrc() {
+        return (streamInfo.getMediaType() == MediaType.AUDIO) ? getAudioSsrc() : getVideoSsrc();
+    }
+
     public void setVideoSsrc(long videoSsrc) {
         videoRtpMeta.setSsrc(videoSsrc);
     }
@@ -263,10 +398,60 @@ public class Streamer {
         streamInfo.setRtspChannelContext(rtspChannelContext);
     }
 
+    public boolean isRtspChannelActive() {
+        ChannelHandlerContext rtspChannelContext = streamInfo.getRtspChannelContext();
+        return rtspChannelContext != null && rtspChannelContext.channel().isActive();
+    }
+
+    /**
+     * @fn public void collectOutboundChannels(Collection<Channel> channels)
+     * @brief 이 시청자에게 쓰는 채널 (RTSP TCP, RTP/RTCP UDP) 을 모으는 함수 (출력 버퍼 측정용)
+     */
+    public void collectOutboundChannels(Collection<Channel> channels) {
+        ChannelHandlerContext rtspChannelContext = streamInfo.getRtspChannelContext();
+        if (rtspChannelContext != null) {
+            channels.add(rtspChannelContext.channel());
+        }
+        if (targetNetworkInfo.getRtpDestChannel() != null) {
+            channels.add(targetNetworkInfo.getRtpDestChannel());
+        }
+        if (targetNetworkInfo.getRtcpDestChannel() != null) {
+            channels.add(targetNetworkInfo.getRtcpDestChannel());
+        }
+    }
+
+    /**
+     * @fn public void touch()
+     * @brief 세션이 살아 있음을 기록하는 함수 (RTSP 요청, RTCP 수신 시 호출)
+     */
+    public void touch() {
+        lastActiveTime = System.currentTimeMillis();
+    }
+
+    public long getLastActiveTime() {
+        return lastActiveTime;
+    }
+
+    public Timeout getSessionTimeout() {
+        return sessionTimeout;
+    }
+
+    public void setSessionTimeout(Timeout sessionTimeout) {
+        this.sessionTimeout = sessionTimeout;
+    }
+
     public String getListenIp() {
         return localNetworkInfo.getListenIp();
     }
 
+    /**
+     * @fn public int getLocalRtpPort()
+     * @brief PortManager 에서 예약한 RTP 포트를 반환하는 함수 (RTCP 는 + 1, TCP 이거나 예약 실패면 0 이하)
+     */
+    public int getLocalRtpPort() {
+        return localNetworkInfo.getListenPort();
+    }
+
     public boolean isTcp() {
         return localNetworkInfo.isTcp();
     }
@@ -300,63 +485,284 @@ public class Streamer {
         }
     }
 
+    private void releaseGopBurst() {
+        GopBurst curGopBurst = gopBurst;
+        gopBurst = null;
+        if (curGopBurst != null) {
+            curGopBurst.release();
+        }
+        if (pendingLiveQueue != null) {
+            pendingLiveQueue.clear();
+        }
+    }
+
+    /**
+     * @fn private String makeRtpInfoData()
+     * @brief 같은 세션의 모든 Track 에 대한 RTP-Info 헤더 값을 만드는 함수
+     *
+     *    RTP-Info: url=rtsp://.../trackID=1;seq=100;rtptime=1000,url=rtsp://.../trackID=2;seq=200;rtptime=9000
+     *
+     * 같은 Call 의 Track 은 같은 EventLoop (CallAffinityManager) 에서 처리되므로 다른 Track 의 GOP 버스트도 여기서 준비한다.
+     */
     private String makeRtpInfoData() {
-        return RtspHeaderValues.URL + "=" + targetNetworkInfo.getUri() + "/" + TRACK_ID_TAG + "=" + AUDIO_TRACK_ID
-                + ";" + RtspHeaderValues.SEQ + "=" + getAudioCurSeqNum()
-                + ";" + RtspHeaderValues.RTPTIME + "=" + getAudioCurTimeStamp() + "," +
-                RtspHeaderValues.URL + "=" + targetNetworkInfo.getUri() + "/" + TRACK_ID_TAG + "=" + VIDEO_TRACK_ID
-                + ";" + RtspHeaderValues.SEQ + "=" + getVideoCurSeqNum()
-                + ";" + RtspHeaderValues.RTPTIME + "=" + getVideoCurTimeStamp();
+        List<Streamer> trackList = NettyChannelManager.getInstance().getStreamerListBySessionId(getSessionId());
+        if (trackList.isEmpty()) {
+            trackList = Collections.singletonList(this);
+        }
+
+        StringBuilder rtpInfo = new StringBuilder();
+        for (Streamer track : trackList) {
+            if (!track.getCallId().equals(getCallId())) { continue; }
+
+            if (rtpInfo.length() > 0) {
+                rtpInfo.append(',');
+            }
+            track.appendRtpInfo(rtpInfo);
+        }
+        return rtpInfo.toString();
     }
 
-    public void sendRtpPacket(RtpPacket rtpPacket, String mediaType) {
-        if (burstRtp(rtpPacket, mediaType)) { return; }
+    private void appendRtpInfo(StringBuilder rtpInfo) {
+        int seqNum;
+        long timestamp;
+        if (streamInfo.getMediaType() == MediaType.VIDEO) {
+            // 비디오 시퀀스 번호, Timestamp 는 GOP 의 첫 패킷 기준이어야 한다.
+            if (!isGopBurstPrepared) {
+                prepareGopBurst();
+            }
+
+            GopBurst curGopBurst = gopBurst;
+            int sourceSeqNum = (curGopBurst != null) ? curGopBurst.getFirstSeqNum() : getVideoCurSeqNum();
+            // 시청자가 받을 (다시 매긴) 시퀀스 번호 기준
+            seqNum = videoSequenceRewriter.toOutSeqNum(sourceSeqNum);
+            timestamp = (curGopBurst != null) ? curGopBurst.getFirstTimestamp() : getVideoCurTimeStamp();
+        } else {
+            seqNum = getAudioCurSeqNum();
+            timestamp = getAudioCurTimeStamp();
+        }
+
+        rtpInfo.append(RtspHeaderValues.URL).append('=').append(targetNetworkInfo.getUri())
+                .append('/').append(TRACK_ID_TAG).append('=').append(getTrackId())
+                .append(';').append(RtspHeaderValues.SEQ).append('=').append(seqNum)
+                .append(';').append(RtspHeaderValues.RTPTIME).append('=').append(timestamp);
+    }
+
+    public void sendRtpPacket(RtpPacket rtpPacket, MediaType mediaType) {
+        if (!isGopBurstPrepared) {
+            prepareGopBurst();
+        }
+
+        GopBurst curGopBurst = gopBurst;
+        if (curGopBurst != null && burstGop(curGopBurst, rtpPacket, mediaType)) { return; }
 
         send(rtpPacket, mediaType);
     }
 
-    private boolean burstRtp(RtpPacket rtpPacket, String mediaType) {
-        if (!isRtpBurstDone) {
-            if (rtpBurstBuffer == null) {
-                rtpBurstBuffer = new ConcurrentLinkedQueue<>();
+    /**
+     * @fn private void prepareGopBurst()
+     * @brief Call 의 GOP 캐시를 가져와서 이 시청자에게 보낼 준비를 하는 함수 (한 번만 호출됨)
+     */
+    private void prepareGopBurst() {
+        isGopBurstPrepared = true;
+        if (streamInfo.getMediaType() != MediaType.VIDEO) { return; }
+
+        UserConfig userConfig = AppInstance.getInstance().getConfigManager().getUserConfig();
+        if (!userConfig.isGopCacheEnabled()) { return; }
+
+        CallInfo callInfo = SessionManager.getInstance().findCall(getCallId());
+        if (callInfo == null) { return; }
+
+        GopCache gopCache = callInfo.getGopCache();
+        List<GopPacket> gopPacketList = gopCache.snapshot();
+        if (gopPacketList.isEmpty()) { return; }
+
+        pendingLiveQueue = new ConcurrentLinkedQueue<>();
+        gopBurst = new GopBurst(
+                gopPacketList, System.currentTimeMillis(),
+                userConfig.getGopBurstFrameIntervalMs(), VIDEO_CLOCK_RATE
+        );
+        log.debug("({}) GOP burst is prepared. (packets={}, firstSeq={}, firstTs={})",
+                getKey(), gopBurst.size(), gopBurst.getFirstSeqNum(), gopBurst.getFirstTimestamp()
+        );
+    }
+
+    /**
+     * @fn private boolean burstGop(GopBurst curGopBurst, RtpPacket rtpPacket, MediaType mediaType)
+     * @brief 보낼 시간이 된 GOP 패킷을 보내고, GOP 를 다 보낼 때까지 Live 비디오 패킷을 뒤에 쌓아 두는 함수
+     * Pacing 은 Live 패킷이 들어올 때마다 확인한다. (오디오 20ms, 비디오는 그보다 자주 들어온다)
+     * @return Live 패킷을 여기서 처리했으면 (쌓았거나 이미 GOP 에 있으면) true
+     */
+    private boolean burstGop(GopBurst curGopBurst, RtpPacket rtpPacket, MediaType mediaType) {
+        for (byte[] rtpData : curGopBurst.pollDue(System.currentTimeMillis())) {
+            transmit(rtpData, true);
+        }
+
+        boolean isVideo = mediaType == MediaType.VIDEO;
+        if (isVideo && curGopBurst.isCovered(rtpPacket.getSeqNumber())) {
+            return true; // GOP 를 만들 때 이미 들어간 패킷
+        }
+
+        if (!curGopBurst.isDone()) {
+            if (!isVideo) {
+                return false; // 오디오는 바로 Live 로 보낸다.
             }
 
-            rtpBurstBuffer.offer(new RtpDto(rtpPacket, mediaType));
-            if (rtpBurstBuffer.size() == RTP_BURST_BUFFER_COUNT) {
-                while (!rtpBurstBuffer.isEmpty()) {
-                    RtpDto rtpDto = rtpBurstBuffer.poll();
-                    if (rtpDto == null) { continue; }
-                    send(rtpDto.getRtpPacket(), rtpDto.getMediaType());
-                }
-                rtpBurstBuffer = null;
-                isRtpBurstDone = true;
-            } else {
+            UserConfig userConfig = AppInstance.getInstance().getConfigManager().getUserConfig();
+            if (pendingLiveQueue.size() < userConfig.getGopCacheMaxPackets()) {
+                pendingLiveQueue.offer(new RtpDto(rtpPacket, mediaType));
                 return true;
             }
+
+            // 너무 오래 기다림 > 남은 GOP 를 한 번에 보내고 Live 로 넘어간다.
+            for (byte[] rtpData : curGopBurst.pollAll()) {
+                transmit(rtpData, true);
+            }
+        }
+
+        gopBurst = null;
+        curGopBurst.release();
+        while (!pendingLiveQueue.isEmpty()) {
+            RtpDto rtpDto = pendingLiveQueue.poll();
+            if (rtpDto == null) { continue; }
+            send(rtpDto.getRtpPacket(), rtpDto.getMediaType());
         }
+        log.debug("({}) GOP burst is done. Switched to live.", getKey());
         return false;
     }
 
-    private void send(RtpPacket rtpPacket, String mediaType) {
+    private void send(RtpPacket rtpPacket, MediaType mediaType) {
+        // Track 마다 자기 미디어만 보낸다. (TCP 도 Track 별 Interleaved 채널로 따로 보냄)
+        if (streamInfo.getMediaType() == mediaType) {
+            boolean isVideo = mediaType == MediaType.VIDEO;
+            if (isVideo && !videoThinningPolicy.admit(rtpPacket.getBuffer(), rtpPacket.getLength(), rtpPacket.getTimestamp())) {
+                rtcpInfo.setThinningDropCount(rtcpInfo.getThinningDropCount() + 1);
+                ServerMetrics.getInstance().getThinningDrops().inc();
+                videoSequenceRewriter.drop();
+                return;
+            }
+            if (!admitByBitrateLimit(rtpPacket, mediaType)) {
+                ServerMetrics.getInstance().getBitrateLimitDrops().inc();
+                if (isVideo) {
+                    videoSequenceRewriter.drop();
+                }
+                return;
+            }
+
+            transmit(rtpPacket.getRawData(), isVideo, rtpPacket.getIngestNanos());
+        }
+        rtpStatistics.calculate(rtpPacket.getLength());
+    }
+
+    private void transmit(byte[] rtpData, boolean isVideo) {
+        transmit(rtpData, isVideo, 0);
+    }
+
+    /**
+     * @fn private void transmit(byte[] rtpData, boolean isVideo, long ingestNanos)
+     * @brief 패킷 하나를 시청자 전송 방식에 맞춰 보내는 함수
+     * @param ingestNanos 원본 패킷의 Ingest 수신 시각 (지연 시간 표본이 아니면 0, GOP 캐시 패킷도 0)
+     */
+    private void transmit(byte[] rtpData, boolean isVideo, long ingestNanos) {
+        if (isVideo) {
+            // 시청자 전송 방식 (UDP, Interleaved TCP) 에 맞춰 H.264 패킷을 다시 나눈다.
+            int maxPacketSize = getRefragmentSize(rtpData);
+            if (maxPacketSize > 0) {
+                List<byte[]> rtpDataList = H264RtpPacketizer.refragment(rtpData, maxPacketSize);
+                for (int i = 0; i < rtpDataList.size(); i++) {
+                    if (i > 0) {
+                        videoSequenceRewriter.insert();
+                    }
+                    sendRewritten(rtpDataList.get(i), true, ingestNanos, i);
+                }
+                return;
+            }
+        }
+        sendRewritten(rtpData, isVideo, ingestNanos, -1);
+    }
+
+    /**
+     * @fn private int getRefragmentSize(byte[] rtpData)
+     * @brief 비디오 패킷을 이 시청자에게 보낼 때 다시 나눠야 하면 최대 크기를 반환하는 함수
+     * @return RTP 패킷 최대 크기 (헤더 포함), 나눌 필요가 없으면 0
+     */
+    private int getRefragmentSize(byte[] rtpData) {
+        UserConfig userConfig = AppInstance.getInstance().getConfigManager().getUserConfig();
+        int maxPacketSize = isTcp() ? userConfig.getTcpMaxPacketSize() : userConfig.getUdpMaxPacketSize();
+        if (maxPacketSize > 0 && rtpData.length > maxPacketSize && userConfig.isH264Video()) {
+            return maxPacketSize;
+        }
+        return 0;
+    }
+
+    private void sendRewritten(byte[] rtpData, boolean isVideo, long ingestNanos, int pieceIndex) {
+        if (isVideo) {
+            videoSequenceRewriter.rewrite(rtpData, pieceIndex);
+        }
+
         if (isTcp()) {
-            sendRtpPacketWithTcp(rtpPacket);
+            sendRtpDataWithTcp(rtpData, ingestNanos);
         } else {
-            if (streamInfo.getMediaType().getName().equals(mediaType)) {
-                sendRtpPacketWithUdp(rtpPacket);
+            sendRtpDataWithUdp(rtpData, ingestNanos);
+            if (isVideo && videoFecEncoder != null) {
+                sendFecPackets(videoFecEncoder.protect(rtpData));
             }
         }
-        rtpStatistics.calculate(rtpPacket.getRawData().length);
+    }
+
+    private void sendFecPackets(List<byte[]> fecPacketList) {
+        if (fecPacketList == null) { return; }
+
+        for (byte[] fecPacket : fecPacketList) {
+            sendRtpDataWithUdp(fecPacket);
+        }
+        rtcpInfo.setFecSentCount(rtcpInfo.getFecSentCount() + fecPacketList.size());
+    }
+
+    /**
+     * @fn public void updateFecLossRate(float fractionLost)
+     * @brief RR 로 보고된 비디오 손실률에 맞춰 FEC 보호 그룹 크기 (오버헤드) 를 조정하는 함수
+     * @param fractionLost 손실률 (0 ~ 1)
+     */
+    public void updateFecLossRate(float fractionLost) {
+        if (videoFecEncoder == null) { return; }
+
+        UserConfig userConfig = AppInstance.getInstance().getConfigManager().getUserConfig();
+        int prevGroupSize = videoFecEncoder.getGroupSize();
+        int groupSize = FlexFecEncoder.getGroupSizeByLoss(
+                fractionLost, userConfig.getFecMinGroupSize(), userConfig.getFecMaxGroupSize()
+        );
+        if (prevGroupSize != groupSize) {
+            videoFecEncoder.setGroupSize(groupSize);
+            log.debug("({}) FEC group size is changed. ({} > {}, fractionLost={})", getKey(), prevGroupSize, groupSize, fractionLost);
+        }
     }
 
     public void sendRtpPacketWithTcp(RtpPacket rtpPacket) {
+        sendRtpDataWithTcp(rtpPacket.getRawData());
+    }
+
+    private void sendRtpDataWithTcp(byte[] rtpData) {
+        sendRtpDataWithTcp(rtpData, 0);
+    }
+
+    private void sendRtpDataWithTcp(byte[] rtpData, long ingestNanos) {
         ChannelHandlerContext rtspChannelContext = streamInfo.getRtspChannelContext();
-        if (rtspChannelContext == null) { return; }
+        if (rtspChannelContext == null) {
+            ServerMetrics.getInstance().getNoChannelDrops().inc();
+            return;
+        }
 
-        ByteBuf rtpBuf = Unpooled.copiedBuffer(makeTcpRtpData(rtpPacket));
-        rtspChannelContext.writeAndFlush(rtpBuf);
+        ByteBuf rtpBuf = Unpooled.wrappedBuffer(makeTcpRtpData(rtpData));
+        ChannelFuture channelFuture = rtspChannelContext.writeAndFlush(rtpBuf);
+        ServerMetrics serverMetrics = ServerMetrics.getInstance();
+        serverMetrics.getTcpEgressPackets().inc();
+        serverMetrics.getTcpEgressBytes().add(rtpData.length);
+        if (ingestNanos != 0) {
+            PacketLatencyMetrics.getInstance().recordWrite(getCallId(), PacketLatencyMetrics.TRANSPORT_TCP, ingestNanos, channelFuture);
+        }
     }
 
-    private byte[] makeTcpRtpData(RtpPacket rtpPacket) {
+    private byte[] makeTcpRtpData(byte[] rtpPacketRawData) {
         /**
          * The RTP data will be encapsulated in the following format:
          *    | magic number | channel number | Embedded data length | data |
@@ -367,12 +773,11 @@ public class Streamer {
          *    4. RTP data (byte array)
          */
 
-        byte[] rtpPacketRawData = rtpPacket.getRawData();
         int rtpDataLength = rtpPacketRawData.length;
 
         byte[] newRtpData = new byte[1 + 1 + 2 + rtpDataLength];
         newRtpData[0] = TCP_RTP_MAGIC_NUMBER;
-        newRtpData[1] = Byte.parseByte(streamInfo.getTrackId());
+        newRtpData[1] = (byte) interleavedRtpChannel;
 
         byte[] rtpDataLengthArray = ByteBuffer.allocate(2).putShort((short) rtpDataLength).array();
         newRtpData[2] = rtpDataLengthArray[0];
@@ -382,16 +787,32 @@ public class Streamer {
     }
 
     public void sendRtpPacketWithUdp(RtpPacket rtpPacket) {
+        sendRtpDataWithUdp(rtpPacket.getRawData());
+    }
+
+    private void sendRtpDataWithUdp(byte[] rtpData) {
+        sendRtpDataWithUdp(rtpData, 0);
+    }
+
+    private void sendRtpDataWithUdp(byte[] rtpData, long ingestNanos) {
         try {
-            ByteBuf rtpBuf = Unpooled.copiedBuffer(rtpPacket.getRawData());
+            ByteBuf rtpBuf = Unpooled.wrappedBuffer(rtpData);
             if (rtpBuf == null || rtpBuf.readableBytes() <= 0
                     || targetNetworkInfo.getDestIp() == null || targetNetworkInfo.getRtpDestPort() <= 0) {
                 return;
             }
 
             Channel rtpDestChannel = targetNetworkInfo.getRtpDestChannel();
-            if (rtpDestChannel != null) {
+            if (rtpDestChannel == null) {
+                ServerMetrics.getInstance().getNoChannelDrops().inc();
+            } else {
                 ChannelFuture channelFuture = rtpDestChannel.writeAndFlush(rtpBuf);
+                ServerMetrics serverMetrics = ServerMetrics.getInstance();
+                serverMetrics.getUdpEgressPackets().inc();
+                serverMetrics.getUdpEgressBytes().add(rtpData.length);
+                if (ingestNanos != 0) {
+                    PacketLatencyMetrics.getInstance().recordWrite(getCallId(), PacketLatencyMetrics.TRANSPORT_UDP, ingestNanos, channelFuture);
+                }
                 if (channelFuture == null && !isRtpDestActive()) {
                     log.warn("({}) Fail to send the message to rtp target. (targetNetworkInfo={})", getKey(), targetNetworkInfo);
                 } /*else {
@@ -408,6 +829,237 @@ public class Streamer {
         }
     }
 
+    /**
+     * @fn public int handleNack(RtcpNegativeAck rtcpNegativeAck)
+     * @brief Generic NACK 에 명시된 손실 패킷을 Call 의 재전송 캐시에서 찾아 재전송하는 함수
+     * RTX 가 활성화되어 있으면 RFC 4588 형식으로 감싸서 보내고, 아니면 원본 그대로 보낸다.
+     * @param rtcpNegativeAck 수신한 NACK
+     * @return 재전송한 패킷 개수
+     */
+    public int handleNack(RtcpNegativeAck rtcpNegativeAck) {
+        UserConfig userConfig = AppInstance.getInstance().getConfigManager().getUserConfig();
+        if (!userConfig.isRetransmissionEnabled() || !isStarted()) { return 0; }
+
+        rtcpInfo.setNackReceivedCount(rtcpInfo.getNackReceivedCount() + 1);
+
+        CallInfo callInfo = SessionManager.getInstance().findCall(getCallId());
+        if (callInfo == null) { return 0; }
+
+        long mediaSourceSsrc = rtcpNegativeAck.getRtcpFeedbackMessageHeader().getMediaSourceSsrc();
+        RtpRetransmissionCache retransmissionCache = callInfo.getRetransmissionCache(mediaSourceSsrc);
+        if (retransmissionCache == null) {
+            log.trace("({}) Fail to handle the nack. Retransmission cache is not exist. (ssrc={})", getKey(), mediaSourceSsrc);
+            return 0;
+        }
+
+        long now = System.currentTimeMillis();
+        long rttMs = rtcpInfo.getRttMs();
+        boolean isVideoSource = mediaSourceSsrc == getVideoSsrc();
+        int resentCount = 0;
+        for (RtcpNackBlock rtcpNackBlock : rtcpNegativeAck.getRtcpNackBlockList()) {
+            for (int seqNum : rtcpNackBlock.getLostSequenceNumbers()) {
+                if (isRecentlyResent(seqNum, now, rttMs)) { continue; }
+
+                // 시청자가 받은 (다시 매긴) 시퀀스 번호 > 원본 시퀀스 번호 (재분할한 조각이면 조각 순서도)
+                int sourceSeqNum = seqNum;
+                int pieceIndex = -1;
+                if (isVideoSource) {
+                    sourceSeqNum = videoSequenceRewriter.toSourceSeqNum(seqNum);
+                    pieceIndex = videoSequenceRewriter.toPieceIndex(seqNum);
+                }
+                byte[] data = retransmissionCache.get(sourceSeqNum, now);
+                if (data == null) { continue; }
+                if (pieceIndex >= 0) {
+                    data = getRefragmentedPiece(data, pieceIndex);
+                    if (data == null) { continue; }
+                }
+                if (sourceSeqNum != seqNum) {
+                    data[2] = (byte) ((seqNum >> 8) & 0xFF);
+                    data[3] = (byte) (seqNum & 0xFF);
+                }
+
+                if (userConfig.isRtxEnabled()) {
+                    data = RtxPacketEncoder.encode(
+                            data, userConfig.getRtxPayloadType(),
+                            rtxSeqNum.getAndIncrement() & 0xFFFF, rtxSsrc
+                    );
+                    if (data == null) { continue; }
+                }
+
+                sendRtpRawData(data);
+                resentCount++;
+            }
+        }
+
+        if (resentCount > 0) {
+            rtcpInfo.setRetransmittedCount(rtcpInfo.getRetransmittedCount() + resentCount);
+            log.trace("({}) Retransmitted {} packet(s). (ssrc={}, rtt={}ms)", getKey(), resentCount, mediaSourceSsrc, rttMs);
+        }
+        return resentCount;
+    }
+
+    /**
+     * @fn private byte[] getRefragmentedPiece(byte[] rtpData, int pieceIndex)
+     * @brief 캐시된 원본을 처음 보낼 때와 같은 크기로 다시 나눠서 잃어버린 조각만 꺼내는 함수
+     * (원본을 통째로 보내면 최대 크기를 넘고, 시청자의 FU-A 재조립도 깨진다)
+     * @param rtpData 재전송 캐시의 원본 RTP 데이터 (복사본)
+     * @param pieceIndex 조각 순서
+     * @return 조각 RTP 데이터, 그 사이 설정이 바뀌어서 같은 조각을 만들 수 없으면 null
+     */
+    private byte[] getRefragmentedPiece(byte[] rtpData, int pieceIndex) {
+        int maxPacketSize = getRefragmentSize(rtpData);
+        if (maxPacketSize <= 0) {
+            return (pieceIndex == 0) ? rtpData : null;
+        }
+
+        List<byte[]> rtpDataList = H264RtpPacketizer.refragment(rtpData, maxPacketSize);
+        return (pieceIndex < rtpDataList.size()) ? rtpDataList.get(pieceIndex) : null;
+    }
+
+    /**
+     * @fn public boolean handleKeyframeRequest(long mediaSourceSsrc)
+     * @brief 시청자의 PLI/FIR 을 Call 단위 Keyframe 요청으로 넘기는 함수
+     * @param mediaSourceSsrc 요청 대상 원본 SSRC
+     * @return 원본으로 전달되었으면 true
+     */
+    public boolean handleKeyframeRequest(long mediaSourceSsrc) {
+        CallInfo callInfo = SessionManager.getInstance().findCall(getCallId());
+        if (callInfo == null) { return false; }
+
+        // GOP 를 보내는 중이면 IDR 을 이미 받았거나 받는 중이다.
+        GopBurst curGopBurst = gopBurst;
+        if (curGopBurst != null && !curGopBurst.isDone()) {
+            callInfo.answerKeyframeLocally(getKey(), mediaSourceSsrc);
+            return false;
+        }
+
+        return callInfo.requestKeyframe(getKey(), mediaSourceSsrc);
+    }
+
+    /**
+     * @fn private boolean admitByBitrateLimit(RtpPacket rtpPacket, MediaType mediaType)
+     * @brief TMMBR 최대 전송률에 따라 패킷을 보낼지 결정하는 함수
+     * 오디오는 항상 보내고 (토큰만 소모), 비디오는 프레임(Timestamp) 단위로 결정한다.
+     * 예산이 없어서 프레임을 버리면 참조 관계가 깨지므로 다음 Keyframe 까지 건너뛰고, Keyframe 을 요청한다.
+     * @return 보내야 하면 true
+     */
+    private boolean admitByBitrateLimit(RtpPacket rtpPacket, MediaType mediaType) {
+        if (!bitrateLimiter.isLimited()) { return true; }
+
+        long now = System.nanoTime();
+        if (mediaType != MediaType.VIDEO) {
+            bitrateLimiter.consume(rtpPacket.getLength(), now);
+            return true;
+        }
+
+        long timestamp = rtpPacket.getTimestamp();
+        if (timestamp != limitedFrameTimestamp) {
+            limitedFrameTimestamp = timestamp;
+
+            boolean isKeyframe = H264RtpInspector.isKeyframeStart(rtpPacket);
+            if (isWaitingKeyframeByLimit && !isKeyframe) {
+                isLimitedFrameDropped = true;
+            } else if (!bitrateLimiter.hasBudget(now)) {
+                isLimitedFrameDropped = true;
+                if (!isWaitingKeyframeByLimit) {
+                    isWaitingKeyframeByLimit = true;
+                    handleKeyframeRequest(rtpPacket.getSyncSource());
+                }
+            } else {
+                isLimitedFrameDropped = false;
+                isWaitingKeyframeByLimit = false;
+            }
+        }
+
+        if (isLimitedFrameDropped) {
+            rtcpInfo.setLimitedDropCount(rtcpInfo.getLimitedDropCount() + 1);
+            return false;
+        }
+
+        bitrateLimiter.consume(rtpPacket.getLength(), now);
+        return true;
+    }
+
+    /**
+     * @fn public void handleTmmbr(RtcpTemporaryMaximumMediaStreamBitRateRequest tmmbr)
+     * @brief 시청자의 TMMBR 을 이 Streamer 의 전송률 제한으로 적용하고 TMMBN 으로 응답하는 함수
+     * Call 단위로도 합쳐서 (최소값) 원본 쪽 Listener 로 전달한다.
+     */
+    public void handleTmmbr(RtcpTemporaryMaximumMediaStreamBitRateRequest tmmbr) {
+        UserConfig userConfig = AppInstance.getInstance().getConfigManager().getUserConfig();
+        if (!userConfig.isTmmbrEnabled() || tmmbr.getRtcpTmmbrEntryList() == null) { return; }
+
+        for (RtcpTmmbrEntry rtcpTmmbrEntry : tmmbr.getRtcpTmmbrEntryList()) {
+            long ssrc = rtcpTmmbrEntry.getSsrc();
+            if (ssrc != getAudioSsrc() && ssrc != getVideoSsrc()) { continue; }
+
+            long bitrate = Math.max(rtcpTmmbrEntry.getBitrate(), userConfig.getTmmbrMinBitrate());
+            bitrateLimiter.setBitrate(bitrate, System.nanoTime());
+            log.debug("({}) TMMBR is applied. (ssrc={}, requested={}, applied={})", getKey(), ssrc, rtcpTmmbrEntry.getBitrate(), bitrate);
+
+            CallInfo callInfo = SessionManager.getInstance().findCall(getCallId());
+            if (callInfo != null) {
+                callInfo.updateBitrateLimit(getKey(), ssrc, bitrate);
+            }
+
+            sendTmmbn(RtcpTmmbrEntry.fromBitrate(ssrc, bitrate, rtcpTmmbrEntry.getMeasuredOverhead()));
+            break;
+        }
+    }
+
+    private void sendTmmbn(RtcpTmmbrEntry rtcpTmmbrEntry) {
+        Channel rtcpDestChannel = targetNetworkInfo.getRtcpDestChannel();
+        if (rtcpDestChannel == null || targetNetworkInfo.getRtcpDestPort() <= 0) { return; }
+
+        // length = (12 + 8 * N) / 4 - 1
+        RtcpFeedbackMessageHeader rtcpFeedbackMessageHeader = new RtcpFeedbackMessageHeader(
+                2, 0, 0,
+                RtcpTransportLayerFeedbackType.TMMBN, RtcpType.RTPFB,
+                (RtcpFeedbackMessageHeader.LENGTH + RtcpTmmbrEntry.LENGTH) / 4 - 1,
+                rtcpTmmbrEntry.getSsrc(), 0, null
+        );
+        RtcpTemporaryMaximumMediaStreamBitRateNotification tmmbn = new RtcpTemporaryMaximumMediaStreamBitRateNotification(
+                rtcpFeedbackMessageHeader, Collections.singletonList(rtcpTmmbrEntry)
+        );
+
+        ChannelFuture rtcpChannelFuture = rtcpDestChannel.writeAndFlush(Unpooled.wrappedBuffer(tmmbn.getData()));
+        if (rtcpChannelFuture == null && !isRtcpDestActive()) {
+            log.warn("({}) Fail to send the tmmbn. (targetNetworkInfo={})", getKey(), targetNetworkInfo);
+        }
+    }
+
+    public long getBitrateLimit() {
+        return bitrateLimiter.getBitrate();
+    }
+
+    private boolean isRecentlyResent(int seqNum, long now, long rttMs) {
+        int index = seqNum & (NACK_HISTORY_SIZE - 1);
+        synchronized (nackResentSeqNums) {
+            if (nackResentSeqNums[index] == seqNum && (now - nackResentTimes[index]) < rttMs) {
+                return true;
+            }
+            nackResentSeqNums[index] = seqNum;
+            nackResentTimes[index] = now;
+            return false;
+        }
+    }
+
+    private void sendRtpRawData(byte[] data) {
+        if (isTcp()) {
+            sendRtpDataWithTcp(data);
+        } else {
+            sendRtpDataWithUdp(data);
+        }
+    }
+
+    public long getRttMs() {
+        return rtcpInfo.getRttMs();
+    }
+
+    public void setRttMs(long rttMs) {
+        rtcpInfo.setRttMs(rttMs);
+    }
+
     private void processRtcpPacket(RtpPacket rtpPacket) {
         Channel rtcpDestChannel = targetNetworkInfo.getRtcpDestChannel();
         if (rtcpDestChannel != null) {
@@ -468,6 +1120,26 @@ public class Streamer {
 
     public void setCongestionLevel(int congestionLevel) {
         rtcpInfo.setCongestionLevel(congestionLevel);
+
+        UserConfig userConfig = AppInstance.getInstance().getConfigManager().getUserConfig();
+        if (!userConfig.isThinningEnabled()) { return; }
+
+        int prevLevel = videoThinningPolicy.getAppliedLevel();
+        if (videoThinningPolicy.updateLevel(congestionLevel, System.currentTimeMillis(), userConfig.getThinningRecoveryHoldMs())) {
+            // Keyframe only 에서 내려옴 > 다음 Keyframe 부터 다시 보내야 하므로 미리 요청
+            handleKeyframeRequest(getVideoSsrc());
+        }
+
+        int curLevel = videoThinningPolicy.getAppliedLevel();
+        if (prevLevel != curLevel) {
+            log.debug("({}) Video thinning level is changed. ({} > {}, measured={}, rtt={}ms)",
+                    getKey(), prevLevel, curLevel, congestionLevel, rtcpInfo.getRttMs()
+            );
+        }
+    }
+
+    public int getThinningLevel() {
+        return videoThinningPolicy.getAppliedLevel();
     }
 
     public int getCongestionLevel() {
@@ -494,10 +1166,38 @@ public class Streamer {
         return streamInfo.getTrackId();
     }
 
+    public int getInterleavedRtpChannel() {
+        return interleavedRtpChannel;
+    }
+
+    public int getInterleavedRtcpChannel() {
+        return interleavedRtcpChannel;
+    }
+
+    /**
+     * @fn public void setInterleavedChannel(int rtpChannel, int rtcpChannel)
+     * @brief SETUP Transport 의 interleaved=a-b 채널을 지정하는 함수 (TCP 전송 시 패킷마다 계산하지 않음)
+     */
+    public void setInterleavedChannel(int rtpChannel, int rtcpChannel) {
+        this.interleavedRtpChannel = rtpChannel;
+        this.interleavedRtcpChannel = rtcpChannel;
+    }
+
+    private static int getDefaultInterleavedChannel(String trackId) {
+        try {
+            int channel = Integer.parseInt(trackId);
+            return (channel >= 0 && channel <= 0xFF) ? channel : 0;
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
     public String getKey() {
-        return (streamInfo.getTrackId() != null && !streamInfo.getTrackId().isEmpty()) ?
-                streamInfo.getCallId() + ":" + streamInfo.getTrackId() + ":" + streamInfo.getSessionId()
-                : streamInfo.getCallId() + ":" + streamInfo.getSessionId();
+        return key;
+    }
+
+    public RtpStatistics getRtpStatistics() {
+        return rtpStatistics;
     }
 
 }
@@ -1,5 +1,7 @@
 package org.jmagni.jrtsp.rtsp.base;
 
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 
@@ -22,6 +24,9 @@ public class ByteUtil {
 
     private static final long[] maxValueCache = new long[64];
 
+    /** byte[] 를 long 단위로 읽고 쓰기 위한 VarHandle (XOR 을 8 bytes 씩 처리) */
+    private static final VarHandle LONG_VIEW = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.nativeOrder());
+
     static {
         for (int i = 1; i < 64; i++) {
             maxValueCache[i] = ((long) 1 << i) - 1;
@@ -186,4 +191,20 @@ public class ByteUtil {
         return sb.toString();
     }
 
+    /**
+     * @fn public static void xor(byte[] dst, int dstOffset, byte[] src, int srcOffset, int length)
+     * @brief dst[dstOffset..] ^= src[srcOffset..] 를 8 bytes (long) 단위로 처리하는 함수 (나머지는 byte 단위)
+     */
+    public static void xor(byte[] dst, int dstOffset, byte[] src, int srcOffset, int length) {
+        int index = 0;
+        int longLimit = length - (length % NUM_BYTES_IN_LONG);
+        for (; index < longLimit; index += NUM_BYTES_IN_LONG) {
+            long value = (long) LONG_VIEW.get(dst, dstOffset + index) ^ (long) LONG_VIEW.get(src, srcOffset + index);
+            LONG_VIEW.set(dst, dstOffset + index, value);
+        }
+        for (; index < length; index++) {
+            dst[dstOffset + index] ^= src[srcOffset + index];
+        }
+    }
+
 }
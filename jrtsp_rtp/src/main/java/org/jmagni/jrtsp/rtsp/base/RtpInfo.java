@@ -1,5 +1,7 @@
 package org.jmagni.jrtsp.rtsp.base;
 
+import org.jmagni.jrtsp.service.metrics.PacketLatencyMetrics;
+
 import java.net.InetSocketAddress;
 
 public class RtpInfo {
@@ -13,6 +15,11 @@ public class RtpInfo {
         this.mediaType = mediaType;
         this.fromAddr = fromAddr;
         this.toAddr = toAddr;
+
+        // Ingest 수신 시점에 만들어지므로 여기서 지연 시간 측정을 시작한다.
+        if (rtpPacket != null && rtpPacket.getIngestNanos() == 0) {
+            rtpPacket.setIngestNanos(PacketLatencyMetrics.getInstance().stamp());
+        }
     }
 
     public RtpPacket getRtpPacket() {
@@ -10,6 +10,7 @@ public class RtpPacket implements Serializable {
     public static final int VERSION = 2;
     private static final long serialVersionUID = -1590053946635208723L;
     private ByteBuffer buffer;
+    private transient long ingestNanos = 0; // Ingest 수신 시각 (지연 시간 표본이 아니면 0)
 
     public RtpPacket(int capacity, boolean allocateDirect) {
         this.buffer = allocateDirect ? ByteBuffer.allocateDirect(capacity) : ByteBuffer.allocate(capacity);
@@ -23,6 +24,14 @@ public class RtpPacket implements Serializable {
         return this.buffer;
     }
 
+    public long getIngestNanos() {
+        return this.ingestNanos;
+    }
+
+    public void setIngestNanos(long ingestNanos) {
+        this.ingestNanos = ingestNanos;
+    }
+
     public byte[] getRawData() {
         byte[] data = new byte[this.getLength()];
         this.buffer.rewind();
@@ -0,0 +1,122 @@
+package org.jmagni.jrtsp.rtsp.codec.h264;
+
+import java.nio.ByteBuffer;
+
+/**
+ * @class public class H264NalUnit
+ * @brief NAL unit 하나를 복사하지 않고 가리키는 클래스 (ByteBuffer slice)
+ *
+ *    +---------------+
+ *    |0|1|2|3|4|5|6|7|
+ *    +-+-+-+-+-+-+-+-+
+ *    |F|NRI|  Type   |
+ *    +---------------+
+ *
+ * - data 의 0 번 위치가 NAL header 이며, Start code (00 00 01) 는 포함하지 않는다.
+ * - 원본 버퍼를 가리키므로 원본이 바뀌면 같이 바뀐다. 보관하려면 toByteArray() 로 복사해야 한다.
+ */
+public class H264NalUnit {
+
+    ////////////////////////////////////////////////////////////
+    // VARIABLES
+    private final ByteBuffer data;
+    ////////////////////////////////////////////////////////////
+
+    ////////////////////////////////////////////////////////////
+    // CONSTRUCTOR
+    private H264NalUnit(ByteBuffer data) {
+        this.data = data;
+    }
+    ////////////////////////////////////////////////////////////
+
+    ////////////////////////////////////////////////////////////
+    // FUNCTIONS
+    /**
+     * @fn public static H264NalUnit wrap(ByteBuffer buffer, int offset, int length)
+     * @brief 버퍼의 [offset, offset + length) 영역을 NAL unit 으로 가리키는 함수 (복사하지 않음)
+     * @return NAL unit, 영역이 잘못되었으면 null
+     */
+    public static H264NalUnit wrap(ByteBuffer buffer, int offset, int length) {
+        if (length <= 0 || offset < 0 || offset + length > buffer.capacity()) {
+            return null;
+        }
+
+        ByteBuffer slice = buffer.duplicate();
+        slice.clear();
+        slice.position(offset);
+        slice.limit(offset + length);
+        return new H264NalUnit(slice.slice());
+    }
+
+    public static H264NalUnit wrap(byte[] data) {
+        return wrap(ByteBuffer.wrap(data), 0, data.length);
+    }
+
+    public int getHeader() {
+        return data.get(0) & 0xFF;
+    }
+
+    public int getType() {
+        return data.get(0) & 0x1F;
+    }
+
+    public int getNri() {
+        return (data.get(0) >>> 5) & 0x03;
+    }
+
+    public boolean isIdr() {
+        return getType() == H264RtpInspector.NAL_TYPE_IDR;
+    }
+
+    public boolean isSps() {
+        return getType() == H264RtpInspector.NAL_TYPE_SPS;
+    }
+
+    public boolean isPps() {
+        return getType() == H264RtpInspector.NAL_TYPE_PPS;
+    }
+
+    public boolean isParameterSet() {
+        int type = getType();
+        return type == H264RtpInspector.NAL_TYPE_SPS || type == H264RtpInspector.NAL_TYPE_PPS;
+    }
+
+    public int getLength() {
+        return data.limit();
+    }
+
+    /**
+     * @fn public ByteBuffer getData()
+     * @brief NAL unit 데이터를 가리키는 새 ByteBuffer 를 반환하는 함수 (position 0, limit = 길이)
+     */
+    public ByteBuffer getData() {
+        return data.duplicate();
+    }
+
+    public byte get(int index) {
+        return data.get(index);
+    }
+
+    public void copyTo(int srcOffset, byte[] dst, int dstOffset, int length) {
+        ByteBuffer source = data.duplicate();
+        source.position(srcOffset);
+        source.get(dst, dstOffset, length);
+    }
+
+    public byte[] toByteArray() {
+        byte[] bytes = new byte[data.limit()];
+        copyTo(0, bytes, 0, bytes.length);
+        return bytes;
+    }
+
+    @Override
+    public String toString() {
+        return "H264NalUnit{" +
+                "type=" + getType() +
+                ", nri=" + getNri() +
+                ", length=" + getLength() +
+                '}';
+    }
+    ////////////////////////////////////////////////////////////
+
+}
@@ -0,0 +1,129 @@
+package org.jmagni.jrtsp.rtsp.codec.h264;
+
+import org.jmagni.jrtsp.rtsp.base.RtpPacket;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * @class public class H264ParameterSets
+ * @brief Call 하나의 마지막 SPS/PPS 를 보관하고 SDP fmtp 속성을 만드는 클래스
+ *
+ * @Reference https://datatracker.ietf.org/doc/html/rfc6184#section-8.1
+ *
+ *    a=fmtp:96 packetization-mode=1;profile-level-id=42e01f;sprop-parameter-sets=Z0LgH5ZUBQHtCAAAAwAIAAADAKR4wZU=,aM48gA==
+ *
+ * - profile-level-id : SPS 의 profile_idc, constraint flags, level_idc (SPS NAL header 다음 3 bytes)
+ * - sprop-parameter-sets : Base64(SPS),Base64(PPS) (Start code 없음)
+ * - SPS/PPS 가 바뀌면 version 이 올라가고, 만들어 둔 fmtp 는 다시 만든다.
+ * - 원본 스트림 하나 (RtpInfoSender 스레드) 가 갱신하고, DESCRIBE 처리 스레드들이 읽는다.
+ */
+public class H264ParameterSets {
+
+    ////////////////////////////////////////////////////////////
+    // VARIABLES
+    private static final int PROFILE_LEVEL_ID_LENGTH = 3; // bytes
+
+    private final H264RtpDepacketizer depacketizer = new H264RtpDepacketizer();
+
+    private byte[] sps = null;
+    private byte[] pps = null;
+    private volatile long version = 0;
+
+    // 마지막으로 만든 fmtp (payload type 별로 다르므로 같이 보관)
+    private int fmtpPayloadType = -1;
+    private String fmtp = null;
+    ////////////////////////////////////////////////////////////
+
+    ////////////////////////////////////////////////////////////
+    // FUNCTIONS
+    /**
+     * @fn public boolean update(RtpPacket rtpPacket)
+     * @brief RTP 패킷에 SPS/PPS 가 들어 있으면 저장하는 함수 (없으면 헤더만 보고 바로 반환)
+     * @param rtpPacket 원본 비디오 RTP 패킷
+     * @return SPS/PPS 가 바뀌었으면 true
+     */
+    public boolean update(RtpPacket rtpPacket) {
+        ByteBuffer buffer = rtpPacket.getBuffer();
+        int length = rtpPacket.getLength();
+
+        int offset = H264RtpInspector.getPayloadOffset(buffer, length);
+        if (offset < 0 || (buffer.get(offset) & 0x1F) == H264RtpInspector.NAL_TYPE_FU_A) {
+            return false; // SPS/PPS 는 FU-A 로 나뉠 만큼 크지 않다.
+        }
+        if (!H264RtpInspector.containsNalUnit(buffer, length, H264RtpInspector.NAL_TYPE_SPS)
+                && !H264RtpInspector.containsNalUnit(buffer, length, H264RtpInspector.NAL_TYPE_PPS)) {
+            return false;
+        }
+
+        boolean isChanged = false;
+        List<H264NalUnit> nalUnitList = depacketizer.depacketize(buffer, length, rtpPacket.getSeqNumber(), rtpPacket.getTimestamp());
+        synchronized (this) {
+            for (H264NalUnit nalUnit : nalUnitList) {
+                if (nalUnit.isSps() && nalUnit.getLength() > PROFILE_LEVEL_ID_LENGTH) {
+                    byte[] data = nalUnit.toByteArray();
+                    if (!Arrays.equals(sps, data)) {
+                        sps = data;
+                        isChanged = true;
+                    }
+                } else if (nalUnit.isPps()) {
+                    byte[] data = nalUnit.toByteArray();
+                    if (!Arrays.equals(pps, data)) {
+                        pps = data;
+                        isChanged = true;
+                    }
+                }
+            }
+
+            if (isChanged) {
+                fmtp = null;
+                version++;
+            }
+        }
+        return isChanged;
+    }
+
+    /**
+     * @fn public synchronized String getFmtp(int payloadType)
+     * @brief SDP 에 넣을 fmtp 속성 값 ("fmtp:..." 형식, "a=" 제외) 을 반환하는 함수
+     * @param payloadType 비디오 payload type
+     * @return fmtp 속성 값, SPS 를 아직 받지 못했으면 null
+     */
+    public synchronized String getFmtp(int payloadType) {
+        if (sps == null) { return null; }
+        if (fmtp != null && fmtpPayloadType == payloadType) { return fmtp; }
+
+        StringBuilder fmtpStr = new StringBuilder();
+        fmtpStr.append("fmtp:").append(payloadType)
+                .append(" packetization-mode=1")
+                .append(";profile-level-id=");
+        for (int i = 1; i <= PROFILE_LEVEL_ID_LENGTH; i++) {
+            fmtpStr.append(String.format("%02x", sps[i] & 0xFF));
+        }
+
+        Base64.Encoder encoder = Base64.getEncoder();
+        fmtpStr.append(";sprop-parameter-sets=").append(encoder.encodeToString(sps));
+        if (pps != null) {
+            fmtpStr.append(",").append(encoder.encodeToString(pps));
+        }
+
+        fmtpPayloadType = payloadType;
+        fmtp = fmtpStr.toString();
+        return fmtp;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public synchronized void clear() {
+        sps = null;
+        pps = null;
+        fmtp = null;
+        version++;
+    }
+    ////////////////////////////////////////////////////////////
+
+}
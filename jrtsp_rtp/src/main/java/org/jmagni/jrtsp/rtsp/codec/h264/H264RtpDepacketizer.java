@@ -0,0 +1,186 @@
+package org.jmagni.jrtsp.rtsp.codec.h264;
+
+import lombok.extern.slf4j.Slf4j;
+import org.jmagni.jrtsp.rtsp.base.RtpPacket;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * @class public class H264RtpDepacketizer
+ * @brief RTP 페이로드에서 H.264 NAL unit 을 꺼내는 클래스 (RFC 6184, packetization-mode=1)
+ *
+ * @Reference https://datatracker.ietf.org/doc/html/rfc6184#section-5.6
+ *
+ * - Single NAL unit, STAP-A : RTP 버퍼를 가리키는 NAL unit 을 반환한다. (복사하지 않음)
+ * - FU-A : 조각을 모아서 (복사) 마지막 조각이 들어오면 NAL unit 하나를 반환한다.
+ *          중간 조각이 빠지면 (시퀀스 번호 불연속) 그 NAL unit 은 버린다.
+ * - STAP-B, MTAP, FU-B (interleaved mode) 는 지원하지 않는다.
+ * - 하나의 RTP 스트림에 하나씩 사용한다. (FU-A 상태를 가짐, 스레드 안전하지 않음)
+ */
+@Slf4j
+public class H264RtpDepacketizer {
+
+    ////////////////////////////////////////////////////////////
+    // VARIABLES
+    public static final int STAP_A_NALU_SIZE_LENGTH = 2; // bytes
+    public static final int FU_A_HEADER_LENGTH = 2; // bytes (FU indicator + FU header)
+    public static final int MAX_NAL_UNIT_SIZE = 4 * 1024 * 1024; // bytes
+
+    private static final int FU_START_BIT = 0x80;
+    private static final int FU_END_BIT = 0x40;
+
+    private byte[] fuBuffer = new byte[64 * 1024];
+    private int fuLength = 0;
+    private int fuNextSeqNum = -1;
+    private long fuTimestamp = -1;
+    private boolean isFuActive = false;
+
+    private long droppedNalUnitCount = 0;
+    ////////////////////////////////////////////////////////////
+
+    ////////////////////////////////////////////////////////////
+    // FUNCTIONS
+    public List<H264NalUnit> depacketize(RtpPacket rtpPacket) {
+        return depacketize(rtpPacket.getBuffer(), rtpPacket.getLength(), rtpPacket.getSeqNumber(), rtpPacket.getTimestamp());
+    }
+
+    /**
+     * @fn public List<H264NalUnit> depacketize(ByteBuffer buffer, int length, int seqNum, long timestamp)
+     * @brief RTP 패킷 하나에서 완성된 NAL unit 목록을 꺼내는 함수
+     * @param buffer RTP 패킷 버퍼 (0 번 위치가 RTP 헤더 시작)
+     * @param length RTP 패킷 길이
+     * @param seqNum RTP 시퀀스 번호
+     * @param timestamp RTP Timestamp
+     * @return 완성된 NAL unit 목록 (FU-A 중간 조각이면 빈 목록)
+     */
+    public List<H264NalUnit> depacketize(ByteBuffer buffer, int length, int seqNum, long timestamp) {
+        int offset = H264RtpInspector.getPayloadOffset(buffer, length);
+        if (offset < 0) { return Collections.emptyList(); }
+
+        int end = getPayloadEnd(buffer, length);
+        if (end <= offset) { return Collections.emptyList(); }
+
+        int type = buffer.get(offset) & 0x1F;
+        if (type != H264RtpInspector.NAL_TYPE_FU_A && isFuActive) {
+            abortFragment(); // 마지막 조각을 받지 못함
+        }
+
+        switch (type) {
+            case H264RtpInspector.NAL_TYPE_STAP_A:
+                return parseStapA(buffer, offset, end);
+            case H264RtpInspector.NAL_TYPE_FU_A:
+                H264NalUnit nalUnit = parseFuA(buffer, offset, end, seqNum, timestamp);
+                return (nalUnit == null) ? Collections.emptyList() : Collections.singletonList(nalUnit);
+            default:
+                if (type == 0 || type > H264RtpInspector.NAL_TYPE_SINGLE_MAX) {
+                    return Collections.emptyList(); // STAP-B, MTAP, FU-B, reserved
+                }
+                return Collections.singletonList(H264NalUnit.wrap(buffer, offset, end - offset));
+        }
+    }
+
+    public long getDroppedNalUnitCount() {
+        return droppedNalUnitCount;
+    }
+
+    public void reset() {
+        fuLength = 0;
+        fuNextSeqNum = -1;
+        fuTimestamp = -1;
+        isFuActive = false;
+    }
+
+    /**
+     * @fn public static int getPayloadEnd(ByteBuffer buffer, int length)
+     * @brief 패딩을 뺀 페이로드 끝 위치를 반환하는 함수
+     */
+    public static int getPayloadEnd(ByteBuffer buffer, int length) {
+        if ((buffer.get(0) & 0x20) == 0x20) { // Padding
+            return length - (buffer.get(length - 1) & 0xFF);
+        }
+        return length;
+    }
+
+    private List<H264NalUnit> parseStapA(ByteBuffer buffer, int offset, int end) {
+        // STAP-A header | { NALU size(16) | NALU } * N
+        List<H264NalUnit> nalUnitList = new ArrayList<>(4);
+        int index = offset + 1;
+        while (index + STAP_A_NALU_SIZE_LENGTH < end) {
+            int naluSize = ((buffer.get(index) & 0xFF) << 8) | (buffer.get(index + 1) & 0xFF);
+            index += STAP_A_NALU_SIZE_LENGTH;
+            if (naluSize == 0 || index + naluSize > end) {
+                break; // 잘못된 크기
+            }
+
+            nalUnitList.add(H264NalUnit.wrap(buffer, index, naluSize));
+            index += naluSize;
+        }
+        return nalUnitList;
+    }
+
+    private H264NalUnit parseFuA(ByteBuffer buffer, int offset, int end, int seqNum, long timestamp) {
+        if (end - offset <= FU_A_HEADER_LENGTH) { return null; }
+
+        int fuIndicator = buffer.get(offset) & 0xFF;
+        int fuHeader = buffer.get(offset + 1) & 0xFF;
+        boolean isStart = (fuHeader & FU_START_BIT) == FU_START_BIT;
+        boolean isEnd = (fuHeader & FU_END_BIT) == FU_END_BIT;
+
+        if (isStart) {
+            if (isFuActive) {
+                abortFragment();
+            }
+
+            // 원본 NAL header 복원 : F/NRI 는 FU indicator, Type 은 FU header 에서 가져온다.
+            fuBuffer[0] = (byte) ((fuIndicator & 0xE0) | (fuHeader & 0x1F));
+            fuLength = 1;
+            fuTimestamp = timestamp;
+            isFuActive = true;
+        } else if (!isFuActive) {
+            return null; // 시작 조각을 받지 못함
+        } else if (seqNum != fuNextSeqNum || timestamp != fuTimestamp) {
+            abortFragment();
+            return null;
+        }
+
+        int fragmentLength = end - offset - FU_A_HEADER_LENGTH;
+        if (!ensureCapacity(fuLength + fragmentLength)) {
+            abortFragment();
+            return null;
+        }
+
+        ByteBuffer source = buffer.duplicate();
+        source.clear();
+        source.position(offset + FU_A_HEADER_LENGTH);
+        source.get(fuBuffer, fuLength, fragmentLength);
+        fuLength += fragmentLength;
+        fuNextSeqNum = (seqNum + 1) & 0xFFFF;
+
+        if (!isEnd) { return null; }
+
+        byte[] nalUnitData = new byte[fuLength];
+        System.arraycopy(fuBuffer, 0, nalUnitData, 0, fuLength);
+        reset();
+        return H264NalUnit.wrap(nalUnitData);
+    }
+
+    private boolean ensureCapacity(int capacity) {
+        if (capacity <= fuBuffer.length) { return true; }
+        if (capacity > MAX_NAL_UNIT_SIZE) { return false; }
+
+        byte[] newBuffer = new byte[Math.min(MAX_NAL_UNIT_SIZE, Math.max(capacity, fuBuffer.length * 2))];
+        System.arraycopy(fuBuffer, 0, newBuffer, 0, fuLength);
+        fuBuffer = newBuffer;
+        return true;
+    }
+
+    private void abortFragment() {
+        droppedNalUnitCount++;
+        reset();
+    }
+    ////////////////////////////////////////////////////////////
+
+}
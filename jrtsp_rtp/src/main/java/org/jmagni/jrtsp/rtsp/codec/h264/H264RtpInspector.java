@@ -0,0 +1,153 @@
+package org.jmagni.jrtsp.rtsp.codec.h264;
+
+import org.jmagni.jrtsp.rtsp.base.RtpPacket;
+
+import java.nio.ByteBuffer;
+
+/**
+ * @class public class H264RtpInspector
+ * @brief RTP 패킷을 복사하지 않고 (ByteBuffer 절대 위치 접근) H.264 페이로드 정보를 확인하는 클래스
+ *
+ * @Reference https://datatracker.ietf.org/doc/html/rfc6184#section-5.2
+ *
+ *    +---------------+
+ *    |0|1|2|3|4|5|6|7|
+ *    +-+-+-+-+-+-+-+-+
+ *    |F|NRI|  Type   |
+ *    +---------------+
+ *
+ *    Type 1-23 : Single NAL unit packet
+ *    Type 24   : STAP-A (Single-time aggregation packet)
+ *    Type 28   : FU-A (Fragmentation unit)
+ */
+public class H264RtpInspector {
+
+    ////////////////////////////////////////////////////////////
+    // VARIABLES
+    public static final int NAL_TYPE_NON_IDR = 1;
+    public static final int NAL_TYPE_IDR = 5;
+    public static final int NAL_TYPE_SEI = 6;
+    public static final int NAL_TYPE_SPS = 7;
+    public static final int NAL_TYPE_PPS = 8;
+    public static final int NAL_TYPE_SINGLE_MAX = 23;
+    public static final int NAL_TYPE_STAP_A = 24;
+    public static final int NAL_TYPE_FU_A = 28;
+
+    private static final int FU_START_BIT = 0x80;
+    ////////////////////////////////////////////////////////////
+
+    ////////////////////////////////////////////////////////////
+    // CONSTRUCTOR
+    private H264RtpInspector() {}
+    ////////////////////////////////////////////////////////////
+
+    ////////////////////////////////////////////////////////////
+    // FUNCTIONS
+    /**
+     * @fn public static int getPayloadOffset(ByteBuffer buffer, int length)
+     * @brief RTP 헤더 (CSRC, 확장 헤더 포함) 다음의 페이로드 시작 위치를 반환하는 함수
+     * @return 페이로드 시작 위치, 잘못된 패킷이면 -1
+     */
+    public static int getPayloadOffset(ByteBuffer buffer, int length) {
+        if (length <= RtpPacket.FIXED_HEADER_SIZE) { return -1; }
+
+        int b0 = buffer.get(0) & 0xFF;
+        int offset = RtpPacket.FIXED_HEADER_SIZE + (b0 & 0x0F) * 4;
+        if ((b0 & 0x10) == 0x10) {
+            if (offset + RtpPacket.EXT_HEADER_SIZE > length) { return -1; }
+            int extensionWords = ((buffer.get(offset + 2) & 0xFF) << 8) | (buffer.get(offset + 3) & 0xFF);
+            offset += RtpPacket.EXT_HEADER_SIZE + extensionWords * 4;
+        }
+
+        return (offset < length) ? offset : -1;
+    }
+
+    /**
+     * @fn public static boolean isKeyframeStart(ByteBuffer buffer, int length)
+     * @brief 디코더가 이 패킷부터 복호화를 다시 시작할 수 있는지 (IDR/SPS 로 시작하는지) 확인하는 함수
+     * @param buffer RTP 패킷 버퍼 (0 번 위치가 RTP 헤더 시작)
+     * @param length RTP 패킷 길이
+     * @return IDR 또는 SPS 로 시작하는 패킷이면 true
+     */
+    public static boolean isKeyframeStart(ByteBuffer buffer, int length) {
+        int offset = getPayloadOffset(buffer, length);
+        if (offset < 0) { return false; }
+
+        int nalType = buffer.get(offset) & 0x1F;
+        switch (nalType) {
+            case NAL_TYPE_IDR:
+            case NAL_TYPE_SPS:
+                return true;
+            case NAL_TYPE_STAP_A:
+                // { NALU size(16) | NALU } * N
+                int index = offset + 1;
+                while (index + 2 < length) {
+                    int naluSize = ((buffer.get(index) & 0xFF) << 8) | (buffer.get(index + 1) & 0xFF);
+                    int aggregatedType = buffer.get(index + 2) & 0x1F;
+                    if (aggregatedType == NAL_TYPE_IDR || aggregatedType == NAL_TYPE_SPS) {
+                        return true;
+                    }
+                    index += 2 + naluSize;
+                }
+                return false;
+            case NAL_TYPE_FU_A:
+                if (offset + 1 >= length) { return false; }
+                int fuHeader = buffer.get(offset + 1) & 0xFF;
+                return (fuHeader & FU_START_BIT) == FU_START_BIT && (fuHeader & 0x1F) == NAL_TYPE_IDR;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * @fn public static int getNalRefIdc(ByteBuffer buffer, int length)
+     * @brief 페이로드 첫 바이트의 NRI (nal_ref_idc) 를 반환하는 함수
+     * FU-A 의 FU indicator, STAP-A 의 헤더도 원본 NAL 의 NRI (STAP-A 는 최대값) 를 가진다.
+     * @return 0~3, 잘못된 패킷이면 -1
+     */
+    public static int getNalRefIdc(ByteBuffer buffer, int length) {
+        int offset = getPayloadOffset(buffer, length);
+        if (offset < 0) { return -1; }
+
+        return (buffer.get(offset) >>> 5) & 0x03;
+    }
+
+    /**
+     * @fn public static boolean containsNalUnit(ByteBuffer buffer, int length, int nalType)
+     * @brief 패킷에 지정한 타입의 NAL unit (FU-A 는 시작 조각) 이 들어 있는지 확인하는 함수
+     * @param buffer RTP 패킷 버퍼 (0 번 위치가 RTP 헤더 시작)
+     * @param length RTP 패킷 길이
+     * @param nalType 찾을 NAL unit 타입
+     * @return Single NAL, STAP-A 안의 NAL, FU-A 시작 조각 중 하나가 해당 타입이면 true
+     */
+    public static boolean containsNalUnit(ByteBuffer buffer, int length, int nalType) {
+        int offset = getPayloadOffset(buffer, length);
+        if (offset < 0) { return false; }
+
+        int type = buffer.get(offset) & 0x1F;
+        switch (type) {
+            case NAL_TYPE_STAP_A:
+                int index = offset + 1;
+                while (index + 2 < length) {
+                    int naluSize = ((buffer.get(index) & 0xFF) << 8) | (buffer.get(index + 1) & 0xFF);
+                    if ((buffer.get(index + 2) & 0x1F) == nalType) {
+                        return true;
+                    }
+                    index += 2 + naluSize;
+                }
+                return false;
+            case NAL_TYPE_FU_A:
+                if (offset + 1 >= length) { return false; }
+                int fuHeader = buffer.get(offset + 1) & 0xFF;
+                return (fuHeader & FU_START_BIT) == FU_START_BIT && (fuHeader & 0x1F) == nalType;
+            default:
+                return type == nalType;
+        }
+    }
+
+    public static boolean isKeyframeStart(RtpPacket rtpPacket) {
+        return isKeyframeStart(rtpPacket.getBuffer(), rtpPacket.getLength());
+    }
+    ////////////////////////////////////////////////////////////
+
+}
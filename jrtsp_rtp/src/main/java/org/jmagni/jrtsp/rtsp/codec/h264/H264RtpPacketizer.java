@@ -0,0 +1,228 @@
+package org.jmagni.jrtsp.rtsp.codec.h264;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * @class public class H264RtpPacketizer
+ * @brief H.264 NAL unit 을 최대 크기에 맞춰 RTP 페이로드로 나누는 클래스 (RFC 6184, packetization-mode=1)
+ *
+ * @Reference https://datatracker.ietf.org/doc/html/rfc6184#section-5.8
+ *
+ *     FU indicator     FU header
+ *    +---------------+---------------+
+ *    |0|1|2|3|4|5|6|7|0|1|2|3|4|5|6|7|
+ *    +-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+
+ *    |F|NRI|  Type   |S|E|R|  Type   |
+ *    +---------------+---------------+
+ *
+ * - 최대 크기 안에 들어가는 NAL unit 은 Single NAL unit 으로, 넘으면 FU-A 로 나눈다.
+ * - 연속된 작은 NAL unit (SPS, PPS, SEI ...) 은 STAP-A 하나로 묶는다.
+ * - refragment() 는 이미 만들어진 RTP 패킷을 (재조립 없이) 시청자별 최대 크기에 맞춰 다시 나눈다.
+ */
+public class H264RtpPacketizer {
+
+    ////////////////////////////////////////////////////////////
+    // VARIABLES
+    private static final int FU_START_BIT = 0x80;
+    private static final int FU_END_BIT = 0x40;
+
+    private final int maxPayloadSize;
+    ////////////////////////////////////////////////////////////
+
+    ////////////////////////////////////////////////////////////
+    // CONSTRUCTOR
+    /**
+     * @param maxPayloadSize RTP 페이로드 최대 크기 (bytes, RTP 헤더 제외)
+     */
+    public H264RtpPacketizer(int maxPayloadSize) {
+        this.maxPayloadSize = Math.max(maxPayloadSize, H264RtpDepacketizer.FU_A_HEADER_LENGTH + 1);
+    }
+    ////////////////////////////////////////////////////////////
+
+    ////////////////////////////////////////////////////////////
+    // FUNCTIONS
+    /**
+     * @fn public List<byte[]> packetize(List<H264NalUnit> nalUnitList)
+     * @brief Access unit (같은 Timestamp 의 NAL unit 목록) 을 RTP 페이로드 목록으로 만드는 함수
+     * 마지막 페이로드를 담은 RTP 패킷에 Marker bit 를 설정해야 한다.
+     * @param nalUnitList NAL unit 목록
+     * @return RTP 페이로드 목록
+     */
+    public List<byte[]> packetize(List<H264NalUnit> nalUnitList) {
+        List<byte[]> payloadList = new ArrayList<>();
+
+        int index = 0;
+        while (index < nalUnitList.size()) {
+            // 다음 NAL unit 들을 STAP-A 로 묶을 수 있는 만큼 센다.
+            int stapSize = 1;
+            int count = 0;
+            while (index + count < nalUnitList.size()) {
+                int nextSize = stapSize + H264RtpDepacketizer.STAP_A_NALU_SIZE_LENGTH + nalUnitList.get(index + count).getLength();
+                if (nextSize > maxPayloadSize) { break; }
+                stapSize = nextSize;
+                count++;
+            }
+
+            if (count >= 2) {
+                payloadList.add(makeStapA(nalUnitList.subList(index, index + count), stapSize));
+                index += count;
+                continue;
+            }
+
+            H264NalUnit nalUnit = nalUnitList.get(index);
+            if (nalUnit.getLength() <= maxPayloadSize) {
+                payloadList.add(nalUnit.toByteArray());
+            } else {
+                fragment(nalUnit, payloadList);
+            }
+            index++;
+        }
+        return payloadList;
+    }
+
+    private byte[] makeStapA(List<H264NalUnit> nalUnitList, int size) {
+        byte[] payload = new byte[size];
+
+        int maxNri = 0;
+        int index = 1;
+        for (H264NalUnit nalUnit : nalUnitList) {
+            maxNri = Math.max(maxNri, nalUnit.getNri());
+            int length = nalUnit.getLength();
+            payload[index] = (byte) ((length >> 8) & 0xFF);
+            payload[index + 1] = (byte) (length & 0xFF);
+            nalUnit.copyTo(0, payload, index + H264RtpDepacketizer.STAP_A_NALU_SIZE_LENGTH, length);
+            index += H264RtpDepacketizer.STAP_A_NALU_SIZE_LENGTH + length;
+        }
+
+        // STAP-A 의 NRI 는 묶인 NAL unit 중 가장 큰 값
+        payload[0] = (byte) ((maxNri << 5) | H264RtpInspector.NAL_TYPE_STAP_A);
+        return payload;
+    }
+
+    private void fragment(H264NalUnit nalUnit, List<byte[]> payloadList) {
+        int nalHeader = nalUnit.getHeader();
+        int fuIndicator = (nalHeader & 0xE0) | H264RtpInspector.NAL_TYPE_FU_A;
+        appendFragments(nalUnit.getData(), 1, nalUnit.getLength(), fuIndicator, nalHeader & 0x1F, true, true, maxPayloadSize, payloadList);
+    }
+
+    /**
+     * @fn private static void appendFragments(...)
+     * @brief [offset, end) 영역을 FU-A 조각들로 나누는 함수
+     * @param isFirst 첫 조각에 S bit 를 설정할지 여부
+     * @param isLast 마지막 조각에 E bit 를 설정할지 여부
+     */
+    private static void appendFragments(ByteBuffer data, int offset, int end,
+                                        int fuIndicator, int nalType, boolean isFirst, boolean isLast,
+                                        int maxPayloadSize, List<byte[]> payloadList) {
+        int maxFragmentSize = maxPayloadSize - H264RtpDepacketizer.FU_A_HEADER_LENGTH;
+        ByteBuffer source = data.duplicate();
+        source.clear();
+        source.position(offset);
+
+        int index = offset;
+        while (index < end) {
+            int fragmentSize = Math.min(maxFragmentSize, end - index);
+            byte[] payload = new byte[H264RtpDepacketizer.FU_A_HEADER_LENGTH + fragmentSize];
+
+            int fuHeader = nalType;
+            if (isFirst && index == offset) { fuHeader |= FU_START_BIT; }
+            if (isLast && index + fragmentSize == end) { fuHeader |= FU_END_BIT; }
+            payload[0] = (byte) fuIndicator;
+            payload[1] = (byte) fuHeader;
+            source.get(payload, H264RtpDepacketizer.FU_A_HEADER_LENGTH, fragmentSize);
+
+            payloadList.add(payload);
+            index += fragmentSize;
+        }
+    }
+
+    /**
+     * @fn public static List<byte[]> refragment(byte[] rtpData, int maxPacketSize)
+     * @brief RTP 패킷이 최대 크기를 넘으면 재조립 없이 여러 RTP 패킷으로 다시 나누는 함수
+     *
+     * - Single NAL unit : FU-A 로 나눈다.
+     * - FU-A : 원본 S/E bit 를 유지하면서 더 작은 FU-A 조각으로 나눈다.
+     * - STAP-A : 묶인 NAL unit 을 하나씩 (필요하면 FU-A 로) 보낸다.
+     * - 나눈 패킷은 원본 RTP 헤더 (CSRC, 확장 헤더 포함) 를 복사해서 쓰고, 시퀀스 번호는 호출한 쪽에서 다시 매긴다.
+     * - Marker bit 는 마지막 패킷에만 남기고, 패딩은 제거한다.
+     *
+     * @param rtpData RTP 패킷 데이터
+     * @param maxPacketSize RTP 패킷 최대 크기 (헤더 포함)
+     * @return RTP 패킷 목록, 나눌 필요가 없거나 나눌 수 없으면 원본 하나만 들어 있는 목록
+     */
+    public static List<byte[]> refragment(byte[] rtpData, int maxPacketSize) {
+        if (maxPacketSize <= 0 || rtpData.length <= maxPacketSize) {
+            return Collections.singletonList(rtpData);
+        }
+
+        ByteBuffer buffer = ByteBuffer.wrap(rtpData);
+        int headerLength = H264RtpInspector.getPayloadOffset(buffer, rtpData.length);
+        int end = H264RtpDepacketizer.getPayloadEnd(buffer, rtpData.length);
+        int maxPayloadSize = maxPacketSize - headerLength;
+        if (headerLength < 0 || end <= headerLength || maxPayloadSize <= H264RtpDepacketizer.FU_A_HEADER_LENGTH) {
+            return Collections.singletonList(rtpData);
+        }
+
+        List<byte[]> payloadList = new ArrayList<>();
+        int payloadHeader = rtpData[headerLength] & 0xFF;
+        int type = payloadHeader & 0x1F;
+        if (type == H264RtpInspector.NAL_TYPE_FU_A) {
+            if (end - headerLength <= H264RtpDepacketizer.FU_A_HEADER_LENGTH) {
+                return Collections.singletonList(rtpData);
+            }
+            int fuHeader = rtpData[headerLength + 1] & 0xFF;
+            appendFragments(
+                    buffer, headerLength + H264RtpDepacketizer.FU_A_HEADER_LENGTH, end,
+                    payloadHeader, fuHeader & 0x1F,
+                    (fuHeader & FU_START_BIT) == FU_START_BIT, (fuHeader & FU_END_BIT) == FU_END_BIT,
+                    maxPayloadSize, payloadList
+            );
+        } else if (type == H264RtpInspector.NAL_TYPE_STAP_A) {
+            H264RtpPacketizer packetizer = new H264RtpPacketizer(maxPayloadSize);
+            int index = headerLength + 1;
+            while (index + H264RtpDepacketizer.STAP_A_NALU_SIZE_LENGTH < end) {
+                int naluSize = ((rtpData[index] & 0xFF) << 8) | (rtpData[index + 1] & 0xFF);
+                index += H264RtpDepacketizer.STAP_A_NALU_SIZE_LENGTH;
+                if (naluSize == 0 || index + naluSize > end) { break; }
+
+                H264NalUnit nalUnit = H264NalUnit.wrap(buffer, index, naluSize);
+                if (naluSize <= maxPayloadSize) {
+                    payloadList.add(nalUnit.toByteArray());
+                } else {
+                    packetizer.fragment(nalUnit, payloadList);
+                }
+                index += naluSize;
+            }
+        } else if (type >= 1 && type <= H264RtpInspector.NAL_TYPE_SINGLE_MAX) {
+            new H264RtpPacketizer(maxPayloadSize).fragment(H264NalUnit.wrap(buffer, headerLength, end - headerLength), payloadList);
+        }
+
+        if (payloadList.size() <= 1) {
+            return Collections.singletonList(rtpData);
+        }
+
+        boolean marker = (rtpData[1] & 0x80) == 0x80;
+        List<byte[]> rtpDataList = new ArrayList<>(payloadList.size());
+        for (int i = 0; i < payloadList.size(); i++) {
+            byte[] payload = payloadList.get(i);
+            byte[] packet = new byte[headerLength + payload.length];
+            System.arraycopy(rtpData, 0, packet, 0, headerLength);
+            System.arraycopy(payload, 0, packet, headerLength, payload.length);
+
+            packet[0] = (byte) (packet[0] & ~0x20); // P = 0
+            boolean isLast = (i == payloadList.size() - 1);
+            packet[1] = (byte) ((marker && isLast) ? (packet[1] | 0x80) : (packet[1] & 0x7F));
+            rtpDataList.add(packet);
+        }
+        return rtpDataList;
+    }
+
+    public int getMaxPayloadSize() {
+        return maxPayloadSize;
+    }
+    ////////////////////////////////////////////////////////////
+
+}
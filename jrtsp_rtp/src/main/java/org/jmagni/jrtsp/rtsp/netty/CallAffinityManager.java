@@ -0,0 +1,189 @@
+package org.jmagni.jrtsp.rtsp.netty;
+
+import io.netty.channel.EventLoop;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.util.concurrent.DefaultThreadFactory;
+import io.netty.util.concurrent.EventExecutor;
+import org.jmagni.jrtsp.config.UserConfig;
+import org.jmagni.jrtsp.service.AppInstance;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * @class public class CallAffinityManager
+ * @brief Call 마다 하나의 EventLoop (코어) 를 정해주는 클래스
+ *
+ * - 모든 RTP/RTCP UDP 채널과 RTSP 연결이 하나의 공유 EventLoopGroup 을 쓴다. (Streamer 마다 EventLoopGroup 을 만들지 않음)
+ * - 같은 Call 의 Relay (RtpInfoSender), UDP 전송, RTCP 수신은 모두 그 Call 의 EventLoop 에서 실행된다.
+ *   > 패킷마다 스레드를 건너가지 않고, Streamer 상태를 잠그지 않는다.
+ * - 새 Call 은 부하 (그 EventLoop 에 붙은 채널 수) 가 가장 작은 EventLoop 에 배치한다.
+ * - acquire() 한 만큼 release() 하면 배치가 풀린다. (다음 acquire 에서 다시 배치)
+ * - 배치와 해제는 SETUP/TEARDOWN 때만 일어나므로 잠그고, 조회 (getEventLoop) 는 잠그지 않는다.
+ */
+public class CallAffinityManager {
+
+    ////////////////////////////////////////////////////////////
+    // VARIABLES
+    private static final Logger logger = LoggerFactory.getLogger(CallAffinityManager.class);
+
+    private static final CallAffinityManager callAffinityManager = new CallAffinityManager();
+
+    private volatile EventLoopGroup eventLoopGroup = null;
+    private EventLoop[] eventLoops = new EventLoop[0];
+    private int[] eventLoopLoads = new int[0];
+
+    // Key : Call-ID, Value : 배치 정보
+    private final ConcurrentHashMap<String, CallPlacement> placementMap = new ConcurrentHashMap<>();
+    ////////////////////////////////////////////////////////////
+
+    ////////////////////////////////////////////////////////////
+    // CONSTRUCTOR
+    private CallAffinityManager() {
+        // Nothing
+    }
+
+    public static CallAffinityManager getInstance() {
+        return callAffinityManager;
+    }
+    ////////////////////////////////////////////////////////////
+
+    ////////////////////////////////////////////////////////////
+    // FUNCTIONS
+    /**
+     * @fn public EventLoopGroup getEventLoopGroup()
+     * @brief 공유 EventLoopGroup 을 반환하는 함수 (처음 호출할 때 STREAM_THREAD_POOL_SIZE 개의 스레드로 만든다)
+     */
+    public EventLoopGroup getEventLoopGroup() {
+        EventLoopGroup curEventLoopGroup = eventLoopGroup;
+        if (curEventLoopGroup != null) { return curEventLoopGroup; }
+
+        synchronized (this) {
+            if (eventLoopGroup == null) {
+                UserConfig userConfig = AppInstance.getInstance().getConfigManager().getUserConfig();
+                NioEventLoopGroup newEventLoopGroup = new NioEventLoopGroup(
+                        userConfig.getStreamThreadPoolSize(),
+                        new DefaultThreadFactory("CallEventLoop", true)
+                );
+
+                List<EventLoop> eventLoopList = new ArrayList<>();
+                for (EventExecutor eventExecutor : newEventLoopGroup) {
+                    eventLoopList.add((EventLoop) eventExecutor);
+                }
+                eventLoops = eventLoopList.toArray(new EventLoop[0]);
+                eventLoopLoads = new int[eventLoops.length];
+                eventLoopGroup = newEventLoopGroup;
+                logger.debug("CallAffinityManager is started. (eventLoops={})", eventLoops.length);
+            }
+            return eventLoopGroup;
+        }
+    }
+
+    /**
+     * @fn public EventLoop acquire(String callId)
+     * @brief Call 의 EventLoop 를 반환하고 사용 개수를 하나 늘리는 함수 (배치되지 않은 Call 은 가장 한가한 EventLoop 에 배치)
+     * @param callId Call-ID
+     * @return Call 의 EventLoop
+     */
+    public EventLoop acquire(String callId) {
+        synchronized (this) {
+            getEventLoopGroup();
+            CallPlacement placement = placementMap.get(callId);
+            if (placement == null) {
+                int index = getLeastLoadedIndex();
+                placement = new CallPlacement(eventLoops[index], index);
+                placementMap.put(callId, placement);
+                logger.debug("({}) Call is placed on the event loop. (index={}, loads={})",
+                        callId, placement.index, eventLoopLoads[placement.index]
+                );
+            }
+
+            placement.refCount++;
+            eventLoopLoads[placement.index]++;
+            return placement.eventLoop;
+        }
+    }
+
+    /**
+     * @fn public synchronized void release(String callId)
+     * @brief acquire() 로 늘린 사용 개수를 하나 줄이는 함수 (0 이 되면 Call 의 배치를 푼다)
+     * @param callId Call-ID
+     */
+    public synchronized void release(String callId) {
+        CallPlacement placement = placementMap.get(callId);
+        if (placement == null) { return; }
+
+        placement.refCount--;
+        if (placement.index < eventLoopLoads.length && eventLoopLoads[placement.index] > 0) {
+            eventLoopLoads[placement.index]--;
+        }
+
+        if (placement.refCount <= 0) {
+            placementMap.remove(callId);
+            logger.debug("({}) Call is released from the event loop. (index={})", callId, placement.index);
+        }
+    }
+
+    /**
+     * @fn public EventLoop getEventLoop(String callId)
+     * @brief 배치된 Call 의 EventLoop 를 반환하는 함수 (사용 개수는 바꾸지 않음)
+     * @return 배치되지 않은 Call 이면 null
+     */
+    public EventLoop getEventLoop(String callId) {
+        CallPlacement placement = placementMap.get(callId);
+        return placement == null ? null : placement.eventLoop;
+    }
+
+    public int getCallCount() {
+        return placementMap.size();
+    }
+
+    public synchronized int[] getEventLoopLoads() {
+        return eventLoopLoads.clone();
+    }
+
+    public void stop() {
+        EventLoopGroup curEventLoopGroup;
+        synchronized (this) {
+            curEventLoopGroup = eventLoopGroup;
+            eventLoopGroup = null;
+            eventLoops = new EventLoop[0];
+            eventLoopLoads = new int[0];
+            placementMap.clear();
+        }
+
+        if (curEventLoopGroup != null) {
+            curEventLoopGroup.shutdownGracefully();
+            logger.debug("CallAffinityManager is stopped.");
+        }
+    }
+
+    private int getLeastLoadedIndex() {
+        int leastIndex = 0;
+        for (int i = 1; i < eventLoopLoads.length; i++) {
+            if (eventLoopLoads[i] < eventLoopLoads[leastIndex]) {
+                leastIndex = i;
+            }
+        }
+        return leastIndex;
+    }
+    ////////////////////////////////////////////////////////////
+
+    private static class CallPlacement {
+
+        private final EventLoop eventLoop;
+        private final int index;
+        private int refCount = 0; // CallAffinityManager 잠금 안에서만 사용
+
+        private CallPlacement(EventLoop eventLoop, int index) {
+            this.eventLoop = eventLoop;
+            this.index = index;
+        }
+
+    }
+
+}
@@ -8,10 +8,9 @@ import org.jmagni.jrtsp.rtsp.netty.module.RtspNettyChannel;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
-import java.util.Objects;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.stream.Collectors;
 
@@ -96,7 +95,7 @@ public class NettyChannelManager {
 
     ////////////////////////////////////////////////////////////////////////////////
 
-    public RtcpNettyChannel openRtcpChannel(String streamerKey, String ip, int port) {
+    public RtcpNettyChannel openRtcpChannel(String callId, String streamerKey, String ip, int port) {
         try {
             rtcpChannelMapLock.lock();
 
@@ -111,7 +110,7 @@ public class NettyChannelManager {
                 return false;
             }*/
 
-            RtcpNettyChannel rtcpNettyChannel = new RtcpNettyChannel(streamerKey, ip, port);
+            RtcpNettyChannel rtcpNettyChannel = new RtcpNettyChannel(callId, streamerKey, ip, port);
             rtcpNettyChannel.run(ip, port);
 
             // 메시지 수신용 채널 open
@@ -164,7 +163,11 @@ public class NettyChannelManager {
     public void deleteAllRtcpChannels () {
         try {
             rtcpChannelMapLock.lock();
-            rtcpChannelMap.entrySet().removeIf(Objects::nonNull);
+            for (RtcpNettyChannel rtcpNettyChannel : rtcpChannelMap.values()) {
+                rtcpNettyChannel.closeChannel();
+                rtcpNettyChannel.stop();
+            }
+            rtcpChannelMap.clear();
 
             logger.debug("| Success to close all rtcp channel(s).");
         } catch (Exception e) {
@@ -197,6 +200,15 @@ public class NettyChannelManager {
         return rtspNettyChannel.addStreamer(mediaType, callId, sessionId, trackId, isTcp);
     }
 
+    public Streamer replaceStreamer(MediaType mediaType, String callId, String sessionId, String trackId, boolean isTcp) {
+        if (rtspNettyChannel == null) {
+            logger.warn("({}) Fail to replace the message sender. Not found the netty channel. (callId={}, trackId={}", callId, trackId, sessionId);
+            return null;
+        }
+
+        return rtspNettyChannel.replaceStreamer(mediaType, callId, sessionId, trackId, isTcp);
+    }
+
     public Streamer getStreamer(String key) {
         if (rtspNettyChannel == null) {
             logger.warn("({}) Fail to get the message sender. Not found the netty channel.", key);
@@ -234,7 +246,9 @@ public class NettyChannelManager {
     }
 
     public List<Streamer> getStreamerListByUri(String videoUri) {
-        return rtspNettyChannel.getCloneStreamerMap().values().stream().filter(
+        if (rtspNettyChannel == null) { return Collections.emptyList(); }
+
+        return rtspNettyChannel.getStreamerRegistry().getAll().stream().filter(
                 streamer -> {
                     if (streamer == null) { return false; }
                     return streamer.getUri().equals(videoUri);
@@ -242,26 +256,32 @@ public class NettyChannelManager {
         ).collect(Collectors.toList());
     }
 
+    /**
+     * @fn public List<Streamer> getStreamerListByCallId(String callId)
+     * @brief Call 의 Streamer 목록을 반환하는 함수 (읽기 전용, 패킷마다 호출되므로 복사하지 않음)
+     */
     public List<Streamer> getStreamerListByCallId(String callId) {
-        return rtspNettyChannel.getCloneStreamerMap().values().stream().filter(
-                streamer -> {
-                    if (streamer == null) { return false; }
-                    return streamer.getCallId().equals(callId);
-                }
-        ).collect(Collectors.toList());
+        if (rtspNettyChannel == null) { return Collections.emptyList(); }
+
+        return rtspNettyChannel.getStreamerRegistry().getByCallId(callId);
     }
 
     public Streamer getStreamerBySessionId(String sessionId) {
-        return rtspNettyChannel.getCloneStreamerMap().values().stream().filter(
-                streamer -> {
-                    if (streamer == null) { return false; }
-                    return streamer.getSessionId().equals(sessionId);
-                }
-        ).findFirst().orElse(null);
+        if (rtspNettyChannel == null) { return null; }
+
+        return rtspNettyChannel.getStreamerRegistry().getFirstBySessionId(sessionId);
+    }
+
+    public List<Streamer> getStreamerListBySessionId(String sessionId) {
+        if (rtspNettyChannel == null) { return Collections.emptyList(); }
+
+        return rtspNettyChannel.getStreamerRegistry().getBySessionId(sessionId);
     }
 
     public List<Streamer> getAllStreamers() {
-        return new ArrayList<>(rtspNettyChannel.getCloneStreamerMap().values());
+        if (rtspNettyChannel == null) { return Collections.emptyList(); }
+
+        return rtspNettyChannel.getStreamerRegistry().getAll();
     }
 
 }
@@ -0,0 +1,215 @@
+package org.jmagni.jrtsp.rtsp.netty;
+
+import org.jmagni.jrtsp.rtsp.Streamer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.jmagni.jrtsp.rtsp.netty.base.RtspRequestParser.MAX_INTERLEAVED_CHANNEL;
+
+/**
+ * @class public class RtspTrackTable
+ * @brief RTSP 연결 (세션) 하나가 SETUP 한 Track (Streamer) 목록을 보관하는 클래스
+ *
+ * - Track 개수에 제한이 없다. (오디오 / 비디오 두 칸으로 고정하지 않음, 비디오 Layer, 메타데이터, 두 번째 오디오 등)
+ * - Track ID 로 찾기 : SETUP 순서대로 배열에 보관 (Track 은 몇 개 안 되므로 훑는 것이 Map 보다 싸다)
+ * - Interleaved 채널로 찾기 : 채널 번호 (0 ~ 255) 를 그대로 배열 인덱스로 쓴다. (RTP, RTCP 채널 모두)
+ * - SSRC 로 찾기 : 한 번 찾은 SSRC 는 기억한다. (원본 SSRC 가 바뀌면 다시 찾음)
+ * - 조회는 잠그지 않고, 추가 / 삭제는 배열을 새로 만들어서 교체한다. (copy-on-write)
+ */
+public class RtspTrackTable {
+
+    ////////////////////////////////////////////////////////////
+    // VARIABLES
+    private static final Streamer[] EMPTY_TRACKS = new Streamer[0];
+
+    private volatile Streamer[] tracks = EMPTY_TRACKS;
+    private volatile Streamer[] channelIndex = new Streamer[MAX_INTERLEAVED_CHANNEL + 1];
+    private final ConcurrentHashMap<Long, Streamer> ssrcIndex = new ConcurrentHashMap<>();
+    ////////////////////////////////////////////////////////////
+
+    ////////////////////////////////////////////////////////////
+    // CONSTRUCTOR
+    public RtspTrackTable() {
+        // Nothing
+    }
+    ////////////////////////////////////////////////////////////
+
+    ////////////////////////////////////////////////////////////
+    // FUNCTIONS
+    /**
+     * @fn public synchronized Streamer put(Streamer streamer)
+     * @brief Track 을 추가하는 함수, 같은 Track ID 가 있으면 교체한다.
+     * @return 교체된 이전 Track, 없으면 null
+     */
+    public synchronized Streamer put(Streamer streamer) {
+        Streamer prevStreamer = get(streamer.getTrackId());
+        if (prevStreamer != null) {
+            remove(prevStreamer);
+        }
+
+        Streamer[] curTracks = tracks;
+        Streamer[] newTracks = Arrays.copyOf(curTracks, curTracks.length + 1);
+        newTracks[curTracks.length] = streamer;
+        tracks = newTracks;
+
+        if (streamer.isTcp()) {
+            Streamer[] newChannelIndex = channelIndex.clone();
+            setChannel(newChannelIndex, streamer.getInterleavedRtpChannel(), streamer);
+            setChannel(newChannelIndex, streamer.getInterleavedRtcpChannel(), streamer);
+            channelIndex = newChannelIndex;
+        }
+        return prevStreamer;
+    }
+
+    /**
+     * @fn public synchronized boolean remove(Streamer streamer)
+     * @brief Track 을 지우는 함수
+     * @return 지웠으면 true
+     */
+    public synchronized boolean remove(Streamer streamer) {
+        Streamer[] curTracks = tracks;
+        int index = indexOf(curTracks, streamer);
+        if (index < 0) { return false; }
+
+        Streamer[] newTracks = new Streamer[curTracks.length - 1];
+        System.arraycopy(curTracks, 0, newTracks, 0, index);
+        System.arraycopy(curTracks, index + 1, newTracks, index, curTracks.length - index - 1);
+        tracks = newTracks;
+
+        Streamer[] newChannelIndex = channelIndex.clone();
+        for (int i = 0; i < newChannelIndex.length; i++) {
+            if (newChannelIndex[i] == streamer) {
+                newChannelIndex[i] = null;
+            }
+        }
+        channelIndex = newChannelIndex;
+
+        ssrcIndex.values().removeIf(track -> track == streamer);
+        return true;
+    }
+
+    /**
+     * @fn public synchronized List<Streamer> clear()
+     * @brief 모든 Track 을 지우는 함수
+     * @return 지운 Track 목록
+     */
+    public synchronized List<Streamer> clear() {
+        List<Streamer> removedList = getAll();
+        tracks = EMPTY_TRACKS;
+        channelIndex = new Streamer[MAX_INTERLEAVED_CHANNEL + 1];
+        ssrcIndex.clear();
+        return removedList;
+    }
+
+    public Streamer get(String trackId) {
+        for (Streamer streamer : tracks) {
+            if (streamer.getTrackId().equals(trackId)) { return streamer; }
+        }
+        return null;
+    }
+
+    /**
+     * @fn public Streamer getByChannel(int channel)
+     * @brief Interleaved 채널 번호 (RTP 또는 RTCP) 로 Track 을 찾는 함수
+     */
+    public Streamer getByChannel(int channel) {
+        if (channel < 0 || channel > MAX_INTERLEAVED_CHANNEL) { return null; }
+        return channelIndex[channel];
+    }
+
+    /**
+     * @fn public boolean isChannelUsed(int channel, String trackId)
+     * @brief 다른 Track 이 이미 쓰고 있는 Interleaved 채널인지 확인하는 함수 (같은 Track ID 는 교체되므로 제외)
+     */
+    public boolean isChannelUsed(int channel, String trackId) {
+        Streamer streamer = getByChannel(channel);
+        return streamer != null && !streamer.getTrackId().equals(trackId);
+    }
+
+    /**
+     * @fn public Streamer getBySsrc(long ssrc)
+     * @brief 원본 SSRC 로 Track 을 찾는 함수
+     */
+    public Streamer getBySsrc(long ssrc) {
+        Streamer streamer = ssrcIndex.get(ssrc);
+        if (streamer != null && streamer.getSsrc() == ssrc) { return streamer; }
+
+        for (Streamer track : tracks) {
+            if (track.getSsrc() == ssrc) {
+                ssrcIndex.put(ssrc, track);
+                return track;
+            }
+        }
+        if (streamer != null) {
+            ssrcIndex.remove(ssrc, streamer);
+        }
+        return null;
+    }
+
+    /**
+     * @fn public List<Streamer> getBySessionId(String sessionId)
+     * @brief 이 연결의 Track 중 Session ID 가 같은 Track 목록을 반환하는 함수
+     * (다른 연결의 세션은 전역 Registry 에 있어도 찾지 않는다)
+     */
+    public List<Streamer> getBySessionId(String sessionId) {
+        List<Streamer> streamerList = null;
+        for (Streamer track : tracks) {
+            if (!track.getSessionId().equals(sessionId)) { continue; }
+            if (streamerList == null) {
+                streamerList = new ArrayList<>(tracks.length);
+            }
+            streamerList.add(track);
+        }
+        return (streamerList == null) ? Collections.emptyList() : streamerList;
+    }
+
+    /**
+     * @fn public List<Streamer> getAll()
+     * @brief SETUP 순서의 Track 목록을 반환하는 함수 (읽기 전용, 복사하지 않음)
+     */
+    public List<Streamer> getAll() {
+        Streamer[] curTracks = tracks;
+        if (curTracks.length == 0) {
+            return Collections.emptyList();
+        }
+        return Collections.unmodifiableList(Arrays.asList(curTracks));
+    }
+
+    public int size() {
+        return tracks.length;
+    }
+
+    public boolean isEmpty() {
+        return tracks.length == 0;
+    }
+
+    /**
+     * @fn public boolean isTransportMixed()
+     * @brief TCP 와 UDP Track 이 섞여 있는지 확인하는 함수 (한 세션은 한 가지 전송 방식만 사용)
+     */
+    public boolean isTransportMixed() {
+        Streamer[] curTracks = tracks;
+        for (int i = 1; i < curTracks.length; i++) {
+            if (curTracks[i].isTcp() != curTracks[0].isTcp()) { return true; }
+        }
+        return false;
+    }
+
+    private static void setChannel(Streamer[] channelIndex, int channel, Streamer streamer) {
+        if (channel < 0 || channel > MAX_INTERLEAVED_CHANNEL) { return; }
+        channelIndex[channel] = streamer;
+    }
+
+    private static int indexOf(Streamer[] streamers, Streamer streamer) {
+        for (int i = 0; i < streamers.length; i++) {
+            if (streamers[i] == streamer) { return i; }
+        }
+        return -1;
+    }
+    ////////////////////////////////////////////////////////////
+
+}
@@ -0,0 +1,305 @@
+package org.jmagni.jrtsp.rtsp.netty;
+
+import org.jmagni.jrtsp.rtsp.Streamer;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * @class public class StreamerRegistry
+ * @brief Streamer 를 key, Call-ID, Session-ID 로 바로 찾을 수 있게 보관하는 클래스
+ *
+ * - 조회 (get, getByCallId, getBySessionId) 는 잠그지 않는다.
+ *   > RtpInfoSender 가 패킷마다 Call 의 시청자 목록을 조회하므로 전체 Map 을 복사하거나 훑지 않는다.
+ *   > Call-ID 인덱스는 읽기용 목록 (snapshot) 을 만들어 두고 바뀌기 전까지 그대로 준다.
+ *     바뀐 뒤 첫 조회만 잠금을 잡고 snapshot 을 다시 만든다.
+ *   > Session-ID 인덱스는 Track 수 (audio, video) 만큼만 들어가므로 바뀔 때마다 새 배열로 교체 (copy-on-write) 한다.
+ * - 추가, 교체, 삭제는 Call-ID 해시로 고른 잠금 (stripe) 하나만 잡는다.
+ *   > 같은 Call 의 SETUP/TEARDOWN 만 서로 기다리고, 다른 Call 은 동시에 처리된다.
+ *   > 세 인덱스는 같은 잠금 안에서 함께 바뀐다.
+ * - 비용 (Call 의 Streamer 수 N)
+ *   > 추가, 삭제 : O(1), 배열을 복사하지 않는다. (삭제는 마지막 Streamer 를 빈 자리로 옮기므로 순서는 유지하지 않음)
+ *   > 조회 : snapshot 이 있으면 O(1), 바뀐 뒤 첫 조회만 O(N) 복사
+ *   > SETUP/TEARDOWN 이 N 번 몰려도 복사는 그 사이의 조회 횟수만큼만 일어난다. (조회가 없으면 전체 O(N), 변경마다 복사하던 O(N^2) 가 아님)
+ */
+public class StreamerRegistry {
+
+    ////////////////////////////////////////////////////////////
+    // VARIABLES
+    private final ConcurrentHashMap<String, Streamer> keyMap = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, CallStreamers> callIdIndex = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Streamer[]> sessionIdIndex = new ConcurrentHashMap<>();
+
+    private final ReentrantLock[] stripeLocks;
+    private final int stripeMask;
+    ////////////////////////////////////////////////////////////
+
+    ////////////////////////////////////////////////////////////
+    // CONSTRUCTOR
+    public StreamerRegistry() {
+        this(Runtime.getRuntime().availableProcessors() * 4);
+    }
+
+    /**
+     * @param stripeCount 잠금 개수 (2 의 거듭제곱으로 올림)
+     */
+    public StreamerRegistry(int stripeCount) {
+        int count = 1;
+        while (count < stripeCount) {
+            count <<= 1;
+        }
+
+        stripeLocks = new ReentrantLock[count];
+        for (int i = 0; i < count; i++) {
+            stripeLocks[i] = new ReentrantLock();
+        }
+        stripeMask = count - 1;
+    }
+    ////////////////////////////////////////////////////////////
+
+    ////////////////////////////////////////////////////////////
+    // FUNCTIONS
+    /**
+     * @fn public Streamer add(String callId, String key, Supplier<Streamer> factory)
+     * @brief key 가 없을 때만 Streamer 를 만들어서 등록하는 함수
+     * @return 등록된 Streamer, 이미 있거나 만들지 못했으면 null
+     */
+    public Streamer add(String callId, String key, Supplier<Streamer> factory) {
+        ReentrantLock lock = getStripeLock(callId);
+        lock.lock();
+        try {
+            if (keyMap.containsKey(key)) { return null; }
+
+            Streamer streamer = factory.get();
+            if (streamer == null) { return null; }
+            index(streamer);
+            return streamer;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @fn public Streamer replace(String callId, String key, Supplier<Streamer> factory, Consumer<Streamer> onRemoved)
+     * @brief 같은 key 의 Streamer 가 있으면 지우고 새로 만들어서 등록하는 함수 (다른 스레드는 중간 상태를 보지 못함)
+     * @param onRemoved 지운 Streamer 정리 함수 (잠금 안에서 호출)
+     * @return 등록된 Streamer, 만들지 못했으면 null (기존 Streamer 는 지워진 상태)
+     */
+    public Streamer replace(String callId, String key, Supplier<Streamer> factory, Consumer<Streamer> onRemoved) {
+        ReentrantLock lock = getStripeLock(callId);
+        lock.lock();
+        try {
+            Streamer oldStreamer = keyMap.get(key);
+            if (oldStreamer != null) {
+                unindex(oldStreamer);
+                if (onRemoved != null) {
+                    onRemoved.accept(oldStreamer);
+                }
+            }
+
+            Streamer streamer = factory.get();
+            if (streamer == null) { return null; }
+            index(streamer);
+            return streamer;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @fn public Streamer remove(String key)
+     * @brief key 에 해당하는 Streamer 를 지우는 함수
+     * @return 지운 Streamer, 없으면 null
+     */
+    public Streamer remove(String key) {
+        Streamer streamer = keyMap.get(key);
+        if (streamer == null) { return null; }
+
+        ReentrantLock lock = getStripeLock(streamer.getCallId());
+        lock.lock();
+        try {
+            // 잠그는 동안 다른 스레드가 교체했을 수 있다.
+            streamer = keyMap.get(key);
+            if (streamer == null) { return null; }
+            unindex(streamer);
+            return streamer;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @fn public List<Streamer> removeAll()
+     * @brief 모든 Streamer 를 지우는 함수
+     * @return 지운 Streamer 목록
+     */
+    public List<Streamer> removeAll() {
+        List<Streamer> removedList = new ArrayList<>();
+        for (String key : keyMap.keySet()) {
+            Streamer streamer = remove(key);
+            if (streamer != null) {
+                removedList.add(streamer);
+            }
+        }
+        return removedList;
+    }
+
+    public Streamer get(String key) {
+        return keyMap.get(key);
+    }
+
+    /**
+     * @fn public List<Streamer> getByCallId(String callId)
+     * @brief Call 의 Streamer 목록을 반환하는 함수 (읽기 전용, 복사하지 않음)
+     */
+    public List<Streamer> getByCallId(String callId) {
+        CallStreamers callStreamers = callIdIndex.get(callId);
+        if (callStreamers == null) {
+            return Collections.emptyList();
+        }
+
+        List<Streamer> snapshot = callStreamers.snapshot;
+        if (snapshot != null) {
+            return snapshot;
+        }
+
+        ReentrantLock lock = getStripeLock(callId);
+        lock.lock();
+        try {
+            return callStreamers.getSnapshot();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @fn public List<Streamer> getBySessionId(String sessionId)
+     * @brief Session 의 Streamer 목록 (audio, video track) 을 반환하는 함수 (읽기 전용, 복사하지 않음)
+     */
+    public List<Streamer> getBySessionId(String sessionId) {
+        return asList(sessionIdIndex.get(sessionId));
+    }
+
+    public Streamer getFirstBySessionId(String sessionId) {
+        Streamer[] streamers = sessionIdIndex.get(sessionId);
+        return (streamers == null || streamers.length == 0) ? null : streamers[0];
+    }
+
+    public List<Streamer> getAll() {
+        return new ArrayList<>(keyMap.values());
+    }
+
+    public int size() {
+        return keyMap.size();
+    }
+
+    public int getSessionCount() {
+        return sessionIdIndex.size();
+    }
+
+    private ReentrantLock getStripeLock(String callId) {
+        int hash = callId.hashCode();
+        return stripeLocks[(hash ^ (hash >>> 16)) & stripeMask];
+    }
+
+    private void index(Streamer streamer) {
+        keyMap.put(streamer.getKey(), streamer);
+        callIdIndex.computeIfAbsent(streamer.getCallId(), callId -> new CallStreamers()).add(streamer);
+        sessionIdIndex.compute(streamer.getSessionId(), (sessionId, streamers) -> append(streamers, streamer));
+    }
+
+    private void unindex(Streamer streamer) {
+        keyMap.remove(streamer.getKey(), streamer);
+        CallStreamers callStreamers = callIdIndex.get(streamer.getCallId());
+        if (callStreamers != null && callStreamers.remove(streamer) && callStreamers.isEmpty()) {
+            callIdIndex.remove(streamer.getCallId(), callStreamers);
+        }
+        // 빈 배열이 되면 null 을 반환해서 인덱스에서 지운다.
+        sessionIdIndex.computeIfPresent(streamer.getSessionId(), (sessionId, streamers) -> exclude(streamers, streamer));
+    }
+
+    private static Streamer[] append(Streamer[] streamers, Streamer streamer) {
+        if (streamers == null) {
+            return new Streamer[]{streamer};
+        }
+
+        Streamer[] newStreamers = Arrays.copyOf(streamers, streamers.length + 1);
+        newStreamers[streamers.length] = streamer;
+        return newStreamers;
+    }
+
+    private static Streamer[] exclude(Streamer[] streamers, Streamer streamer) {
+        int index = -1;
+        for (int i = 0; i < streamers.length; i++) {
+            if (streamers[i] == streamer) {
+                index = i;
+                break;
+            }
+        }
+        if (index < 0) { return streamers; }
+        if (streamers.length == 1) { return null; }
+
+        Streamer[] newStreamers = new Streamer[streamers.length - 1];
+        System.arraycopy(streamers, 0, newStreamers, 0, index);
+        System.arraycopy(streamers, index + 1, newStreamers, index, streamers.length - index - 1);
+        return newStreamers;
+    }
+
+    private static List<Streamer> asList(Streamer[] streamers) {
+        if (streamers == null) {
+            return Collections.emptyList();
+        }
+        return Collections.unmodifiableList(Arrays.asList(streamers));
+    }
+    ////////////////////////////////////////////////////////////
+
+    /**
+     * @class private static final class CallStreamers
+     * @brief Call 하나의 Streamer 목록 (add, remove 는 Call 의 stripe 잠금 안에서만 호출)
+     */
+    private static final class CallStreamers {
+
+        private final ArrayList<Streamer> streamerList = new ArrayList<>();
+        private final IdentityHashMap<Streamer, Integer> indexMap = new IdentityHashMap<>(); // streamerList 안의 위치
+        // 읽기용 목록, 바뀌면 null (다음 조회에서 다시 만든다)
+        private volatile List<Streamer> snapshot = null;
+
+        private void add(Streamer streamer) {
+            if (indexMap.putIfAbsent(streamer, streamerList.size()) != null) { return; }
+            streamerList.add(streamer);
+            snapshot = null;
+        }
+
+        private boolean remove(Streamer streamer) {
+            Integer index = indexMap.remove(streamer);
+            if (index == null) { return false; }
+
+            // 마지막 Streamer 를 빈 자리로 옮긴다. (뒤쪽을 당기지 않음)
+            Streamer last = streamerList.remove(streamerList.size() - 1);
+            if (last != streamer) {
+                streamerList.set(index, last);
+                indexMap.put(last, index);
+            }
+            snapshot = null;
+            return true;
+        }
+
+        private boolean isEmpty() {
+            return streamerList.isEmpty();
+        }
+
+        private List<Streamer> getSnapshot() {
+            List<Streamer> curSnapshot = snapshot;
+            if (curSnapshot == null) {
+                curSnapshot = Collections.unmodifiableList(Arrays.asList(streamerList.toArray(new Streamer[0])));
+                snapshot = curSnapshot;
+            }
+            return curSnapshot;
+        }
+
+    }
+
+}
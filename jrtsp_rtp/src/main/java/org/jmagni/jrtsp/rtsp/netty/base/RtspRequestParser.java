@@ -0,0 +1,279 @@
+package org.jmagni.jrtsp.rtsp.netty.base;
+
+import io.netty.handler.codec.rtsp.RtspHeaderValues;
+import io.netty.util.AsciiString;
+
+import static org.jmagni.jrtsp.rtsp.stream.rtp.base.RtpMeta.*;
+
+/**
+ * @class public class RtspRequestParser
+ * @brief RTSP 요청 URI, Transport, Session 헤더를 한 번 훑어서 해석하는 클래스
+ *
+ * - CharSequence (String, AsciiString) 의 위치만 계산하고, 중간 문자열 (substring) 을 만들지 않는다.
+ * - 결과로 필요한 값 (Call-ID, destination 등) 만 마지막에 한 번 문자열로 만든다.
+ * - Track ID 는 10 진수면 모두 받는다. (기본 SDP 의 1, 2 는 RtpMeta 상수를 그대로 반환한다)
+ */
+public class RtspRequestParser {
+
+    ////////////////////////////////////////////////////////////
+    // VARIABLES
+    private static final AsciiString RTSP_PREFIX = AsciiString.cached("rtsp://");
+    private static final AsciiString TCP_LOWER_TRANSPORT = AsciiString.cached("RTP/AVP/TCP");
+
+    public static final int MAX_INTERLEAVED_CHANNEL = 255; // 1 byte
+    ////////////////////////////////////////////////////////////
+
+    ////////////////////////////////////////////////////////////
+    // CONSTRUCTOR
+    private RtspRequestParser() {
+        // Nothing
+    }
+    ////////////////////////////////////////////////////////////
+
+    ////////////////////////////////////////////////////////////
+    // FUNCTIONS
+    /**
+     * @fn public static RtspRequestUri parseUri(CharSequence uri)
+     * @brief 요청 URI 에서 Call-ID, Track ID, Track ID 를 뺀 URI 를 꺼내는 함수
+     *
+     *    rtsp://[domain name]:[port]/0cdef1795485d46babb5b505902828f7@192.168.5.222/trackID=1
+     *
+     * @param uri 요청 URI
+     * @return 해석 결과, uri 가 null 이면 null
+     */
+    public static RtspRequestUri parseUri(CharSequence uri) {
+        if (uri == null) { return null; }
+
+        int length = uri.length();
+        int start = indexOf(uri, RTSP_PREFIX, 0, length);
+        start = (start < 0) ? 0 : start + RTSP_PREFIX.length();
+
+        int end = length;
+        if (end > start && uri.charAt(end - 1) == '/') {
+            end--;
+        }
+
+        // 한 번 훑으면서 Call-ID 시작 위치 (host 뒤 첫 '/') 와 trackID 위치를 찾는다.
+        int callIdStart = -1;
+        int trackIdPos = -1;
+        for (int i = start; i < end; i++) {
+            char c = uri.charAt(i);
+            if (callIdStart < 0) {
+                if (c == '/') { callIdStart = i + 1; }
+            } else if (c == TRACK_ID_TAG.charAt(0) && regionMatches(uri, i, end, TRACK_ID_TAG)) {
+                trackIdPos = i;
+                break;
+            }
+        }
+        if (callIdStart < 0) {
+            return new RtspRequestUri(null, null, uri.toString(), false); // host 만 있음
+        }
+
+        String trackId = null;
+        boolean isTrackIdValid = true;
+        int callIdEnd = end;
+        String baseUri = uri.toString();
+        if (trackIdPos > callIdStart) {
+            callIdEnd = trackIdPos - 1; // '/' 제외
+            int trackIdStart = trackIdPos + TRACK_ID_TAG.length() + 1; // '=' 제외
+            if (regionEquals(uri, trackIdStart, end, AUDIO_TRACK_ID)) {
+                trackId = AUDIO_TRACK_ID;
+            } else if (regionEquals(uri, trackIdStart, end, VIDEO_TRACK_ID)) {
+                trackId = VIDEO_TRACK_ID;
+            } else if (isDigits(uri, trackIdStart, end)) {
+                trackId = uri.subSequence(trackIdStart, end).toString();
+            } else {
+                isTrackIdValid = false;
+            }
+            baseUri = baseUri.substring(0, trackIdPos - 1);
+        }
+
+        String callId = (callIdEnd > callIdStart) ? uri.subSequence(callIdStart, callIdEnd).toString() : null;
+        return new RtspRequestUri(callId, trackId, baseUri, isTrackIdValid);
+    }
+
+    /**
+     * @fn public static RtspTransport parseTransport(CharSequence transport)
+     * @brief Transport 헤더의 첫 번째 transport-spec 에서 전송 방식, 포트, destination 을 꺼내는 함수
+     * - client_port 가 있으면 port 보다 먼저 사용한다.
+     * @param transport Transport 헤더 값
+     * @return 해석 결과, transport 가 null 이면 null
+     */
+    public static RtspTransport parseTransport(CharSequence transport) {
+        if (transport == null) { return null; }
+
+        boolean isTcp = false;
+        int clientPortStart = -1, clientPortEnd = -1;
+        int portStart = -1, portEnd = -1;
+        int interleavedStart = -1, interleavedEnd = -1;
+        String destination = null;
+
+        int length = transport.length();
+        int paramStart = 0;
+        boolean isFirstParam = true;
+        while (paramStart <= length) {
+            // 다음 ';' 또는 ',' (다음 transport-spec) 까지가 파라미터 하나
+            int paramEnd = paramStart;
+            while (paramEnd < length) {
+                char c = transport.charAt(paramEnd);
+                if (c == ';' || c == ',') { break; }
+                paramEnd++;
+            }
+
+            int keyStart = skipSpace(transport, paramStart, paramEnd);
+            int equalPos = keyStart;
+            while (equalPos < paramEnd && transport.charAt(equalPos) != '=') {
+                equalPos++;
+            }
+            int keyEnd = trimEnd(transport, keyStart, equalPos);
+            int valueStart = (equalPos < paramEnd) ? skipSpace(transport, equalPos + 1, paramEnd) : paramEnd;
+            int valueEnd = trimEnd(transport, valueStart, paramEnd);
+
+            if (isFirstParam) {
+                isTcp = regionEqualsIgnoreCase(transport, keyStart, keyEnd, TCP_LOWER_TRANSPORT);
+                isFirstParam = false;
+            } else if (regionEqualsIgnoreCase(transport, keyStart, keyEnd, RtspHeaderValues.INTERLEAVED)) {
+                isTcp = true;
+                interleavedStart = valueStart;
+                interleavedEnd = valueEnd;
+            } else if (regionEqualsIgnoreCase(transport, keyStart, keyEnd, RtspHeaderValues.CLIENT_PORT)) {
+                clientPortStart = valueStart;
+                clientPortEnd = valueEnd;
+            } else if (regionEqualsIgnoreCase(transport, keyStart, keyEnd, RtspHeaderValues.PORT)) {
+                portStart = valueStart;
+                portEnd = valueEnd;
+            } else if (regionEqualsIgnoreCase(transport, keyStart, keyEnd, RtspHeaderValues.DESTINATION)
+                    && valueEnd > valueStart) {
+                destination = transport.subSequence(valueStart, valueEnd).toString();
+            }
+
+            if (paramEnd >= length || transport.charAt(paramEnd) == ',') { break; }
+            paramStart = paramEnd + 1;
+        }
+
+        int rangeStart = (clientPortStart >= 0) ? clientPortStart : portStart;
+        int rangeEnd = (clientPortStart >= 0) ? clientPortEnd : portEnd;
+        int[] ports = parseRange(transport, rangeStart, rangeEnd, 1, 0xFFFF);
+        int[] channels = parseRange(transport, interleavedStart, interleavedEnd, 0, MAX_INTERLEAVED_CHANNEL);
+
+        return new RtspTransport(isTcp, ports[0], ports[1], destination, channels[0], channels[1]);
+    }
+
+    /**
+     * @fn private static int[] parseRange(CharSequence seq, int start, int end, int min, int max)
+     * @brief [start, end) 의 "a-b" 또는 "a" (b = a + 1) 를 읽는 함수 (port, interleaved)
+     * @return {a, b}, 없거나 잘못된 값은 -1
+     */
+    private static int[] parseRange(CharSequence seq, int start, int end, int min, int max) {
+        int first = -1;
+        int second = -1;
+        if (start >= 0) {
+            int dashPos = start;
+            while (dashPos < end && seq.charAt(dashPos) != '-') {
+                dashPos++;
+            }
+            first = parseNumber(seq, start, dashPos, min, max);
+            if (dashPos < end) {
+                second = parseNumber(seq, dashPos + 1, end, min, max);
+            } else if (first >= 0 && first < max) {
+                second = first + 1;
+            }
+        }
+        return new int[]{first, second};
+    }
+
+    /**
+     * @fn public static String parseSessionId(CharSequence session)
+     * @brief Session 헤더에서 세션 ID 만 꺼내는 함수 (";timeout=..." 제외)
+     * @param session Session 헤더 값
+     * @return 세션 ID, 없으면 null (String 이고 다른 값이 없으면 원본 객체 그대로)
+     */
+    public static String parseSessionId(CharSequence session) {
+        if (session == null) { return null; }
+
+        int length = session.length();
+        int end = 0;
+        while (end < length && session.charAt(end) != ';') {
+            end++;
+        }
+        int start = skipSpace(session, 0, end);
+        end = trimEnd(session, start, end);
+        if (start >= end) { return null; }
+        if (start == 0 && end == length) { return session.toString(); }
+        return session.subSequence(start, end).toString();
+    }
+
+    /**
+     * @fn private static int parseNumber(CharSequence seq, int start, int end, int min, int max)
+     * @brief [start, end) 의 10 진수 (포트, interleaved 채널) 를 읽는 함수
+     * @return min ~ max 사이 값, 잘못되었으면 -1
+     */
+    private static int parseNumber(CharSequence seq, int start, int end, int min, int max) {
+        start = skipSpace(seq, start, end);
+        end = trimEnd(seq, start, end);
+        if (start >= end || end - start > 5 || !isDigits(seq, start, end)) { return -1; }
+
+        int number = 0;
+        for (int i = start; i < end; i++) {
+            number = number * 10 + (seq.charAt(i) - '0');
+        }
+        return (number >= min && number <= max) ? number : -1;
+    }
+
+    private static boolean isDigits(CharSequence seq, int start, int end) {
+        if (start >= end) { return false; }
+        for (int i = start; i < end; i++) {
+            char c = seq.charAt(i);
+            if (c < '0' || c > '9') { return false; }
+        }
+        return true;
+    }
+
+    private static int indexOf(CharSequence seq, CharSequence target, int start, int end) {
+        int last = end - target.length();
+        for (int i = start; i <= last; i++) {
+            if (regionMatches(seq, i, end, target)) { return i; }
+        }
+        return -1;
+    }
+
+    private static boolean regionMatches(CharSequence seq, int offset, int end, CharSequence target) {
+        int targetLength = target.length();
+        if (end - offset < targetLength) { return false; }
+        for (int i = 0; i < targetLength; i++) {
+            if (seq.charAt(offset + i) != target.charAt(i)) { return false; }
+        }
+        return true;
+    }
+
+    private static boolean regionEquals(CharSequence seq, int start, int end, CharSequence target) {
+        return (end - start == target.length()) && regionMatches(seq, start, end, target);
+    }
+
+    private static boolean regionEqualsIgnoreCase(CharSequence seq, int start, int end, CharSequence target) {
+        int targetLength = target.length();
+        if (end - start != targetLength) { return false; }
+        for (int i = 0; i < targetLength; i++) {
+            char a = seq.charAt(start + i);
+            char b = target.charAt(i);
+            if (a != b && Character.toLowerCase(a) != Character.toLowerCase(b)) { return false; }
+        }
+        return true;
+    }
+
+    private static int skipSpace(CharSequence seq, int start, int end) {
+        while (start < end && seq.charAt(start) == ' ') {
+            start++;
+        }
+        return start;
+    }
+
+    private static int trimEnd(CharSequence seq, int start, int end) {
+        while (end > start && seq.charAt(end - 1) == ' ') {
+            end--;
+        }
+        return end;
+    }
+    ////////////////////////////////////////////////////////////
+
+}
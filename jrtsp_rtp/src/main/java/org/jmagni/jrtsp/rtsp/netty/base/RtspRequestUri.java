@@ -0,0 +1,63 @@
+package org.jmagni.jrtsp.rtsp.netty.base;
+
+/**
+ * @class public class RtspRequestUri
+ * @brief RtspRequestParser.parseUri() 결과 클래스
+ *
+ *    rtsp://[domain name]:[port]/[Call-ID]/trackID=[Track-ID]
+ *
+ * - callId : Track ID 를 뺀 Call-ID (없으면 null)
+ * - trackId : 10 진수 Track ID (기본 SDP 의 1, 2 는 RtpMeta.AUDIO_TRACK_ID / VIDEO_TRACK_ID 상수, 없으면 null)
+ * - baseUri : Track ID 를 뺀 요청 URI (Track ID 가 없으면 원본 URI 객체 그대로)
+ * - isTrackIdValid : trackID= 가 있는데 값이 10 진수가 아니면 false
+ */
+public class RtspRequestUri {
+
+    ////////////////////////////////////////////////////////////
+    // VARIABLES
+    private final String callId;
+    private final String trackId;
+    private final String baseUri;
+    private final boolean isTrackIdValid;
+    ////////////////////////////////////////////////////////////
+
+    ////////////////////////////////////////////////////////////
+    // CONSTRUCTOR
+    public RtspRequestUri(String callId, String trackId, String baseUri, boolean isTrackIdValid) {
+        this.callId = callId;
+        this.trackId = trackId;
+        this.baseUri = baseUri;
+        this.isTrackIdValid = isTrackIdValid;
+    }
+    ////////////////////////////////////////////////////////////
+
+    ////////////////////////////////////////////////////////////
+    // FUNCTIONS
+    public String getCallId() {
+        return callId;
+    }
+
+    public String getTrackId() {
+        return trackId;
+    }
+
+    public String getBaseUri() {
+        return baseUri;
+    }
+
+    public boolean isTrackIdValid() {
+        return isTrackIdValid;
+    }
+
+    @Override
+    public String toString() {
+        return "RtspRequestUri{" +
+                "callId='" + callId + '\'' +
+                ", trackId='" + trackId + '\'' +
+                ", baseUri='" + baseUri + '\'' +
+                ", isTrackIdValid=" + isTrackIdValid +
+                '}';
+    }
+    ////////////////////////////////////////////////////////////
+
+}
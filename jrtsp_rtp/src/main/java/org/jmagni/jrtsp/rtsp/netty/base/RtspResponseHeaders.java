@@ -0,0 +1,93 @@
+package org.jmagni.jrtsp.rtsp.netty.base;
+
+import io.netty.handler.codec.DateFormatter;
+import io.netty.handler.codec.http.HttpHeaders;
+import io.netty.handler.codec.rtsp.RtspHeaderNames;
+import io.netty.handler.codec.rtsp.RtspHeaderValues;
+import io.netty.handler.codec.rtsp.RtspMethods;
+import io.netty.util.AsciiString;
+
+import java.util.Date;
+
+/**
+ * @class public class RtspResponseHeaders
+ * @brief RTSP 응답에 공통으로 들어가는 헤더 값을 미리 만들어 두는 클래스
+ *
+ * - 고정 값 (Connection, Cache-Control, Public, Content-Type) 은 AsciiString 상수로 한 번만 만든다.
+ *   > 인코딩할 때 문자열 변환 없이 bytes 를 그대로 쓴다.
+ * - Date 값은 초 단위로 한 번만 만들고 (RFC 1123), 같은 초 안의 응답들은 같은 객체를 쓴다.
+ */
+public class RtspResponseHeaders {
+
+    ////////////////////////////////////////////////////////////
+    // VARIABLES
+    public static final AsciiString NO_CACHE = AsciiString.cached("no-cache");
+    public static final AsciiString APPLICATION_SDP = AsciiString.cached("application/sdp");
+    public static final AsciiString PUBLIC_METHODS = AsciiString.cached(
+            RtspMethods.OPTIONS + ", " +
+                    RtspMethods.DESCRIBE + ", " +
+                    RtspMethods.SETUP + ", " +
+                    RtspMethods.PLAY + ", " +
+                    RtspMethods.PAUSE + ", " +
+                    RtspMethods.TEARDOWN + ", " +
+                    RtspMethods.GET_PARAMETER
+    );
+
+    private static volatile CachedDate cachedDate = null;
+    ////////////////////////////////////////////////////////////
+
+    ////////////////////////////////////////////////////////////
+    // CONSTRUCTOR
+    private RtspResponseHeaders() {
+        // Nothing
+    }
+    ////////////////////////////////////////////////////////////
+
+    ////////////////////////////////////////////////////////////
+    // FUNCTIONS
+    /**
+     * @fn public static void addCommonHeaders(HttpHeaders headers, CharSequence cSeq)
+     * @brief 모든 응답에 들어가는 헤더 (CSeq, Connection, Date, Cache-Control) 를 추가하는 함수
+     * @param headers 응답 헤더
+     * @param cSeq 요청의 CSeq (없으면 null)
+     */
+    public static void addCommonHeaders(HttpHeaders headers, CharSequence cSeq) {
+        if (cSeq != null) {
+            headers.add(RtspHeaderNames.CSEQ, cSeq);
+        }
+        headers.set(RtspHeaderNames.CONNECTION, RtspHeaderValues.KEEP_ALIVE);
+        headers.add(RtspHeaderNames.DATE, getDate(System.currentTimeMillis()));
+        headers.add(RtspHeaderNames.CACHE_CONTROL, NO_CACHE);
+    }
+
+    /**
+     * @fn public static AsciiString getDate(long now)
+     * @brief 현재 시각의 Date 헤더 값을 반환하는 함수 (같은 초 안에서는 캐시된 값)
+     * @param now 현재 시각 (ms)
+     * @return Date 헤더 값 (ex. Sun, 06 Nov 1994 08:49:37 GMT)
+     */
+    public static AsciiString getDate(long now) {
+        long second = now / 1000;
+        CachedDate curCachedDate = cachedDate;
+        if (curCachedDate == null || curCachedDate.second != second) {
+            // 초가 바뀐 직후 여러 스레드가 동시에 만들어도 결과는 같으므로 잠그지 않는다.
+            curCachedDate = new CachedDate(second, AsciiString.cached(DateFormatter.format(new Date(second * 1000))));
+            cachedDate = curCachedDate;
+        }
+        return curCachedDate.value;
+    }
+    ////////////////////////////////////////////////////////////
+
+    private static class CachedDate {
+
+        private final long second;
+        private final AsciiString value;
+
+        private CachedDate(long second, AsciiString value) {
+            this.second = second;
+            this.value = value;
+        }
+
+    }
+
+}
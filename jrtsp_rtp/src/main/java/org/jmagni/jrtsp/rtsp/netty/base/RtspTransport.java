@@ -0,0 +1,79 @@
+package org.jmagni.jrtsp.rtsp.netty.base;
+
+/**
+ * @class public class RtspTransport
+ * @brief RtspRequestParser.parseTransport() 결과 클래스
+ *
+ *    Transport: RTP/AVP;unicast;client_port=9406-9407
+ *    Transport: RTP/AVP/TCP;unicast;interleaved=0-1
+ *    Transport: RTP/AVP;multicast;destination=224.2.0.1;port=3456-3457;ttl=16
+ *
+ * - 포트가 없거나 잘못되었으면 -1
+ * - 포트가 하나만 있으면 RTCP 포트는 RTP 포트 + 1
+ * - interleaved 채널도 같은 규칙 (없으면 -1, 하나만 있으면 RTCP 채널은 RTP 채널 + 1)
+ */
+public class RtspTransport {
+
+    ////////////////////////////////////////////////////////////
+    // VARIABLES
+    private final boolean isTcp;
+    private final int rtpPort;
+    private final int rtcpPort;
+    private final String destination;
+    private final int interleavedRtpChannel;
+    private final int interleavedRtcpChannel;
+    ////////////////////////////////////////////////////////////
+
+    ////////////////////////////////////////////////////////////
+    // CONSTRUCTOR
+    public RtspTransport(boolean isTcp, int rtpPort, int rtcpPort, String destination,
+                         int interleavedRtpChannel, int interleavedRtcpChannel) {
+        this.isTcp = isTcp;
+        this.rtpPort = rtpPort;
+        this.rtcpPort = rtcpPort;
+        this.destination = destination;
+        this.interleavedRtpChannel = interleavedRtpChannel;
+        this.interleavedRtcpChannel = interleavedRtcpChannel;
+    }
+    ////////////////////////////////////////////////////////////
+
+    ////////////////////////////////////////////////////////////
+    // FUNCTIONS
+    public boolean isTcp() {
+        return isTcp;
+    }
+
+    public int getRtpPort() {
+        return rtpPort;
+    }
+
+    public int getRtcpPort() {
+        return rtcpPort;
+    }
+
+    public String getDestination() {
+        return destination;
+    }
+
+    public int getInterleavedRtpChannel() {
+        return interleavedRtpChannel;
+    }
+
+    public int getInterleavedRtcpChannel() {
+        return interleavedRtcpChannel;
+    }
+
+    @Override
+    public String toString() {
+        return "RtspTransport{" +
+                "isTcp=" + isTcp +
+                ", rtpPort=" + rtpPort +
+                ", rtcpPort=" + rtcpPort +
+                ", destination='" + destination + '\'' +
+                ", interleavedRtpChannel=" + interleavedRtpChannel +
+                ", interleavedRtcpChannel=" + interleavedRtcpChannel +
+                '}';
+    }
+    ////////////////////////////////////////////////////////////
+
+}
@@ -5,14 +5,26 @@ import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.SimpleChannelInboundHandler;
 import io.netty.channel.socket.DatagramPacket;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.net.ntp.TimeStamp;
+import org.jmagni.jrtsp.config.UserConfig;
 import org.jmagni.jrtsp.rtsp.Streamer;
 import org.jmagni.jrtsp.rtsp.base.ByteUtil;
+import org.jmagni.jrtsp.rtsp.base.MediaType;
 import org.jmagni.jrtsp.rtsp.netty.NettyChannelManager;
 import org.jmagni.jrtsp.rtsp.rtcp.base.RtcpType;
+import org.jmagni.jrtsp.rtsp.rtcp.packet.RtcpCompoundPacket;
 import org.jmagni.jrtsp.rtsp.rtcp.packet.RtcpPacket;
+import org.jmagni.jrtsp.rtsp.rtcp.type.extended.feedback.payloadspecific.RtcpFullIntraRequest;
+import org.jmagni.jrtsp.rtsp.rtcp.type.extended.feedback.payloadspecific.RtcpPictureLossIndication;
+import org.jmagni.jrtsp.rtsp.rtcp.type.extended.feedback.payloadspecific.base.RtcpFirEntry;
+import org.jmagni.jrtsp.rtsp.rtcp.type.extended.feedback.transportlayer.RtcpNegativeAck;
+import org.jmagni.jrtsp.rtsp.rtcp.type.extended.feedback.transportlayer.RtcpTemporaryMaximumMediaStreamBitRateRequest;
 import org.jmagni.jrtsp.rtsp.rtcp.type.regular.RtcpReceiverReport;
 import org.jmagni.jrtsp.rtsp.rtcp.type.regular.base.RtcpHeader;
 import org.jmagni.jrtsp.rtsp.rtcp.type.regular.base.report.RtcpReportBlock;
+import org.jmagni.jrtsp.service.AppInstance;
+import org.jmagni.jrtsp.service.jfr.RtcpFeedbackEvent;
+import org.jmagni.jrtsp.service.metrics.ServerMetrics;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -23,6 +35,10 @@ import org.slf4j.LoggerFactory;
 @Slf4j
 public class RtcpChannelHandler extends SimpleChannelInboundHandler<DatagramPacket> {
 
+    private static final long MAX_RTT_MS = 10000;
+    private static final int VIDEO_CLOCK_RATE_KHZ = 90;
+    private static final int AUDIO_CLOCK_RATE_KHZ = 8;
+
     private final String streamerKey;
     private final String name;
     private final String listenIp;
@@ -62,17 +78,27 @@ public class RtcpChannelHandler extends SimpleChannelInboundHandler<DatagramPack
             //log.debug("({}) data: [{}], readBytes: [{}]", name, ByteUtil.byteArrayToHex(data), readBytes);
 
             if (data.length >= RtcpHeader.LENGTH) {
-                RtcpPacket rtcpPacket = new RtcpPacket(data);
-                if (log.isTraceEnabled()) {
-                    log.trace("[{}] ({}) {}", streamerKey, name, rtcpPacket);
+                Streamer streamer = NettyChannelManager.getInstance().getStreamer(streamerKey);
+                if (streamer == null) {
+                    log.trace("[{}] ({}) Fail to handle the rtcp packet. Streamer is not exist.", streamerKey, name);
+                    return;
                 }
-
-                int packetType = rtcpPacket.getRtcpHeader().getPacketType();
-                switch (packetType) {
-                    case RtcpType.RECEIVER_REPORT:
-                        for (Streamer streamer : NettyChannelManager.getInstance().getAllStreamers()) {
-                            if (streamer == null) { continue; }
-
+                streamer.touch(); // RTSP 세션 갱신
+
+                RtcpFeedbackEvent rtcpFeedbackEvent = new RtcpFeedbackEvent();
+                rtcpFeedbackEvent.begin();
+
+                // Compound packet (RR + SDES + RTPFB ...)
+                RtcpCompoundPacket rtcpCompoundPacket = new RtcpCompoundPacket(data);
+                for (RtcpPacket rtcpPacket : rtcpCompoundPacket.getRtcpPacketList()) {
+                    if (rtcpPacket.getRtcpHeader() == null || rtcpPacket.getRtcpFormat() == null) { continue; }
+                    if (log.isTraceEnabled()) {
+                        log.trace("[{}] ({}) {}", streamerKey, name, rtcpPacket);
+                    }
+
+                    int packetType = rtcpPacket.getRtcpHeader().getPacketType();
+                    switch (packetType) {
+                        case RtcpType.RECEIVER_REPORT:
                             long audioSsrc = streamer.getAudioSsrc();
                             if (audioSsrc > 0) {
                                 handleReceiverReport(rtcpPacket, streamer, audioSsrc);
@@ -82,34 +108,126 @@ public class RtcpChannelHandler extends SimpleChannelInboundHandler<DatagramPack
                             if (videoSsrc > 0) {
                                 handleReceiverReport(rtcpPacket, streamer, videoSsrc);
                             }
-                        }
-                        break;
-                    default:
-                        break;
+                            break;
+                        case RtcpType.RTPFB:
+                            if (rtcpPacket.getRtcpFormat() instanceof RtcpNegativeAck) {
+                                streamer.handleNack((RtcpNegativeAck) rtcpPacket.getRtcpFormat());
+                            } else if (rtcpPacket.getRtcpFormat() instanceof RtcpTemporaryMaximumMediaStreamBitRateRequest) {
+                                streamer.handleTmmbr((RtcpTemporaryMaximumMediaStreamBitRateRequest) rtcpPacket.getRtcpFormat());
+                            }
+                            break;
+                        case RtcpType.PSFB:
+                            handlePayloadSpecificFeedback(rtcpPacket, streamer);
+                            break;
+                        default:
+                            break;
+                    }
                 }
+
+                commitRtcpFeedbackEvent(rtcpFeedbackEvent, rtcpCompoundPacket, streamer, data.length);
             }
         } catch (Exception e) {
             log.warn("[{}] ({}) Fail to handle the rtcp Packet.", streamerKey, name, e);
         }
     }
 
+    /**
+     * @fn private void commitRtcpFeedbackEvent(RtcpFeedbackEvent rtcpFeedbackEvent, RtcpCompoundPacket rtcpCompoundPacket, Streamer streamer, int bytes)
+     * @brief JFR 이벤트가 켜져 있을 때만 처리한 RTCP 패킷 정보를 채워서 기록하는 함수
+     */
+    private void commitRtcpFeedbackEvent(RtcpFeedbackEvent rtcpFeedbackEvent, RtcpCompoundPacket rtcpCompoundPacket, Streamer streamer, int bytes) {
+        rtcpFeedbackEvent.end();
+        if (!rtcpFeedbackEvent.shouldCommit()) { return; }
+
+        StringBuilder packetTypes = new StringBuilder();
+        for (RtcpPacket rtcpPacket : rtcpCompoundPacket.getRtcpPacketList()) {
+            if (rtcpPacket.getRtcpHeader() == null) { continue; }
+            if (packetTypes.length() > 0) {
+                packetTypes.append(',');
+            }
+            packetTypes.append(rtcpPacket.getRtcpHeader().getPacketType());
+        }
+
+        rtcpFeedbackEvent.streamerKey = streamerKey;
+        rtcpFeedbackEvent.callId = streamer.getCallId();
+        rtcpFeedbackEvent.bytes = bytes;
+        rtcpFeedbackEvent.packets = rtcpCompoundPacket.getRtcpPacketList().size();
+        rtcpFeedbackEvent.packetTypes = packetTypes.toString();
+        rtcpFeedbackEvent.commit();
+    }
+
+    private static void handlePayloadSpecificFeedback(RtcpPacket rtcpPacket, Streamer streamer) {
+        if (rtcpPacket.getRtcpFormat() instanceof RtcpPictureLossIndication) {
+            RtcpPictureLossIndication rtcpPictureLossIndication = (RtcpPictureLossIndication) rtcpPacket.getRtcpFormat();
+            streamer.handleKeyframeRequest(rtcpPictureLossIndication.getRtcpFeedbackMessageHeader().getMediaSourceSsrc());
+        } else if (rtcpPacket.getRtcpFormat() instanceof RtcpFullIntraRequest) {
+            // FIR 은 Media source SSRC 를 사용하지 않고 FCI 의 SSRC 를 사용한다.
+            RtcpFullIntraRequest rtcpFullIntraRequest = (RtcpFullIntraRequest) rtcpPacket.getRtcpFormat();
+            if (rtcpFullIntraRequest.getRtcpFirEntryList() == null) { return; }
+            for (RtcpFirEntry rtcpFirEntry : rtcpFullIntraRequest.getRtcpFirEntryList()) {
+                streamer.handleKeyframeRequest(rtcpFirEntry.getSsrc());
+            }
+        }
+    }
+
     private static void handleReceiverReport(RtcpPacket rtcpPacket, Streamer streamer, long ssrc) {
         RtcpReceiverReport rtcpReceiverReport = (RtcpReceiverReport) rtcpPacket.getRtcpFormat();
         RtcpReportBlock rtcpReportBlock = rtcpReceiverReport.getReportBlockBySsrc(ssrc);
         if (rtcpReportBlock != null) {
-            float fractionLost = ((float) rtcpReportBlock.getFraction() / 100);
-            if (fractionLost >= 0 && fractionLost <= 0.01) {
-                streamer.setCongestionLevel(0);
-            } else if (fractionLost > 0.01 && fractionLost <= 0.25) {
-                streamer.setCongestionLevel(1);
-            } else if (fractionLost > 0.25 && fractionLost <= 0.5) {
-                streamer.setCongestionLevel(2);
-            } else if (fractionLost > 0.5 && fractionLost <= 0.75) {
-                streamer.setCongestionLevel(3);
+            long rttMs = updateRoundTripTime(rtcpReportBlock, streamer);
+
+            int congestionLevel;
+            float fractionLost = ((float) rtcpReportBlock.getFraction() / 256);
+            if (fractionLost >= 0 && fractionLost <= 0.02) {
+                congestionLevel = 0;
+            } else if (fractionLost > 0.02 && fractionLost <= 0.05) {
+                congestionLevel = 1;
+            } else if (fractionLost > 0.05 && fractionLost <= 0.10) {
+                congestionLevel = 2;
+            } else if (fractionLost > 0.10 && fractionLost <= 0.20) {
+                congestionLevel = 3;
             } else {
-                streamer.setCongestionLevel(4);
+                congestionLevel = 4;
             }
+
+            // RTT 가 길면 재전송이 늦으므로 한 단계 올린다.
+            UserConfig userConfig = AppInstance.getInstance().getConfigManager().getUserConfig();
+            if (congestionLevel > 0 && streamer.getRttMs() >= userConfig.getThinningRttThresholdMs()) {
+                congestionLevel = Math.min(4, congestionLevel + 1);
+            }
+
+            streamer.setCongestionLevel(congestionLevel);
+            if (ssrc == streamer.getVideoSsrc()) {
+                streamer.updateFecLossRate(fractionLost);
+            }
+
+            // Jitter 는 RTP Timestamp 단위 > ms
+            int clockRateKhz = streamer.getMediaType() == MediaType.VIDEO ? VIDEO_CLOCK_RATE_KHZ : AUDIO_CLOCK_RATE_KHZ;
+            ServerMetrics.getInstance().recordReceiverReport(
+                    rttMs, rtcpReportBlock.getFraction(), rtcpReportBlock.getIaj() / clockRateKhz
+            );
+        }
+    }
+
+    /**
+     * @fn private static long updateRoundTripTime(RtcpReportBlock rtcpReportBlock, Streamer streamer)
+     * @brief RFC 3550 6.4.1 : RTT = A - LSR - DLSR (NTP 중간 32 bits, 1/65536 초 단위)
+     * LSR 이 0 이면 (SR 을 받은 적이 없으면) 기본 RTT 를 유지한다.
+     * @return 측정한 RTT (ms), 측정하지 못했으면 -1
+     */
+    private static long updateRoundTripTime(RtcpReportBlock rtcpReportBlock, Streamer streamer) {
+        long lsr = rtcpReportBlock.getLsr();
+        if (lsr == 0) { return -1; }
+
+        TimeStamp now = TimeStamp.getCurrentTime();
+        long arrival = ((now.getSeconds() & 0xFFFF) << 16) | ((now.getFraction() >>> 16) & 0xFFFF);
+        long rtt = (arrival - lsr - rtcpReportBlock.getDlsr()) & 0xFFFFFFFFL;
+        long rttMs = (rtt * 1000) >>> 16;
+        if (rttMs > 0 && rttMs < MAX_RTT_MS) {
+            streamer.setRttMs(rttMs);
+            return rttMs;
         }
+        return -1;
     }
 
     ////////////////////////////////////////////////////////////////////////////////
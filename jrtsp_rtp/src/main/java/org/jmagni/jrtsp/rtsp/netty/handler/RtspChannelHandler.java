@@ -1,7 +1,5 @@
 package org.jmagni.jrtsp.rtsp.netty.handler;
 
-import io.netty.buffer.ByteBuf;
-import io.netty.buffer.Unpooled;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.ChannelInboundHandlerAdapter;
 import io.netty.handler.codec.http.DefaultFullHttpResponse;
@@ -9,25 +7,31 @@ import io.netty.handler.codec.http.DefaultHttpRequest;
 import io.netty.handler.codec.http.FullHttpResponse;
 import io.netty.handler.codec.http.HttpResponseStatus;
 import io.netty.handler.codec.rtsp.*;
-import io.netty.util.AsciiString;
 import org.jmagni.jrtsp.config.UserConfig;
 import org.jmagni.jrtsp.rtsp.Streamer;
 import org.jmagni.jrtsp.rtsp.base.MediaType;
 import org.jmagni.jrtsp.rtsp.netty.NettyChannelManager;
-import org.jmagni.jrtsp.rtsp.sdp.base.Sdp;
+import org.jmagni.jrtsp.rtsp.netty.RtspTrackTable;
+import org.jmagni.jrtsp.rtsp.netty.base.RtspRequestParser;
+import org.jmagni.jrtsp.rtsp.netty.base.RtspRequestUri;
+import org.jmagni.jrtsp.rtsp.netty.base.RtspResponseHeaders;
+import org.jmagni.jrtsp.rtsp.netty.base.RtspTransport;
+import org.jmagni.jrtsp.rtsp.sdp.DescribeSdpCache;
 import org.jmagni.jrtsp.service.AppInstance;
+import org.jmagni.jrtsp.service.jfr.RtspRequestEvent;
+import org.jmagni.jrtsp.service.metrics.ServerMetrics;
+import org.jmagni.jrtsp.service.monitor.ServerHealthMonitor;
 import org.jmagni.jrtsp.session.CallInfo;
 import org.jmagni.jrtsp.session.MediaInfo;
 import org.jmagni.jrtsp.session.SessionManager;
+import org.jmagni.jrtsp.session.SessionTimeoutManager;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.net.*;
-import java.nio.charset.StandardCharsets;
-import java.time.LocalDateTime;
-import java.util.Random;
+import java.security.SecureRandom;
+import java.util.List;
 
-import static org.jmagni.jrtsp.rtsp.stream.rtp.base.RtpMeta.*;
 
 /**
  * @class public class RtspChannelHandler extends ChannelInboundHandlerAdapter
@@ -38,8 +42,6 @@ public class RtspChannelHandler extends ChannelInboundHandlerAdapter {
 
     private static final Logger logger = LoggerFactory.getLogger(RtspChannelHandler.class);
 
-    private static final String RTSP_PREFIX = "rtsp://";
-
     private final UserConfig userConfig = AppInstance.getInstance().getConfigManager().getUserConfig();
 
     private final String name;
@@ -47,12 +49,11 @@ public class RtspChannelHandler extends ChannelInboundHandlerAdapter {
     private final String listenIp; // local ip
     private final int listenRtspPort; // local(listen) rtsp port
 
-    private final Random random = new Random();
-
-    private Streamer audioContextStreamer = null;
-    private Streamer videoContextStreamer = null;
+    // Session ID 는 다른 시청자의 세션을 추측할 수 없도록 64 bits 난수로 만든다. (thread-safe)
+    private static final SecureRandom sessionIdRandom = new SecureRandom();
 
-    private boolean isAudioReq = false;
+    // 이 연결이 SETUP 한 Track 목록 (개수 제한 없음, Track ID / Interleaved 채널 / SSRC 로 조회)
+    private final RtspTrackTable trackTable = new RtspTrackTable();
 
     private String lastSessionId = null;
 
@@ -81,36 +82,14 @@ public class RtspChannelHandler extends ChannelInboundHandlerAdapter {
                 // 0) HTTP REQUEST PARSING
                 DefaultHttpRequest req = (DefaultHttpRequest) msg;
                 DefaultFullHttpResponse res = new DefaultFullHttpResponse(RtspVersions.RTSP_1_0,  RtspResponseStatuses.NOT_FOUND);
-                if (checkRequest(ctx, req, res)) { return; }
-
-                // 1) OPTIONS
-                if (req.method() == RtspMethods.OPTIONS) {
-                    handleOptions(ctx, req, res);
-                }
-                // 2) DESCRIBE
-                else if (req.method() == RtspMethods.DESCRIBE) {
-                    handleDescribe(ctx, req, res);
-                }
-                // 3) SETUP
-                else if (req.method() == RtspMethods.SETUP) {
-                    handleSetup(ctx, req, res);
-                }
-                // 4) PLAY
-                else if (req.method() == RtspMethods.PLAY) {
-                    handlePlay(ctx, req, res);
-                }
-                // 5) TEARDOWN
-                else if (req.method() == RtspMethods.TEARDOWN) {
-                    handleTeardown(ctx, req, res);
-                }
-                // 6) GET_PARAMETER
-                else if (req.method() == RtspMethods.GET_PARAMETER) {
-                    handleGetParameter(ctx, req, res);
-                }
-                // UNKNOWN
-                else {
-                    logger.warn("({}) () < Unknown method: {}", name, req);
-                    sendFailResponse(name, ctx, req, res, null, RtspResponseStatuses.METHOD_NOT_ALLOWED);
+                RtspRequestEvent rtspRequestEvent = new RtspRequestEvent();
+                rtspRequestEvent.begin();
+                long startNanos = System.nanoTime();
+                try {
+                    handleRequest(ctx, req, res);
+                } finally {
+                    ServerMetrics.getInstance().recordRtspRequest(req.method(), res.status().code(), System.nanoTime() - startNanos);
+                    commitRtspRequestEvent(rtspRequestEvent, req, res);
                 }
             }
         } catch (Exception e) {
@@ -118,6 +97,64 @@ public class RtspChannelHandler extends ChannelInboundHandlerAdapter {
         }
     }
 
+    /**
+     * @fn private static void commitRtspRequestEvent(RtspRequestEvent rtspRequestEvent, DefaultHttpRequest req, DefaultFullHttpResponse res)
+     * @brief JFR 이벤트가 켜져 있을 때만 요청 정보를 채워서 기록하는 함수
+     */
+    private static void commitRtspRequestEvent(RtspRequestEvent rtspRequestEvent, DefaultHttpRequest req, DefaultFullHttpResponse res) {
+        rtspRequestEvent.end();
+        if (!rtspRequestEvent.shouldCommit()) { return; }
+
+        RtspRequestUri requestUri = RtspRequestParser.parseUri(req.uri());
+        rtspRequestEvent.method = req.method().name();
+        rtspRequestEvent.callId = requestUri == null ? null : requestUri.getCallId();
+        rtspRequestEvent.status = res.status().code();
+        rtspRequestEvent.commit();
+    }
+
+    /**
+     * @fn private void handleRequest(ChannelHandlerContext ctx, DefaultHttpRequest req, DefaultFullHttpResponse res)
+     * @brief RTSP 요청을 Method 별 처리 함수로 넘기는 함수
+     */
+    private void handleRequest(ChannelHandlerContext ctx, DefaultHttpRequest req, DefaultFullHttpResponse res) {
+        if (checkRequest(ctx, req, res)) { return; }
+        touchSession();
+
+        // 1) OPTIONS
+        if (req.method() == RtspMethods.OPTIONS) {
+            handleOptions(ctx, req, res);
+        }
+        // 2) DESCRIBE
+        else if (req.method() == RtspMethods.DESCRIBE) {
+            handleDescribe(ctx, req, res);
+        }
+        // 3) SETUP
+        else if (req.method() == RtspMethods.SETUP) {
+            handleSetup(ctx, req, res);
+        }
+        // 4) PLAY
+        else if (req.method() == RtspMethods.PLAY) {
+            handlePlay(ctx, req, res);
+        }
+        // 5) PAUSE
+        else if (req.method() == RtspMethods.PAUSE) {
+            handlePause(ctx, req, res);
+        }
+        // 6) TEARDOWN
+        else if (req.method() == RtspMethods.TEARDOWN) {
+            handleTeardown(ctx, req, res);
+        }
+        // 7) GET_PARAMETER
+        else if (req.method() == RtspMethods.GET_PARAMETER) {
+            handleGetParameter(ctx, req, res);
+        }
+        // UNKNOWN
+        else {
+            logger.warn("({}) () < Unknown method: {}", name, req);
+            sendFailResponse(name, ctx, req, res, null, RtspResponseStatuses.METHOD_NOT_ALLOWED);
+        }
+    }
+
     private void handleGetParameter(ChannelHandlerContext ctx, DefaultHttpRequest req, DefaultFullHttpResponse res) {
         res.setStatus(RtspResponseStatuses.OK);
         sendResponse(name, ctx, req, res);
@@ -129,11 +166,7 @@ public class RtspChannelHandler extends ChannelInboundHandlerAdapter {
         res.setStatus(RtspResponseStatuses.OK);
         res.headers().add(
                 RtspHeaderValues.PUBLIC,
-                RtspMethods.OPTIONS + ", " +
-                        RtspMethods.DESCRIBE + ", " +
-                        RtspMethods.SETUP + ", " +
-                        RtspMethods.PLAY + ", " +
-                        RtspMethods.TEARDOWN
+                RtspResponseHeaders.PUBLIC_METHODS
         );
         sendResponse(name, ctx, req, res);
     }
@@ -160,21 +193,13 @@ public class RtspChannelHandler extends ChannelInboundHandlerAdapter {
         res.setStatus(RtspResponseStatuses.OK);
         res.headers().add(
                 RtspHeaderNames.CONTENT_TYPE,
-                "application/sdp"
+                RtspResponseHeaders.APPLICATION_SDP
         );
 
-        String callId = getCallId(req);
-        if (callId == null) {
-            logger.warn("({}) Fail to get uri.", name);
-            sendFailResponse(name, ctx, req, res, null, RtspResponseStatuses.BAD_REQUEST);
-            return;
-        }
-
-        // Find Track ID
-        callId = getParseCallIdFromTrackId(ctx, req, res, callId);
-        if (callId == null) { return; }
+        RtspRequestUri requestUri = parseRequestUri(ctx, req, res);
+        if (requestUri == null) { return; }
 
-        CallInfo callInfo = getCallInfo(ctx, req, res, callId);
+        CallInfo callInfo = getCallInfo(ctx, req, res, requestUri.getCallId());
         if (callInfo == null) { return; }
 
         MediaInfo mediaInfo = callInfo.getMediaInfo();
@@ -184,59 +209,48 @@ public class RtspChannelHandler extends ChannelInboundHandlerAdapter {
             return;
         }
 
-        Sdp localSdp = userConfig.loadLocalSdpConfig(
-                userConfig.getId(),
-                0, // RTP 를 수신할 필요가 없음 (sendonly)
+        // Call 별로 만들어 둔 SDP 를 그대로 쓴다. (설정, 미디어 정보, SPS/PPS 가 바뀌었을 때만 다시 만듦)
+        byte[] sdpData = DescribeSdpCache.getInstance().getSdpData(
+                callInfo.getCallId(),
                 mediaInfo.getAudioPayloadType(),
-                mediaInfo.getVideoPayloadType()
+                mediaInfo.getVideoPayloadType(),
+                callInfo.getVideoFmtp((mediaInfo.getVideoPayloadType() != 0) ? mediaInfo.getVideoPayloadType() : 96)
         );
-        ByteBuf buf = Unpooled.copiedBuffer(localSdp.getData(true), StandardCharsets.UTF_8);
+        if (sdpData == null) {
+            logger.warn("({}) Fail to make the local sdp. ({})", name, callInfo.getCallId());
+            sendFailResponse(name, ctx, req, res, null, RtspResponseStatuses.INTERNAL_SERVER_ERROR);
+            return;
+        }
+
         res.headers().add(
                 RtspHeaderNames.CONTENT_LENGTH,
-                buf.writerIndex()
+                sdpData.length
         );
-        res.content().writeBytes(buf);
+        res.content().writeBytes(sdpData);
 
         sendResponse(name, ctx, req, res);
     }
 
-    private String removeTrackIdFromUri(String uri) {
-        int trackIdPos = uri.indexOf(TRACK_ID_TAG);
-        if (trackIdPos > 0) {
-            uri = uri.substring(0, trackIdPos - 1);
+    /**
+     * @fn private RtspRequestUri parseRequestUri(ChannelHandlerContext ctx, DefaultHttpRequest req, DefaultFullHttpResponse res)
+     * @brief 요청 URI 에서 Call-ID, Track ID 를 꺼내는 함수 (실패하면 BAD_REQUEST 응답을 보냄)
+     * @return 해석 결과, 실패하면 null
+     */
+    private RtspRequestUri parseRequestUri(ChannelHandlerContext ctx, DefaultHttpRequest req, DefaultFullHttpResponse res) {
+        RtspRequestUri requestUri = RtspRequestParser.parseUri(req.uri());
+        if (requestUri == null || requestUri.getCallId() == null) {
+            logger.warn("({}) Fail to get uri.", name);
+            sendFailResponse(name, ctx, req, res, null, RtspResponseStatuses.BAD_REQUEST);
+            return null;
         }
-        return uri;
-    }
-
-    private String getParseCallIdFromTrackId(ChannelHandlerContext ctx, DefaultHttpRequest req, DefaultFullHttpResponse res, String callId) {
-        int trackIdPos = callId.indexOf(TRACK_ID_TAG);
-        if (trackIdPos > 0) {
-            String trackId = getTrackIdFromCallId(callId);
-            if (trackId == null || trackId.isEmpty()) {
-                logger.warn("({}) Fail to get uri. Predefined Track ID is wrong.", name);
-                sendFailResponse(name, ctx, req, res, null, RtspResponseStatuses.BAD_REQUEST);
-                return null;
-            }
-            callId = callId.substring(0, trackIdPos - 1);
-            logger.debug("callId: {}, trackId: {}", callId, trackId);
+        if (!requestUri.isTrackIdValid()) {
+            logger.warn("({}) Fail to get uri. Predefined Track ID is wrong.", name);
+            sendFailResponse(name, ctx, req, res, null, RtspResponseStatuses.BAD_REQUEST);
+            return null;
         }
 
-        return callId;
-    }
-
-    private String getTrackIdFromCallId(String callId) {
-        int trackIdPos = callId.indexOf(TRACK_ID_TAG);
-        String trackId = callId.substring(trackIdPos + TRACK_ID_TAG.length() + 1);
-        if (!trackId.isEmpty()) {
-            if (trackId.equals(AUDIO_TRACK_ID)) {
-                isAudioReq = true;
-            } else if (trackId.equals(VIDEO_TRACK_ID)) {
-                isAudioReq = false;
-            } else {
-                return null;
-            }
-        }
-        return trackId;
+        logger.debug("({}) () Call-ID: {}, trackId: {}", name, requestUri.getCallId(), requestUri.getTrackId());
+        return requestUri;
     }
 
     private void handleSetup(ChannelHandlerContext ctx, DefaultHttpRequest req, DefaultFullHttpResponse res) {
@@ -250,80 +264,113 @@ public class RtspChannelHandler extends ChannelInboundHandlerAdapter {
          * Transport: RTP/AVP;unicast;client_port=9406-9407
          */
 
-        String callId = getCallId(req);
-        if (callId == null) {
-            logger.warn("({}) Fail to get uri.", name);
-            sendFailResponse(name, ctx, req, res, null, RtspResponseStatuses.BAD_REQUEST);
+        // 과부하면 새 세션은 받지 않는다. (이 연결이 이미 가진 세션의 요청 (다음 Track) 만 받음)
+        // Session 헤더는 클라이언트가 마음대로 넣을 수 있으므로 헤더가 있다는 것만으로 면제하지 않는다.
+        String reqSessionId = RtspRequestParser.parseSessionId(req.headers().get(RtspHeaderNames.SESSION));
+        if (!ServerHealthMonitor.getInstance().isSetupAllowed()
+                && (reqSessionId == null || trackTable.getBySessionId(reqSessionId).isEmpty())) {
+            logger.warn("({}) Server is overloaded. Reject the new SETUP. ({})", name, ServerHealthMonitor.getInstance().getOverloadReason());
+            ServerMetrics.getInstance().getSetupRejects().inc();
+            sendFailResponse(name, ctx, req, res, null, RtspResponseStatuses.NOT_ENOUGH_BANDWIDTH);
             return;
         }
 
-        // Find Track ID
-        String originCallId = callId;
-        callId = getParseCallIdFromTrackId(ctx, req, res, callId);
-        if (callId == null) { return; }
+        RtspRequestUri requestUri = parseRequestUri(ctx, req, res);
+        if (requestUri == null) { return; }
+
+        String trackId = requestUri.getTrackId();
+        MediaType mediaType = userConfig.getMediaTypeByTrackId(trackId);
+        if (mediaType == null) {
+            logger.warn("Unknown track id is detected. ({})", req.uri());
+            sendFailResponse(name, ctx, req, res, null, RtspResponseStatuses.NOT_ACCEPTABLE);
+            return;
+        }
 
-        CallInfo callInfo = getCallInfo(ctx, req, res, callId);
+        CallInfo callInfo = getCallInfo(ctx, req, res, requestUri.getCallId());
         if (callInfo == null) { return; }
 
+        // TRANSPORT
+        String transportHeaderContent = req.headers().get(RtspHeaderNames.TRANSPORT);
+        RtspTransport transport = RtspRequestParser.parseTransport(transportHeaderContent);
+        if (transport == null) {
+            logger.warn("({}) Fail to get the transport header.", name);
+            sendFailResponse(name, ctx, req, res, null, RtspResponseStatuses.BAD_REQUEST);
+            return;
+        }
+        if (transport.isTcp() && (trackTable.isChannelUsed(transport.getInterleavedRtpChannel(), trackId)
+                || trackTable.isChannelUsed(transport.getInterleavedRtcpChannel(), trackId))) {
+            logger.warn("({}) Interleaved channel is already used by another track. (trackId={}, transport={})", name, trackId, transportHeaderContent);
+            sendFailResponse(name, ctx, req, res, null, RtspResponseStatuses.UNSUPPORTED_TRANSPORT);
+            return;
+        }
+
         // SESSION ID
-        String curSessionId = req.headers().get(RtspHeaderNames.SESSION);
-        if (curSessionId == null || curSessionId.isEmpty()) {
-            curSessionId = String.valueOf(random.nextInt(1000000));
+        String curSessionId = RtspRequestParser.parseSessionId(req.headers().get(RtspHeaderNames.SESSION));
+        if (curSessionId == null) {
+            curSessionId = newSessionId();
+        } else if (trackTable.getBySessionId(curSessionId).isEmpty()) {
+            // 이 연결이 SETUP 한 세션만 이어서 쓸 수 있다. (다른 연결의 Streamer 를 교체하면 안 됨)
+            logger.warn("({}) Session is not owned by this connection. Fail to process SETUP method. (sessionId={})", name, curSessionId);
+            sendFailResponse(name, ctx, req, res, curSessionId, RtspResponseStatuses.SESSION_NOT_FOUND);
+            return;
         }
         logger.debug("({}) Current sessionId is [{}].", name, curSessionId);
         lastSessionId = curSessionId;
 
-        String transportHeaderContent = req.headers().get(RtspHeaderNames.TRANSPORT);
-        boolean isTcp = transportHeaderContent.contains(String.valueOf(RtspHeaderValues.INTERLEAVED));
-
-        String trackId = getTrackIdFromCallId(originCallId);
-        if (!saveStreamer(ctx, req, res, curSessionId, trackId, callInfo, isTcp)) { return; }
-
-        Streamer currentContextStreamer = null;
-        if (trackId != null && !trackId.isEmpty()) {
-            if (trackId.equals(AUDIO_TRACK_ID)) {
-                currentContextStreamer = audioContextStreamer;
-                logger.debug("({}) AudioContextStreamer is created. (sessionId={})", currentContextStreamer.getKey(), currentContextStreamer.getSessionId());
-            } else if (trackId.equals(VIDEO_TRACK_ID)) {
-                currentContextStreamer = videoContextStreamer;
-                logger.debug("({}) VideoContextStreamer is created. (sessionId={})", currentContextStreamer.getKey(), currentContextStreamer.getSessionId());
-            }
-        }
-        if (currentContextStreamer == null) {
-            logger.warn("Unknown track id is detected. ({})", trackId);
-            sendFailResponse(name, ctx, req, res, null, RtspResponseStatuses.NOT_ACCEPTABLE);
-            return;
-        }
+        boolean isTcp = transport.isTcp();
+        Streamer currentContextStreamer = saveStreamer(ctx, req, res, curSessionId, trackId, mediaType, callInfo, transport);
+        if (currentContextStreamer == null) { return; }
+        logger.debug("({}) Track({}) is created. (sessionId={}, tracks={})",
+                currentContextStreamer.getKey(), mediaType.getName(), currentContextStreamer.getSessionId(), trackTable.size()
+        );
 
         // URI
-        setUri(removeTrackIdFromUri(req.uri()), currentContextStreamer);
+        setUri(requestUri.getBaseUri(), currentContextStreamer);
 
         // USERAGENT
         setUserAgent(req, currentContextStreamer);
 
         // TRANSPORT
-        setRtpDestIp(ctx, transportHeaderContent, currentContextStreamer);
+        setRtpDestIp(ctx, transport, currentContextStreamer);
 
         if (isTcp) {
             setupTcp(ctx, req, res, transportHeaderContent, currentContextStreamer);
         } else {
-            setupUdp(ctx, req, res, transportHeaderContent, currentContextStreamer);
+            setupUdp(ctx, req, res, transportHeaderContent, transport, currentContextStreamer);
+        }
+    }
+
+    /**
+     * @fn private static String newSessionId()
+     * @brief 새 Session ID 를 만드는 함수
+     * Streamer key 에 Session ID 가 들어가므로 겹치면 다른 시청자의 Streamer 를 교체하게 된다.
+     * 그래서 Registry 에 없는 값이 나올 때까지 다시 만든다.
+     * @return Session ID (부호 없는 64 bits 10진수)
+     */
+    private static String newSessionId() {
+        while (true) {
+            String sessionId = Long.toUnsignedString(sessionIdRandom.nextLong());
+            if (NettyChannelManager.getInstance().getStreamerBySessionId(sessionId) == null) {
+                return sessionId;
+            }
         }
     }
 
-    private boolean saveStreamer(ChannelHandlerContext ctx, DefaultHttpRequest req, DefaultFullHttpResponse res, String curSessionId, String trackId, CallInfo callInfo, boolean isTcp) {
-        Streamer streamer = addStreamer(callInfo.getCallId(), curSessionId, trackId, isTcp);
+    private Streamer saveStreamer(ChannelHandlerContext ctx, DefaultHttpRequest req, DefaultFullHttpResponse res, String curSessionId, String trackId, MediaType mediaType, CallInfo callInfo, RtspTransport transport) {
+        Streamer streamer = addStreamer(mediaType, callInfo.getCallId(), curSessionId, trackId, transport.isTcp());
         if (streamer == null) {
             logger.warn("({}) ({}) Streamer is not defined. (listenIp={}, listenPort={})",
                     name, curSessionId, listenIp, listenRtspPort
             );
             sendFailResponse(name, ctx, req, res, curSessionId, RtspResponseStatuses.NOT_ACCEPTABLE);
-            return false;
+            return null;
         }
 
-        releaseStreamerFromContext(streamer.getKey());
+        if (transport.isTcp() && transport.getInterleavedRtpChannel() >= 0) {
+            streamer.setInterleavedChannel(transport.getInterleavedRtpChannel(), transport.getInterleavedRtcpChannel());
+        }
         saveStreamerToContext(ctx, streamer);
-        return true;
+        return streamer;
     }
 
     private CallInfo getCallInfo(ChannelHandlerContext ctx, DefaultHttpRequest req, DefaultFullHttpResponse res, String callId) {
@@ -337,17 +384,10 @@ public class RtspChannelHandler extends ChannelInboundHandlerAdapter {
         return callInfo;
     }
 
-    private Streamer addStreamer(String callId, String curSessionId, String trackId, boolean isTcp) {
-        // setup 요청 시마다 기존 streamer 삭제하고 새로운 streamer 생성
-        Streamer streamer = NettyChannelManager.getInstance().getStreamer(
-                getStreamerKey(callId, trackId, curSessionId)
-        );
-        if (streamer != null) {
-            NettyChannelManager.getInstance().deleteStreamer(streamer);
-        }
-
-        return NettyChannelManager.getInstance().addStreamer(
-                isAudioReq? MediaType.AUDIO : MediaType.VIDEO,
+    private Streamer addStreamer(MediaType mediaType, String callId, String curSessionId, String trackId, boolean isTcp) {
+        // setup 요청 시마다 기존 streamer 삭제하고 새로운 streamer 생성 (삭제와 생성은 한 번에 처리)
+        return NettyChannelManager.getInstance().replaceStreamer(
+                mediaType,
                 callId,
                 curSessionId,
                 trackId,
@@ -355,19 +395,19 @@ public class RtspChannelHandler extends ChannelInboundHandlerAdapter {
         );
     }
 
-    private void setupUdp(ChannelHandlerContext ctx, DefaultHttpRequest req, DefaultFullHttpResponse res, String transportHeaderContent, Streamer streamer) {
-        if (getTransportInfo(ctx, req, res, transportHeaderContent, streamer)) { return; }
+    private void setupUdp(ChannelHandlerContext ctx, DefaultHttpRequest req, DefaultFullHttpResponse res, String transportHeaderContent, RtspTransport transport, Streamer streamer) {
+        if (getTransportInfo(ctx, req, res, transportHeaderContent, transport, streamer)) { return; }
 
         // Listen RTCP?
         int rtcpDestPort = streamer.getRtcpDestPort();
-        NettyChannelManager.getInstance().openRtcpChannel(streamer.getKey(), streamer.getListenIp(), rtcpDestPort);
+        NettyChannelManager.getInstance().openRtcpChannel(streamer.getCallId(), streamer.getKey(), streamer.getListenIp(), rtcpDestPort);
 
         res.headers().add(
                 RtspHeaderNames.TRANSPORT,
                 transportHeaderContent
                 // > Server listen rtcp port 설정안하면 client port 로 client 에서 rtcp packet 송신
                 //+ ";server_port=" + listenRtspPort + "-" + rtspUnit.getRtcpListenPort()
-                //+ ";ssrc=" + (isAudioReq? streamer.getAudioSsrc() : streamer.getVideoSsrc())
+                //+ ";ssrc=" + streamer.getSsrc()
         );
         sendNormalOkResponse(res, ctx, req);
 
@@ -376,14 +416,9 @@ public class RtspChannelHandler extends ChannelInboundHandlerAdapter {
         );
     }
 
-    private boolean getTransportInfo(ChannelHandlerContext ctx, DefaultHttpRequest req, DefaultFullHttpResponse res, String transportHeaderContent, Streamer streamer) {
-        String rtpDestPortString = null;
-        if (transportHeaderContent.contains(RtspHeaderValues.CLIENT_PORT)) {
-            rtpDestPortString = getTransportAttribute(transportHeaderContent, RtspHeaderValues.CLIENT_PORT);
-        } else if (transportHeaderContent.contains(RtspHeaderValues.PORT)) {
-            rtpDestPortString = getTransportAttribute(transportHeaderContent, RtspHeaderValues.PORT);
-        }
-        if (rtpDestPortString == null) {
+    private boolean getTransportInfo(ChannelHandlerContext ctx, DefaultHttpRequest req, DefaultFullHttpResponse res, String transportHeaderContent, RtspTransport transport, Streamer streamer) {
+        int rtpDestPort = transport.getRtpPort();
+        if (rtpDestPort <= 0) {
             logger.warn("({}) ({}) Fail to parse rtp destination port. (transportHeaderContent={})",
                     name, streamer.getKey(), transportHeaderContent
             );
@@ -391,32 +426,17 @@ public class RtspChannelHandler extends ChannelInboundHandlerAdapter {
             return true;
         }
 
-        if (rtpDestPortString.contains("-")) {
-            String rtcpDesPortString = rtpDestPortString.substring(
-                    rtpDestPortString.lastIndexOf("-") + 1
+        int rtcpDestPort = transport.getRtcpPort();
+        if (rtcpDestPort <= 0) {
+            logger.warn("({}) ({}) Fail to parse rtcp destination port. (transportHeaderContent={})",
+                    name, streamer.getKey(), transportHeaderContent
             );
-            int rtcpDestPort = Integer.parseInt(rtcpDesPortString);
-            if (rtcpDestPort <= 0) {
-                logger.warn("({}) ({}) Fail to parse rtcp destination port. (transportHeaderContent={})",
-                        name, streamer.getKey(), transportHeaderContent
-                );
-                sendFailResponse(name, ctx, req, res, streamer.getSessionId(), RtspResponseStatuses.NOT_ACCEPTABLE);
-                return true;
-            } else {
-                streamer.setRtcpDestPort(rtcpDestPort);
-            }
-            rtpDestPortString = rtpDestPortString.substring(0, rtpDestPortString.lastIndexOf("-"));
-
-            int rtpDestPort = Integer.parseInt(rtpDestPortString);
-            if (rtpDestPort <= 0) {
-                logger.warn("({}) ({}) Fail to parse rtp destination port. (transportHeaderContent={})",
-                        name, streamer.getKey(), transportHeaderContent
-                );
-                sendFailResponse(name, ctx, req, res, streamer.getSessionId(), RtspResponseStatuses.NOT_ACCEPTABLE);
-                return true;
-            }
-            streamer.setRtpDestPort(rtpDestPort);
+            sendFailResponse(name, ctx, req, res, streamer.getSessionId(), RtspResponseStatuses.NOT_ACCEPTABLE);
+            return true;
         }
+
+        streamer.setRtpDestPort(rtpDestPort);
+        streamer.setRtcpDestPort(rtcpDestPort);
         return false;
     }
 
@@ -434,43 +454,40 @@ public class RtspChannelHandler extends ChannelInboundHandlerAdapter {
         res.setStatus(RtspResponseStatuses.OK);
         res.headers().add(
                 RtspHeaderNames.SESSION,
-                lastSessionId // + ";timeout=60"
+                getSessionHeaderValue(lastSessionId)
         );
         sendResponse(name, ctx, req, res);
     }
 
+    /**
+     * @fn private void saveStreamerToContext(ChannelHandlerContext ctx, Streamer streamer)
+     * @brief Track 을 이 연결의 Track 목록에 넣는 함수, 같은 Track ID 의 이전 Track 은 정리한다.
+     */
     private void saveStreamerToContext(ChannelHandlerContext ctx, Streamer streamer) {
-        if (streamer.getTrackId().equals(AUDIO_TRACK_ID)) {
-            audioContextStreamer = streamer;
-            audioContextStreamer.setRtspChannelContext(ctx);
-        } else if (streamer.getTrackId().equals(VIDEO_TRACK_ID)) {
-            videoContextStreamer = streamer;
-            videoContextStreamer.setRtspChannelContext(ctx);
+        streamer.setRtspChannelContext(ctx);
+
+        Streamer prevStreamer = trackTable.put(streamer);
+        if (prevStreamer != null && prevStreamer != streamer) {
+            releaseStreamerFromContext(prevStreamer);
+            if (!prevStreamer.getKey().equals(streamer.getKey())) {
+                // 다른 세션의 Track > 레지스트리에서도 지운다. (같은 key 는 replaceStreamer 에서 이미 교체됨)
+                NettyChannelManager.getInstance().deleteStreamer(prevStreamer);
+            }
         }
     }
 
-    private void releaseStreamerFromContext(String key) {
-        if (audioContextStreamer != null && audioContextStreamer.getKey().equals(key)) {
-            audioContextStreamer.setRtspChannelContext(null);
-            audioContextStreamer.stop();
-            logger.debug("({}) AudioContextStreamer is removed.", audioContextStreamer.getKey());
-            audioContextStreamer = null;
-        }
-
-        if (videoContextStreamer != null && videoContextStreamer.getKey().equals(key)) {
-            videoContextStreamer.setRtspChannelContext(null);
-            videoContextStreamer.stop();
-            logger.debug("({}) VideoContextStreamer is removed.", videoContextStreamer.getKey());
-            videoContextStreamer = null;
-        }
+    private void releaseStreamerFromContext(Streamer streamer) {
+        streamer.setRtspChannelContext(null);
+        streamer.stop();
+        logger.debug("({}) Track({}) is removed.", streamer.getKey(), streamer.getMediaType().getName());
     }
 
-    private void setRtpDestIp(ChannelHandlerContext ctx, String transportHeaderContent, Streamer streamer) {
+    private void setRtpDestIp(ChannelHandlerContext ctx, RtspTransport transport, Streamer streamer) {
         /**
          * EX) Transport: RTP/AVP;multicast;destination=224.2.0.1;
          *              client_port=3456-3457;ttl=16
          */
-        String rtpDestIp = getTransportAttribute(transportHeaderContent, RtspHeaderValues.DESTINATION);
+        String rtpDestIp = transport.getDestination();
         if (rtpDestIp != null) {
             streamer.setDestIp(rtpDestIp);
         } else {
@@ -509,173 +526,151 @@ public class RtspChannelHandler extends ChannelInboundHandlerAdapter {
     private void handlePlay(ChannelHandlerContext ctx, DefaultHttpRequest req, DefaultFullHttpResponse res) {
         logger.debug("({}) () < PLAY\n{}", name, req);
 
-        if (audioContextStreamer != null && videoContextStreamer != null
-                && (audioContextStreamer.isTcp() != videoContextStreamer.isTcp())) {
-            logger.warn("({}) Audio & Video transport is not matched. (audio={}, video={})",
-                    name, audioContextStreamer.isTcp()? "TCP":"UDP", videoContextStreamer.isTcp()? "TCP":"UDP"
-            );
-            sendFailResponse(name, ctx, req, res, null, RtspResponseStatuses.NOT_ACCEPTABLE);
+        List<Streamer> trackList = trackTable.getAll();
+        if (trackList.isEmpty()) {
+            logger.warn("({}) () Streamer is null. Fail to process PLAY method.", name);
+            sendFailResponse(name,  ctx, req, res, null, RtspResponseStatuses.NOT_ACCEPTABLE);
             return;
         }
 
-        if (audioContextStreamer != null && videoContextStreamer != null) {
-            logger.debug("({}) AudioContextStreamer is selected. (sessionId={})", audioContextStreamer.getKey(), audioContextStreamer.getSessionId());
-            logger.debug("({}) VideoContextStreamer is selected. (sessionId={})", videoContextStreamer.getKey(), videoContextStreamer.getSessionId());
-
-            if (audioContextStreamer.isTcp() && videoContextStreamer.isTcp()) {
-                String curSessionId = req.headers().get(RtspHeaderNames.SESSION);
-                if (curSessionId == null) {
-                    logger.warn("({}) () SessionId is null. Fail to process PLAY method. (listenIp={}, listenRtspPort={})",
-                            name, listenIp, listenRtspPort
-                    );
-                    sendFailResponse(name, ctx, req, res, null, RtspResponseStatuses.NOT_ACCEPTABLE);
-                    return;
-                }
-                logger.debug("({}) () Current sessionId is [{}].", name, curSessionId);
-
-                NettyChannelManager.getInstance().startStreaming(audioContextStreamer.getKey());
-                NettyChannelManager.getInstance().startStreaming(videoContextStreamer.getKey());
-
-                res.setStatus(RtspResponseStatuses.OK);
-                res.headers().add(
-                        RtspHeaderNames.SERVER,
-                        userConfig.getId()
-                );
-                if (!curSessionId.isEmpty()) {
-                    res.headers().add(
-                            RtspHeaderNames.SESSION,
-                            curSessionId // + ";timeout=60"
-                    );
-                }
+        if (trackTable.isTransportMixed()) {
+            logger.warn("({}) Transport of tracks is not matched. (tracks={})", name, trackList.size());
+            sendFailResponse(name, ctx, req, res, null, RtspResponseStatuses.NOT_ACCEPTABLE);
+            return;
+        }
 
-                Streamer streamer = NettyChannelManager.getInstance().getStreamerBySessionId(curSessionId);
-                if (streamer != null) {
-                    logger.debug("Play response is saved in [{}]", streamer.getKey());
-                    streamer.setPlayResponse(res);
-                } else {
-                    audioContextStreamer.setPlayResponse(res);
-                }
-            } else {
-                String callId = getCallId(req);
-                if (callId == null) {
-                    logger.warn("({}) Fail to get uri.", name);
-                    sendFailResponse(name,  ctx, req, res, null, RtspResponseStatuses.BAD_REQUEST);
-                    return;
-                }
+        boolean isTcp = trackList.get(0).isTcp();
+        if (!isTcp) {
+            RtspRequestUri requestUri = parseRequestUri(ctx, req, res);
+            if (requestUri == null) { return; }
+        }
 
-                // CHECK REQUEST
-                String curSessionId = req.headers().get(RtspHeaderNames.SESSION);
-                if (curSessionId == null) {
-                    logger.warn("({}) () SessionId is null. Fail to process PLAY method. (listenIp={}, listenRtspPort={})",
-                            name, listenIp, listenRtspPort
-                    );
-                    sendFailResponse(name,  ctx, req, res, null, RtspResponseStatuses.NOT_ACCEPTABLE);
-                    return;
-                }
-                logger.debug("({}) Current sessionId is [{}].", name, curSessionId);
+        // CHECK REQUEST
+        String curSessionId = RtspRequestParser.parseSessionId(req.headers().get(RtspHeaderNames.SESSION));
+        if (curSessionId == null) {
+            logger.warn("({}) () SessionId is null. Fail to process PLAY method. (listenIp={}, listenRtspPort={})",
+                    name, listenIp, listenRtspPort
+            );
+            sendFailResponse(name,  ctx, req, res, null, RtspResponseStatuses.NOT_ACCEPTABLE);
+            return;
+        }
+        logger.debug("({}) Current sessionId is [{}].", name, curSessionId);
 
-                // CHECK RTSP DESTINATION PORT
-                int audioDestPort = audioContextStreamer.getRtpDestPort();
-                if (audioDestPort <= 0) {
-                    logger.warn("({}) ({}) Fail to process the PLAY request. Audio destination port is wrong. (destPort={})",
-                            name, audioContextStreamer.getKey(), audioDestPort
-                    );
-                    sendFailResponse(name, ctx, req, res, curSessionId, RtspResponseStatuses.NOT_ACCEPTABLE);
-                    return;
-                }
-                int videoDestPort = videoContextStreamer.getRtpDestPort();
-                if (videoDestPort <= 0) {
-                    logger.warn("({}) ({}) Fail to process the PLAY request. Video destination port is wrong. (destPort={})",
-                            name, videoContextStreamer.getKey(), videoDestPort
+        // CHECK RTSP DESTINATION PORT
+        if (!isTcp) {
+            for (Streamer track : trackList) {
+                int destPort = track.getRtpDestPort();
+                if (destPort <= 0) {
+                    logger.warn("({}) ({}) Fail to process the PLAY request. Destination port is wrong. (destPort={})",
+                            name, track.getKey(), destPort
                     );
                     sendFailResponse(name, ctx, req, res, curSessionId, RtspResponseStatuses.NOT_ACCEPTABLE);
                     return;
                 }
+            }
+        }
 
-                // CHECK RTSP DESTINATION IP
-                NettyChannelManager.getInstance().startStreaming(audioContextStreamer.getKey());
-                NettyChannelManager.getInstance().startStreaming(videoContextStreamer.getKey());
-
-                // SUCCESS RESPONSE
-                res.setStatus(RtspResponseStatuses.OK);
-                res.headers().add(
-                        RtspHeaderNames.SERVER,
-                        userConfig.getId()
-                );
-                if (!curSessionId.isEmpty()) {
-                    res.headers().add(
-                            RtspHeaderNames.SESSION,
-                            curSessionId // + ";timeout=60"
-                    );
-                }
+        for (Streamer track : trackList) {
+            logger.debug("({}) Track({}) is selected. (sessionId={})", track.getKey(), track.getMediaType().getName(), track.getSessionId());
+            startStreaming(track);
+        }
 
-                // Callback
-                Streamer streamer = NettyChannelManager.getInstance().getStreamerBySessionId(curSessionId);
-                if (streamer != null) {
-                    logger.debug("Play response is saved in [{}]", streamer.getKey());
-                    streamer.setPlayResponse(res);
-                } else {
-                    audioContextStreamer.setPlayResponse(res);
-                }
-            }
+        // SUCCESS RESPONSE
+        res.setStatus(RtspResponseStatuses.OK);
+        res.headers().add(
+                RtspHeaderNames.SERVER,
+                userConfig.getId()
+        );
+        if (!curSessionId.isEmpty()) {
+            res.headers().add(
+                    RtspHeaderNames.SESSION,
+                    getSessionHeaderValue(curSessionId)
+            );
         }
 
-        if (audioContextStreamer == null || videoContextStreamer == null) {
-            logger.warn("({}) () Streamer is null. Fail to process PLAY method.", name);
-            sendFailResponse(name,  ctx, req, res, null, RtspResponseStatuses.NOT_ACCEPTABLE);
+        // 나중에 보내는 응답이라 sendResponse() 를 거치지 않으므로 CSeq 등 공통 헤더를 여기서 넣는다.
+        RtspResponseHeaders.addCommonHeaders(res.headers(), req.headers().get(RtspHeaderNames.CSEQ));
+
+        // Callback (첫 패킷에서 세션의 모든 Track RTP-Info 와 함께 보낸다)
+        List<Streamer> sessionTrackList = trackTable.getBySessionId(curSessionId);
+        Streamer streamer = sessionTrackList.isEmpty() ? trackList.get(0) : sessionTrackList.get(0);
+        logger.debug("Play response is saved in [{}]", streamer.getKey());
+        streamer.setPlayResponse(res);
+
+        for (Streamer track : trackList) {
+            resumeStreaming(track);
         }
     }
 
-    private String getCallId(DefaultHttpRequest req) {
-        String uri = req.uri();
+    /**
+     * @fn private void startStreaming(Streamer streamer)
+     * @brief PLAY 요청으로 전송을 시작하는 함수, PAUSE 된 Streamer 는 소켓과 상태가 살아 있으므로 다시 열지 않는다. (resumeStreaming)
+     */
+    private void startStreaming(Streamer streamer) {
+        if (streamer.isPaused()) { return; }
 
-        uri = uri.substring(uri.indexOf(RTSP_PREFIX) + RTSP_PREFIX.length());
-        if (uri.charAt(uri.length() - 1) == '/') {
-            uri = uri.substring(0, uri.length() - 1);
-        }
+        NettyChannelManager.getInstance().startStreaming(streamer.getKey());
+    }
 
-        String callId = uri.substring(uri.indexOf("/") + 1);
-        if (callId.isEmpty()) {
-            return null;
+    /**
+     * @fn private void resumeStreaming(Streamer streamer)
+     * @brief PAUSE 된 Streamer 를 다시 시작하는 함수 (PLAY 응답을 저장한 뒤 호출해야 응답보다 RTP 가 먼저 나가지 않는다)
+     */
+    private void resumeStreaming(Streamer streamer) {
+        if (streamer.isPaused()) {
+            streamer.resume();
+            logger.debug("({}) ({}) Resume the streaming.", name, streamer.getKey());
         }
-        logger.debug("({}) () Call-ID: {}", name, callId);
-        return callId;
     }
 
-    private void handleTeardown(ChannelHandlerContext ctx, DefaultHttpRequest req, DefaultFullHttpResponse res) {
-        logger.debug("({}) () < TEARDOWN\n{}", name, req);
+    /**
+     * @fn private void handlePause(ChannelHandlerContext ctx, DefaultHttpRequest req, DefaultFullHttpResponse res)
+     * @brief PAUSE 요청을 처리하는 함수
+     * 전송만 멈추고 (Streamer.pause) 소켓, RTCP, 세션은 유지한다. 다음 PLAY 에서 바로 다시 보낸다.
+     */
+    private void handlePause(ChannelHandlerContext ctx, DefaultHttpRequest req, DefaultFullHttpResponse res) {
+        logger.debug("({}) () < PAUSE\n{}", name, req);
 
-        if (audioContextStreamer != null) {
-            NettyChannelManager.getInstance().stopStreaming(audioContextStreamer.getKey());
-            NettyChannelManager.getInstance().deleteStreamer(audioContextStreamer);
-            logger.debug("({}) ({}) Stop the streaming.", name, audioContextStreamer.getKey());
+        String curSessionId = RtspRequestParser.parseSessionId(req.headers().get(RtspHeaderNames.SESSION));
+        if (curSessionId == null) {
+            logger.warn("({}) () SessionId is null. Fail to process PAUSE method. (listenIp={}, listenRtspPort={})",
+                    name, listenIp, listenRtspPort
+            );
+            sendFailResponse(name, ctx, req, res, null, RtspResponseStatuses.SESSION_NOT_FOUND);
+            return;
         }
 
-        if (videoContextStreamer != null) {
-            NettyChannelManager.getInstance().stopStreaming(videoContextStreamer.getKey());
-            NettyChannelManager.getInstance().deleteStreamer(videoContextStreamer);
-            logger.debug("({}) ({}) Stop the streaming.", name, videoContextStreamer.getKey());
+        // 이 연결이 SETUP 한 Track 만 멈춘다. (다른 연결의 세션은 PAUSE 할 수 없음)
+        List<Streamer> streamerList = trackTable.getBySessionId(curSessionId);
+        if (streamerList.isEmpty()) {
+            logger.warn("({}) () Streamer is not exist. Fail to process PAUSE method. (sessionId={})", name, curSessionId);
+            sendFailResponse(name, ctx, req, res, curSessionId, RtspResponseStatuses.SESSION_NOT_FOUND);
+            return;
         }
 
-        sendNormalOkResponse(res, ctx, req);
-    }
-
-    private String getTransportAttribute(String transportHeaderContent, AsciiString targetString) {
-        int pos = transportHeaderContent.lastIndexOf(String.valueOf(targetString));
-        if (pos < 0) { return null; }
+        for (Streamer streamer : streamerList) {
+            streamer.pause();
+            logger.debug("({}) ({}) Pause the streaming.", name, streamer.getKey());
+        }
 
-        String posString = transportHeaderContent.substring(
-                pos + targetString.length() + 1
+        res.setStatus(RtspResponseStatuses.OK);
+        res.headers().add(
+                RtspHeaderNames.SESSION,
+                getSessionHeaderValue(curSessionId)
         );
+        sendResponse(name, ctx, req, res);
+    }
 
-        int semicolonPos = posString.indexOf(";");
-        if (semicolonPos >= 0) {
-            posString = posString.substring(
-                    0, posString.indexOf(";")
-            );
+    private void handleTeardown(ChannelHandlerContext ctx, DefaultHttpRequest req, DefaultFullHttpResponse res) {
+        logger.debug("({}) () < TEARDOWN\n{}", name, req);
+
+        for (Streamer track : trackTable.clear()) {
+            NettyChannelManager.getInstance().stopStreaming(track.getKey());
+            NettyChannelManager.getInstance().deleteStreamer(track);
+            logger.debug("({}) ({}) Stop the streaming.", name, track.getKey());
         }
 
-        return posString;
+        sendNormalOkResponse(res, ctx, req);
     }
 
     private boolean checkRequest(ChannelHandlerContext ctx, DefaultHttpRequest req, DefaultFullHttpResponse res) {
@@ -709,30 +704,41 @@ public class RtspChannelHandler extends ChannelInboundHandlerAdapter {
     }
 
     public static void sendResponse(String name, ChannelHandlerContext ctx, DefaultHttpRequest req, FullHttpResponse res) {
-        final String cSeq = req.headers().get(RtspHeaderNames.CSEQ);
-        if (cSeq != null) {
-            res.headers().add(RtspHeaderNames.CSEQ, cSeq);
-        }
-        res.headers().set(RtspHeaderNames.CONNECTION, RtspHeaderValues.KEEP_ALIVE);
-
-        res.headers().add(
-                RtspHeaderNames.DATE,
-                LocalDateTime.now()
-        );
-
-        res.headers().add(
-                RtspHeaderNames.CACHE_CONTROL,
-                "no-cache"
-        );
+        RtspResponseHeaders.addCommonHeaders(res.headers(), req.headers().get(RtspHeaderNames.CSEQ));
 
         if (ctx != null) {
-            logger.debug("({}) [{}] > Success to send the response: {}\n", name, req.method(), res);
+            if (logger.isDebugEnabled()) {
+                logger.debug("({}) [{}] > Success to send the response: {}\n", name, req.method(), res);
+            }
             ctx.write(res);
         } else {
             logger.warn("({}) [{}] > Fail to send the response: {}\n", name, req.method(), res);
         }
     }
 
+    /**
+     * @fn private void touchSession()
+     * @brief RTSP 요청을 받으면 이 연결의 Streamer 들을 갱신하는 함수 (세션 만료 방지)
+     * 요청의 Session 헤더로 전역 Registry 를 찾지 않는다. (다른 연결의 세션을 살려 둘 수 없음)
+     */
+    private void touchSession() {
+        for (Streamer track : trackTable.getAll()) {
+            track.touch();
+        }
+    }
+
+    /**
+     * @fn private static String getSessionHeaderValue(String sessionId)
+     * @brief 응답 Session 헤더 값을 만드는 함수 (세션 timeout 을 사용하면 ";timeout=" 추가)
+     */
+    private static String getSessionHeaderValue(String sessionId) {
+        int timeoutSec = SessionTimeoutManager.getTimeoutSec();
+        if (sessionId == null || timeoutSec <= 0) {
+            return sessionId;
+        }
+        return sessionId + ";timeout=" + timeoutSec;
+    }
+
     public void sendFailResponse(String name, ChannelHandlerContext ctx, DefaultHttpRequest req, FullHttpResponse res, String curSessionId, HttpResponseStatus httpResponseStatus) {
         res.setStatus(httpResponseStatus);
         if (curSessionId != null && curSessionId.length() > 0) {
@@ -746,12 +752,8 @@ public class RtspChannelHandler extends ChannelInboundHandlerAdapter {
 
     @Override
     public void channelInactive(ChannelHandlerContext ctx) {
-        if (audioContextStreamer != null) {
-            releaseStreamerFromContext(audioContextStreamer.getKey());
-        }
-
-        if (videoContextStreamer != null) {
-            releaseStreamerFromContext(videoContextStreamer.getKey());
+        for (Streamer track : trackTable.clear()) {
+            releaseStreamerFromContext(track);
         }
 
         logger.warn("({}) RtspChannelHandler is inactive.", name);
@@ -762,11 +764,4 @@ public class RtspChannelHandler extends ChannelInboundHandlerAdapter {
         logger.warn("({}) RtspChannelHandler.Exception (cause={})", name, cause.toString());
     }
 
-    private String getStreamerKey(String callId, String trackId, String sessionId) {
-        if (trackId != null && !trackId.isEmpty()) {
-            return callId + ":" + trackId + ":" + sessionId;
-        }
-        return callId + ":" + sessionId;
-    }
-
 }
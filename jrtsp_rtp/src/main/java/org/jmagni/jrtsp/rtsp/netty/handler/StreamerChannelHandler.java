@@ -40,7 +40,7 @@ public class StreamerChannelHandler extends ChannelInboundHandlerAdapter {
             for (Streamer streamer : NettyChannelManager.getInstance().getStreamerListByCallId(callId)) {
                 if (streamer == null) { return; }
 
-                NettyChannelManager.getInstance().stopStreaming(streamer.getSessionId());
+                NettyChannelManager.getInstance().stopStreaming(streamer.getKey());
                 logger.debug("({}) Stop the streaming by [PortUnreachableException].", streamer.getSessionId());
 
                 NettyChannelManager.getInstance().deleteStreamer(streamer);
@@ -3,9 +3,9 @@ package org.jmagni.jrtsp.rtsp.netty.module;
 import io.netty.bootstrap.Bootstrap;
 import io.netty.buffer.PooledByteBufAllocator;
 import io.netty.channel.*;
-import io.netty.channel.nio.NioEventLoopGroup;
 import io.netty.channel.socket.nio.NioDatagramChannel;
 import org.jmagni.jrtsp.config.UserConfig;
+import org.jmagni.jrtsp.rtsp.netty.CallAffinityManager;
 import org.jmagni.jrtsp.rtsp.netty.handler.RtcpChannelHandler;
 import org.jmagni.jrtsp.service.AppInstance;
 import org.slf4j.Logger;
@@ -22,18 +22,20 @@ public class RtcpNettyChannel { // > UDP
 
     private static final Logger logger = LoggerFactory.getLogger(RtcpNettyChannel.class);
 
+    private final String callId;
     private final String streamerKey;
     private final String listenIp;
     private final int listenPort;
 
     private Bootstrap b;
-    private NioEventLoopGroup group;
+    private boolean isPlaced = false;
     /*메시지 수신용 채널 */
     private Channel serverChannel;
 
     ////////////////////////////////////////////////////////////////////////////////
 
-    public RtcpNettyChannel(String streamerKey, String ip, int port) {
+    public RtcpNettyChannel(String callId, String streamerKey, String ip, int port) {
+        this.callId = callId;
         this.streamerKey = streamerKey;
         this.listenIp = ip;
         this.listenPort = port;
@@ -43,13 +45,13 @@ public class RtcpNettyChannel { // > UDP
 
     public void run (String ip, int port) {
         UserConfig userConfig = AppInstance.getInstance().getConfigManager().getUserConfig();
-        int nioThreadCount = userConfig.getStreamThreadPoolSize();
         int sendBufSize = userConfig.getSendBufSize();
         int recvBufSize = userConfig.getRecvBufSize();
 
-        group = new NioEventLoopGroup(nioThreadCount);
+        // 같은 Call 의 RTP 전송과 같은 EventLoop 에서 RTCP 를 받는다.
+        isPlaced = true;
         b = new Bootstrap();
-        b.group(group).channel(NioDatagramChannel.class)
+        b.group(CallAffinityManager.getInstance().acquire(callId)).channel(NioDatagramChannel.class)
                 .option(ChannelOption.SO_BROADCAST, false)
                 .option(ChannelOption.SO_SNDBUF, sendBufSize)
                 .option(ChannelOption.SO_RCVBUF, recvBufSize)
@@ -72,8 +74,9 @@ public class RtcpNettyChannel { // > UDP
      * @brief Netty Channel 을 종료하는 함수
      */
     public void stop () {
-        if (group != null) {
-            group.shutdownGracefully();
+        if (isPlaced) {
+            CallAffinityManager.getInstance().release(callId);
+            isPlaced = false;
         }
     }
 
@@ -12,16 +12,15 @@ import org.jmagni.jrtsp.config.UserConfig;
 import org.jmagni.jrtsp.rtsp.PortManager;
 import org.jmagni.jrtsp.rtsp.Streamer;
 import org.jmagni.jrtsp.rtsp.base.MediaType;
+import org.jmagni.jrtsp.rtsp.netty.StreamerRegistry;
 import org.jmagni.jrtsp.rtsp.netty.handler.RtspChannelHandler;
 import org.jmagni.jrtsp.service.AppInstance;
+import org.jmagni.jrtsp.session.SessionTimeoutManager;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.net.InetAddress;
 import java.net.UnknownHostException;
-import java.util.HashMap;
-import java.util.Map;
-import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * @class public class NettyChannel
@@ -41,10 +40,9 @@ public class RtspNettyChannel { // > TCP
     private final String listenIp;
     private final int listenPort;
 
-    /* Streamer Map */
-    /* Key: To MDN, value: Streamer */
-    private final HashMap<String, Streamer> streamerMap = new HashMap<>();
-    private final ReentrantLock streamerMapLock = new ReentrantLock();
+    /* Streamer Registry */
+    /* Key: callId:trackId:sessionId, value: Streamer (Call-ID, Session-ID 인덱스 포함) */
+    private final StreamerRegistry streamerRegistry = new StreamerRegistry();
 
     ////////////////////////////////////////////////////////////////////////////////
 
@@ -140,6 +138,10 @@ public class RtspNettyChannel { // > TCP
         logger.debug("Channel is closed.");
     }
 
+    public EventLoopGroup getWorkerGroup() {
+        return workerGroup;
+    }
+
     public String getListenIp() {
         return listenIp;
     }
@@ -152,93 +154,93 @@ public class RtspNettyChannel { // > TCP
     ////////////////////////////////////////////////////////////////////////////////
 
     public Streamer addStreamer (MediaType mediaType, String callId, String sessionId, String trackId, boolean isTcp) {
+        String key = getStreamerKey(callId, sessionId, trackId);
         try {
-            streamerMapLock.lock();
-
-            String key = (trackId != null && !trackId.isEmpty()) ? callId + ":" + trackId + ":" + sessionId : callId + ":" + sessionId;
-            if (streamerMap.get(key) != null) {
-                logger.warn("Streamer is already exist. (key={})", sessionId);
-                return null;
-            }
-
-            Streamer streamer = new Streamer(
-                    mediaType,
-                    callId,
-                    sessionId,
-                    trackId,
-                    isTcp,
-                    listenIp, PortManager.getInstance().takePort()
+            Streamer streamer = streamerRegistry.add(
+                    callId, key,
+                    () -> newStreamer(mediaType, callId, sessionId, trackId, isTcp)
             );
-            streamerMap.putIfAbsent(streamer.getKey(), streamer);
+            if (streamer == null) {
+                logger.warn("Streamer is already exist. (key={})", key);
+            }
             return streamer;
         } catch (Exception e) {
             logger.warn("Fail to add streamer (callId={}, sessionId={}, trackId={})", callId, sessionId, trackId, e);
             return null;
-        } finally {
-            streamerMapLock.unlock();
         }
     }
 
-    public void deleteStreamer (String key) {
+    /**
+     * @fn public Streamer replaceStreamer (MediaType mediaType, String callId, String sessionId, String trackId, boolean isTcp)
+     * @brief 같은 key 의 Streamer 가 있으면 닫고 새로 만드는 함수 (SETUP 재요청)
+     * @return 성공 시 새 Streamer 객체, 실패 시 null 반환
+     */
+    public Streamer replaceStreamer (MediaType mediaType, String callId, String sessionId, String trackId, boolean isTcp) {
         try {
-            streamerMapLock.lock();
+            return streamerRegistry.replace(
+                    callId, getStreamerKey(callId, sessionId, trackId),
+                    () -> newStreamer(mediaType, callId, sessionId, trackId, isTcp),
+                    oldStreamer -> {
+                        closeStreamer(oldStreamer);
+                        logger.debug("Streamer is replaced. (key={})", oldStreamer.getKey());
+                    }
+            );
+        } catch (Exception e) {
+            logger.warn("Fail to replace streamer (callId={}, sessionId={}, trackId={})", callId, sessionId, trackId, e);
+            return null;
+        }
+    }
 
-            Streamer streamer = streamerMap.get(key);
+    private Streamer newStreamer(MediaType mediaType, String callId, String sessionId, String trackId, boolean isTcp) {
+        Streamer streamer = new Streamer(
+                mediaType,
+                callId,
+                sessionId,
+                trackId,
+                isTcp,
+                // TCP (Interleaved) 는 RTSP 연결로 보내므로 UDP 포트 쌍을 잡지 않는다.
+                listenIp, isTcp ? 0 : PortManager.getInstance().takePort()
+        );
+        SessionTimeoutManager.getInstance().register(streamer);
+        return streamer;
+    }
+
+    private static void closeStreamer(Streamer streamer) {
+        SessionTimeoutManager.getInstance().unregister(streamer);
+        streamer.close();
+    }
+
+    public static String getStreamerKey(String callId, String sessionId, String trackId) {
+        return (trackId != null && !trackId.isEmpty()) ? callId + ":" + trackId + ":" + sessionId : callId + ":" + sessionId;
+    }
+
+    public void deleteStreamer (String key) {
+        try {
+            Streamer streamer = streamerRegistry.remove(key);
             if (streamer == null) {
                 logger.warn("Streamer is null. Fail to delete the Streamer. (key={})", key);
                 return;
             }
 
-            streamer.close();
-            streamerMap.remove(key);
+            closeStreamer(streamer);
             logger.debug("Streamer is deleted. (key={})", key);
         } catch (Exception e) {
             logger.warn("Fail to delete the Streamer. (key={})", key, e);
-        } finally {
-            streamerMapLock.unlock();
         }
     }
 
     public void deleteAllStreamers () {
         try {
-            streamerMapLock.lock();
-
-            for (Map.Entry<String, Streamer> entry : getCloneStreamerMap().entrySet()) {
-                String key = entry.getKey();
-                if (key == null) {
-                    continue;
-                }
-
-                Streamer streamer = entry.getValue();
-                if (streamer == null) {
-                    continue;
-                }
-
-                streamer.close();
-                streamerMap.remove(key);
+            for (Streamer streamer : streamerRegistry.removeAll()) {
+                closeStreamer(streamer);
             }
         } catch (Exception e) {
             logger.warn("Fail to delete all the Streamers.", e);
-        } finally {
-            streamerMapLock.unlock();
         }
     }
 
-    public Map<String, Streamer> getCloneStreamerMap() {
-        HashMap<String, Streamer> cloneMap;
-
-        try {
-            streamerMapLock.lock();
-
-            cloneMap = (HashMap<String, Streamer>) streamerMap.clone();
-        } catch (Exception e) {
-            logger.warn("Fail to clone the message sender map.");
-            cloneMap = streamerMap;
-        } finally {
-            streamerMapLock.unlock();
-        }
-
-        return cloneMap;
+    public StreamerRegistry getStreamerRegistry() {
+        return streamerRegistry;
     }
 
     /**
@@ -248,7 +250,7 @@ public class RtspNettyChannel { // > TCP
      * @return 성공 시 Streamer 객체, 실패 시 null 반환
      */
     public Streamer getStreamer (String key) {
-        return streamerMap.get(key);
+        return streamerRegistry.get(key);
     }
 
     public void startStreaming(String key) {
@@ -2,6 +2,7 @@ package org.jmagni.jrtsp.rtsp.rtcp.packet;
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import org.jmagni.jrtsp.rtsp.rtcp.type.regular.base.RtcpHeader;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -24,6 +25,30 @@ public class RtcpCompoundPacket {
     }
 
     public RtcpCompoundPacket() {}
+
+    public RtcpCompoundPacket(byte[] data) {
+        rtcpPacketList = new ArrayList<>();
+
+        // 각 RTCP 패킷의 length 필드((length + 1) * 4 bytes)를 기준으로 잘라서 파싱
+        int index = 0;
+        while (index + RtcpHeader.LENGTH_SDES <= data.length) {
+            int length = ((data[index + 2] & 0xFF) << 8) | (data[index + 3] & 0xFF);
+            int packetLength = (length + 1) * RtcpPacket.PACKET_MULTIPLE;
+            if (index + packetLength > data.length) {
+                logger.trace("Fail to parse the compound packet. Packet length is wrong. (index={}, packetLength={}, total={})",
+                        index, packetLength, data.length
+                );
+                break;
+            }
+
+            byte[] packetData = new byte[packetLength];
+            System.arraycopy(data, index, packetData, 0, packetLength);
+            if (packetLength >= RtcpHeader.LENGTH) {
+                rtcpPacketList.add(new RtcpPacket(packetData));
+            }
+            index += packetLength;
+        }
+    }
     ////////////////////////////////////////////////////////////
 
     ////////////////////////////////////////////////////////////
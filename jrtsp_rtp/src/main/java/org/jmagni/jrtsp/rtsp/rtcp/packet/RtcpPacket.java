@@ -4,6 +4,14 @@ import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import org.jmagni.jrtsp.rtsp.rtcp.base.RtcpFormat;
 import org.jmagni.jrtsp.rtsp.rtcp.base.RtcpType;
+import org.jmagni.jrtsp.rtsp.rtcp.type.extended.feedback.RtcpFeedback;
+import org.jmagni.jrtsp.rtsp.rtcp.type.extended.feedback.payloadspecific.RtcpFullIntraRequest;
+import org.jmagni.jrtsp.rtsp.rtcp.type.extended.feedback.payloadspecific.RtcpPictureLossIndication;
+import org.jmagni.jrtsp.rtsp.rtcp.type.extended.feedback.payloadspecific.base.RtcpPayloadSpecificFeedbackType;
+import org.jmagni.jrtsp.rtsp.rtcp.type.extended.feedback.transportlayer.RtcpNegativeAck;
+import org.jmagni.jrtsp.rtsp.rtcp.type.extended.feedback.transportlayer.RtcpTemporaryMaximumMediaStreamBitRateNotification;
+import org.jmagni.jrtsp.rtsp.rtcp.type.extended.feedback.transportlayer.RtcpTemporaryMaximumMediaStreamBitRateRequest;
+import org.jmagni.jrtsp.rtsp.rtcp.type.extended.feedback.transportlayer.base.RtcpTransportLayerFeedbackType;
 import org.jmagni.jrtsp.rtsp.rtcp.type.regular.*;
 import org.jmagni.jrtsp.rtsp.rtcp.type.regular.base.RtcpHeader;
 import org.slf4j.Logger;
@@ -93,6 +101,12 @@ public class RtcpPacket {
             rtcpHeader = new RtcpHeader(headerData);
             headerLength = headerData.length;
 
+            // Feedback message 는 자체 헤더(RtcpFeedbackMessageHeader)를 포함한 전체 데이터로 파싱한다.
+            if (isFeedbackPacketType(rtcpHeader.getPacketType())) {
+                rtcpFormat = getRtcpFeedbackFormatByByteData(rtcpHeader.getPacketType(), rtcpHeader.getResourceCount(), data);
+                return;
+            }
+
             if (rtcpHeader.getPacketType() == RtcpType.SOURCE_DESCRIPTION) {
                 byte[] sdesHeaderData = new byte[RtcpHeader.LENGTH_SDES];
                 System.arraycopy(data, 0, sdesHeaderData, 0, RtcpHeader.LENGTH_SDES);
@@ -137,11 +151,62 @@ public class RtcpPacket {
         return rtcpFormat;
     }
 
+    public static boolean isFeedbackPacketType(int packetType) {
+        return packetType == RtcpType.RTPFB || packetType == RtcpType.PSFB;
+    }
+
+    /**
+     * @fn public static RtcpFeedback getRtcpFeedbackFormatByByteData(int packetType, int feedbackMessageType, byte[] data)
+     * @brief RTPFB / PSFB 패킷을 FMT 에 맞는 Feedback format 으로 변환하는 함수
+     * @param packetType RTCP packet type (205 or 206)
+     * @param feedbackMessageType FMT (RTCP 헤더의 RC 위치)
+     * @param data RTCP 헤더를 포함한 전체 데이터
+     * @return 지원하는 FMT 이면 RtcpFeedback 객체, 아니면 null
+     */
+    public static RtcpFeedback getRtcpFeedbackFormatByByteData(int packetType, int feedbackMessageType, byte[] data) {
+        RtcpFeedback rtcpFeedback = null;
+
+        if (packetType == RtcpType.RTPFB) {
+            switch (feedbackMessageType) {
+                case RtcpTransportLayerFeedbackType.NACK:
+                    rtcpFeedback = new RtcpNegativeAck(data);
+                    break;
+                case RtcpTransportLayerFeedbackType.TMMBR:
+                    rtcpFeedback = new RtcpTemporaryMaximumMediaStreamBitRateRequest(data);
+                    break;
+                case RtcpTransportLayerFeedbackType.TMMBN:
+                    rtcpFeedback = new RtcpTemporaryMaximumMediaStreamBitRateNotification(data);
+                    break;
+                default:
+                    logger.trace("UNSUPPORTED RTPFB FMT ({})", feedbackMessageType);
+                    break;
+            }
+        } else {
+            switch (feedbackMessageType) {
+                case RtcpPayloadSpecificFeedbackType.PLI:
+                    rtcpFeedback = new RtcpPictureLossIndication(data);
+                    break;
+                case RtcpPayloadSpecificFeedbackType.FIR:
+                    rtcpFeedback = new RtcpFullIntraRequest(data);
+                    break;
+                default:
+                    logger.trace("UNSUPPORTED PSFB FMT ({})", feedbackMessageType);
+                    break;
+            }
+        }
+
+        return rtcpFeedback;
+    }
+
     public byte[] getData() {
         if (rtcpHeader == null || rtcpFormat == null) {
             return null;
         }
 
+        if (isFeedbackPacketType(rtcpHeader.getPacketType())) {
+            return rtcpFormat.getData();
+        }
+
         byte[] data;
         if (rtcpHeader.getPacketType() == RtcpType.SOURCE_DESCRIPTION) {
             data = new byte[RtcpHeader.LENGTH_SDES];
@@ -2,6 +2,10 @@ package org.jmagni.jrtsp.rtsp.rtcp.type.extended.feedback.payloadspecific;
 
 import org.jmagni.jrtsp.rtsp.rtcp.type.extended.feedback.RtcpFeedback;
 import org.jmagni.jrtsp.rtsp.rtcp.type.extended.feedback.base.RtcpFeedbackMessageHeader;
+import org.jmagni.jrtsp.rtsp.rtcp.type.extended.feedback.payloadspecific.base.RtcpFirEntry;
+
+import java.util.ArrayList;
+import java.util.List;
 
 public class RtcpFullIntraRequest extends RtcpFeedback { // Full INTRA-frame Request
 
@@ -79,6 +83,12 @@ public class RtcpFullIntraRequest extends RtcpFeedback { // Full INTRA-frame Req
      *    > 사전에 미리 코딩된 미디어 데이터를 다루는 세션에는 FIR 사용이 필수는 아니다.
      *
      *
+     *  [RFC 5104 FIR]
+     *      Payload-specific FB message (PT=PSFB, FMT=4)
+     *      The "SSRC of media source" is not used and SHALL be set to 0.
+     *      The FCI field MUST contain one or more FIR entries.
+     *      > FCI = { SSRC(32) | Seq nr.(8) | Reserved(24) } * N
+     *
      *  Picture Loss Indication informs the decoder about the loss of a picture and
      *    hence the likelihood of misalignment of the reference pictures
      *    between the encoder and decoder.
@@ -91,7 +101,7 @@ public class RtcpFullIntraRequest extends RtcpFeedback { // Full INTRA-frame Req
     // VARIABLES
     public static final int MIN_LENGTH = RtcpFeedbackMessageHeader.LENGTH; // bytes
 
-
+    private List<RtcpFirEntry> rtcpFirEntryList = null;
     ////////////////////////////////////////////////////////////
 
     ////////////////////////////////////////////////////////////
@@ -103,14 +113,69 @@ public class RtcpFullIntraRequest extends RtcpFeedback { // Full INTRA-frame Req
     public RtcpFullIntraRequest() {
     }
 
+    public RtcpFullIntraRequest(RtcpFeedbackMessageHeader rtcpFeedbackMessageHeader, List<RtcpFirEntry> rtcpFirEntryList) {
+        super(rtcpFeedbackMessageHeader);
+        this.rtcpFirEntryList = rtcpFirEntryList;
+    }
+
     public RtcpFullIntraRequest(byte[] data) {
         super(data);
+
+        if (data.length >= MIN_LENGTH) {
+            int index = 0;
+
+            byte[] headerData = new byte[RtcpFeedbackMessageHeader.LENGTH];
+            System.arraycopy(data, index, headerData, 0, RtcpFeedbackMessageHeader.LENGTH);
+            RtcpFeedbackMessageHeader rtcpFeedbackMessageHeader = new RtcpFeedbackMessageHeader(headerData);
+            setRtcpFeedbackMessageHeader(rtcpFeedbackMessageHeader);
+            index += RtcpFeedbackMessageHeader.LENGTH;
+
+            int packetLength = (rtcpFeedbackMessageHeader.getLength() + 1) * 4;
+            int endIndex = Math.min(data.length, packetLength);
+
+            rtcpFirEntryList = new ArrayList<>();
+            while (index + RtcpFirEntry.LENGTH <= endIndex) {
+                byte[] entryData = new byte[RtcpFirEntry.LENGTH];
+                System.arraycopy(data, index, entryData, 0, RtcpFirEntry.LENGTH);
+                rtcpFirEntryList.add(new RtcpFirEntry(entryData));
+                index += RtcpFirEntry.LENGTH;
+            }
+        }
     }
     ////////////////////////////////////////////////////////////
 
     ////////////////////////////////////////////////////////////
     // FUNCTIONS
+    @Override
+    public byte[] getData() {
+        if (getRtcpFeedbackMessageHeader() == null) { return null; }
+
+        int entryCount = (rtcpFirEntryList == null) ? 0 : rtcpFirEntryList.size();
+        int index = 0;
+        byte[] data = new byte[MIN_LENGTH + entryCount * RtcpFirEntry.LENGTH];
+
+        byte[] headerData = getRtcpFeedbackMessageHeader().getData();
+        System.arraycopy(headerData, 0, data, index, headerData.length);
+        index += headerData.length;
 
+        if (entryCount > 0) {
+            for (RtcpFirEntry rtcpFirEntry : rtcpFirEntryList) {
+                byte[] entryData = rtcpFirEntry.getData();
+                System.arraycopy(entryData, 0, data, index, entryData.length);
+                index += entryData.length;
+            }
+        }
+
+        return data;
+    }
+
+    public List<RtcpFirEntry> getRtcpFirEntryList() {
+        return rtcpFirEntryList;
+    }
+
+    public void setRtcpFirEntryList(List<RtcpFirEntry> rtcpFirEntryList) {
+        this.rtcpFirEntryList = rtcpFirEntryList;
+    }
 
     ////////////////////////////////////////////////////////////
 
@@ -0,0 +1,84 @@
+package org.jmagni.jrtsp.rtsp.rtcp.type.extended.feedback.payloadspecific.base;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import org.jmagni.jrtsp.rtsp.base.ByteUtil;
+
+public class RtcpFirEntry {
+
+    /**
+     * @Reference https://datatracker.ietf.org/doc/html/rfc5104#section-4.3.1.1
+     *
+     *     0                   1                   2                   3
+     *     0 1 2 3 4 5 6 7 8 9 0 1 2 3 4 5 6 7 8 9 0 1 2 3 4 5 6 7 8 9 0 1
+     *    +-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+
+     *    |                              SSRC                             |
+     *    +-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+
+     *    | Seq nr.       |    Reserved                                   |
+     *    +-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+
+     *
+     *    SSRC (32 bits) : FIR 를 받아서 Decoder Refresh Point 를 보내야 하는 미디어 송신자의 SSRC
+     *    Seq nr. (8 bits) : Command sequence number, 같은 요청의 재전송이면 같은 번호를 사용한다.
+     */
+
+    ////////////////////////////////////////////////////////////
+    // VARIABLES
+    public static final int LENGTH = 8; // bytes
+
+    private long ssrc = 0; // (32 bits, unsigned int)
+    private int seqNr = 0; // (8 bits)
+    ////////////////////////////////////////////////////////////
+
+    ////////////////////////////////////////////////////////////
+    // CONSTRUCTOR
+    public RtcpFirEntry(long ssrc, int seqNr) {
+        this.ssrc = ssrc;
+        this.seqNr = seqNr & 0xFF;
+    }
+
+    public RtcpFirEntry() {}
+
+    public RtcpFirEntry(byte[] data) {
+        if (data.length >= LENGTH) {
+            ssrc = ((long) (data[0] & 0xFF) << 24) | ((data[1] & 0xFF) << 16) | ((data[2] & 0xFF) << 8) | (data[3] & 0xFF);
+            seqNr = data[4] & 0xFF;
+        }
+    }
+    ////////////////////////////////////////////////////////////
+
+    ////////////////////////////////////////////////////////////
+    // FUNCTIONS
+    public byte[] getData() {
+        byte[] data = new byte[LENGTH];
+
+        byte[] ssrcData = ByteUtil.intToBytes((int) ssrc, true);
+        System.arraycopy(ssrcData, 0, data, 0, ByteUtil.NUM_BYTES_IN_INT);
+        data[4] = (byte) seqNr;
+
+        return data;
+    }
+
+    public long getSsrc() {
+        return ssrc;
+    }
+
+    public void setSsrc(long ssrc) {
+        this.ssrc = ssrc;
+    }
+
+    public int getSeqNr() {
+        return seqNr;
+    }
+
+    public void setSeqNr(int seqNr) {
+        this.seqNr = seqNr & 0xFF;
+    }
+
+    @Override
+    public String toString() {
+        Gson gson = new GsonBuilder().setPrettyPrinting().create();
+        return gson.toJson(this);
+    }
+    ////////////////////////////////////////////////////////////
+
+}
@@ -2,6 +2,10 @@ package org.jmagni.jrtsp.rtsp.rtcp.type.extended.feedback.transportlayer;
 
 import org.jmagni.jrtsp.rtsp.rtcp.type.extended.feedback.RtcpFeedback;
 import org.jmagni.jrtsp.rtsp.rtcp.type.extended.feedback.base.RtcpFeedbackMessageHeader;
+import org.jmagni.jrtsp.rtsp.rtcp.type.extended.feedback.transportlayer.base.RtcpNackBlock;
+
+import java.util.ArrayList;
+import java.util.List;
 
 public class RtcpNegativeAck extends RtcpFeedback { // Negative Acknowledgement
 
@@ -33,12 +37,18 @@ public class RtcpNegativeAck extends RtcpFeedback { // Negative Acknowledgement
      *      lost. BLP is set to 0x00001 if the packet corresponding to
      *      the FSN and the following packet have been lost, etc.
      *
+     *   [RFC 4585 Generic NACK]
+     *      Transport layer FB message (PT=RTPFB, FMT=1)
+     *      The FCI field MUST contain at least one and MAY contain more than one Generic NACK.
+     *      > FCI = { PID(16) | BLP(16) } * N
+     *
      */
 
     ////////////////////////////////////////////////////////////
     // VARIABLES
     public static final int MIN_LENGTH = RtcpFeedbackMessageHeader.LENGTH; // bytes
-    
+
+    private List<RtcpNackBlock> rtcpNackBlockList = null;
     ////////////////////////////////////////////////////////////
 
     ////////////////////////////////////////////////////////////
@@ -47,18 +57,83 @@ public class RtcpNegativeAck extends RtcpFeedback { // Negative Acknowledgement
         super(rtcpFeedbackMessageHeader);
     }
 
+    public RtcpNegativeAck(RtcpFeedbackMessageHeader rtcpFeedbackMessageHeader, List<RtcpNackBlock> rtcpNackBlockList) {
+        super(rtcpFeedbackMessageHeader);
+        this.rtcpNackBlockList = rtcpNackBlockList;
+    }
+
     public RtcpNegativeAck() {
     }
 
     public RtcpNegativeAck(byte[] data) {
         super(data);
+
+        if (data.length >= MIN_LENGTH) {
+            int index = 0;
+
+            byte[] headerData = new byte[RtcpFeedbackMessageHeader.LENGTH];
+            System.arraycopy(data, index, headerData, 0, RtcpFeedbackMessageHeader.LENGTH);
+            RtcpFeedbackMessageHeader rtcpFeedbackMessageHeader = new RtcpFeedbackMessageHeader(headerData);
+            setRtcpFeedbackMessageHeader(rtcpFeedbackMessageHeader);
+            index += RtcpFeedbackMessageHeader.LENGTH;
+
+            // FCI 영역은 헤더의 length 필드 기준으로 자른다. (compound packet 의 뒤쪽 데이터가 붙어 있을 수 있음)
+            int packetLength = (rtcpFeedbackMessageHeader.getLength() + 1) * 4;
+            int endIndex = Math.min(data.length, packetLength);
+
+            rtcpNackBlockList = new ArrayList<>();
+            while (index + RtcpNackBlock.LENGTH <= endIndex) {
+                byte[] blockData = new byte[RtcpNackBlock.LENGTH];
+                System.arraycopy(data, index, blockData, 0, RtcpNackBlock.LENGTH);
+                rtcpNackBlockList.add(new RtcpNackBlock(blockData));
+                index += RtcpNackBlock.LENGTH;
+            }
+        }
     }
     ////////////////////////////////////////////////////////////
 
     ////////////////////////////////////////////////////////////
     // FUNCTIONS
+    @Override
+    public byte[] getData() {
+        if (getRtcpFeedbackMessageHeader() == null) { return null; }
 
+        int blockCount = (rtcpNackBlockList == null) ? 0 : rtcpNackBlockList.size();
+        int index = 0;
+        byte[] data = new byte[MIN_LENGTH + blockCount * RtcpNackBlock.LENGTH];
 
+        byte[] headerData = getRtcpFeedbackMessageHeader().getData();
+        System.arraycopy(headerData, 0, data, index, headerData.length);
+        index += headerData.length;
+
+        if (blockCount > 0) {
+            for (RtcpNackBlock rtcpNackBlock : rtcpNackBlockList) {
+                byte[] blockData = rtcpNackBlock.getData();
+                System.arraycopy(blockData, 0, data, index, blockData.length);
+                index += blockData.length;
+            }
+        }
+
+        return data;
+    }
+
+    public List<RtcpNackBlock> getRtcpNackBlockList() {
+        return rtcpNackBlockList;
+    }
+
+    public void setRtcpNackBlockList(List<RtcpNackBlock> rtcpNackBlockList) {
+        this.rtcpNackBlockList = rtcpNackBlockList;
+    }
+
+    public int getLostPacketCount() {
+        if (rtcpNackBlockList == null) { return 0; }
+
+        int count = 0;
+        for (RtcpNackBlock rtcpNackBlock : rtcpNackBlockList) {
+            count += 1 + Integer.bitCount(rtcpNackBlock.getBlp());
+        }
+        return count;
+    }
     ////////////////////////////////////////////////////////////
 
 }
@@ -21,6 +21,10 @@ package org.jmagni.jrtsp.rtsp.rtcp.type.extended.feedback.transportlayer;
 
 import org.jmagni.jrtsp.rtsp.rtcp.type.extended.feedback.RtcpFeedback;
 import org.jmagni.jrtsp.rtsp.rtcp.type.extended.feedback.base.RtcpFeedbackMessageHeader;
+import org.jmagni.jrtsp.rtsp.rtcp.type.extended.feedback.transportlayer.base.RtcpTmmbrEntry;
+
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * @Reference https://datatracker.ietf.org/doc/html/rfc5104#section-2.2
@@ -71,6 +75,10 @@ public class RtcpTemporaryMaximumMediaStreamBitRateNotification extends RtcpFeed
 
     /**
      * @Reference https://datatracker.ietf.org/doc/html/rfc5104#page-29
+     *
+     *   Transport layer FB message (PT=RTPFB, FMT=4)
+     *   "SSRC of media source" 는 사용하지 않고 0 으로 설정한다.
+     *   > FCI = { SSRC(32) | MxTBR Exp(6) | MxTBR Mantissa(17) | Measured Overhead(9) } * N
      */
 
     /**
@@ -158,7 +166,7 @@ public class RtcpTemporaryMaximumMediaStreamBitRateNotification extends RtcpFeed
     // VARIABLES
     public static final int MIN_LENGTH = RtcpFeedbackMessageHeader.LENGTH; // bytes
 
-
+    private List<RtcpTmmbrEntry> rtcpTmmbrEntryList = null;
     ////////////////////////////////////////////////////////////
 
     ////////////////////////////////////////////////////////////
@@ -170,14 +178,69 @@ public class RtcpTemporaryMaximumMediaStreamBitRateNotification extends RtcpFeed
     public RtcpTemporaryMaximumMediaStreamBitRateNotification() {
     }
 
+    public RtcpTemporaryMaximumMediaStreamBitRateNotification(RtcpFeedbackMessageHeader rtcpFeedbackMessageHeader, List<RtcpTmmbrEntry> rtcpTmmbrEntryList) {
+        super(rtcpFeedbackMessageHeader);
+        this.rtcpTmmbrEntryList = rtcpTmmbrEntryList;
+    }
+
     public RtcpTemporaryMaximumMediaStreamBitRateNotification(byte[] data) {
         super(data);
+
+        if (data.length >= MIN_LENGTH) {
+            int index = 0;
+
+            byte[] headerData = new byte[RtcpFeedbackMessageHeader.LENGTH];
+            System.arraycopy(data, index, headerData, 0, RtcpFeedbackMessageHeader.LENGTH);
+            RtcpFeedbackMessageHeader rtcpFeedbackMessageHeader = new RtcpFeedbackMessageHeader(headerData);
+            setRtcpFeedbackMessageHeader(rtcpFeedbackMessageHeader);
+            index += RtcpFeedbackMessageHeader.LENGTH;
+
+            int packetLength = (rtcpFeedbackMessageHeader.getLength() + 1) * 4;
+            int endIndex = Math.min(data.length, packetLength);
+
+            rtcpTmmbrEntryList = new ArrayList<>();
+            while (index + RtcpTmmbrEntry.LENGTH <= endIndex) {
+                byte[] entryData = new byte[RtcpTmmbrEntry.LENGTH];
+                System.arraycopy(data, index, entryData, 0, RtcpTmmbrEntry.LENGTH);
+                rtcpTmmbrEntryList.add(new RtcpTmmbrEntry(entryData));
+                index += RtcpTmmbrEntry.LENGTH;
+            }
+        }
     }
     ////////////////////////////////////////////////////////////
 
     ////////////////////////////////////////////////////////////
     // FUNCTIONS
+    @Override
+    public byte[] getData() {
+        if (getRtcpFeedbackMessageHeader() == null) { return null; }
+
+        int entryCount = (rtcpTmmbrEntryList == null) ? 0 : rtcpTmmbrEntryList.size();
+        int index = 0;
+        byte[] data = new byte[MIN_LENGTH + entryCount * RtcpTmmbrEntry.LENGTH];
+
+        byte[] headerData = getRtcpFeedbackMessageHeader().getData();
+        System.arraycopy(headerData, 0, data, index, headerData.length);
+        index += headerData.length;
+
+        if (entryCount > 0) {
+            for (RtcpTmmbrEntry rtcpTmmbrEntry : rtcpTmmbrEntryList) {
+                byte[] entryData = rtcpTmmbrEntry.getData();
+                System.arraycopy(entryData, 0, data, index, entryData.length);
+                index += entryData.length;
+            }
+        }
+
+        return data;
+    }
 
+    public List<RtcpTmmbrEntry> getRtcpTmmbrEntryList() {
+        return rtcpTmmbrEntryList;
+    }
+
+    public void setRtcpTmmbrEntryList(List<RtcpTmmbrEntry> rtcpTmmbrEntryList) {
+        this.rtcpTmmbrEntryList = rtcpTmmbrEntryList;
+    }
 
     ////////////////////////////////////////////////////////////
 
@@ -0,0 +1,111 @@
+package org.jmagni.jrtsp.rtsp.rtcp.type.extended.feedback.transportlayer.base;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import org.jmagni.jrtsp.rtsp.base.ByteUtil;
+
+public class RtcpNackBlock {
+
+    /**
+     * @Reference https://datatracker.ietf.org/doc/html/rfc4585#section-6.2.1
+     *
+     *     0                   1                   2                   3
+     *     0 1 2 3 4 5 6 7 8 9 0 1 2 3 4 5 6 7 8 9 0 1 2 3 4 5 6 7 8 9 0 1
+     *    +-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+
+     *    |            PID                |             BLP               |
+     *    +-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+
+     *
+     *            Figure 4: Syntax for the Generic NACK message
+     *
+     *    Packet ID (PID): 16 bits
+     *       The PID field is used to specify a lost packet.
+     *
+     *    bitmask of following lost packets (BLP): 16 bits
+     *       The BLP allows for reporting losses of any of the 16 RTP packets
+     *       immediately following the RTP packet indicated by the PID.
+     *       > BLP 의 i 번째 비트가 1 이면 (PID + i + 1) 패킷이 손실된 것
+     */
+
+    ////////////////////////////////////////////////////////////
+    // VARIABLES
+    public static final int LENGTH = 4; // bytes
+    public static final int BLP_BIT_COUNT = 16;
+
+    private int pid = 0; // (16 bits)
+    private int blp = 0; // (16 bits)
+    ////////////////////////////////////////////////////////////
+
+    ////////////////////////////////////////////////////////////
+    // CONSTRUCTOR
+    public RtcpNackBlock(int pid, int blp) {
+        this.pid = pid & 0xFFFF;
+        this.blp = blp & 0xFFFF;
+    }
+
+    public RtcpNackBlock() {}
+
+    public RtcpNackBlock(byte[] data) {
+        if (data.length >= LENGTH) {
+            pid = ((data[0] & 0xFF) << 8) | (data[1] & 0xFF);
+            blp = ((data[2] & 0xFF) << 8) | (data[3] & 0xFF);
+        }
+    }
+    ////////////////////////////////////////////////////////////
+
+    ////////////////////////////////////////////////////////////
+    // FUNCTIONS
+    public byte[] getData() {
+        byte[] data = new byte[LENGTH];
+
+        byte[] pidData = ByteUtil.shortToBytes((short) pid, true);
+        System.arraycopy(pidData, 0, data, 0, ByteUtil.NUM_BYTES_IN_SHORT);
+
+        byte[] blpData = ByteUtil.shortToBytes((short) blp, true);
+        System.arraycopy(blpData, 0, data, ByteUtil.NUM_BYTES_IN_SHORT, ByteUtil.NUM_BYTES_IN_SHORT);
+
+        return data;
+    }
+
+    /**
+     * @fn public int[] getLostSequenceNumbers()
+     * @brief PID + BLP 를 펼쳐서 손실된 RTP 시퀀스 번호 목록을 반환하는 함수
+     * @return 손실된 시퀀스 번호 배열 (최소 1 개, 최대 17 개, 16 bits wrap-around 적용)
+     */
+    public int[] getLostSequenceNumbers() {
+        int[] lost = new int[1 + Integer.bitCount(blp)];
+        int index = 0;
+        lost[index++] = pid;
+
+        for (int i = 0; i < BLP_BIT_COUNT; i++) {
+            if (((blp >>> i) & 0x01) == 0x01) {
+                lost[index++] = (pid + i + 1) & 0xFFFF;
+            }
+        }
+
+        return lost;
+    }
+
+    public int getPid() {
+        return pid;
+    }
+
+    public void setPid(int pid) {
+        this.pid = pid & 0xFFFF;
+    }
+
+    public int getBlp() {
+        return blp;
+    }
+
+    public void setBlp(int blp) {
+        this.blp = blp & 0xFFFF;
+    }
+
+    @Override
+    public String toString() {
+        Gson gson = new GsonBuilder().setPrettyPrinting().create();
+        return gson.toJson(this);
+    }
+    ////////////////////////////////////////////////////////////
+
+}
@@ -0,0 +1,119 @@
+package org.jmagni.jrtsp.rtsp.rtcp.type.extended.feedback.transportlayer.base;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import org.jmagni.jrtsp.rtsp.base.ByteUtil;
+
+public class RtcpTmmbrEntry {
+
+    /**
+     * @Reference https://datatracker.ietf.org/doc/html/rfc5104#section-4.2.1.1
+     *
+     *     0                   1                   2                   3
+     *     0 1 2 3 4 5 6 7 8 9 0 1 2 3 4 5 6 7 8 9 0 1 2 3 4 5 6 7 8 9 0 1
+     *    +-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+
+     *    |                              SSRC                             |
+     *    +-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+
+     *    | MxTBR Exp |  MxTBR Mantissa                 |Measured Overhead|
+     *    +-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+
+     *
+     *    MxTBR (bps) = Mantissa * 2^Exp
+     *    Measured Overhead (9 bits) : 패킷 당 헤더 오버헤드 (bytes, IP/UDP/RTP)
+     *
+     *    TMMBR 과 TMMBN 은 같은 FCI 형식을 사용한다.
+     */
+
+    ////////////////////////////////////////////////////////////
+    // VARIABLES
+    public static final int LENGTH = 8; // bytes
+    public static final int MAX_MANTISSA = 0x1FFFF; // 17 bits
+
+    private long ssrc = 0; // (32 bits, unsigned int)
+    private int exp = 0; // (6 bits)
+    private int mantissa = 0; // (17 bits)
+    private int measuredOverhead = 0; // (9 bits)
+    ////////////////////////////////////////////////////////////
+
+    ////////////////////////////////////////////////////////////
+    // CONSTRUCTOR
+    public RtcpTmmbrEntry(long ssrc, int exp, int mantissa, int measuredOverhead) {
+        this.ssrc = ssrc;
+        this.exp = exp & 0x3F;
+        this.mantissa = mantissa & MAX_MANTISSA;
+        this.measuredOverhead = measuredOverhead & 0x1FF;
+    }
+
+    public RtcpTmmbrEntry() {}
+
+    public RtcpTmmbrEntry(byte[] data) {
+        if (data.length >= LENGTH) {
+            ssrc = ((long) (data[0] & 0xFF) << 24) | ((data[1] & 0xFF) << 16) | ((data[2] & 0xFF) << 8) | (data[3] & 0xFF);
+            exp = (data[4] >>> 2) & 0x3F;
+            mantissa = ((data[4] & 0x03) << 15) | ((data[5] & 0xFF) << 7) | ((data[6] & 0xFF) >>> 1);
+            measuredOverhead = ((data[6] & 0x01) << 8) | (data[7] & 0xFF);
+        }
+    }
+    ////////////////////////////////////////////////////////////
+
+    ////////////////////////////////////////////////////////////
+    // FUNCTIONS
+    /**
+     * @fn public static RtcpTmmbrEntry fromBitrate(long ssrc, long bitrate, int measuredOverhead)
+     * @brief bps 값을 Exp/Mantissa 로 변환해서 Entry 를 생성하는 함수 (정밀도가 모자라면 내림)
+     */
+    public static RtcpTmmbrEntry fromBitrate(long ssrc, long bitrate, int measuredOverhead) {
+        int exp = 0;
+        long mantissa = Math.max(0, bitrate);
+        while (mantissa > MAX_MANTISSA) {
+            mantissa >>>= 1;
+            exp++;
+        }
+        return new RtcpTmmbrEntry(ssrc, exp, (int) mantissa, measuredOverhead);
+    }
+
+    public byte[] getData() {
+        byte[] data = new byte[LENGTH];
+
+        byte[] ssrcData = ByteUtil.intToBytes((int) ssrc, true);
+        System.arraycopy(ssrcData, 0, data, 0, ByteUtil.NUM_BYTES_IN_INT);
+
+        data[4] = (byte) (((exp & 0x3F) << 2) | ((mantissa >>> 15) & 0x03));
+        data[5] = (byte) ((mantissa >>> 7) & 0xFF);
+        data[6] = (byte) (((mantissa & 0x7F) << 1) | ((measuredOverhead >>> 8) & 0x01));
+        data[7] = (byte) (measuredOverhead & 0xFF);
+
+        return data;
+    }
+
+    public long getBitrate() {
+        return ((long) mantissa) << exp;
+    }
+
+    public long getSsrc() {
+        return ssrc;
+    }
+
+    public void setSsrc(long ssrc) {
+        this.ssrc = ssrc;
+    }
+
+    public int getExp() {
+        return exp;
+    }
+
+    public int getMantissa() {
+        return mantissa;
+    }
+
+    public int getMeasuredOverhead() {
+        return measuredOverhead;
+    }
+
+    @Override
+    public String toString() {
+        Gson gson = new GsonBuilder().setPrettyPrinting().create();
+        return gson.toJson(this);
+    }
+    ////////////////////////////////////////////////////////////
+
+}
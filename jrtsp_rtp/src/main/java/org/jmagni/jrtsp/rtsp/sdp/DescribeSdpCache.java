@@ -0,0 +1,131 @@
+package org.jmagni.jrtsp.rtsp.sdp;
+
+import lombok.extern.slf4j.Slf4j;
+import org.jmagni.jrtsp.config.UserConfig;
+import org.jmagni.jrtsp.rtsp.sdp.base.Sdp;
+import org.jmagni.jrtsp.service.AppInstance;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * @class public class DescribeSdpCache
+ * @brief Call 별 DESCRIBE 응답 SDP 를 바로 쓸 수 있는 bytes 로 보관하는 클래스
+ *
+ * - SDP 를 만들고 (String.format), JAIN SDP 로 파싱하고, 다시 문자열로 만드는 과정은 캐시가 없을 때만 수행한다.
+ * - 캐시 키 : (설정 버전, audio PT, video PT, video fmtp)
+ *   > 설정 파일이 바뀌면 (ConfigChangedListener > UserConfig.loadConfig) 설정 버전이 올라가서 모두 다시 만든다.
+ *   > Call 의 미디어 정보나 SPS/PPS 가 바뀌면 해당 Call 만 다시 만든다.
+ * - Call 이 삭제되면 remove() 로 같이 지운다.
+ */
+@Slf4j
+public class DescribeSdpCache {
+
+    ////////////////////////////////////////////////////////////
+    // VARIABLES
+    private static final DescribeSdpCache describeSdpCache = new DescribeSdpCache();
+
+    private final ConcurrentHashMap<String, Entry> entryMap = new ConcurrentHashMap<>();
+
+    private final AtomicLong hitCount = new AtomicLong(0);
+    private final AtomicLong missCount = new AtomicLong(0);
+    ////////////////////////////////////////////////////////////
+
+    ////////////////////////////////////////////////////////////
+    // CONSTRUCTOR
+    private DescribeSdpCache() {
+        // Nothing
+    }
+
+    public static DescribeSdpCache getInstance() {
+        return describeSdpCache;
+    }
+    ////////////////////////////////////////////////////////////
+
+    ////////////////////////////////////////////////////////////
+    // FUNCTIONS
+    /**
+     * @fn public byte[] getSdpData(String callId, int audioPayloadType, int videoPayloadType, String videoFmtp)
+     * @brief Call 의 DESCRIBE 응답 SDP 를 반환하는 함수 (없거나 바뀌었으면 새로 만든다)
+     * @return SDP 데이터 (UTF-8, 읽기 전용), 만들 수 없으면 null
+     */
+    public byte[] getSdpData(String callId, int audioPayloadType, int videoPayloadType, String videoFmtp) {
+        UserConfig userConfig = AppInstance.getInstance().getConfigManager().getUserConfig();
+        long configVersion = userConfig.getConfigVersion();
+
+        Entry entry = entryMap.get(callId);
+        if (entry != null && entry.matches(configVersion, audioPayloadType, videoPayloadType, videoFmtp)) {
+            hitCount.incrementAndGet();
+            return entry.data;
+        }
+
+        missCount.incrementAndGet();
+        Sdp localSdp = userConfig.loadLocalSdpConfig(
+                userConfig.getId(),
+                0, // RTP 를 수신할 필요가 없음 (sendonly)
+                audioPayloadType,
+                videoPayloadType,
+                videoFmtp
+        );
+        if (localSdp == null) {
+            return null;
+        }
+
+        byte[] data = localSdp.getData(true).getBytes(StandardCharsets.UTF_8);
+        entryMap.put(callId, new Entry(configVersion, audioPayloadType, videoPayloadType, videoFmtp, data));
+        log.debug("({}) DESCRIBE SDP is cached. (configVersion={}, audioPt={}, videoPt={}, fmtp={})",
+                callId, configVersion, audioPayloadType, videoPayloadType, videoFmtp
+        );
+        return data;
+    }
+
+    public void remove(String callId) {
+        entryMap.remove(callId);
+    }
+
+    public void clear() {
+        entryMap.clear();
+    }
+
+    public int size() {
+        return entryMap.size();
+    }
+
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    public long getMissCount() {
+        return missCount.get();
+    }
+    ////////////////////////////////////////////////////////////
+
+    private static class Entry {
+
+        private final long configVersion;
+        private final int audioPayloadType;
+        private final int videoPayloadType;
+        private final String videoFmtp;
+        private final byte[] data;
+
+        private Entry(long configVersion, int audioPayloadType, int videoPayloadType, String videoFmtp, byte[] data) {
+            this.configVersion = configVersion;
+            this.audioPayloadType = audioPayloadType;
+            this.videoPayloadType = videoPayloadType;
+            this.videoFmtp = videoFmtp;
+            this.data = data;
+        }
+
+        private boolean matches(long configVersion, int audioPayloadType, int videoPayloadType, String videoFmtp) {
+            // fmtp 는 바뀌기 전까지 같은 String 객체이므로 대부분 참조 비교로 끝난다.
+            return this.configVersion == configVersion
+                    && this.audioPayloadType == audioPayloadType
+                    && this.videoPayloadType == videoPayloadType
+                    && Objects.equals(this.videoFmtp, videoFmtp);
+        }
+
+    }
+
+}
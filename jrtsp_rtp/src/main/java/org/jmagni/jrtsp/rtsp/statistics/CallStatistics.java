@@ -0,0 +1,34 @@
+package org.jmagni.jrtsp.rtsp.statistics;
+
+import lombok.Getter;
+
+/**
+ * @class public class CallStatistics
+ * @brief Call 하나의 (모든 시청자 합) 전송 통계 (읽기 전용)
+ */
+@Getter
+public class CallStatistics {
+
+    private final String callId;
+    private final long bitrate; // kbps
+    private final long pps;
+    private final int streamerCount;
+
+    public CallStatistics(String callId, long bitrate, long pps, int streamerCount) {
+        this.callId = callId;
+        this.bitrate = bitrate;
+        this.pps = pps;
+        this.streamerCount = streamerCount;
+    }
+
+    @Override
+    public String toString() {
+        return "CallStatistics{" +
+                "callId='" + callId + '\'' +
+                ", bitrate=" + bitrate +
+                ", pps=" + pps +
+                ", streamerCount=" + streamerCount +
+                '}';
+    }
+
+}
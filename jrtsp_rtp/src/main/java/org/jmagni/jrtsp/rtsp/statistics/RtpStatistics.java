@@ -1,65 +1,84 @@
 package org.jmagni.jrtsp.rtsp.statistics;
 
-import lombok.Data;
-import lombok.extern.slf4j.Slf4j;
-
-import java.util.UUID;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.TimeUnit;
-import java.util.concurrent.atomic.AtomicLong;
-
-@Data
-@Slf4j
+import lombok.Getter;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * @class public class RtpStatistics
+ * @brief Streamer 하나의 전송량 카운터 클래스
+ *
+ * - 스레드를 만들지 않는다. 전송 경로는 LongAdder (스레드별로 나뉜 카운터) 에 더하기만 한다.
+ * - 전송률 계산은 StatisticsManager 가 주기마다 한 번에 한다. (start() 로 등록, stop() 으로 해제)
+ */
+@Getter
 public class RtpStatistics {
 
-    private final String id;
-
-    private final ScheduledExecutorService scheduledExecutorService;
+    private final String key;
+    private final String callId;
 
-    private AtomicLong totalBytes = new AtomicLong(0);
+    // 전송 경로에서 더하는 카운터 (StatisticsManager 가 주기마다 비운다)
+    @Getter(lombok.AccessLevel.NONE)
+    private final LongAdder intervalBytes = new LongAdder();
+    @Getter(lombok.AccessLevel.NONE)
+    private final LongAdder intervalPackets = new LongAdder();
 
-    private AtomicLong bitrate = new AtomicLong(0);
+    // 마지막 주기의 계산 결과
+    private volatile long bitrate = 0; // kbps
+    private volatile long pps = 0;
+    private volatile long totalBytes = 0;
+    private volatile long totalPackets = 0;
 
-    public RtpStatistics() {
-        id = UUID.randomUUID().toString().substring(0, 10);
-        scheduledExecutorService = Executors.newSingleThreadScheduledExecutor(
-                runnable -> new Thread(
-                        runnable,
-                        id + ":" + runnable.getClass().getSimpleName()
-                )
-        );
+    public RtpStatistics(String key, String callId) {
+        this.key = key;
+        this.callId = callId;
     }
 
-    public void calculate(long kb) {
-        if (kb <= 0) { return; }
+    /**
+     * @fn public void calculate(long bytes)
+     * @brief 보낸 패킷 하나를 기록하는 함수
+     * @param bytes 보낸 바이트 수
+     */
+    public void calculate(long bytes) {
+        if (bytes <= 0) { return; }
 
-        totalBytes.addAndGet(kb);
+        intervalBytes.add(bytes);
+        intervalPackets.increment();
     }
 
     public void start() {
-        StatisticsPrinter statisticsPrinter = new StatisticsPrinter();
-        scheduledExecutorService.scheduleAtFixedRate(
-                statisticsPrinter,
-                0, 1000, TimeUnit.MILLISECONDS
-        );
+        StatisticsManager.getInstance().register(this);
     }
 
     public void stop() {
-        scheduledExecutorService.shutdown();
+        StatisticsManager.getInstance().unregister(this);
     }
 
-    private class StatisticsPrinter implements Runnable {
-
-        @Override
-        public void run() {
-            long kb = totalBytes.get() * 8;
-            kb /= 1024;
-            bitrate.set(kb);
-            log.debug("[{}] Bitrate = < {} > (kbps)", id, bitrate.get());
-            totalBytes.set(0);
-        }
+    /**
+     * @fn long[] drain(long elapsedNanos)
+     * @brief 주기 동안 쌓인 카운터를 비우고 전송률을 계산하는 함수 (StatisticsManager 에서만 호출)
+     * @return {주기 동안 보낸 바이트 수, 패킷 수}
+     */
+    long[] drain(long elapsedNanos) {
+        long bytes = intervalBytes.sumThenReset();
+        long packets = intervalPackets.sumThenReset();
+
+        totalBytes += bytes;
+        totalPackets += packets;
+        bitrate = StatisticsManager.toKbps(bytes, elapsedNanos);
+        pps = StatisticsManager.toPerSecond(packets, elapsedNanos);
+        return new long[]{bytes, packets};
+    }
 
+    @Override
+    public String toString() {
+        return "RtpStatistics{" +
+                "key='" + key + '\'' +
+                ", bitrate=" + bitrate +
+                ", pps=" + pps +
+                ", totalBytes=" + totalBytes +
+                ", totalPackets=" + totalPackets +
+                '}';
     }
 
 }
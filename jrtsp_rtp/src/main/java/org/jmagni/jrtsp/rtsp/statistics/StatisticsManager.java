@@ -0,0 +1,126 @@
+package org.jmagni.jrtsp.rtsp.statistics;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @class public class StatisticsManager
+ * @brief 모든 Streamer 의 RtpStatistics 를 모아서 주기마다 전송률을 계산하는 클래스
+ *
+ * - Streamer 마다 스레드, 로그를 만들지 않는다. ServiceManager 의 주기 Job (1 초) 이 aggregate() 를 호출한다.
+ * - 한 번 훑으면서 Streamer, Call, 전체 전송률 (kbps) 과 pps 를 계산하고 스냅샷으로 교체한다. (읽는 쪽은 잠그지 않음)
+ * - 경과 시간은 실제 호출 간격으로 계산한다. (Job 이 밀려도 전송률이 부풀지 않음)
+ */
+@Slf4j
+public class StatisticsManager {
+
+    ////////////////////////////////////////////////////////////
+    // VARIABLES
+    private static final StatisticsManager statisticsManager = new StatisticsManager();
+
+    private final ConcurrentHashMap<String, RtpStatistics> statisticsMap = new ConcurrentHashMap<>();
+
+    private volatile StatisticsSnapshot snapshot = StatisticsSnapshot.EMPTY;
+    private long lastAggregateNanos = System.nanoTime(); // aggregate() 에서만 사용
+    ////////////////////////////////////////////////////////////
+
+    ////////////////////////////////////////////////////////////
+    // CONSTRUCTOR
+    private StatisticsManager() {
+        // Nothing
+    }
+
+    public static StatisticsManager getInstance() {
+        return statisticsManager;
+    }
+    ////////////////////////////////////////////////////////////
+
+    ////////////////////////////////////////////////////////////
+    // FUNCTIONS
+    public void register(RtpStatistics rtpStatistics) {
+        statisticsMap.put(rtpStatistics.getKey(), rtpStatistics);
+    }
+
+    public void unregister(RtpStatistics rtpStatistics) {
+        statisticsMap.remove(rtpStatistics.getKey(), rtpStatistics);
+    }
+
+    public RtpStatistics getStatistics(String key) {
+        return statisticsMap.get(key);
+    }
+
+    public int getStatisticsCount() {
+        return statisticsMap.size();
+    }
+
+    public StatisticsSnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    /**
+     * @fn public synchronized StatisticsSnapshot aggregate()
+     * @brief 등록된 카운터를 한 번 훑어서 Streamer, Call, 전체 전송률을 계산하는 함수 (주기 Job 에서 호출)
+     * @return 새 스냅샷
+     */
+    public synchronized StatisticsSnapshot aggregate() {
+        long now = System.nanoTime();
+        long elapsedNanos = Math.max(1, now - lastAggregateNanos);
+        lastAggregateNanos = now;
+
+        Map<String, long[]> callCounterMap = new HashMap<>(); // Call-ID > {bytes, packets, streamers}
+        long totalBytes = 0;
+        long totalPackets = 0;
+        for (RtpStatistics rtpStatistics : statisticsMap.values()) {
+            long[] counter = rtpStatistics.drain(elapsedNanos);
+            totalBytes += counter[0];
+            totalPackets += counter[1];
+
+            long[] callCounter = callCounterMap.computeIfAbsent(rtpStatistics.getCallId(), callId -> new long[3]);
+            callCounter[0] += counter[0];
+            callCounter[1] += counter[1];
+            callCounter[2]++;
+        }
+
+        Map<String, CallStatistics> callStatisticsMap = new HashMap<>(callCounterMap.size());
+        for (Map.Entry<String, long[]> entry : callCounterMap.entrySet()) {
+            long[] callCounter = entry.getValue();
+            callStatisticsMap.put(entry.getKey(), new CallStatistics(
+                    entry.getKey(),
+                    toKbps(callCounter[0], elapsedNanos),
+                    toPerSecond(callCounter[1], elapsedNanos),
+                    (int) callCounter[2]
+            ));
+        }
+
+        StatisticsSnapshot newSnapshot = new StatisticsSnapshot(
+                System.currentTimeMillis(),
+                toKbps(totalBytes, elapsedNanos),
+                toPerSecond(totalPackets, elapsedNanos),
+                statisticsMap.size(),
+                Collections.unmodifiableMap(callStatisticsMap)
+        );
+        snapshot = newSnapshot;
+
+        if (log.isTraceEnabled() && totalPackets > 0) {
+            log.trace("Statistics: bitrate=[{}]kbps, pps=[{}], streamers=[{}], calls=[{}]",
+                    newSnapshot.getBitrate(), newSnapshot.getPps(), newSnapshot.getStreamerCount(), callStatisticsMap.size()
+            );
+        }
+        return newSnapshot;
+    }
+
+    static long toKbps(long bytes, long elapsedNanos) {
+        return (bytes * 8 * TimeUnit.SECONDS.toNanos(1) / elapsedNanos) / 1024;
+    }
+
+    static long toPerSecond(long count, long elapsedNanos) {
+        return count * TimeUnit.SECONDS.toNanos(1) / elapsedNanos;
+    }
+    ////////////////////////////////////////////////////////////
+
+}
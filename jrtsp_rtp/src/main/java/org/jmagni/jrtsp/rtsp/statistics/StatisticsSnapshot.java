@@ -0,0 +1,46 @@
+package org.jmagni.jrtsp.rtsp.statistics;
+
+import lombok.Getter;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * @class public class StatisticsSnapshot
+ * @brief StatisticsManager 가 주기마다 만드는 전체 전송 통계 (읽기 전용)
+ */
+@Getter
+public class StatisticsSnapshot {
+
+    public static final StatisticsSnapshot EMPTY = new StatisticsSnapshot(0, 0, 0, 0, Collections.emptyMap());
+
+    private final long createdTime;
+    private final long bitrate; // kbps
+    private final long pps;
+    private final int streamerCount;
+    private final Map<String, CallStatistics> callStatisticsMap; // Call-ID > Call 통계
+
+    public StatisticsSnapshot(long createdTime, long bitrate, long pps, int streamerCount, Map<String, CallStatistics> callStatisticsMap) {
+        this.createdTime = createdTime;
+        this.bitrate = bitrate;
+        this.pps = pps;
+        this.streamerCount = streamerCount;
+        this.callStatisticsMap = callStatisticsMap;
+    }
+
+    public CallStatistics getCallStatistics(String callId) {
+        return callStatisticsMap.get(callId);
+    }
+
+    @Override
+    public String toString() {
+        return "StatisticsSnapshot{" +
+                "createdTime=" + createdTime +
+                ", bitrate=" + bitrate +
+                ", pps=" + pps +
+                ", streamerCount=" + streamerCount +
+                ", callCount=" + callStatisticsMap.size() +
+                '}';
+    }
+
+}
@@ -3,10 +3,10 @@ package org.jmagni.jrtsp.rtsp.stream;
 import io.netty.bootstrap.Bootstrap;
 import io.netty.buffer.PooledByteBufAllocator;
 import io.netty.channel.*;
-import io.netty.channel.nio.NioEventLoopGroup;
 import io.netty.channel.socket.nio.NioDatagramChannel;
 import lombok.NoArgsConstructor;
 import org.jmagni.jrtsp.config.UserConfig;
+import org.jmagni.jrtsp.rtsp.netty.CallAffinityManager;
 import org.jmagni.jrtsp.rtsp.netty.handler.StreamerChannelHandler;
 import org.jmagni.jrtsp.rtsp.stream.network.TargetNetworkInfo;
 import org.jmagni.jrtsp.service.AppInstance;
@@ -17,13 +17,17 @@ import java.net.InetSocketAddress;
 @NoArgsConstructor
 public class UdpStream {
 
-    private NioEventLoopGroup nioEventLoopGroup = null;
+    private String callId = null;
     private final Bootstrap bootstrap = new Bootstrap();
 
+    /**
+     * @fn public void start(String callId)
+     * @brief Call 의 EventLoop 에 UDP 채널을 만들도록 준비하는 함수 (Streamer 마다 EventLoopGroup 을 만들지 않음)
+     */
     public void start(String callId) {
         UserConfig userConfig = AppInstance.getInstance().getConfigManager().getUserConfig();
-        nioEventLoopGroup = new NioEventLoopGroup(userConfig.getStreamThreadPoolSize());
-        bootstrap.group(nioEventLoopGroup).channel(NioDatagramChannel.class)
+        this.callId = callId;
+        bootstrap.group(CallAffinityManager.getInstance().acquire(callId)).channel(NioDatagramChannel.class)
                 .option(ChannelOption.SO_BROADCAST, false)
                 .option(ChannelOption.SO_SNDBUF, userConfig.getSendBufSize())
                 .option(ChannelOption.SO_RCVBUF, userConfig.getRecvBufSize())
@@ -46,8 +50,9 @@ public class UdpStream {
         closeTargetRtpEndpoint(targetNetworkInfo);
         closeTargetRtcpEndpoint(targetNetworkInfo);
 
-        if (nioEventLoopGroup != null) {
-            nioEventLoopGroup.shutdownGracefully();
+        if (callId != null) {
+            CallAffinityManager.getInstance().release(callId);
+            callId = null;
         }
     }
 
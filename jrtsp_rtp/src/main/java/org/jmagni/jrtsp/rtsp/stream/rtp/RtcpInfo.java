@@ -12,6 +12,14 @@ public class RtcpInfo {
     private int spc = 0;
     private int congestionLevel = 0;
 
+    public static final long DEFAULT_RTT_MS = 100;
+    private long rttMs = DEFAULT_RTT_MS; // RR 의 LSR/DLSR 로 계산, SR 을 보내지 않았으면 기본값 사용
+    private long nackReceivedCount = 0;
+    private long retransmittedCount = 0;
+    private long limitedDropCount = 0; // TMMBR 전송률 제한으로 버린 패킷 수
+    private long thinningDropCount = 0; // 혼잡도에 따른 Thinning 으로 버린 패킷 수
+    private long fecSentCount = 0; // 보낸 FEC 패킷 수
+
     @Override
     public String toString() {
         Gson gson = new GsonBuilder().setPrettyPrinting().create();
@@ -1,12 +1,13 @@
 package org.jmagni.jrtsp.rtsp.stream.rtp;
 
 import lombok.Data;
+import org.jmagni.jrtsp.rtsp.base.MediaType;
 import org.jmagni.jrtsp.rtsp.base.RtpPacket;
 
 @Data
 public class RtpDto {
 
     private final RtpPacket rtpPacket;
-    private final String mediaType;
+    private final MediaType mediaType;
 
 }
@@ -1,20 +1,41 @@
 package org.jmagni.jrtsp.rtsp.stream.rtp;
 
 
+import io.netty.channel.EventLoop;
 import lombok.extern.slf4j.Slf4j;
 import org.jmagni.jrtsp.rtsp.Streamer;
 import org.jmagni.jrtsp.rtsp.base.ConcurrentCyclicFIFO;
 import org.jmagni.jrtsp.rtsp.base.MediaType;
 import org.jmagni.jrtsp.rtsp.base.RtpInfo;
+import org.jmagni.jrtsp.rtsp.base.RtpPacket;
+import org.jmagni.jrtsp.rtsp.netty.CallAffinityManager;
 import org.jmagni.jrtsp.rtsp.netty.NettyChannelManager;
+import org.jmagni.jrtsp.service.jfr.FanoutBatchEvent;
+import org.jmagni.jrtsp.service.metrics.PacketLatencyMetrics;
+import org.jmagni.jrtsp.service.metrics.ServerMetrics;
+import org.jmagni.jrtsp.session.CallInfo;
+import org.jmagni.jrtsp.session.SessionManager;
 
+import java.util.ArrayList;
 import java.util.List;
 
+/**
+ * @class public class RtpInfoSender extends Thread
+ * @brief Call 의 원본 RTP 패킷을 모든 시청자에게 전달하는 클래스
+ *
+ * - 전달은 Call 의 EventLoop (CallAffinityManager) 에서 실행한다. 시청자의 UDP/RTCP 채널도 같은 EventLoop 에 있으므로
+ *   시청자마다 write 가 다른 스레드로 넘어가지 않는다. (Netty 는 다른 스레드의 write 를 write 마다 Task 로 넘긴다)
+ * - 이 스레드는 버퍼에서 꺼낸 패킷을 한 번에 최대 MAX_RELAY_BATCH 개씩 묶어서 넘긴다. (스레드를 건너가는 것은 묶음당 한 번)
+ * - 이미 Call 의 EventLoop 에서 패킷을 받는 Ingest 는 relay() 를 바로 호출하면 스레드를 전혀 건너가지 않는다.
+ */
 @Slf4j
 public class RtpInfoSender extends Thread {
 
+    private static final int MAX_RELAY_BATCH = 64;
+
     private final String callId;
     private final ConcurrentCyclicFIFO<RtpInfo> rtpInfoBuf;
+    private volatile EventLoop eventLoop = null;
 
     public RtpInfoSender(String callId, ConcurrentCyclicFIFO<RtpInfo> rtpInfoBuf) {
         this.callId = callId;
@@ -25,42 +46,169 @@ public class RtpInfoSender extends Thread {
 
     @Override
     public void run() {
-        while(!Thread.currentThread().isInterrupted()) {
-            RtpInfo rtpInfo = rtpInfoBuf.poll();
-            if (rtpInfo == null) { continue; }
+        EventLoop callEventLoop = acquireEventLoop();
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                RtpInfo rtpInfo = rtpInfoBuf.take();
 
-            relayToRtspClient(rtpInfo);
+                List<RtpInfo> rtpInfoBatch = new ArrayList<>();
+                rtpInfoBatch.add(rtpInfo);
+                while (rtpInfoBatch.size() < MAX_RELAY_BATCH && (rtpInfo = rtpInfoBuf.poll()) != null) {
+                    rtpInfoBatch.add(rtpInfo);
+                }
+
+                callEventLoop.execute(() -> relayBatch(rtpInfoBatch));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            log.warn("({}) RtpInfoSender.run.Exception", callId, e);
+        } finally {
+            releaseEventLoop();
         }
 
         log.debug("RtpInfoSender is finished. (callId={})", callId);
     }
 
-    private void relayToRtspClient(RtpInfo rtpInfo) {
+    /**
+     * @fn public void relay(RtpInfo rtpInfo)
+     * @brief 원본 RTP 패킷 하나를 Call 의 EventLoop 에서 전달하는 함수 (이미 그 EventLoop 에서 호출하면 바로 전달)
+     * @param rtpInfo 원본 RTP 패킷 정보
+     */
+    public void relay(RtpInfo rtpInfo) {
+        EventLoop callEventLoop = acquireEventLoop();
+        if (callEventLoop.inEventLoop()) {
+            relayToRtspClient(rtpInfo);
+        } else {
+            callEventLoop.execute(() -> relayToRtspClient(rtpInfo));
+        }
+    }
+
+    /**
+     * @fn public void close()
+     * @brief Call 의 EventLoop 배치를 푸는 함수 (스레드를 시작하지 않고 relay() 만 쓴 경우 호출)
+     */
+    public void close() {
+        releaseEventLoop();
+    }
+
+    public EventLoop getEventLoop() {
+        return eventLoop;
+    }
+
+    private synchronized EventLoop acquireEventLoop() {
+        if (eventLoop == null) {
+            eventLoop = CallAffinityManager.getInstance().acquire(callId);
+        }
+        return eventLoop;
+    }
+
+    private synchronized void releaseEventLoop() {
+        if (eventLoop != null) {
+            CallAffinityManager.getInstance().release(callId);
+            eventLoop = null;
+        }
+    }
+
+    /**
+     * @fn private void relayBatch(List<RtpInfo> rtpInfoBatch)
+     * @brief 원본 RTP 패킷 묶음을 전달하는 함수 (JFR FanoutBatchEvent 표본이면 묶음 단위로 기록)
+     */
+    private void relayBatch(List<RtpInfo> rtpInfoBatch) {
+        FanoutBatchEvent fanoutBatchEvent = FanoutBatchEvent.sample();
+        if (fanoutBatchEvent == null) {
+            for (RtpInfo rtpInfo : rtpInfoBatch) {
+                relayToRtspClient(rtpInfo);
+            }
+            return;
+        }
+
+        int viewers = 0;
+        long bytes = 0;
+        for (RtpInfo rtpInfo : rtpInfoBatch) {
+            int sentViewers = relayToRtspClient(rtpInfo);
+            viewers += sentViewers;
+            bytes += (long) sentViewers * rtpInfo.getRtpPacket().getLength();
+        }
+
+        fanoutBatchEvent.end();
+        if (fanoutBatchEvent.shouldCommit()) {
+            fanoutBatchEvent.callId = callId;
+            fanoutBatchEvent.packets = rtpInfoBatch.size();
+            fanoutBatchEvent.viewers = viewers;
+            fanoutBatchEvent.bytes = bytes;
+            fanoutBatchEvent.commit();
+        }
+    }
+
+    /**
+     * @fn private int relayToRtspClient(RtpInfo rtpInfo)
+     * @brief 원본 RTP 패킷 하나를 Call 의 시청자에게 전달하는 함수
+     * @return 패킷을 보낸 시청자 (Track) 수
+     */
+    private int relayToRtspClient(RtpInfo rtpInfo) {
+        ServerMetrics serverMetrics = ServerMetrics.getInstance();
+        serverMetrics.getIngestPackets().inc();
+        serverMetrics.getIngestBytes().add(rtpInfo.getRtpPacket().getLength());
+        PacketLatencyMetrics.getInstance().recordQueue(rtpInfo.getRtpPacket().getIngestNanos());
+
+        // NACK 재전송, GOP 캐시, SPS/PPS 캐시를 위해 시청자 수와 상관없이 원본 패킷을 한 번만 저장
+        CallInfo callInfo = SessionManager.getInstance().findCall(callId);
+        if (callInfo != null) {
+            callInfo.storeRetransmissionPacket(rtpInfo.getRtpPacket(), rtpInfo.getMediaType());
+            callInfo.storeGopPacket(rtpInfo.getRtpPacket(), rtpInfo.getMediaType());
+            callInfo.storeParameterSets(rtpInfo.getRtpPacket(), rtpInfo.getMediaType());
+        }
+
+        MediaType mediaType = getMediaType(rtpInfo.getMediaType());
+        if (mediaType == null) { return 0; }
+
         List<Streamer> streamerList = NettyChannelManager.getInstance().getStreamerListByCallId(callId);
-        if (streamerList == null || streamerList.isEmpty()) { return; }
+        if (streamerList == null || streamerList.isEmpty()) { return 0; }
+
+        int sentViewers = 0;
 
+        RtpPacket rtpPacket = rtpInfo.getRtpPacket();
         for (Streamer streamer : streamerList) {
-            applyRtpMetaToStreamer(rtpInfo, streamer);
+            // 다른 미디어 Track, PAUSE 된 시청자는 메타 갱신, 버퍼 복사 없이 건너뛴다. (PLAY 로 다시 시작하면 다음 패킷부터 갱신)
+            if (streamer.getMediaType() != mediaType || streamer.isPaused()) { continue; }
+
+            applyRtpMetaToStreamer(rtpPacket, mediaType, streamer);
             // CALLBACK
             if (streamer.getPlayResponse() != null) {
                 streamer.sendPlayResponse();
             }
 
             if (streamer.isStarted()) {
-                streamer.sendRtpPacket(rtpInfo.getRtpPacket(), rtpInfo.getMediaType());
+                streamer.sendRtpPacket(rtpPacket, mediaType);
+                sentViewers++;
             }
         }
+        return sentViewers;
+    }
+
+    /**
+     * @fn private static MediaType getMediaType(String mediaTypeName)
+     * @brief 패킷의 미디어 이름을 패킷당 한 번만 MediaType 으로 바꾸는 함수 (시청자마다 문자열을 비교하지 않음)
+     */
+    private static MediaType getMediaType(String mediaTypeName) {
+        if (MediaType.AUDIO.getName().equals(mediaTypeName)) {
+            return MediaType.AUDIO;
+        } else if (MediaType.VIDEO.getName().equals(mediaTypeName)) {
+            return MediaType.VIDEO;
+        }
+        return null;
     }
 
-    private void applyRtpMetaToStreamer(RtpInfo rtpInfo, Streamer streamer) {
-        if (rtpInfo.getMediaType().equals(MediaType.AUDIO.getName())) {
-            streamer.setAudioSsrc(rtpInfo.getRtpPacket().getSyncSource());
-            streamer.setAudioCurSeqNum(rtpInfo.getRtpPacket().getSeqNumber());
-            streamer.setAudioCurTimeStamp(rtpInfo.getRtpPacket().getTimestamp());
-        } else if (rtpInfo.getMediaType().equals(MediaType.VIDEO.getName())) {
-            streamer.setVideoSsrc(rtpInfo.getRtpPacket().getSyncSource());
-            streamer.setVideoCurSeqNum(rtpInfo.getRtpPacket().getSeqNumber());
-            streamer.setVideoCurTimeStamp(rtpInfo.getRtpPacket().getTimestamp());
+    private void applyRtpMetaToStreamer(RtpPacket rtpPacket, MediaType mediaType, Streamer streamer) {
+        if (mediaType == MediaType.AUDIO) {
+            streamer.setAudioSsrc(rtpPacket.getSyncSource());
+            streamer.setAudioCurSeqNum(rtpPacket.getSeqNumber());
+            streamer.setAudioCurTimeStamp(rtpPacket.getTimestamp());
+        } else {
+            streamer.setVideoSsrc(rtpPacket.getSyncSource());
+            streamer.setVideoCurSeqNum(rtpPacket.getSeqNumber());
+            streamer.setVideoCurTimeStamp(rtpPacket.getTimestamp());
         }
     }
 
@@ -9,6 +9,7 @@ import java.util.concurrent.atomic.AtomicLong;
 public class RtpMeta {
 
     public static final String TRACK_ID_TAG = "trackID";
+    // 기본 SDP (control:trackID=N) 의 Track ID, 그 밖의 Track 은 UserConfig.getMediaTypeByTrackId() 로 찾는다.
     public static final String AUDIO_TRACK_ID = "1";
     public static final String VIDEO_TRACK_ID = "2";
 
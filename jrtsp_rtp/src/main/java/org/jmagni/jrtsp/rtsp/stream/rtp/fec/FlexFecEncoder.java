@@ -0,0 +1,238 @@
+package org.jmagni.jrtsp.rtsp.stream.rtp.fec;
+
+import org.jmagni.jrtsp.rtsp.base.ByteUtil;
+import org.jmagni.jrtsp.rtsp.base.RtpPacket;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * @class public class FlexFecEncoder
+ * @brief 한 시청자의 한 트랙에 대해 XOR parity (FlexFEC) 패킷을 만드는 클래스
+ *
+ * @Reference https://datatracker.ietf.org/doc/html/rfc8627#section-4.2
+ *
+ *     0                   1                   2                   3
+ *     0 1 2 3 4 5 6 7 8 9 0 1 2 3 4 5 6 7 8 9 0 1 2 3 4 5 6 7 8 9 0 1
+ *    +-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+
+ *    |R|F|P|X|  CC   |M| PT recovery |        length recovery        |
+ *    +-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+
+ *    |                          TS recovery                          |
+ *    +-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+
+ *    |           SN base_i           |  L (columns)  |    D (rows)   |
+ *    +-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+
+ *    |                        Repair "Payload"                       |
+ *    +-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+
+ *
+ *    Figure 10: FEC Header for F=1 (Fixed L/D)
+ *
+ *    - 보호 대상 원본 SSRC 는 FEC 패킷 RTP 헤더의 CSRC 목록에 넣는다. (CC = 1)
+ *    - ROW (L > 0, D = 0) : 연속된 L 개 패킷을 하나의 parity 로 보호 (1-D non-interleaved)
+ *    - COLUMN (L > 0, D > 0) : L x D 블록에서 L 간격으로 떨어진 D 개 패킷을 보호 (1-D interleaved, 연속 손실에 강함)
+ *    - 그룹 안에서 패킷 하나만 손실되면 왕복 없이 복구할 수 있다.
+ *    - 시청자에게 실제로 보낸 데이터 (시퀀스 번호를 다시 매긴 뒤) 를 보호해야 하므로 시청자마다 하나씩 가진다.
+ */
+public class FlexFecEncoder {
+
+    ////////////////////////////////////////////////////////////
+    // VARIABLES
+    public static final int FEC_HEADER_LENGTH = 12; // bytes (F=1, fixed L/D)
+    public static final int MAX_PROTECTED_LENGTH = 1500; // bytes
+
+    public enum Mode { ROW, COLUMN }
+
+    private final Mode mode;
+    private final int payloadType;
+    private final long fecSsrc;
+    private int fecSeqNum;
+
+    private int columns; // L
+    private int rows; // D (COLUMN 모드)
+    private int pendingGroupSize = -1; // 다음 그룹부터 적용할 크기
+
+    private ParityAccumulator[] accumulators;
+    private int blockIndex = 0; // 현재 블록에서 보호한 패킷 수
+    ////////////////////////////////////////////////////////////
+
+    ////////////////////////////////////////////////////////////
+    // CONSTRUCTOR
+    public FlexFecEncoder(Mode mode, int payloadType, long fecSsrc, int initialSeqNum, int columns, int rows) {
+        this.mode = mode;
+        this.payloadType = payloadType;
+        this.fecSsrc = fecSsrc;
+        this.fecSeqNum = initialSeqNum & 0xFFFF;
+        this.columns = Math.max(1, columns);
+        this.rows = (mode == Mode.COLUMN) ? Math.max(1, rows) : 0;
+        resetAccumulators();
+    }
+    ////////////////////////////////////////////////////////////
+
+    ////////////////////////////////////////////////////////////
+    // FUNCTIONS
+    /**
+     * @fn public synchronized void setGroupSize(int groupSize)
+     * @brief 보호 그룹 크기를 바꾸는 함수 (ROW : L, COLUMN : D), 현재 블록이 끝난 뒤에 적용된다.
+     */
+    public synchronized void setGroupSize(int groupSize) {
+        pendingGroupSize = Math.max(1, groupSize);
+    }
+
+    /**
+     * @fn public static int getGroupSizeByLoss(float fractionLost, int minGroupSize, int maxGroupSize)
+     * @brief RR 로 보고된 손실률에 맞는 보호 그룹 크기를 계산하는 함수
+     * 그룹 하나에 손실이 평균 0.25 개 정도가 되도록 잡는다. (손실이 없으면 최대 크기 > 오버헤드 최소)
+     */
+    public static int getGroupSizeByLoss(float fractionLost, int minGroupSize, int maxGroupSize) {
+        if (fractionLost <= 0) {
+            return maxGroupSize;
+        }
+
+        int groupSize = Math.round(0.25f / fractionLost);
+        return Math.max(minGroupSize, Math.min(maxGroupSize, groupSize));
+    }
+
+    public synchronized int getGroupSize() {
+        return (mode == Mode.ROW) ? columns : rows;
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    /**
+     * @fn public synchronized List<byte[]> protect(byte[] rtpData)
+     * @brief 시청자에게 보낸 RTP 패킷을 보호 그룹에 넣고, 그룹이 끝나면 FEC 패킷을 반환하는 함수
+     * @param rtpData 시청자에게 보낸 RTP 패킷 데이터
+     * @return 완성된 FEC 패킷 목록, 없으면 null
+     */
+    public synchronized List<byte[]> protect(byte[] rtpData) {
+        if (rtpData.length < RtpPacket.FIXED_HEADER_SIZE
+                || rtpData.length - RtpPacket.FIXED_HEADER_SIZE > MAX_PROTECTED_LENGTH) {
+            return null;
+        }
+
+        int column = (mode == Mode.ROW) ? 0 : blockIndex % columns;
+        accumulators[column].add(rtpData);
+        blockIndex++;
+
+        List<byte[]> fecPacketList = null;
+        int blockSize = (mode == Mode.ROW) ? columns : columns * rows;
+        if (blockIndex >= blockSize) {
+            fecPacketList = new ArrayList<>(accumulators.length);
+            for (ParityAccumulator accumulator : accumulators) {
+                fecPacketList.add(accumulator.build());
+            }
+
+            blockIndex = 0;
+            if (pendingGroupSize > 0) {
+                if (mode == Mode.ROW) {
+                    columns = pendingGroupSize;
+                } else {
+                    rows = pendingGroupSize;
+                }
+                pendingGroupSize = -1;
+            }
+            resetAccumulators();
+        }
+        return fecPacketList;
+    }
+
+    private void resetAccumulators() {
+        int count = (mode == Mode.ROW) ? 1 : columns;
+        if (accumulators == null || accumulators.length != count) {
+            accumulators = new ParityAccumulator[count];
+            for (int i = 0; i < count; i++) {
+                accumulators[i] = new ParityAccumulator();
+            }
+        } else {
+            for (ParityAccumulator accumulator : accumulators) {
+                accumulator.reset();
+            }
+        }
+    }
+    ////////////////////////////////////////////////////////////
+
+    /**
+     * @class private class ParityAccumulator
+     * @brief 보호 그룹 하나의 XOR 누적 버퍼 (FEC 헤더 + Repair payload 와 같은 배치)
+     *
+     *    [0..1]  : RTP 헤더 첫 2 bytes (V/P/X/CC/M/PT) XOR
+     *    [2..3]  : 길이 (RTP 패킷 길이 - 12) XOR
+     *    [4..7]  : Timestamp XOR
+     *    [8..11] : SN base, L, D (XOR 하지 않음)
+     *    [12..]  : 고정 헤더 뒤 (CSRC, 확장 헤더, Payload, Padding) XOR
+     */
+    private class ParityAccumulator {
+
+        private final byte[] buffer = new byte[FEC_HEADER_LENGTH + MAX_PROTECTED_LENGTH];
+        private int maxLength = 0; // XOR 한 영역 중 가장 긴 길이
+        private int count = 0;
+        private int snBase = 0;
+        private long protectedSsrc = 0;
+        private long lastTimestamp = 0;
+        private boolean lastMarker = false;
+
+        void add(byte[] rtpData) {
+            int seqNum = ((rtpData[2] & 0xFF) << 8) | (rtpData[3] & 0xFF);
+            if (count == 0) {
+                snBase = seqNum;
+                protectedSsrc = ((long) (rtpData[8] & 0xFF) << 24) | ((rtpData[9] & 0xFF) << 16)
+                        | ((rtpData[10] & 0xFF) << 8) | (rtpData[11] & 0xFF);
+            }
+
+            int protectedLength = rtpData.length - RtpPacket.FIXED_HEADER_SIZE;
+            buffer[0] ^= rtpData[0];
+            buffer[1] ^= rtpData[1];
+            buffer[2] ^= (byte) ((protectedLength >> 8) & 0xFF);
+            buffer[3] ^= (byte) (protectedLength & 0xFF);
+            ByteUtil.xor(buffer, 4, rtpData, 4, 4); // Timestamp
+            ByteUtil.xor(buffer, FEC_HEADER_LENGTH, rtpData, RtpPacket.FIXED_HEADER_SIZE, protectedLength);
+
+            maxLength = Math.max(maxLength, protectedLength);
+            lastTimestamp = ((long) (rtpData[4] & 0xFF) << 24) | ((rtpData[5] & 0xFF) << 16)
+                    | ((rtpData[6] & 0xFF) << 8) | (rtpData[7] & 0xFF);
+            lastMarker = (rtpData[1] & 0x80) == 0x80;
+            count++;
+        }
+
+        byte[] build() {
+            int headerLength = RtpPacket.FIXED_HEADER_SIZE + 4; // CSRC 1 개
+            byte[] fec = new byte[headerLength + FEC_HEADER_LENGTH + maxLength];
+
+            // RTP header
+            fec[0] = (byte) 0x81; // V=2, CC=1
+            fec[1] = (byte) ((lastMarker ? 0x80 : 0x00) | (payloadType & 0x7F));
+            fec[2] = (byte) ((fecSeqNum >> 8) & 0xFF);
+            fec[3] = (byte) (fecSeqNum & 0xFF);
+            fecSeqNum = (fecSeqNum + 1) & 0xFFFF;
+            putUnsignedInt(fec, 4, lastTimestamp);
+            putUnsignedInt(fec, 8, fecSsrc);
+            putUnsignedInt(fec, 12, protectedSsrc);
+
+            // FEC header + Repair payload
+            System.arraycopy(buffer, 0, fec, headerLength, FEC_HEADER_LENGTH + maxLength);
+            fec[headerLength] = (byte) ((fec[headerLength] & 0x3F) | 0x40); // R=0, F=1
+            fec[headerLength + 8] = (byte) ((snBase >> 8) & 0xFF);
+            fec[headerLength + 9] = (byte) (snBase & 0xFF);
+            fec[headerLength + 10] = (byte) columns;
+            fec[headerLength + 11] = (byte) rows;
+            return fec;
+        }
+
+        void reset() {
+            Arrays.fill(buffer, 0, FEC_HEADER_LENGTH + maxLength, (byte) 0);
+            maxLength = 0;
+            count = 0;
+        }
+
+        private void putUnsignedInt(byte[] data, int offset, long value) {
+            data[offset] = (byte) ((value >> 24) & 0xFF);
+            data[offset + 1] = (byte) ((value >> 16) & 0xFF);
+            data[offset + 2] = (byte) ((value >> 8) & 0xFF);
+            data[offset + 3] = (byte) (value & 0xFF);
+        }
+
+    }
+
+}
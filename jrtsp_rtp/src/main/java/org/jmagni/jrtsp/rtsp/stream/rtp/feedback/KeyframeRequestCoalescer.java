@@ -0,0 +1,66 @@
+package org.jmagni.jrtsp.rtsp.stream.rtp.feedback;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * @class public class KeyframeRequestCoalescer
+ * @brief Call 단위로 시청자들의 Keyframe 요청 (PLI/FIR) 을 하나로 합치는 클래스
+ * 윈도우 안에 들어온 요청은 모두 첫 번째 요청 하나로 합쳐지므로,
+ * 시청자 수와 상관없이 원본 인코더에는 윈도우마다 최대 한 번만 요청이 전달된다.
+ */
+public class KeyframeRequestCoalescer {
+
+    ////////////////////////////////////////////////////////////
+    // VARIABLES
+    private final AtomicLong lastForwardedTime = new AtomicLong(0);
+
+    private final AtomicLong receivedCount = new AtomicLong(0);
+    private final AtomicLong forwardedCount = new AtomicLong(0);
+    private final AtomicLong locallyAnsweredCount = new AtomicLong(0); // GOP 캐시로 처리한 요청 수
+    ////////////////////////////////////////////////////////////
+
+    ////////////////////////////////////////////////////////////
+    // FUNCTIONS
+    public void markReceived() {
+        receivedCount.incrementAndGet();
+    }
+
+    /**
+     * @fn public boolean tryForward(long now, long windowMs)
+     * @brief 윈도우 안에서 처음 들어온 요청이면 전달 권한을 얻는 함수
+     * @param now 현재 시간 (ms)
+     * @param windowMs Coalescing 윈도우 (ms)
+     * @return 원본으로 전달해야 하면 true, 이미 윈도우 안에서 전달되었으면 false
+     */
+    public boolean tryForward(long now, long windowMs) {
+        long last = lastForwardedTime.get();
+        if (last != 0 && (now - last) < windowMs) {
+            return false;
+        }
+
+        if (!lastForwardedTime.compareAndSet(last, now)) {
+            return false; // 다른 시청자의 요청이 먼저 전달됨
+        }
+
+        forwardedCount.incrementAndGet();
+        return true;
+    }
+
+    public void markLocallyAnswered() {
+        locallyAnsweredCount.incrementAndGet();
+    }
+
+    public long getReceivedCount() {
+        return receivedCount.get();
+    }
+
+    public long getForwardedCount() {
+        return forwardedCount.get();
+    }
+
+    public long getLocallyAnsweredCount() {
+        return locallyAnsweredCount.get();
+    }
+    ////////////////////////////////////////////////////////////
+
+}
@@ -0,0 +1,27 @@
+package org.jmagni.jrtsp.rtsp.stream.rtp.feedback;
+
+/**
+ * @interface public interface SourceFeedbackListener
+ * @brief 시청자들의 RTCP Feedback 을 모아서 원본 미디어 송신자(인코더) 쪽으로 전달하기 위한 Listener
+ * Call 에 미디어를 공급하는 쪽(ingest)에서 구현해서 CallInfo 에 등록한다.
+ */
+public interface SourceFeedbackListener {
+
+    /**
+     * @fn void onKeyframeRequest(String callId, long mediaSourceSsrc)
+     * @brief Coalescing 된 Keyframe 요청 (PLI/FIR) 을 원본으로 전달하는 함수
+     * @param callId Call ID
+     * @param mediaSourceSsrc 요청 대상 원본 SSRC (알 수 없으면 0)
+     */
+    void onKeyframeRequest(String callId, long mediaSourceSsrc);
+
+    /**
+     * @fn default void onBitrateLimit(String callId, long mediaSourceSsrc, long bitrate)
+     * @brief 시청자들의 TMMBR 을 합친 Call 단위 최대 전송률 (가장 낮은 값) 이 바뀌면 호출되는 함수
+     * @param callId Call ID
+     * @param mediaSourceSsrc 요청 대상 원본 SSRC
+     * @param bitrate 최대 전송률 (bps), 0 이면 제한 해제
+     */
+    default void onBitrateLimit(String callId, long mediaSourceSsrc, long bitrate) {}
+
+}
@@ -0,0 +1,124 @@
+package org.jmagni.jrtsp.rtsp.stream.rtp.forwarding;
+
+/**
+ * @class public class RtpSequenceRewriter
+ * @brief 시청자마다 일부 패킷을 버려도 (Thinning, 전송률 제한) 시퀀스 번호가 연속되도록 다시 매기는 클래스
+ * 패킷을 나눠서 더 보내는 경우 (MTU 재분할) 에는 insert() 로 그만큼 번호를 밀어낸다.
+ * 버린 패킷은 시청자 입장에서 손실이 아니므로 NACK 이 오지 않아야 한다.
+ * NACK 로 들어온 (다시 매긴) 시퀀스 번호는 원본 시퀀스 번호로 되돌려서 재전송 캐시를 찾는다.
+ * 재분할한 조각은 원본 안에서의 순서도 기록해서 잃어버린 조각만 다시 보낼 수 있게 한다.
+ */
+public class RtpSequenceRewriter {
+
+    ////////////////////////////////////////////////////////////
+    // VARIABLES
+    private static final int HISTORY_SIZE = 1024; // power of 2
+    private static final int HISTORY_MASK = HISTORY_SIZE - 1;
+
+    private int droppedCount = 0; // 지금까지 버린 패킷 수 (mod 2^16)
+    private final int[] outToSourceSeqNums = new int[HISTORY_SIZE];
+    private final int[] outSeqNums = new int[HISTORY_SIZE];
+    private final int[] outPieceIndexes = new int[HISTORY_SIZE];
+    ////////////////////////////////////////////////////////////
+
+    ////////////////////////////////////////////////////////////
+    // CONSTRUCTOR
+    public RtpSequenceRewriter() {
+        for (int i = 0; i < HISTORY_SIZE; i++) {
+            outSeqNums[i] = -1;
+        }
+    }
+    ////////////////////////////////////////////////////////////
+
+    ////////////////////////////////////////////////////////////
+    // FUNCTIONS
+    public synchronized void drop() {
+        droppedCount = (droppedCount + 1) & 0xFFFF;
+    }
+
+    /**
+     * @fn public synchronized void insert()
+     * @brief 원본에 없는 패킷을 하나 더 보낼 때 호출하는 함수 (다음 패킷부터 번호가 하나씩 밀린다)
+     */
+    public synchronized void insert() {
+        droppedCount = (droppedCount - 1) & 0xFFFF;
+    }
+
+    /**
+     * @fn public synchronized int rewrite(byte[] rtpData)
+     * @brief 전송할 RTP 데이터 (복사본) 의 시퀀스 번호를 다시 매기는 함수
+     * @param rtpData 전송할 RTP 패킷 데이터 (이 시청자 전용 복사본)
+     * @return 다시 매긴 시퀀스 번호
+     */
+    public synchronized int rewrite(byte[] rtpData) {
+        return rewrite(rtpData, -1);
+    }
+
+    /**
+     * @fn public synchronized int rewrite(byte[] rtpData, int pieceIndex)
+     * @brief 전송할 RTP 데이터 (복사본) 의 시퀀스 번호를 다시 매기고 원본과의 관계를 기록하는 함수
+     * 번호가 그대로여도 기록한다. (그 뒤에 insert(), drop() 으로 버린 수가 바뀌면 계산으로는 되돌릴 수 없음)
+     * @param rtpData 전송할 RTP 패킷 데이터 (이 시청자 전용 복사본)
+     * @param pieceIndex MTU 재분할한 조각이면 원본 안에서의 순서, 원본을 그대로 보내면 -1
+     * @return 다시 매긴 시퀀스 번호
+     */
+    public synchronized int rewrite(byte[] rtpData, int pieceIndex) {
+        int sourceSeqNum = ((rtpData[2] & 0xFF) << 8) | (rtpData[3] & 0xFF);
+        int outSeqNum = (sourceSeqNum - droppedCount) & 0xFFFF;
+        if (outSeqNum != sourceSeqNum) {
+            rtpData[2] = (byte) ((outSeqNum >> 8) & 0xFF);
+            rtpData[3] = (byte) (outSeqNum & 0xFF);
+        }
+
+        int index = outSeqNum & HISTORY_MASK;
+        outSeqNums[index] = outSeqNum;
+        outToSourceSeqNums[index] = sourceSeqNum;
+        outPieceIndexes[index] = pieceIndex;
+        return outSeqNum;
+    }
+
+    /**
+     * @fn public synchronized int toSourceSeqNum(int outSeqNum)
+     * @brief 시청자 기준 시퀀스 번호를 원본 시퀀스 번호로 되돌리는 함수
+     * @param outSeqNum 시청자가 받은 시퀀스 번호
+     * @return 원본 시퀀스 번호
+     */
+    public synchronized int toSourceSeqNum(int outSeqNum) {
+        int index = outSeqNum & HISTORY_MASK;
+        if (outSeqNums[index] == outSeqNum) {
+            return outToSourceSeqNums[index];
+        }
+        // 기록이 밀려난 오래된 번호는 지금의 버린 수로 추정한다.
+        return (outSeqNum + droppedCount) & 0xFFFF;
+    }
+
+    /**
+     * @fn public synchronized int toPieceIndex(int outSeqNum)
+     * @brief 시청자 기준 시퀀스 번호가 원본을 재분할한 몇 번째 조각인지 반환하는 함수
+     * @param outSeqNum 시청자가 받은 시퀀스 번호
+     * @return 조각 순서, 원본을 그대로 보냈거나 기록이 없으면 -1
+     */
+    public synchronized int toPieceIndex(int outSeqNum) {
+        int index = outSeqNum & HISTORY_MASK;
+        if (outSeqNums[index] == outSeqNum) {
+            return outPieceIndexes[index];
+        }
+        return -1;
+    }
+
+    /**
+     * @fn public synchronized int toOutSeqNum(int sourceSeqNum)
+     * @brief 다음에 보낼 원본 시퀀스 번호가 시청자에게 몇 번으로 나갈지 계산하는 함수 (RTP-Info 용, 값을 바꾸지 않음)
+     * @param sourceSeqNum 원본 시퀀스 번호
+     * @return 시청자 기준 시퀀스 번호
+     */
+    public synchronized int toOutSeqNum(int sourceSeqNum) {
+        return (sourceSeqNum - droppedCount) & 0xFFFF;
+    }
+
+    public synchronized int getDroppedCount() {
+        return droppedCount;
+    }
+    ////////////////////////////////////////////////////////////
+
+}
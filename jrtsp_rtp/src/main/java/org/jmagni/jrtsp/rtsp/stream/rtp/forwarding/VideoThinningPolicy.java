@@ -0,0 +1,113 @@
+package org.jmagni.jrtsp.rtsp.stream.rtp.forwarding;
+
+import org.jmagni.jrtsp.rtsp.codec.h264.H264RtpInspector;
+
+import java.nio.ByteBuffer;
+
+/**
+ * @class public class VideoThinningPolicy
+ * @brief 시청자의 혼잡도 (congestionLevel 0~4) 에 따라 H.264 패킷을 솎아내는 정책
+ *
+ *    Level 0~1 : 모두 전송
+ *    Level 2~3 : 참조되지 않는 슬라이스 (nal_ref_idc = 0) 는 버림 (디코딩에 영향 없음)
+ *    Level 4   : Keyframe (IDR, SPS/PPS 로 시작하는 프레임) 만 전송
+ *
+ *    - 혼잡도가 올라가면 즉시 적용하고, 내려갈 때는 recoveryHoldMs 동안 유지된 경우에만 한 단계씩 내린다. (Hysteresis)
+ *    - Level 4 에서 내려오면 참조 프레임이 없으므로 다음 Keyframe 부터 다시 보낸다.
+ *    - 패킷마다 호출되므로 payload 첫 바이트만 확인하고 객체를 생성하지 않는다.
+ */
+public class VideoThinningPolicy {
+
+    ////////////////////////////////////////////////////////////
+    // VARIABLES
+    public static final int LEVEL_DROP_DISPOSABLE = 2;
+    public static final int LEVEL_KEYFRAME_ONLY = 4;
+
+    private volatile int appliedLevel = 0;
+    private long belowSince = 0; // ms, 측정값이 적용값보다 낮아진 시점
+
+    // 프레임 단위 결정 (Level 4 또는 Keyframe 대기 중)
+    private long frameTimestamp = -1;
+    private boolean isFrameAdmitted = true;
+    private boolean isWaitingKeyframe = false;
+    ////////////////////////////////////////////////////////////
+
+    ////////////////////////////////////////////////////////////
+    // FUNCTIONS
+    /**
+     * @fn public synchronized boolean updateLevel(int measuredLevel, long now, long recoveryHoldMs)
+     * @brief RR 로 측정된 혼잡도를 Hysteresis 를 적용해서 반영하는 함수
+     * @param measuredLevel 측정된 혼잡도 (0~4)
+     * @param now 현재 시간 (ms)
+     * @param recoveryHoldMs 한 단계 내리기 위해 유지되어야 하는 시간 (ms)
+     * @return Level 4 에서 내려와서 Keyframe 이 필요하면 true
+     */
+    public synchronized boolean updateLevel(int measuredLevel, long now, long recoveryHoldMs) {
+        int level = Math.max(0, Math.min(LEVEL_KEYFRAME_ONLY, measuredLevel));
+        if (level >= appliedLevel) {
+            appliedLevel = level;
+            belowSince = 0;
+            return false;
+        }
+
+        if (belowSince == 0) {
+            belowSince = now;
+            return false;
+        }
+
+        if ((now - belowSince) >= recoveryHoldMs) {
+            int prevLevel = appliedLevel;
+            appliedLevel = prevLevel - 1;
+            belowSince = now;
+            if (prevLevel == LEVEL_KEYFRAME_ONLY) {
+                isWaitingKeyframe = true;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public int getAppliedLevel() {
+        return appliedLevel;
+    }
+
+    /**
+     * @fn public synchronized boolean admit(ByteBuffer buffer, int length, long timestamp)
+     * @brief 비디오 RTP 패킷을 보낼지 결정하는 함수
+     * @param buffer RTP 패킷 버퍼
+     * @param length RTP 패킷 길이
+     * @param timestamp RTP timestamp (프레임 구분)
+     * @return 보내야 하면 true
+     */
+    public synchronized boolean admit(ByteBuffer buffer, int length, long timestamp) {
+        int level = appliedLevel;
+        if (level < LEVEL_DROP_DISPOSABLE && !isWaitingKeyframe) {
+            return true;
+        }
+
+        if (level >= LEVEL_KEYFRAME_ONLY || isWaitingKeyframe) {
+            if (timestamp != frameTimestamp) {
+                frameTimestamp = timestamp;
+                isFrameAdmitted = H264RtpInspector.isKeyframeStart(buffer, length);
+                if (isFrameAdmitted && level < LEVEL_KEYFRAME_ONLY) {
+                    isWaitingKeyframe = false;
+                }
+            }
+            if (!isFrameAdmitted) {
+                return false;
+            }
+            if (level >= LEVEL_KEYFRAME_ONLY) {
+                return true;
+            }
+        }
+
+        if (level < LEVEL_DROP_DISPOSABLE) {
+            return true;
+        }
+
+        // Level 2~3
+        return H264RtpInspector.getNalRefIdc(buffer, length) != 0;
+    }
+    ////////////////////////////////////////////////////////////
+
+}
@@ -0,0 +1,162 @@
+package org.jmagni.jrtsp.rtsp.stream.rtp.gop;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * @class public class GopBurst
+ * @brief 새 시청자에게 GOP 캐시를 Live 보다 먼저, 프레임 간격을 줄여서 (Pacing) 보내기 위한 클래스
+ *
+ * - 시퀀스 번호 : GOP 의 마지막 패킷이 원본의 마지막 시퀀스 번호가 되도록 연속으로 다시 매긴다.
+ *                 (앞에 붙인 SPS/PPS 때문에 원본 번호가 비어 있거나 겹칠 수 있음, Live 는 그 다음 번호부터 이어진다)
+ * - Timestamp : 마지막 프레임은 원본 Timestamp 를 유지하고, 앞 프레임들은 frameIntervalMs 간격으로 당겨서 다시 매긴다.
+ *               (보내는 간격과 Timestamp 간격이 같으므로 시청자는 GOP 를 빠르게 재생하고 Live 로 넘어간다)
+ * - 첫 프레임 (IDR) 은 바로 보내고, 나머지 프레임은 frameIntervalMs 마다 하나씩 보낸다.
+ */
+public class GopBurst {
+
+    ////////////////////////////////////////////////////////////
+    // VARIABLES
+    private final List<GopPacket> packetList;
+    private final long[] outTimestamps;
+    private final long[] dueTimes; // ms
+    private final int firstSeqNum;
+    private final int lastSourceSeqNum;
+
+    private int index = 0;
+    private boolean isReleased = false;
+    ////////////////////////////////////////////////////////////
+
+    ////////////////////////////////////////////////////////////
+    // CONSTRUCTOR
+    /**
+     * @param packetList GopCache.snapshot() 결과 (소유권을 넘겨받는다)
+     * @param startTime 시작 시간 (ms)
+     * @param frameIntervalMs 프레임 사이 전송 간격 (ms)
+     * @param clockRate RTP Timestamp clock rate (Hz)
+     */
+    public GopBurst(List<GopPacket> packetList, long startTime, int frameIntervalMs, int clockRate) {
+        this.packetList = packetList;
+
+        int size = packetList.size();
+        this.outTimestamps = new long[size];
+        this.dueTimes = new long[size];
+
+        // 프레임 번호 (Timestamp 가 바뀔 때마다 증가)
+        int[] frameIndexes = new int[size];
+        int frameCount = 0;
+        long prevTimestamp = -1;
+        for (int i = 0; i < size; i++) {
+            long frameTimestamp = packetList.get(i).getFrameTimestamp();
+            if (i == 0 || frameTimestamp != prevTimestamp) {
+                frameCount++;
+            }
+            frameIndexes[i] = frameCount - 1;
+            prevTimestamp = frameTimestamp;
+        }
+
+        long lastTimestamp = (size > 0) ? packetList.get(size - 1).getFrameTimestamp() : 0;
+        long timestampStep = (long) frameIntervalMs * clockRate / 1000;
+        for (int i = 0; i < size; i++) {
+            int framesFromEnd = frameCount - 1 - frameIndexes[i];
+            outTimestamps[i] = (lastTimestamp - framesFromEnd * timestampStep) & 0xFFFFFFFFL;
+            dueTimes[i] = startTime + (long) frameIndexes[i] * frameIntervalMs;
+        }
+
+        this.lastSourceSeqNum = (size > 0) ? packetList.get(size - 1).getSeqNumber() : 0;
+        this.firstSeqNum = (lastSourceSeqNum - (size - 1)) & 0xFFFF;
+    }
+    ////////////////////////////////////////////////////////////
+
+    ////////////////////////////////////////////////////////////
+    // FUNCTIONS
+    /**
+     * @fn public synchronized List<byte[]> pollDue(long now)
+     * @brief 보낼 시간이 된 GOP 패킷들을 시퀀스 번호, Timestamp 를 다시 매긴 복사본으로 반환하는 함수
+     * @param now 현재 시간 (ms)
+     * @return 보낼 RTP 패킷 데이터 목록
+     */
+    public synchronized List<byte[]> pollDue(long now) {
+        if (isReleased || index >= packetList.size() || dueTimes[index] > now) {
+            return Collections.emptyList();
+        }
+
+        List<byte[]> rtpDataList = new ArrayList<>();
+        while (index < packetList.size() && dueTimes[index] <= now) {
+            rtpDataList.add(poll());
+        }
+        return rtpDataList;
+    }
+
+    /**
+     * @fn public synchronized List<byte[]> pollAll()
+     * @brief 남은 GOP 패킷을 시간과 상관없이 모두 반환하는 함수
+     */
+    public synchronized List<byte[]> pollAll() {
+        if (isReleased) {
+            return Collections.emptyList();
+        }
+
+        List<byte[]> rtpDataList = new ArrayList<>(packetList.size() - index);
+        while (index < packetList.size()) {
+            rtpDataList.add(poll());
+        }
+        return rtpDataList;
+    }
+
+    private byte[] poll() {
+        GopPacket gopPacket = packetList.get(index);
+        byte[] rtpData = new byte[gopPacket.getLength()];
+        gopPacket.getData().getBytes(gopPacket.getData().readerIndex(), rtpData);
+        gopPacket.release();
+
+        int seqNum = (firstSeqNum + index) & 0xFFFF;
+        rtpData[2] = (byte) ((seqNum >> 8) & 0xFF);
+        rtpData[3] = (byte) (seqNum & 0xFF);
+
+        long timestamp = outTimestamps[index];
+        rtpData[4] = (byte) ((timestamp >> 24) & 0xFF);
+        rtpData[5] = (byte) ((timestamp >> 16) & 0xFF);
+        rtpData[6] = (byte) ((timestamp >> 8) & 0xFF);
+        rtpData[7] = (byte) (timestamp & 0xFF);
+
+        index++;
+        return rtpData;
+    }
+
+    /**
+     * @fn public boolean isCovered(int sourceSeqNum)
+     * @brief Live 패킷이 이미 GOP 에 들어 있는지 (마지막 시퀀스 번호 이하인지) 확인하는 함수
+     */
+    public boolean isCovered(int sourceSeqNum) {
+        return ((lastSourceSeqNum - sourceSeqNum) & 0xFFFF) < 0x8000;
+    }
+
+    public synchronized boolean isDone() {
+        return isReleased || index >= packetList.size();
+    }
+
+    public synchronized void release() {
+        if (isReleased) { return; }
+
+        isReleased = true;
+        for (int i = index; i < packetList.size(); i++) {
+            packetList.get(i).release();
+        }
+    }
+
+    public int size() {
+        return packetList.size();
+    }
+
+    public int getFirstSeqNum() {
+        return firstSeqNum;
+    }
+
+    public long getFirstTimestamp() {
+        return (outTimestamps.length > 0) ? outTimestamps[0] : 0;
+    }
+    ////////////////////////////////////////////////////////////
+
+}
@@ -0,0 +1,204 @@
+package org.jmagni.jrtsp.rtsp.stream.rtp.gop;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.PooledByteBufAllocator;
+import lombok.extern.slf4j.Slf4j;
+import org.jmagni.jrtsp.rtsp.base.RtpPacket;
+import org.jmagni.jrtsp.rtsp.codec.h264.H264RtpInspector;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * @class public class GopCache
+ * @brief Call 하나의 비디오 스트림에서 마지막 IDR 부터 지금까지의 RTP 패킷을 보관하는 클래스
+ *
+ * - 원본 패킷은 Call 마다 한 번만 (Pooled direct buffer 로) 복사하고, 시청자들은 참조 카운트로 공유한다.
+ * - 새 IDR 이 들어오면 이전 GOP 를 놓고 (release) 새 GOP 를 시작한다.
+ * - IDR 앞에 SPS/PPS 가 없으면 마지막으로 받은 SPS/PPS 를 앞에 붙여서 GOP 만으로 복호화할 수 있게 한다.
+ * - GOP 가 maxPackets 를 넘으면 다음 IDR 까지 비워 둔다. (오래된 GOP 를 보내는 것보다 Live 를 기다리는 게 낫다)
+ * - close() 이후에는 아무것도 보관하지 않는다. (Call 삭제 뒤에 들어온 패킷의 복사본이 남지 않게)
+ */
+@Slf4j
+public class GopCache {
+
+    ////////////////////////////////////////////////////////////
+    // VARIABLES
+    private final String callId;
+    private final int maxPackets;
+
+    private final List<GopPacket> packetList = new ArrayList<>();
+    private long keyframeTimestamp = -1;
+    private long keyframeReceivedTime = 0; // ms
+    private boolean isOverflowed = false;
+    private boolean isClosed = false;
+
+    // 마지막으로 받은 Parameter set (SPS 는 STAP-A 로 PPS 와 같이 올 수 있다)
+    private GopPacket spsPacket = null;
+    private GopPacket ppsPacket = null;
+    ////////////////////////////////////////////////////////////
+
+    ////////////////////////////////////////////////////////////
+    // CONSTRUCTOR
+    public GopCache(String callId, int maxPackets) {
+        this.callId = callId;
+        this.maxPackets = maxPackets;
+    }
+    ////////////////////////////////////////////////////////////
+
+    ////////////////////////////////////////////////////////////
+    // FUNCTIONS
+    /**
+     * @fn public synchronized void put(RtpPacket rtpPacket, long now)
+     * @brief 원본 비디오 RTP 패킷을 GOP 에 추가하는 함수
+     * @param rtpPacket 원본 비디오 RTP 패킷
+     * @param now 현재 시간 (ms)
+     */
+    public synchronized void put(RtpPacket rtpPacket, long now) {
+        if (isClosed) { return; }
+
+        ByteBuffer buffer = rtpPacket.getBuffer();
+        int length = rtpPacket.getLength();
+        long timestamp = rtpPacket.getTimestamp();
+
+        boolean isSps = H264RtpInspector.containsNalUnit(buffer, length, H264RtpInspector.NAL_TYPE_SPS);
+        boolean isPps = H264RtpInspector.containsNalUnit(buffer, length, H264RtpInspector.NAL_TYPE_PPS);
+        boolean isIdrStart = H264RtpInspector.containsNalUnit(buffer, length, H264RtpInspector.NAL_TYPE_IDR);
+        if (!isSps && !isPps && !isIdrStart && keyframeTimestamp < 0) {
+            return; // 아직 IDR 을 받지 못함
+        }
+
+        GopPacket gopPacket = new GopPacket(copyOf(buffer, length), timestamp);
+        if (isSps) {
+            replaceParameterSet(true, gopPacket);
+        } else if (isPps) {
+            replaceParameterSet(false, gopPacket);
+        }
+
+        if (isIdrStart && timestamp != keyframeTimestamp) {
+            startGop(timestamp, isSps, now);
+        }
+
+        if (keyframeTimestamp < 0 || isOverflowed) {
+            gopPacket.release();
+            return;
+        }
+
+        if (packetList.size() >= maxPackets) {
+            log.debug("({}) GOP is too long. It will be cached from the next IDR. (maxPackets={})", callId, maxPackets);
+            isOverflowed = true;
+            releaseGop();
+            gopPacket.release();
+            return;
+        }
+
+        packetList.add(gopPacket);
+    }
+
+    /**
+     * @fn public synchronized List<GopPacket> snapshot()
+     * @brief 현재 GOP 를 복사하지 않고 (참조 카운트만 올려서) 반환하는 함수
+     * @return GOP 패킷 목록 (꺼낸 쪽에서 release 해야 함), GOP 가 없으면 빈 목록
+     */
+    public synchronized List<GopPacket> snapshot() {
+        if (packetList.isEmpty() || isOverflowed) {
+            return Collections.emptyList();
+        }
+
+        List<GopPacket> gopPacketList = new ArrayList<>(packetList.size());
+        for (GopPacket gopPacket : packetList) {
+            gopPacketList.add(gopPacket.retainedDuplicate());
+        }
+        return gopPacketList;
+    }
+
+    /**
+     * @fn public synchronized long getKeyframeAge(long now)
+     * @brief 현재 GOP 의 IDR 을 받은 뒤 지난 시간을 반환하는 함수
+     * @return 경과 시간 (ms), GOP 가 없으면 -1
+     */
+    public synchronized long getKeyframeAge(long now) {
+        if (packetList.isEmpty() || isOverflowed) {
+            return -1;
+        }
+        return now - keyframeReceivedTime;
+    }
+
+    public synchronized int size() {
+        return packetList.size();
+    }
+
+    /**
+     * @fn public synchronized void close()
+     * @brief 보관 중인 패킷을 모두 놓고 이후의 put() 을 무시하게 하는 함수
+     * 이미 꺼내 간 snapshot 은 꺼낸 쪽이 release 한다.
+     */
+    public synchronized void close() {
+        isClosed = true;
+        clear();
+    }
+
+    public synchronized boolean isClosed() {
+        return isClosed;
+    }
+
+    public synchronized void clear() {
+        releaseGop();
+        replaceParameterSet(true, null);
+        replaceParameterSet(false, null);
+        keyframeTimestamp = -1;
+        isOverflowed = false;
+    }
+
+    private void startGop(long timestamp, boolean hasSps, long now) {
+        releaseGop();
+        keyframeTimestamp = timestamp;
+        keyframeReceivedTime = now;
+        isOverflowed = false;
+
+        // IDR 패킷이 SPS 를 같이 가지고 있지 않으면, 마지막 SPS/PPS 를 먼저 넣는다.
+        if (!hasSps) {
+            if (spsPacket != null) {
+                packetList.add(spsPacket.withFrameTimestamp(timestamp));
+            }
+            if (ppsPacket != null) {
+                packetList.add(ppsPacket.withFrameTimestamp(timestamp));
+            }
+        }
+    }
+
+    private void releaseGop() {
+        for (GopPacket gopPacket : packetList) {
+            gopPacket.release();
+        }
+        packetList.clear();
+    }
+
+    private void replaceParameterSet(boolean isSps, GopPacket gopPacket) {
+        GopPacket prev = isSps ? spsPacket : ppsPacket;
+        if (prev != null) {
+            prev.release();
+        }
+
+        GopPacket next = (gopPacket == null) ? null : gopPacket.retainedDuplicate();
+        if (isSps) {
+            spsPacket = next;
+        } else {
+            ppsPacket = next;
+        }
+    }
+
+    private static ByteBuf copyOf(ByteBuffer buffer, int length) {
+        ByteBuffer source = buffer.duplicate();
+        source.clear();
+        source.limit(length);
+
+        ByteBuf data = PooledByteBufAllocator.DEFAULT.directBuffer(length);
+        data.writeBytes(source);
+        return data;
+    }
+    ////////////////////////////////////////////////////////////
+
+}
@@ -0,0 +1,68 @@
+package org.jmagni.jrtsp.rtsp.stream.rtp.gop;
+
+import io.netty.buffer.ByteBuf;
+
+/**
+ * @class public class GopPacket
+ * @brief GOP 캐시에 들어 있는 RTP 패킷 하나 (참조 카운트를 가진 공유 버퍼)
+ *
+ * - data 는 RTP 헤더부터 시작하는 패킷 전체이며, 읽기만 한다.
+ * - frameTimestamp 는 프레임을 나누는 기준이다. (앞에 붙인 SPS/PPS 는 IDR 의 Timestamp 를 가진다)
+ * - 캐시에서 꺼낸 GopPacket 은 꺼낸 쪽이 release() 해야 한다.
+ */
+public class GopPacket {
+
+    ////////////////////////////////////////////////////////////
+    // VARIABLES
+    private final ByteBuf data;
+    private final long frameTimestamp;
+    private boolean isReleased = false;
+    ////////////////////////////////////////////////////////////
+
+    ////////////////////////////////////////////////////////////
+    // CONSTRUCTOR
+    public GopPacket(ByteBuf data, long frameTimestamp) {
+        this.data = data;
+        this.frameTimestamp = frameTimestamp;
+    }
+    ////////////////////////////////////////////////////////////
+
+    ////////////////////////////////////////////////////////////
+    // FUNCTIONS
+    /**
+     * @fn public GopPacket retainedDuplicate()
+     * @brief 같은 메모리를 참조하는 GopPacket 을 만들고 참조 카운트를 하나 올리는 함수 (복사하지 않음)
+     */
+    public GopPacket retainedDuplicate() {
+        return new GopPacket(data.retainedDuplicate(), frameTimestamp);
+    }
+
+    public GopPacket withFrameTimestamp(long frameTimestamp) {
+        return new GopPacket(data.retainedDuplicate(), frameTimestamp);
+    }
+
+    public ByteBuf getData() {
+        return data;
+    }
+
+    public long getFrameTimestamp() {
+        return frameTimestamp;
+    }
+
+    public int getLength() {
+        return data.readableBytes();
+    }
+
+    public int getSeqNumber() {
+        return data.getUnsignedShort(data.readerIndex() + 2);
+    }
+
+    public void release() {
+        if (isReleased) { return; }
+
+        isReleased = true;
+        data.release();
+    }
+    ////////////////////////////////////////////////////////////
+
+}
@@ -0,0 +1,70 @@
+package org.jmagni.jrtsp.rtsp.stream.rtp.pacing;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @class public class BitrateLimiter
+ * @brief 시청자(Streamer) 단위 Token bucket 전송률 제한기
+ * bitrate 가 0 이면 제한하지 않는다.
+ * Bucket 크기는 BUCKET_DURATION_MS 동안 보낼 수 있는 양 (최소 MIN_BUCKET_BYTES) 이다.
+ */
+public class BitrateLimiter {
+
+    ////////////////////////////////////////////////////////////
+    // VARIABLES
+    private static final long BUCKET_DURATION_MS = 200;
+    private static final long MIN_BUCKET_BYTES = 3000; // 2 * MTU
+
+    private volatile long bitrate = 0; // bps
+    private long bucketBytes = 0;
+    private long tokens = 0; // bytes (음수면 빚진 상태)
+    private long lastRefillTime = 0; // ns
+    ////////////////////////////////////////////////////////////
+
+    ////////////////////////////////////////////////////////////
+    // FUNCTIONS
+    public synchronized void setBitrate(long bitrate, long now) {
+        this.bitrate = Math.max(0, bitrate);
+        this.bucketBytes = Math.max(MIN_BUCKET_BYTES, (this.bitrate / 8) * BUCKET_DURATION_MS / 1000);
+        this.tokens = Math.min(tokens, bucketBytes);
+        this.lastRefillTime = now;
+    }
+
+    public boolean isLimited() {
+        return bitrate > 0;
+    }
+
+    public long getBitrate() {
+        return bitrate;
+    }
+
+    /**
+     * @fn public synchronized boolean hasBudget(long now)
+     * @brief 지금 새 프레임을 보내도 되는지 확인하는 함수
+     * @param now 현재 시간 (ns, System.nanoTime)
+     * @return 남은 토큰이 있으면 true
+     */
+    public synchronized boolean hasBudget(long now) {
+        refill(now);
+        return tokens > 0;
+    }
+
+    public synchronized void consume(int bytes, long now) {
+        refill(now);
+        tokens = Math.max(-bucketBytes, tokens - bytes);
+    }
+
+    private void refill(long now) {
+        long elapsed = now - lastRefillTime;
+        if (elapsed <= 0) { return; }
+
+        // Bucket 은 BUCKET_DURATION_MS 이상 채워지지 않으므로 1 초로 잘라서 overflow 방지
+        long refillBytes = (bitrate / 8) * Math.min(elapsed, TimeUnit.SECONDS.toNanos(1)) / TimeUnit.SECONDS.toNanos(1);
+        if (refillBytes <= 0) { return; } // 시간 누적 (너무 짧은 간격은 다음 호출로 넘김)
+
+        tokens = Math.min(bucketBytes, tokens + refillBytes);
+        lastRefillTime = now;
+    }
+    ////////////////////////////////////////////////////////////
+
+}
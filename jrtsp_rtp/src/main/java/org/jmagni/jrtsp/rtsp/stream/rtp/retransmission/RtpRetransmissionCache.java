@@ -0,0 +1,164 @@
+package org.jmagni.jrtsp.rtsp.stream.rtp.retransmission;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.PooledByteBufAllocator;
+import lombok.extern.slf4j.Slf4j;
+import org.jmagni.jrtsp.rtsp.base.RtpPacket;
+
+import java.nio.ByteBuffer;
+
+/**
+ * @class public class RtpRetransmissionCache
+ * @brief 원본 SSRC 하나에 대한 최근 RTP 패킷 보관소 (NACK 재전송용)
+ *
+ * - 하나의 Call(원본 스트림)에 대해 한 번만 저장하고, 모든 시청자(Streamer)가 공유한다.
+ * - 슬롯 인덱스는 (seq & mask) 이고, 슬롯마다 패킷 길이만큼의 Pooled direct buffer 를 잡는다. (덮어쓰면 이전 버퍼를 놓음)
+ *   > 슬롯 수 x MTU 를 미리 잡지 않으므로 실제로 보관 중인 패킷 크기만큼만 쓴다.
+ * - 시간 윈도우(windowMs)를 지난 패킷은 NACK 가 와도 재전송하지 않는다.
+ * - close() 하면 버퍼를 모두 놓고, 이후의 put() 은 저장하지 않는다. (Call 삭제, 원본 SSRC 변경)
+ */
+@Slf4j
+public class RtpRetransmissionCache {
+
+    ////////////////////////////////////////////////////////////
+    // VARIABLES
+    // 원본이 MTU 보다 큰 패킷도 저장한다. (Interleaved TCP 로 다시 나눠 보낸 조각을 NACK 로 다시 요청할 수 있음)
+    public static final int MAX_PACKET_SIZE = RtpPacket.RTP_PACKET_MAX_SIZE; // bytes
+
+    private final long ssrc;
+    private final int capacity;
+    private final int mask;
+    private final long windowMs;
+
+    private final ByteBuf[] slots;
+    private final int[] seqNums;
+    private final long[] storedTimes;
+    private boolean isClosed = false;
+    ////////////////////////////////////////////////////////////
+
+    ////////////////////////////////////////////////////////////
+    // CONSTRUCTOR
+    public RtpRetransmissionCache(long ssrc, int capacity, long windowMs) {
+        this.ssrc = ssrc;
+        this.capacity = roundUpToPowerOfTwo(capacity);
+        this.mask = this.capacity - 1;
+        this.windowMs = windowMs;
+
+        this.slots = new ByteBuf[this.capacity];
+        this.seqNums = new int[this.capacity];
+        this.storedTimes = new long[this.capacity];
+        for (int i = 0; i < this.capacity; i++) {
+            seqNums[i] = -1;
+        }
+    }
+    ////////////////////////////////////////////////////////////
+
+    ////////////////////////////////////////////////////////////
+    // FUNCTIONS
+    /**
+     * @fn public synchronized boolean put(RtpPacket rtpPacket, long now)
+     * @brief RTP 패킷을 시퀀스 번호에 해당하는 슬롯에 복사해서 저장하는 함수
+     * @param rtpPacket 원본 RTP 패킷
+     * @param now 현재 시간 (ms)
+     * @return 저장 성공 시 true, 최대 크기를 초과하거나 닫혔으면 false
+     */
+    public synchronized boolean put(RtpPacket rtpPacket, long now) {
+        int length = rtpPacket.getLength();
+        if (isClosed || length <= 0 || length > MAX_PACKET_SIZE) {
+            return false;
+        }
+
+        int seqNum = rtpPacket.getSeqNumber();
+        int index = seqNum & mask;
+
+        ByteBuffer source = rtpPacket.getBuffer().duplicate();
+        source.clear();
+        source.limit(length);
+
+        ByteBuf data = PooledByteBufAllocator.DEFAULT.directBuffer(length, length);
+        data.writeBytes(source);
+        releaseSlot(index);
+
+        slots[index] = data;
+        seqNums[index] = seqNum;
+        storedTimes[index] = now;
+        return true;
+    }
+
+    /**
+     * @fn public synchronized byte[] get(int seqNum, long now)
+     * @brief 시퀀스 번호에 해당하는 RTP 패킷 데이터를 반환하는 함수
+     * @param seqNum 찾을 RTP 시퀀스 번호 (16 bits)
+     * @param now 현재 시간 (ms)
+     * @return RTP 패킷 데이터, 덮어써졌거나 윈도우를 지났으면 null
+     */
+    public synchronized byte[] get(int seqNum, long now) {
+        int index = seqNum & mask;
+        ByteBuf slot = slots[index];
+        if (slot == null || seqNums[index] != seqNum || (now - storedTimes[index]) > windowMs) {
+            return null;
+        }
+
+        byte[] data = new byte[slot.readableBytes()];
+        slot.getBytes(slot.readerIndex(), data);
+        return data;
+    }
+
+    public synchronized void clear() {
+        for (int i = 0; i < capacity; i++) {
+            releaseSlot(i);
+        }
+    }
+
+    /**
+     * @fn public synchronized void close()
+     * @brief 보관 중인 버퍼를 모두 놓고 더 이상 저장하지 않게 하는 함수
+     */
+    public synchronized void close() {
+        isClosed = true;
+        clear();
+    }
+
+    public synchronized boolean isClosed() {
+        return isClosed;
+    }
+
+    public synchronized int size() {
+        int size = 0;
+        for (ByteBuf slot : slots) {
+            if (slot != null) {
+                size++;
+            }
+        }
+        return size;
+    }
+
+    public long getSsrc() {
+        return ssrc;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public long getWindowMs() {
+        return windowMs;
+    }
+
+    private void releaseSlot(int index) {
+        ByteBuf slot = slots[index];
+        if (slot != null) {
+            slot.release();
+            slots[index] = null;
+        }
+        seqNums[index] = -1;
+        storedTimes[index] = 0;
+    }
+
+    private static int roundUpToPowerOfTwo(int value) {
+        if (value <= 1) { return 1; }
+        return Integer.highestOneBit(value - 1) << 1;
+    }
+    ////////////////////////////////////////////////////////////
+
+}
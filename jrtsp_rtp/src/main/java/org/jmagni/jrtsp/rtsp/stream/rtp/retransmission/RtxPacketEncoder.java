@@ -0,0 +1,80 @@
+package org.jmagni.jrtsp.rtsp.stream.rtp.retransmission;
+
+import org.jmagni.jrtsp.rtsp.base.RtpPacket;
+
+public class RtxPacketEncoder {
+
+    /**
+     * @Reference https://datatracker.ietf.org/doc/html/rfc4588#section-4
+     *
+     *     0                   1                   2                   3
+     *     0 1 2 3 4 5 6 7 8 9 0 1 2 3 4 5 6 7 8 9 0 1 2 3 4 5 6 7 8 9 0 1
+     *    +-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+
+     *    |                         RTP Header                            |
+     *    +-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+
+     *    |            OSN                |                               |
+     *    +-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+                               |
+     *    |                  Original RTP Packet Payload                  |
+     *    |                                                               |
+     *    +-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+
+     *
+     *    - RTX 스트림은 원본과 다른 SSRC, 다른 PT(apt=원본 PT), 독립된 시퀀스 번호를 사용한다.
+     *    - OSN (Original Sequence Number) 는 원본 패킷의 시퀀스 번호이다.
+     *    - 원본의 Marker bit, Timestamp, CSRC, 헤더 확장은 그대로 유지하고, 패딩은 제거한다.
+     */
+
+    public static final int OSN_LENGTH = 2; // bytes
+
+    private RtxPacketEncoder() {}
+
+    /**
+     * @fn public static byte[] encode(byte[] original, int rtxPayloadType, int rtxSeqNum, long rtxSsrc)
+     * @brief 원본 RTP 패킷을 RTX 패킷으로 변환하는 함수
+     * @param original 원본 RTP 패킷 데이터
+     * @param rtxPayloadType RTX payload type
+     * @param rtxSeqNum RTX 스트림 시퀀스 번호
+     * @param rtxSsrc RTX 스트림 SSRC
+     * @return RTX 패킷 데이터, 원본이 잘못된 경우 null
+     */
+    public static byte[] encode(byte[] original, int rtxPayloadType, int rtxSeqNum, long rtxSsrc) {
+        if (original == null || original.length < RtpPacket.FIXED_HEADER_SIZE) {
+            return null;
+        }
+
+        int headerLength = RtpPacket.FIXED_HEADER_SIZE + (original[0] & 0x0F) * 4;
+        if ((original[0] & 0x10) == 0x10) { // Extension
+            if (original.length < headerLength + RtpPacket.EXT_HEADER_SIZE) { return null; }
+            int extensionWords = ((original[headerLength + 2] & 0xFF) << 8) | (original[headerLength + 3] & 0xFF);
+            headerLength += RtpPacket.EXT_HEADER_SIZE + extensionWords * 4;
+        }
+
+        int payloadEnd = original.length;
+        if ((original[0] & 0x20) == 0x20) { // Padding
+            payloadEnd -= (original[original.length - 1] & 0xFF);
+        }
+        if (payloadEnd < headerLength) {
+            return null;
+        }
+
+        int payloadLength = payloadEnd - headerLength;
+        byte[] rtx = new byte[headerLength + OSN_LENGTH + payloadLength];
+        System.arraycopy(original, 0, rtx, 0, headerLength);
+
+        rtx[0] = (byte) (rtx[0] & ~0x20); // P = 0
+        rtx[1] = (byte) ((original[1] & 0x80) | (rtxPayloadType & 0x7F));
+        rtx[2] = (byte) ((rtxSeqNum >> 8) & 0xFF);
+        rtx[3] = (byte) (rtxSeqNum & 0xFF);
+        rtx[8] = (byte) ((rtxSsrc >> 24) & 0xFF);
+        rtx[9] = (byte) ((rtxSsrc >> 16) & 0xFF);
+        rtx[10] = (byte) ((rtxSsrc >> 8) & 0xFF);
+        rtx[11] = (byte) (rtxSsrc & 0xFF);
+
+        // OSN
+        rtx[headerLength] = original[2];
+        rtx[headerLength + 1] = original[3];
+
+        System.arraycopy(original, headerLength, rtx, headerLength + OSN_LENGTH, payloadLength);
+        return rtx;
+    }
+
+}
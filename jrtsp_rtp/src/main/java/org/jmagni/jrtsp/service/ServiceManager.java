@@ -3,11 +3,17 @@ package org.jmagni.jrtsp.service;
 import lombok.extern.slf4j.Slf4j;
 import org.jmagni.jrtsp.config.UserConfig;
 import org.jmagni.jrtsp.rtsp.PortManager;
+import org.jmagni.jrtsp.rtsp.netty.CallAffinityManager;
 import org.jmagni.jrtsp.rtsp.netty.NettyChannelManager;
+import org.jmagni.jrtsp.service.metrics.ServerMetrics;
 import org.jmagni.jrtsp.service.monitor.HaHandler;
+import org.jmagni.jrtsp.service.monitor.ServerHealthMonitor;
+import org.jmagni.jrtsp.service.monitor.StatisticsHandler;
 import org.jmagni.jrtsp.service.scheduler.job.Job;
 import org.jmagni.jrtsp.service.scheduler.job.JobBuilder;
 import org.jmagni.jrtsp.service.scheduler.schedule.ScheduleManager;
+import org.jmagni.jrtsp.service.scheduler.schedule.handler.JobTimer;
+import org.jmagni.jrtsp.session.SessionTimeoutManager;
 
 import java.io.File;
 import java.io.IOException;
@@ -49,7 +55,12 @@ public class ServiceManager {
 
         UserConfig userConfig = AppInstance.getInstance().getConfigManager().getUserConfig();
 
-        PortManager.getInstance().initResource(userConfig.getLocalRtcpPortMin(), userConfig.getLocalRtcpPortMax());
+        PortManager.getInstance().initResource(
+                userConfig.getLocalRtcpPortMin(), userConfig.getLocalRtcpPortMax(), userConfig.isPortBindProbe()
+        );
+
+        ServerMetrics.getInstance().start(userConfig);
+        ServerHealthMonitor.getInstance().configure(userConfig);
 
         NettyChannelManager.getInstance().openRtspChannel(
                 userConfig.getLocalListenIp(),
@@ -76,6 +87,26 @@ public class ServiceManager {
                 log.warn("[ServiceManager] [-RUN FAIL] HA Handler");
                 return false;
             }
+
+            // Streamer 별 스레드 대신 하나의 Job 이 모든 전송 통계를 계산
+            Job statisticsJob = new JobBuilder()
+                    .setScheduleManager(scheduleManager)
+                    .setName(StatisticsHandler.class.getSimpleName())
+                    .setInitialDelay(DELAY)
+                    .setInterval(DELAY)
+                    .setTimeUnit(TimeUnit.MILLISECONDS)
+                    .setPriority(5)
+                    .setTotalRunCount(1)
+                    .setIsLasted(true)
+                    .build();
+            StatisticsHandler statisticsHandler = new StatisticsHandler(statisticsJob);
+            statisticsHandler.init();
+            if (scheduleManager.startJob(MAIN_SCHEDULE_JOB, statisticsHandler.getJob())) {
+                log.debug("[ServiceManager] [+RUN] Statistics Handler");
+            } else {
+                log.warn("[ServiceManager] [-RUN FAIL] Statistics Handler");
+                return false;
+            }
         }
 
         log.debug("| All services are opened.");
@@ -86,8 +117,13 @@ public class ServiceManager {
         PortManager.getInstance().releaseResource();
 
         NettyChannelManager.getInstance().deleteRtspChannel();
+        NettyChannelManager.getInstance().deleteAllRtcpChannels();
+        CallAffinityManager.getInstance().stop();
+        SessionTimeoutManager.getInstance().stop();
 
         scheduleManager.stopAll(MAIN_SCHEDULE_JOB);
+        JobTimer.getInstance().stop();
+        ServerMetrics.getInstance().stop();
 
         systemUnLock();
 
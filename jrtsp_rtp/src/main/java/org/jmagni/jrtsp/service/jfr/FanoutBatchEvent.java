@@ -0,0 +1,60 @@
+package org.jmagni.jrtsp.service.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * @class public class FanoutBatchEvent extends Event
+ * @brief 원본 RTP 패킷 묶음 하나를 시청자에게 전달한 구간 (JFR 이벤트, 기본 꺼짐, 표본)
+ *
+ * - 묶음은 초당 수천 개이므로 켜져 있어도 평균 SAMPLE_RATE 개 중 하나만 기록한다.
+ * - sample() 은 꺼져 있으면 이벤트를 만들지 않고 null 을 반환한다.
+ */
+@Name("org.jmagni.jrtsp.FanoutBatch")
+@Label("RTP Fan-out Batch")
+@Category({"jrtsp", "RTP"})
+@Description("Sampled relay of a batch of ingest RTP packets to the viewers of a call.")
+@Enabled(false)
+@StackTrace(false)
+public class FanoutBatchEvent extends Event {
+
+    public static final int SAMPLE_RATE = 16;
+
+    private static final EventType EVENT_TYPE = EventType.getEventType(FanoutBatchEvent.class);
+
+    @Label("Call-ID")
+    public String callId;
+
+    @Label("Packets")
+    public int packets;
+
+    @Label("Viewers")
+    @Description("Viewer tracks the packets were sent to (summed over the batch).")
+    public int viewers;
+
+    @Label("Bytes")
+    @DataAmount
+    public long bytes;
+
+    /**
+     * @fn public static FanoutBatchEvent sample()
+     * @brief 기록할 묶음이면 시작한 이벤트를, 아니면 null 을 반환하는 함수
+     */
+    public static FanoutBatchEvent sample() {
+        if (!EVENT_TYPE.isEnabled() || ThreadLocalRandom.current().nextInt(SAMPLE_RATE) != 0) { return null; }
+
+        FanoutBatchEvent event = new FanoutBatchEvent();
+        event.begin();
+        return event;
+    }
+
+}
@@ -0,0 +1,44 @@
+package org.jmagni.jrtsp.service.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * @class public class RtcpFeedbackEvent extends Event
+ * @brief 시청자가 보낸 RTCP Compound 패킷 하나의 처리 (JFR 이벤트, 기본 꺼짐)
+ *
+ * - RR, NACK, TMMBR, PLI/FIR 처리 시간을 GC, 잠금 경합과 함께 보기 위한 것이다.
+ * - 시청자마다 초당 몇 개 수준이므로 표본을 뽑지 않는다.
+ */
+@Name("org.jmagni.jrtsp.RtcpFeedback")
+@Label("RTCP Feedback")
+@Category({"jrtsp", "RTCP"})
+@Description("RTCP compound packet from a viewer processed by RtcpChannelHandler.")
+@Enabled(false)
+@StackTrace(false)
+public class RtcpFeedbackEvent extends Event {
+
+    @Label("Streamer Key")
+    public String streamerKey;
+
+    @Label("Call-ID")
+    public String callId;
+
+    @Label("Bytes")
+    @DataAmount
+    public int bytes;
+
+    @Label("Packets")
+    public int packets;
+
+    @Label("Packet Types")
+    @Description("RTCP packet types in the compound packet, e.g. 201,205.")
+    public String packetTypes;
+
+}
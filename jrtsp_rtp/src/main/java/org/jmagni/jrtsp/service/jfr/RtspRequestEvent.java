@@ -0,0 +1,35 @@
+package org.jmagni.jrtsp.service.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * @class public class RtspRequestEvent extends Event
+ * @brief RTSP 요청 하나의 처리 (JFR 이벤트, 기본 꺼짐)
+ *
+ * - 처리 시간은 begin() ~ commit() 구간이다.
+ * - 꺼져 있으면 shouldCommit() 이 false 이고 필드를 채우지 않는다. (Call-ID 해석 비용 없음)
+ */
+@Name("org.jmagni.jrtsp.RtspRequest")
+@Label("RTSP Request")
+@Category({"jrtsp", "RTSP"})
+@Description("RTSP request handled by RtspChannelHandler.")
+@Enabled(false)
+@StackTrace(false)
+public class RtspRequestEvent extends Event {
+
+    @Label("Method")
+    public String method;
+
+    @Label("Call-ID")
+    public String callId;
+
+    @Label("Status")
+    public int status;
+
+}
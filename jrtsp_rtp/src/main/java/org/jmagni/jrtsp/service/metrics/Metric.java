@@ -0,0 +1,100 @@
+package org.jmagni.jrtsp.service.metrics;
+
+/**
+ * @class public abstract class Metric
+ * @brief MetricsRegistry 에 등록되는 지표 하나 (이름 + Label 한 조합)
+ */
+public abstract class Metric {
+
+    private final String name;
+    private final String help;
+    private final String labels; // Prometheus Label 문자열 (예: method="SETUP"), 없으면 빈 문자열
+
+    protected Metric(String name, String help, String labels) {
+        this.name = name;
+        this.help = help;
+        this.labels = labels == null ? "" : labels;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getHelp() {
+        return help;
+    }
+
+    public String getLabels() {
+        return labels;
+    }
+
+    /**
+     * @fn public static String label(String name, String value)
+     * @brief Prometheus Label 하나 (name="value") 를 만드는 함수
+     * 값은 Call-ID 처럼 외부에서 들어올 수 있으므로 text format 규칙대로 \, ", 줄바꿈을 escape 한다.
+     */
+    public static String label(String name, String value) {
+        StringBuilder builder = new StringBuilder(name.length() + value.length() + 3);
+        builder.append(name).append("=\"");
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '\\':
+                    builder.append("\\\\");
+                    break;
+                case '"':
+                    builder.append("\\\"");
+                    break;
+                case '\n':
+                    builder.append("\\n");
+                    break;
+                default:
+                    builder.append(c);
+                    break;
+            }
+        }
+        return builder.append('"').toString();
+    }
+
+    /**
+     * @fn public String getKey()
+     * @brief 이름과 Label 을 합친 고유 키를 반환하는 함수 (예: jrtsp_rtsp_requests_total{method="SETUP"})
+     */
+    public String getKey() {
+        return labels.isEmpty() ? name : name + "{" + labels + "}";
+    }
+
+    /**
+     * @fn public abstract String getType()
+     * @brief Prometheus TYPE (counter, gauge, histogram) 을 반환하는 함수
+     */
+    public abstract String getType();
+
+    /**
+     * @fn public abstract long getValue()
+     * @brief 대표 값을 반환하는 함수 (JMX 속성, 히스토그램은 샘플 수)
+     */
+    public abstract long getValue();
+
+    /**
+     * @fn public abstract void writeTo(StringBuilder builder)
+     * @brief Prometheus text format 으로 값을 쓰는 함수 (HELP, TYPE 줄은 MetricsRegistry 가 쓴다)
+     */
+    public abstract void writeTo(StringBuilder builder);
+
+    protected void writeSample(StringBuilder builder, String suffix, String extraLabel, long value) {
+        builder.append(name).append(suffix);
+        if (!labels.isEmpty() || extraLabel != null) {
+            builder.append('{').append(labels);
+            if (extraLabel != null) {
+                if (!labels.isEmpty()) {
+                    builder.append(',');
+                }
+                builder.append(extraLabel);
+            }
+            builder.append('}');
+        }
+        builder.append(' ').append(value).append('\n');
+    }
+
+}
@@ -0,0 +1,40 @@
+package org.jmagni.jrtsp.service.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * @class public class MetricCounter extends Metric
+ * @brief 증가만 하는 카운터 (LongAdder, 전송 경로에서 객체를 만들지 않음)
+ */
+public class MetricCounter extends Metric {
+
+    private final LongAdder count = new LongAdder();
+
+    public MetricCounter(String name, String help, String labels) {
+        super(name, help, labels);
+    }
+
+    public void inc() {
+        count.increment();
+    }
+
+    public void add(long value) {
+        count.add(value);
+    }
+
+    @Override
+    public String getType() {
+        return "counter";
+    }
+
+    @Override
+    public long getValue() {
+        return count.sum();
+    }
+
+    @Override
+    public void writeTo(StringBuilder builder) {
+        writeSample(builder, "", null, count.sum());
+    }
+
+}
@@ -0,0 +1,21 @@
+package org.jmagni.jrtsp.service.metrics;
+
+import java.util.function.LongSupplier;
+
+/**
+ * @class public class MetricCounterFunction extends MetricGauge
+ * @brief 다른 모듈이 이미 세고 있는 누적 값을 읽을 때마다 가져오는 카운터
+ * 값은 줄어들면 안 된다. (LongAdder 처럼 증가만 하는 값만 등록)
+ */
+public class MetricCounterFunction extends MetricGauge {
+
+    public MetricCounterFunction(String name, String help, String labels, LongSupplier supplier) {
+        super(name, help, labels, supplier);
+    }
+
+    @Override
+    public String getType() {
+        return "counter";
+    }
+
+}
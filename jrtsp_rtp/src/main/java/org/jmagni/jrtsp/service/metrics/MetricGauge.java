@@ -0,0 +1,37 @@
+package org.jmagni.jrtsp.service.metrics;
+
+import java.util.function.LongSupplier;
+
+/**
+ * @class public class MetricGauge extends Metric
+ * @brief 읽을 때마다 현재 값을 가져오는 게이지 (Scrape, JMX 조회 때만 계산)
+ */
+public class MetricGauge extends Metric {
+
+    private final LongSupplier supplier;
+
+    public MetricGauge(String name, String help, String labels, LongSupplier supplier) {
+        super(name, help, labels);
+        this.supplier = supplier;
+    }
+
+    @Override
+    public String getType() {
+        return "gauge";
+    }
+
+    @Override
+    public long getValue() {
+        try {
+            return supplier.getAsLong();
+        } catch (Exception e) {
+            return -1;
+        }
+    }
+
+    @Override
+    public void writeTo(StringBuilder builder) {
+        writeSample(builder, "", null, getValue());
+    }
+
+}
@@ -0,0 +1,71 @@
+package org.jmagni.jrtsp.service.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * @class public class MetricHistogram extends Metric
+ * @brief 고정 구간 히스토그램 (Prometheus histogram)
+ *
+ * - 구간 경계는 만들 때 정하고 바꾸지 않는다. record() 는 경계 배열을 훑어서 LongAdder 하나만 올린다. (객체를 만들지 않음)
+ * - 출력은 Prometheus 규칙대로 누적 (le) 값이다.
+ */
+public class MetricHistogram extends Metric {
+
+    private final long[] upperBounds;
+    private final LongAdder[] buckets; // 마지막 칸은 +Inf
+    private final LongAdder sum = new LongAdder();
+
+    public MetricHistogram(String name, String help, String labels, long[] upperBounds) {
+        super(name, help, labels);
+        this.upperBounds = upperBounds.clone();
+        this.buckets = new LongAdder[upperBounds.length + 1];
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    public void record(long value) {
+        int index = 0;
+        while (index < upperBounds.length && value > upperBounds[index]) {
+            index++;
+        }
+        buckets[index].increment();
+        sum.add(value);
+    }
+
+    public long getCount() {
+        long count = 0;
+        for (LongAdder bucket : buckets) {
+            count += bucket.sum();
+        }
+        return count;
+    }
+
+    public long getSum() {
+        return sum.sum();
+    }
+
+    @Override
+    public String getType() {
+        return "histogram";
+    }
+
+    @Override
+    public long getValue() {
+        return getCount();
+    }
+
+    @Override
+    public void writeTo(StringBuilder builder) {
+        long cumulative = 0;
+        for (int i = 0; i < upperBounds.length; i++) {
+            cumulative += buckets[i].sum();
+            writeSample(builder, "_bucket", label("le", String.valueOf(upperBounds[i])), cumulative);
+        }
+        cumulative += buckets[upperBounds.length].sum();
+        writeSample(builder, "_bucket", "le=\"+Inf\"", cumulative);
+        writeSample(builder, "_sum", null, sum.sum());
+        writeSample(builder, "_count", null, cumulative);
+    }
+
+}
@@ -0,0 +1,132 @@
+package org.jmagni.jrtsp.service.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * @class public class MetricLatency extends Metric
+ * @brief 지연 시간 분포 (HDR 방식 로그-선형 구간, Prometheus summary)
+ *
+ * - 2 의 거듭제곱 구간마다 SUB_BUCKET_COUNT 칸으로 나눈다. 값의 크기와 상관없이 상대 오차가 1/SUB_BUCKET_COUNT (약 3%) 이하이다.
+ *   > 경계를 미리 정할 필요가 없고, 1 us 부터 MAX_VALUE 까지 한 배열로 담는다.
+ * - record() 는 비트 연산으로 칸을 찾아서 하나만 올린다. (객체를 만들지 않음)
+ * - 출력은 분위수 (quantile) 와 _sum, _count 이다. (quantile="1" 은 최대값)
+ */
+public class MetricLatency extends Metric {
+
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    private static final long MAX_VALUE = (1L << 40) - 1;
+    private static final int BUCKET_COUNT = getIndex(MAX_VALUE) + 1;
+
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99, 0.999};
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
+
+    public MetricLatency(String name, String help, String labels) {
+        super(name, help, labels);
+    }
+
+    /**
+     * @fn public void record(long value)
+     * @brief 값 하나를 기록하는 함수 (음수는 0, MAX_VALUE 보다 크면 MAX_VALUE 로 기록)
+     */
+    public void record(long value) {
+        long clamped = Math.max(0, Math.min(value, MAX_VALUE));
+        buckets.incrementAndGet(getIndex(clamped));
+        count.increment();
+        sum.add(clamped);
+
+        long curMax;
+        while (clamped > (curMax = max.get())) {
+            if (max.compareAndSet(curMax, clamped)) { break; }
+        }
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    public long getSum() {
+        return sum.sum();
+    }
+
+    public long getMax() {
+        return max.get();
+    }
+
+    /**
+     * @fn public long getPercentile(double quantile)
+     * @brief 분위수 값을 반환하는 함수 (그 칸의 상한, 최대값을 넘지 않음)
+     * @param quantile 0 ~ 1
+     * @return 기록된 값이 없으면 0
+     */
+    public long getPercentile(double quantile) {
+        long total = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            total += buckets.get(i);
+        }
+        if (total == 0) { return 0; }
+
+        long rank = Math.max(1, (long) Math.ceil(quantile * total));
+        long cumulative = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            cumulative += buckets.get(i);
+            if (cumulative >= rank) {
+                return Math.min(getUpperBound(i), max.get());
+            }
+        }
+        return max.get();
+    }
+
+    @Override
+    public String getType() {
+        return "summary";
+    }
+
+    @Override
+    public long getValue() {
+        return getPercentile(0.99);
+    }
+
+    @Override
+    public void writeTo(StringBuilder builder) {
+        for (double quantile : QUANTILES) {
+            writeSample(builder, "", label("quantile", String.valueOf(quantile)), getPercentile(quantile));
+        }
+        writeSample(builder, "", "quantile=\"1\"", max.get());
+        writeSample(builder, "_sum", null, sum.sum());
+        writeSample(builder, "_count", null, count.sum());
+    }
+
+    /**
+     * @fn static int getIndex(long value)
+     * @brief 값이 들어갈 칸 번호를 반환하는 함수
+     *
+     * - 2 * SUB_BUCKET_COUNT 미만은 값 그대로 (1 단위)
+     * - 그 이상은 최상위 비트 아래 SUB_BUCKET_BITS 비트로 칸을 나눈다. (구간마다 SUB_BUCKET_COUNT 칸)
+     */
+    static int getIndex(long value) {
+        if (value < (SUB_BUCKET_COUNT << 1)) { return (int) value; }
+
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        return shift * SUB_BUCKET_COUNT + (int) (value >>> shift);
+    }
+
+    /**
+     * @fn static long getUpperBound(int index)
+     * @brief 칸에 들어가는 가장 큰 값을 반환하는 함수 (getIndex 의 역)
+     */
+    static long getUpperBound(int index) {
+        if (index < (SUB_BUCKET_COUNT << 1)) { return index; }
+
+        int shift = (index >>> SUB_BUCKET_BITS) - 1;
+        long mantissa = index - (long) shift * SUB_BUCKET_COUNT;
+        return ((mantissa + 1) << shift) - 1;
+    }
+
+}
@@ -0,0 +1,94 @@
+package org.jmagni.jrtsp.service.metrics;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * @class public class MetricsHttpServer
+ * @brief MetricsRegistry 를 Prometheus text format 으로 내보내는 로컬 HTTP 서버 (GET /metrics)
+ * JDK 내장 HttpServer 와 스레드 하나만 사용한다. (Scrape 는 수 초에 한 번)
+ */
+public class MetricsHttpServer {
+
+    private static final Logger logger = LoggerFactory.getLogger(MetricsHttpServer.class);
+
+    public static final String METRICS_PATH = "/metrics";
+    private static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    private final MetricsRegistry metricsRegistry;
+    private HttpServer httpServer = null;
+    private ExecutorService executorService = null;
+
+    ////////////////////////////////////////////////////////////////////////////////
+
+    public MetricsHttpServer(MetricsRegistry metricsRegistry) {
+        this.metricsRegistry = metricsRegistry;
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////
+
+    public boolean start(String ip, int port) {
+        try {
+            httpServer = HttpServer.create(new InetSocketAddress(ip, port), 0);
+            httpServer.createContext(METRICS_PATH, this::handle);
+            executorService = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "MetricsHttpServer");
+                thread.setDaemon(true);
+                return thread;
+            });
+            httpServer.setExecutor(executorService);
+            httpServer.start();
+            logger.debug("MetricsHttpServer is started. (http://{}:{}{})", ip, getPort(), METRICS_PATH);
+            return true;
+        } catch (Exception e) {
+            logger.warn("Fail to start the MetricsHttpServer. (ip={}, port={})", ip, port, e);
+            stop();
+            return false;
+        }
+    }
+
+    public void stop() {
+        if (httpServer != null) {
+            httpServer.stop(0);
+            httpServer = null;
+        }
+        if (executorService != null) {
+            executorService.shutdownNow();
+            executorService = null;
+        }
+    }
+
+    public int getPort() {
+        return httpServer == null ? -1 : httpServer.getAddress().getPort();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+
+            byte[] body = metricsRegistry.scrape().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream outputStream = exchange.getResponseBody()) {
+                outputStream.write(body);
+            }
+        } catch (Exception e) {
+            logger.warn("Fail to handle the metrics request.", e);
+        } finally {
+            exchange.close();
+        }
+    }
+
+}
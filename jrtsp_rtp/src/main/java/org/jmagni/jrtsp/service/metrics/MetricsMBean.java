@@ -0,0 +1,88 @@
+package org.jmagni.jrtsp.service.metrics;
+
+import javax.management.*;
+import java.util.List;
+
+/**
+ * @class public class MetricsMBean implements DynamicMBean
+ * @brief MetricsRegistry 의 지표를 JMX 읽기 전용 속성으로 보여주는 클래스 (속성 이름 = 지표 키)
+ * 히스토그램은 샘플 수, 합을 각각 _count, _sum 속성으로 보여준다.
+ */
+public class MetricsMBean implements DynamicMBean {
+
+    public static final String OBJECT_NAME = "org.jmagni.jrtsp:type=Metrics";
+
+    private final MetricsRegistry metricsRegistry;
+
+    public MetricsMBean(MetricsRegistry metricsRegistry) {
+        this.metricsRegistry = metricsRegistry;
+    }
+
+    @Override
+    public Object getAttribute(String attribute) throws AttributeNotFoundException {
+        if (attribute.endsWith("_sum")) {
+            Metric metric = metricsRegistry.get(attribute.substring(0, attribute.length() - "_sum".length()));
+            if (metric instanceof MetricHistogram) {
+                return ((MetricHistogram) metric).getSum();
+            }
+        }
+        if (attribute.endsWith("_count")) {
+            Metric metric = metricsRegistry.get(attribute.substring(0, attribute.length() - "_count".length()));
+            if (metric instanceof MetricHistogram) {
+                return ((MetricHistogram) metric).getCount();
+            }
+        }
+
+        Metric metric = metricsRegistry.get(attribute);
+        if (metric == null) {
+            throw new AttributeNotFoundException(attribute);
+        }
+        return metric.getValue();
+    }
+
+    @Override
+    public void setAttribute(Attribute attribute) throws AttributeNotFoundException {
+        throw new AttributeNotFoundException("Metrics are read-only. (" + attribute.getName() + ")");
+    }
+
+    @Override
+    public AttributeList getAttributes(String[] attributes) {
+        AttributeList attributeList = new AttributeList();
+        for (String attribute : attributes) {
+            try {
+                attributeList.add(new Attribute(attribute, getAttribute(attribute)));
+            } catch (AttributeNotFoundException e) {
+                // ignore
+            }
+        }
+        return attributeList;
+    }
+
+    @Override
+    public AttributeList setAttributes(AttributeList attributes) {
+        return new AttributeList();
+    }
+
+    @Override
+    public Object invoke(String actionName, Object[] params, String[] signature) throws ReflectionException {
+        throw new ReflectionException(new NoSuchMethodException(actionName));
+    }
+
+    @Override
+    public MBeanInfo getMBeanInfo() {
+        List<Metric> metricList = metricsRegistry.getAll();
+        MBeanAttributeInfo[] attributeInfos = new MBeanAttributeInfo[metricList.size()];
+        for (int i = 0; i < attributeInfos.length; i++) {
+            Metric metric = metricList.get(i);
+            String key = metric instanceof MetricHistogram ? metric.getKey() + "_count" : metric.getKey();
+            attributeInfos[i] = new MBeanAttributeInfo(
+                    key, long.class.getName(), metric.getHelp(), true, false, false
+            );
+        }
+        return new MBeanInfo(
+                getClass().getName(), "jrtsp metrics",
+                attributeInfos, null, null, null
+        );
+    }
+
+}
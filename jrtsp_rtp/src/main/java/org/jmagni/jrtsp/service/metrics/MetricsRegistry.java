@@ -0,0 +1,125 @@
+package org.jmagni.jrtsp.service.metrics;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.LongSupplier;
+
+/**
+ * @class public class MetricsRegistry
+ * @brief 모든 지표를 이름 + Label 로 보관하는 클래스
+ *
+ * - 지표는 처음 한 번 등록하고 필드로 들고 쓴다. (전송 경로에서는 Map 을 조회하지 않음)
+ * - 같은 키로 다시 등록하면 기존 지표를 반환한다.
+ * - Scrape (Prometheus text format) 와 JMX 가 같은 목록을 읽는다.
+ */
+public class MetricsRegistry {
+
+    ////////////////////////////////////////////////////////////
+    // VARIABLES
+    private static final MetricsRegistry metricsRegistry = new MetricsRegistry();
+
+    private final ConcurrentHashMap<String, Metric> metricMap = new ConcurrentHashMap<>();
+    private final List<Metric> metricList = new CopyOnWriteArrayList<>(); // 등록 순서
+    ////////////////////////////////////////////////////////////
+
+    ////////////////////////////////////////////////////////////
+    // CONSTRUCTOR
+    public MetricsRegistry() {
+        // Nothing
+    }
+
+    public static MetricsRegistry getInstance() {
+        return metricsRegistry;
+    }
+    ////////////////////////////////////////////////////////////
+
+    ////////////////////////////////////////////////////////////
+    // FUNCTIONS
+    public MetricCounter counter(String name, String help) {
+        return counter(name, help, null);
+    }
+
+    public MetricCounter counter(String name, String help, String labels) {
+        return register(new MetricCounter(name, help, labels));
+    }
+
+    public MetricCounterFunction counterFunction(String name, String help, LongSupplier supplier) {
+        return register(new MetricCounterFunction(name, help, null, supplier));
+    }
+
+    public MetricGauge gauge(String name, String help, LongSupplier supplier) {
+        return gauge(name, help, null, supplier);
+    }
+
+    public MetricGauge gauge(String name, String help, String labels, LongSupplier supplier) {
+        return register(new MetricGauge(name, help, labels, supplier));
+    }
+
+    public MetricHistogram histogram(String name, String help, String labels, long[] upperBounds) {
+        return register(new MetricHistogram(name, help, labels, upperBounds));
+    }
+
+    public MetricLatency latency(String name, String help, String labels) {
+        return register(new MetricLatency(name, help, labels));
+    }
+
+    /**
+     * @fn public void unregister(Metric metric)
+     * @brief 지표를 목록에서 빼는 함수 (Call 처럼 수명이 있는 Label 의 지표를 정리할 때 사용)
+     */
+    public void unregister(Metric metric) {
+        if (metric != null && metricMap.remove(metric.getKey(), metric)) {
+            metricList.remove(metric);
+        }
+    }
+
+    public Metric get(String key) {
+        return metricMap.get(key);
+    }
+
+    public List<Metric> getAll() {
+        return metricList;
+    }
+
+    /**
+     * @fn public String scrape()
+     * @brief 모든 지표를 Prometheus text format (0.0.4) 으로 만드는 함수 (같은 이름은 HELP, TYPE 을 한 번만 씀)
+     */
+    public String scrape() {
+        Map<String, List<Metric>> metricGroupMap = new LinkedHashMap<>();
+        for (Metric metric : metricList) {
+            metricGroupMap.computeIfAbsent(metric.getName(), name -> new ArrayList<>()).add(metric);
+        }
+
+        StringBuilder builder = new StringBuilder(metricList.size() * 96);
+        for (List<Metric> metricGroup : metricGroupMap.values()) {
+            Metric first = metricGroup.get(0);
+            builder.append("# HELP ").append(first.getName()).append(' ').append(first.getHelp()).append('\n');
+            builder.append("# TYPE ").append(first.getName()).append(' ').append(first.getType()).append('\n');
+            for (Metric metric : metricGroup) {
+                metric.writeTo(builder);
+            }
+        }
+        return builder.toString();
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T extends Metric> T register(T metric) {
+        Metric prevMetric = metricMap.putIfAbsent(metric.getKey(), metric);
+        if (prevMetric != null) {
+            if (prevMetric.getClass() != metric.getClass()) {
+                throw new IllegalArgumentException("Metric type is mismatched. (key=" + metric.getKey() + ")");
+            }
+            return (T) prevMetric;
+        }
+
+        metricList.add(metric);
+        return metric;
+    }
+    ////////////////////////////////////////////////////////////
+
+}
@@ -0,0 +1,176 @@
+package org.jmagni.jrtsp.service.metrics;
+
+import io.netty.channel.ChannelFuture;
+import org.jmagni.jrtsp.session.SessionManager;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @class public class PacketLatencyMetrics
+ * @brief 원본 RTP 패킷이 서버 안에 머무는 시간 (Ingest 수신 ~ 시청자 전송 완료) 을 기록하는 클래스
+ *
+ * - Ingest 에서 RtpInfo 를 만들 때 stamp() 로 수신 시각을 RtpPacket 에 찍는다. (표본이 아니면 0)
+ *   > 평균 LATENCY_SAMPLE_RATE 개 중 하나만 찍는다. 표본이 아닌 패킷은 시각을 읽지 않고 기록도 하지 않는다.
+ * - 구간 (모두 수신 시각부터, us)
+ *   1) queue : Relay 버퍼를 지나 Call 의 EventLoop 에서 전달을 시작할 때까지
+ *   2) fanout : 시청자 하나에게 writeAndFlush 를 호출할 때까지 (뒤쪽 시청자일수록 길어짐)
+ *   3) wire : writeAndFlush 가 끝날 때까지 (transport 별, Call 별)
+ * - Call 별 지표는 첫 표본에서 만들고 Call 이 삭제되면 removeCall() 로 지운다.
+ */
+public class PacketLatencyMetrics {
+
+    ////////////////////////////////////////////////////////////
+    // VARIABLES
+    private static final PacketLatencyMetrics packetLatencyMetrics = new PacketLatencyMetrics(MetricsRegistry.getInstance());
+
+    public static final String TRANSPORT_UDP = "udp";
+    public static final String TRANSPORT_TCP = "tcp";
+
+    private static final String WIRE_NAME = "jrtsp_packet_wire_latency_us";
+    private static final String WIRE_HELP = "Sampled time from ingest receive to writeAndFlush completion.";
+    private static final String CALL_WIRE_NAME = "jrtsp_call_packet_wire_latency_us";
+    private static final String CALL_WIRE_HELP = "Sampled time from ingest receive to writeAndFlush completion, by call.";
+
+    private final MetricsRegistry metricsRegistry;
+
+    private final MetricLatency queueLatency;
+    private final MetricLatency fanoutLatency;
+    private final MetricLatency udpWireLatency;
+    private final MetricLatency tcpWireLatency;
+
+    // Key : Call-ID, Value : Call 의 wire 지연 시간
+    private final ConcurrentHashMap<String, MetricLatency> callLatencyMap = new ConcurrentHashMap<>();
+
+    private volatile int sampleRate = 0; // 0 : 끔, 1 : 모든 패킷
+    ////////////////////////////////////////////////////////////
+
+    ////////////////////////////////////////////////////////////
+    // CONSTRUCTOR
+    public PacketLatencyMetrics(MetricsRegistry metricsRegistry) {
+        this.metricsRegistry = metricsRegistry;
+
+        queueLatency = metricsRegistry.latency("jrtsp_packet_queue_latency_us", "Sampled time from ingest receive to relay start on the call event loop.", null);
+        fanoutLatency = metricsRegistry.latency("jrtsp_packet_fanout_latency_us", "Sampled time from ingest receive to writeAndFlush for each viewer.", null);
+        udpWireLatency = metricsRegistry.latency(WIRE_NAME, WIRE_HELP, Metric.label("transport", TRANSPORT_UDP));
+        tcpWireLatency = metricsRegistry.latency(WIRE_NAME, WIRE_HELP, Metric.label("transport", TRANSPORT_TCP));
+    }
+
+    public static PacketLatencyMetrics getInstance() {
+        return packetLatencyMetrics;
+    }
+    ////////////////////////////////////////////////////////////
+
+    ////////////////////////////////////////////////////////////
+    // FUNCTIONS
+    public void setSampleRate(int sampleRate) {
+        this.sampleRate = Math.max(0, sampleRate);
+    }
+
+    public int getSampleRate() {
+        return sampleRate;
+    }
+
+    /**
+     * @fn public long stamp()
+     * @brief Ingest 수신 시각을 반환하는 함수 (표본이 아니면 0)
+     */
+    public long stamp() {
+        int curSampleRate = sampleRate;
+        if (curSampleRate <= 0) { return 0; }
+        if (curSampleRate > 1 && ThreadLocalRandom.current().nextInt(curSampleRate) != 0) { return 0; }
+
+        long now = System.nanoTime();
+        return now == 0 ? 1 : now;
+    }
+
+    /**
+     * @fn public void recordQueue(long ingestNanos)
+     * @brief Call 의 EventLoop 에서 전달을 시작한 시점을 기록하는 함수
+     */
+    public void recordQueue(long ingestNanos) {
+        if (ingestNanos == 0) { return; }
+        queueLatency.record(toMicros(ingestNanos));
+    }
+
+    /**
+     * @fn public void recordWrite(String callId, String transport, long ingestNanos, ChannelFuture channelFuture)
+     * @brief 시청자 하나에게 writeAndFlush 를 호출한 시점을 기록하고, 완료 시점을 기록하도록 Listener 를 거는 함수
+     * @param callId Call-ID
+     * @param transport TRANSPORT_UDP, TRANSPORT_TCP
+     * @param ingestNanos stamp() 로 찍은 수신 시각 (0 이면 아무것도 하지 않음)
+     * @param channelFuture writeAndFlush 결과
+     */
+    public void recordWrite(String callId, String transport, long ingestNanos, ChannelFuture channelFuture) {
+        if (ingestNanos == 0 || channelFuture == null) { return; }
+
+        fanoutLatency.record(toMicros(ingestNanos));
+        channelFuture.addListener(future -> {
+            if (future.isSuccess()) {
+                recordWire(callId, transport, ingestNanos);
+            }
+        });
+    }
+
+    /**
+     * @fn public void recordWire(String callId, String transport, long ingestNanos)
+     * @brief writeAndFlush 가 끝난 시점을 전체, Call 별로 기록하는 함수
+     */
+    public void recordWire(String callId, String transport, long ingestNanos) {
+        if (ingestNanos == 0) { return; }
+
+        long latencyMicros = toMicros(ingestNanos);
+        (TRANSPORT_TCP.equals(transport) ? tcpWireLatency : udpWireLatency).record(latencyMicros);
+        // 삭제된 Call 의 늦은 완료가 지표를 다시 만들지 않도록 살아 있는 Call 만 기록한다.
+        if (callId == null || SessionManager.getInstance().findCall(callId) == null) { return; }
+
+        MetricLatency callLatency = callLatencyMap.computeIfAbsent(callId, key ->
+                metricsRegistry.latency(CALL_WIRE_NAME, CALL_WIRE_HELP, Metric.label("call_id", key))
+        );
+        callLatency.record(latencyMicros);
+
+        // 확인한 뒤 deleteCall 이 끝났으면 (Call 삭제 > removeCall 순서) 방금 만든 지표를 removeCall 이 못 봤을 수 있다.
+        // 이때는 직접 지운다. (같은 Call-ID 로 다시 만든 Call 의 지표는 건드리지 않음)
+        if (SessionManager.getInstance().findCall(callId) == null && callLatencyMap.remove(callId, callLatency)) {
+            metricsRegistry.unregister(callLatency);
+        }
+    }
+
+    public MetricLatency getCallLatency(String callId) {
+        return callLatencyMap.get(callId);
+    }
+
+    /**
+     * @fn public void removeCall(String callId)
+     * @brief Call 이 삭제될 때 Call 별 지표를 지우는 함수
+     */
+    public void removeCall(String callId) {
+        MetricLatency callLatency = callLatencyMap.remove(callId);
+        if (callLatency != null) {
+            metricsRegistry.unregister(callLatency);
+        }
+    }
+
+    public MetricLatency getQueueLatency() {
+        return queueLatency;
+    }
+
+    public MetricLatency getFanoutLatency() {
+        return fanoutLatency;
+    }
+
+    public MetricLatency getUdpWireLatency() {
+        return udpWireLatency;
+    }
+
+    public MetricLatency getTcpWireLatency() {
+        return tcpWireLatency;
+    }
+
+    private static long toMicros(long ingestNanos) {
+        return TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - ingestNanos);
+    }
+    ////////////////////////////////////////////////////////////
+
+}
@@ -0,0 +1,259 @@
+package org.jmagni.jrtsp.service.metrics;
+
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.handler.codec.http.HttpMethod;
+import io.netty.handler.codec.rtsp.RtspMethods;
+import io.netty.util.internal.PlatformDependent;
+import lombok.Getter;
+import org.jmagni.jrtsp.config.UserConfig;
+import org.jmagni.jrtsp.rtsp.PortManager;
+import org.jmagni.jrtsp.rtsp.netty.CallAffinityManager;
+import org.jmagni.jrtsp.rtsp.netty.NettyChannelManager;
+import org.jmagni.jrtsp.rtsp.netty.module.RtspNettyChannel;
+import org.jmagni.jrtsp.rtsp.statistics.StatisticsManager;
+import org.jmagni.jrtsp.service.monitor.EventLoopLagProbe;
+import org.jmagni.jrtsp.service.monitor.ServerHealthMonitor;
+import org.jmagni.jrtsp.service.scheduler.schedule.handler.JobTimer;
+import org.jmagni.jrtsp.session.SessionManager;
+import org.jmagni.jrtsp.session.SessionTimeoutManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @class public class ServerMetrics
+ * @brief 서버 지표 목록과 노출 (Prometheus HTTP, JMX) 을 관리하는 클래스
+ *
+ * - 전송 경로에서 쓰는 카운터 / 히스토그램은 필드로 들고 있다. (호출할 때 Map 조회, 객체 생성 없음)
+ * - 개수, 큐 길이, 메모리처럼 이미 다른 곳에서 세고 있는 값은 게이지로 등록해서 Scrape 할 때만 읽는다.
+ * - 지표 이름은 jrtsp_ 로 시작하고, 단위를 이름 끝에 붙인다. (_total, _bytes, _us, _ms)
+ */
+@Getter
+public class ServerMetrics {
+
+    ////////////////////////////////////////////////////////////
+    // VARIABLES
+    private static final Logger logger = LoggerFactory.getLogger(ServerMetrics.class);
+
+    public static final String METHOD_OTHER = "OTHER";
+    public static final String DROP_POLICY_THINNING = "thinning";
+    public static final String DROP_POLICY_BITRATE_LIMIT = "bitrate_limit";
+    public static final String DROP_POLICY_NO_CHANNEL = "no_channel";
+
+    private static final long[] RTSP_DURATION_BOUNDS_US = {100, 250, 500, 1000, 2500, 5000, 10000, 25000, 50000, 100000, 250000, 1000000};
+    private static final long[] RTT_BOUNDS_MS = {5, 10, 20, 50, 100, 200, 500, 1000, 2000};
+    private static final long[] LOSS_BOUNDS_PERMILLE = {0, 5, 10, 20, 50, 100, 200, 500, 1000};
+    private static final long[] JITTER_BOUNDS_MS = {1, 2, 5, 10, 20, 50, 100, 200, 500};
+
+    // 위의 구간 경계를 생성자에서 쓰므로 그 뒤에 만든다. (정적 필드는 선언 순서대로 초기화됨)
+    private static final ServerMetrics serverMetrics = new ServerMetrics(MetricsRegistry.getInstance());
+
+    @Getter(lombok.AccessLevel.NONE)
+    private final MetricsRegistry metricsRegistry;
+
+    // RTSP (Method 별)
+    @Getter(lombok.AccessLevel.NONE)
+    private final Map<String, RtspMethodMetrics> rtspMethodMetricsMap = new HashMap<>();
+
+    // Ingest (원본) / Egress (시청자)
+    private final MetricCounter ingestPackets;
+    private final MetricCounter ingestBytes;
+    private final MetricCounter udpEgressPackets;
+    private final MetricCounter udpEgressBytes;
+    private final MetricCounter tcpEgressPackets;
+    private final MetricCounter tcpEgressBytes;
+
+    // 과부하로 거절한 SETUP
+    private final MetricCounter setupRejects;
+
+    // 정책별 전송하지 않은 패킷
+    private final MetricCounter thinningDrops;
+    private final MetricCounter bitrateLimitDrops;
+    private final MetricCounter noChannelDrops;
+
+    // RTCP Receiver Report
+    private final MetricHistogram rtcpRtt;
+    private final MetricHistogram rtcpFractionLost;
+    private final MetricHistogram rtcpJitter;
+
+    @Getter(lombok.AccessLevel.NONE)
+    private MetricsHttpServer metricsHttpServer = null;
+    @Getter(lombok.AccessLevel.NONE)
+    private ObjectName mbeanName = null;
+    ////////////////////////////////////////////////////////////
+
+    ////////////////////////////////////////////////////////////
+    // CONSTRUCTOR
+    public ServerMetrics(MetricsRegistry metricsRegistry) {
+        this.metricsRegistry = metricsRegistry;
+
+        for (HttpMethod method : new HttpMethod[]{
+                RtspMethods.OPTIONS, RtspMethods.DESCRIBE, RtspMethods.SETUP, RtspMethods.PLAY,
+                RtspMethods.PAUSE, RtspMethods.TEARDOWN, RtspMethods.GET_PARAMETER}) {
+            rtspMethodMetricsMap.put(method.name(), new RtspMethodMetrics(metricsRegistry, method.name()));
+        }
+        rtspMethodMetricsMap.put(METHOD_OTHER, new RtspMethodMetrics(metricsRegistry, METHOD_OTHER));
+
+        ingestPackets = metricsRegistry.counter("jrtsp_ingest_packets_total", "RTP packets received from the sources.");
+        ingestBytes = metricsRegistry.counter("jrtsp_ingest_bytes_total", "RTP bytes received from the sources.");
+        udpEgressPackets = metricsRegistry.counter("jrtsp_egress_packets_total", "RTP/FEC packets written to the viewers.", "transport=\"udp\"");
+        tcpEgressPackets = metricsRegistry.counter("jrtsp_egress_packets_total", "RTP/FEC packets written to the viewers.", "transport=\"tcp\"");
+        udpEgressBytes = metricsRegistry.counter("jrtsp_egress_bytes_total", "RTP/FEC bytes written to the viewers.", "transport=\"udp\"");
+        tcpEgressBytes = metricsRegistry.counter("jrtsp_egress_bytes_total", "RTP/FEC bytes written to the viewers.", "transport=\"tcp\"");
+
+        setupRejects = metricsRegistry.counter("jrtsp_setup_rejected_total", "New SETUPs rejected with 453 while overloaded.");
+
+        String dropHelp = "RTP packets not sent to a viewer, by policy.";
+        thinningDrops = metricsRegistry.counter("jrtsp_egress_drops_total", dropHelp, Metric.label("policy", DROP_POLICY_THINNING));
+        bitrateLimitDrops = metricsRegistry.counter("jrtsp_egress_drops_total", dropHelp, Metric.label("policy", DROP_POLICY_BITRATE_LIMIT));
+        noChannelDrops = metricsRegistry.counter("jrtsp_egress_drops_total", dropHelp, Metric.label("policy", DROP_POLICY_NO_CHANNEL));
+
+        rtcpRtt = metricsRegistry.histogram("jrtsp_rtcp_rtt_ms", "Round trip time from RTCP receiver reports.", null, RTT_BOUNDS_MS);
+        rtcpFractionLost = metricsRegistry.histogram("jrtsp_rtcp_fraction_lost_permille", "Fraction lost from RTCP receiver reports.", null, LOSS_BOUNDS_PERMILLE);
+        rtcpJitter = metricsRegistry.histogram("jrtsp_rtcp_jitter_ms", "Interarrival jitter from RTCP receiver reports.", null, JITTER_BOUNDS_MS);
+    }
+
+    public static ServerMetrics getInstance() {
+        return serverMetrics;
+    }
+    ////////////////////////////////////////////////////////////
+
+    ////////////////////////////////////////////////////////////
+    // FUNCTIONS
+    /**
+     * @fn public void recordRtspRequest(HttpMethod method, int statusCode, long elapsedNanos)
+     * @brief RTSP 요청 하나의 처리 결과와 처리 시간을 기록하는 함수
+     */
+    public void recordRtspRequest(HttpMethod method, int statusCode, long elapsedNanos) {
+        RtspMethodMetrics methodMetrics = rtspMethodMetricsMap.get(method.name());
+        if (methodMetrics == null) {
+            methodMetrics = rtspMethodMetricsMap.get(METHOD_OTHER);
+        }
+
+        methodMetrics.requests.inc();
+        if (statusCode >= 400) {
+            methodMetrics.failures.inc();
+        }
+        methodMetrics.duration.record(TimeUnit.NANOSECONDS.toMicros(elapsedNanos));
+    }
+
+    /**
+     * @fn public void recordReceiverReport(long rttMs, int fraction, long jitterMs)
+     * @brief RTCP RR 의 RTT, 손실률 (fraction / 256), Jitter 를 기록하는 함수 (RTT 를 모르면 0 이하)
+     */
+    public void recordReceiverReport(long rttMs, int fraction, long jitterMs) {
+        if (rttMs > 0) {
+            rtcpRtt.record(rttMs);
+        }
+        rtcpFractionLost.record(fraction * 1000L / 256);
+        if (jitterMs >= 0) {
+            rtcpJitter.record(jitterMs);
+        }
+    }
+
+    /**
+     * @fn public void start(UserConfig userConfig)
+     * @brief 게이지를 등록하고 Prometheus HTTP, JMX 노출을 시작하는 함수
+     */
+    public void start(UserConfig userConfig) {
+        registerGauges();
+        PacketLatencyMetrics.getInstance().setSampleRate(userConfig.getMetricsLatencySampleRate());
+
+        if (userConfig.getMetricsHttpPort() > 0) {
+            metricsHttpServer = new MetricsHttpServer(metricsRegistry);
+            metricsHttpServer.start(userConfig.getMetricsHttpIp(), userConfig.getMetricsHttpPort());
+        }
+
+        if (userConfig.isMetricsJmxEnabled()) {
+            try {
+                MBeanServer mbeanServer = ManagementFactory.getPlatformMBeanServer();
+                ObjectName objectName = new ObjectName(MetricsMBean.OBJECT_NAME);
+                if (!mbeanServer.isRegistered(objectName)) {
+                    mbeanServer.registerMBean(new MetricsMBean(metricsRegistry), objectName);
+                    mbeanName = objectName;
+                }
+            } catch (Exception e) {
+                logger.warn("Fail to register the metrics MBean.", e);
+            }
+        }
+    }
+
+    public void stop() {
+        if (metricsHttpServer != null) {
+            metricsHttpServer.stop();
+            metricsHttpServer = null;
+        }
+
+        if (mbeanName != null) {
+            try {
+                ManagementFactory.getPlatformMBeanServer().unregisterMBean(mbeanName);
+            } catch (Exception e) {
+                // ignore
+            }
+            mbeanName = null;
+        }
+    }
+
+    public void registerGauges() {
+        metricsRegistry.gauge("jrtsp_calls", "Active calls.", () -> SessionManager.getInstance().getCallInfoSize());
+        metricsRegistry.gauge("jrtsp_conferences", "Active conferences.", () -> SessionManager.getInstance().getConferenceInfoSize());
+        metricsRegistry.gauge("jrtsp_streamers", "Active streamers (viewer tracks).", () -> {
+            RtspNettyChannel rtspNettyChannel = NettyChannelManager.getInstance().getRtspChannel();
+            return rtspNettyChannel == null ? 0 : rtspNettyChannel.getStreamerRegistry().size();
+        });
+        metricsRegistry.gauge("jrtsp_sessions", "Active RTSP sessions.", () -> {
+            RtspNettyChannel rtspNettyChannel = NettyChannelManager.getInstance().getRtspChannel();
+            return rtspNettyChannel == null ? 0 : rtspNettyChannel.getStreamerRegistry().getSessionCount();
+        });
+        metricsRegistry.counterFunction("jrtsp_session_expired_total", "RTSP sessions removed by the idle timeout.", () -> SessionTimeoutManager.getInstance().getExpiredCount());
+        metricsRegistry.counterFunction("jrtsp_calls_rejected_total", "Calls rejected by the call limits.", () -> SessionManager.getInstance().getRejectedCallCount());
+        metricsRegistry.gauge("jrtsp_placed_calls", "Calls placed on an event loop.", () -> CallAffinityManager.getInstance().getCallCount());
+        metricsRegistry.gauge("jrtsp_free_port_pairs", "Free RTP/RTCP port pairs.", () -> PortManager.getInstance().getFreePairCount());
+
+        metricsRegistry.gauge("jrtsp_egress_bitrate_kbps", "Egress bitrate of the last statistics period.", () -> StatisticsManager.getInstance().getSnapshot().getBitrate());
+        metricsRegistry.gauge("jrtsp_egress_pps", "Egress packets per second of the last statistics period.", () -> StatisticsManager.getInstance().getSnapshot().getPps());
+
+        metricsRegistry.gauge("jrtsp_scheduler_pending_timeouts", "Pending timeouts in the job timing wheel.", () -> JobTimer.getInstance().getPendingCount());
+        for (String groupName : new String[]{EventLoopLagProbe.GROUP_RTSP, EventLoopLagProbe.GROUP_CALL}) {
+            String labels = Metric.label("group", groupName);
+            metricsRegistry.gauge("jrtsp_event_loop_pending_tasks", "Pending tasks in the event loops.", labels, () -> EventLoopLagProbe.getInstance().getPendingTasks(groupName));
+            metricsRegistry.gauge("jrtsp_event_loop_lag_us", "Max scheduling delay of a no-op task on the event loops.", labels, () -> EventLoopLagProbe.getInstance().getMaxLagMicros(groupName));
+        }
+        metricsRegistry.gauge("jrtsp_channel_outbound_bytes", "Unflushed outbound bytes summed over the viewer channels.", () -> ServerHealthMonitor.getInstance().getChannelOutboundBytes());
+        metricsRegistry.gauge("jrtsp_channel_outbound_max_bytes", "Unflushed outbound bytes of the fullest viewer channel.", () -> ServerHealthMonitor.getInstance().getMaxChannelOutboundBytes());
+        metricsRegistry.gauge("jrtsp_pooled_arena_active_bytes", "Active bytes in the pooled allocator arenas.", () -> ServerHealthMonitor.getInstance().getPooledMemoryBytes());
+        metricsRegistry.gauge("jrtsp_overloaded", "1 while the health limits are exceeded.", () -> ServerHealthMonitor.getInstance().isOverloaded() ? 1 : 0);
+
+        metricsRegistry.gauge("jrtsp_direct_memory_used_bytes", "Direct memory used by Netty.", PlatformDependent::usedDirectMemory);
+        metricsRegistry.gauge("jrtsp_pooled_direct_memory_used_bytes", "Direct memory used by the pooled allocator.", () -> PooledByteBufAllocator.DEFAULT.metric().usedDirectMemory());
+        metricsRegistry.gauge("jrtsp_heap_used_bytes", "Used heap memory.", () -> ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed());
+        metricsRegistry.gauge("jrtsp_threads", "Live threads.", () -> ManagementFactory.getThreadMXBean().getThreadCount());
+    }
+    ////////////////////////////////////////////////////////////
+
+    /**
+     * @class private static class RtspMethodMetrics
+     * @brief RTSP Method 하나의 요청 수, 실패 수 (4xx, 5xx), 처리 시간
+     */
+    private static class RtspMethodMetrics {
+
+        private final MetricCounter requests;
+        private final MetricCounter failures;
+        private final MetricHistogram duration;
+
+        private RtspMethodMetrics(MetricsRegistry metricsRegistry, String method) {
+            String labels = Metric.label("method", method);
+            requests = metricsRegistry.counter("jrtsp_rtsp_requests_total", "RTSP requests handled.", labels);
+            failures = metricsRegistry.counter("jrtsp_rtsp_request_failures_total", "RTSP requests answered with 4xx/5xx.", labels);
+            duration = metricsRegistry.histogram("jrtsp_rtsp_request_duration_us", "RTSP request handling time.", labels, RTSP_DURATION_BOUNDS_US);
+        }
+
+    }
+
+}
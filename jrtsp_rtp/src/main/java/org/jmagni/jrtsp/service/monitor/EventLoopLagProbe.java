@@ -0,0 +1,139 @@
+package org.jmagni.jrtsp.service.monitor;
+
+import io.netty.channel.EventLoopGroup;
+import io.netty.util.concurrent.EventExecutor;
+import io.netty.util.concurrent.SingleThreadEventExecutor;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * @class public class EventLoopLagProbe
+ * @brief EventLoop 마다 빈 Task 를 넣고 실행될 때까지 걸린 시간 (스케줄링 지연) 을 재는 클래스
+ * HaHandler 가 주기마다 EventLoopGroup 별로 probe() 를 호출한다. 값은 마지막으로 끝난 주기의 최대 지연이다.
+ *
+ * - 지난 주기에 넣은 Task 가 아직 실행되지 않았으면 (EventLoop 가 멈춤) 넣은 시점부터 지금까지를 지연으로 본다.
+ */
+public class EventLoopLagProbe {
+
+    ////////////////////////////////////////////////////////////
+    // VARIABLES
+    private static final EventLoopLagProbe eventLoopLagProbe = new EventLoopLagProbe();
+
+    public static final String GROUP_RTSP = "rtsp"; // RTSP 연결 (요청 처리, Interleaved TCP 전송)
+    public static final String GROUP_CALL = "call"; // Call 의 Relay, RTP UDP 전송, RTCP 수신
+
+    // Key : EventLoopGroup 이름, Value : 측정 상태
+    private final ConcurrentHashMap<String, GroupLag> groupLagMap = new ConcurrentHashMap<>();
+    ////////////////////////////////////////////////////////////
+
+    ////////////////////////////////////////////////////////////
+    // CONSTRUCTOR
+    public EventLoopLagProbe() {
+        // Nothing
+    }
+
+    public static EventLoopLagProbe getInstance() {
+        return eventLoopLagProbe;
+    }
+    ////////////////////////////////////////////////////////////
+
+    ////////////////////////////////////////////////////////////
+    // FUNCTIONS
+    /**
+     * @fn public void probe(String groupName, EventLoopGroup eventLoopGroup)
+     * @brief 지난 주기의 결과를 확정하고, 모든 EventLoop 에 측정 Task 를 넣는 함수
+     * @param groupName EventLoopGroup 이름 (GROUP_RTSP, GROUP_CALL)
+     * @param eventLoopGroup 측정할 EventLoopGroup (null 이면 결과를 0 으로 확정)
+     */
+    public void probe(String groupName, EventLoopGroup eventLoopGroup) {
+        GroupLag groupLag = groupLagMap.computeIfAbsent(groupName, key -> new GroupLag());
+        long now = System.nanoTime();
+
+        long maxLagNanos = groupLag.curMaxLagNanos.getAndSet(0);
+        if (groupLag.unfinishedProbes.get() > 0) {
+            maxLagNanos = Math.max(maxLagNanos, now - groupLag.lastSubmitNanos);
+        }
+        groupLag.lastMaxLagNanos = maxLagNanos;
+
+        long pendingTasks = 0;
+        if (eventLoopGroup != null && !eventLoopGroup.isShuttingDown()) {
+            // 아직 실행되지 않은 Task 가 있으면 다시 넣지 않는다. (멈춘 EventLoop 에 Task 가 쌓이지 않도록)
+            boolean isSubmit = groupLag.unfinishedProbes.get() <= 0;
+            if (isSubmit) {
+                groupLag.unfinishedProbes.set(0);
+                groupLag.lastSubmitNanos = now;
+            }
+
+            for (EventExecutor eventExecutor : eventLoopGroup) {
+                if (eventExecutor instanceof SingleThreadEventExecutor) {
+                    pendingTasks += ((SingleThreadEventExecutor) eventExecutor).pendingTasks();
+                }
+                if (!isSubmit) { continue; }
+
+                long submitNanos = System.nanoTime();
+                groupLag.unfinishedProbes.incrementAndGet();
+                try {
+                    eventExecutor.execute(() -> {
+                        groupLag.curMaxLagNanos.accumulateAndGet(System.nanoTime() - submitNanos, Math::max);
+                        groupLag.unfinishedProbes.decrementAndGet();
+                    });
+                } catch (Exception e) {
+                    // 종료 중인 EventLoop
+                    groupLag.unfinishedProbes.decrementAndGet();
+                }
+            }
+        } else {
+            groupLag.unfinishedProbes.set(0);
+        }
+        groupLag.lastPendingTasks = pendingTasks;
+    }
+
+    /**
+     * @fn public long getMaxLagMicros()
+     * @brief 모든 EventLoopGroup 중 가장 큰 지연을 반환하는 함수
+     */
+    public long getMaxLagMicros() {
+        long maxLagNanos = 0;
+        for (GroupLag groupLag : groupLagMap.values()) {
+            maxLagNanos = Math.max(maxLagNanos, groupLag.lastMaxLagNanos);
+        }
+        return TimeUnit.NANOSECONDS.toMicros(maxLagNanos);
+    }
+
+    public long getMaxLagMicros(String groupName) {
+        GroupLag groupLag = groupLagMap.get(groupName);
+        return groupLag == null ? 0 : TimeUnit.NANOSECONDS.toMicros(groupLag.lastMaxLagNanos);
+    }
+
+    /**
+     * @fn public long getPendingTasks()
+     * @brief 모든 EventLoopGroup 의 대기 Task 수 합을 반환하는 함수
+     */
+    public long getPendingTasks() {
+        long pendingTasks = 0;
+        for (GroupLag groupLag : groupLagMap.values()) {
+            pendingTasks += groupLag.lastPendingTasks;
+        }
+        return pendingTasks;
+    }
+
+    public long getPendingTasks(String groupName) {
+        GroupLag groupLag = groupLagMap.get(groupName);
+        return groupLag == null ? 0 : groupLag.lastPendingTasks;
+    }
+    ////////////////////////////////////////////////////////////
+
+    private static class GroupLag {
+
+        private final AtomicLong curMaxLagNanos = new AtomicLong(0);
+        private final AtomicInteger unfinishedProbes = new AtomicInteger(0);
+        private volatile long lastSubmitNanos = 0;
+        private volatile long lastMaxLagNanos = 0;
+        private volatile long lastPendingTasks = 0;
+
+    }
+
+}
@@ -1,6 +1,9 @@
 package org.jmagni.jrtsp.service.monitor;
 
 
+import org.jmagni.jrtsp.rtsp.netty.CallAffinityManager;
+import org.jmagni.jrtsp.rtsp.netty.NettyChannelManager;
+import org.jmagni.jrtsp.rtsp.netty.module.RtspNettyChannel;
 import org.jmagni.jrtsp.service.AppInstance;
 import org.jmagni.jrtsp.service.scheduler.job.Job;
 import org.jmagni.jrtsp.service.scheduler.job.JobContainer;
@@ -29,9 +32,24 @@ public class HaHandler extends JobContainer {
             String cpuUsageStr = systemManager.getCpuUsage();
             String memoryUsageStr = systemManager.getHeapMemoryUsage();
 
-            logger.debug("| [{}] cpu=[{}], mem=[{}], thread=[{}] | DashUnitCount=[{}]",
-
-                            cpuUsageStr, memoryUsageStr, Thread.activeCount()
+            // EventLoop 스케줄링 지연 측정 (결과는 다음 주기에 확정, 지표로 노출)
+            // RTP UDP 전송과 RTCP 수신은 Call 의 EventLoop 를 같이 쓴다. (CallAffinityManager)
+            EventLoopLagProbe eventLoopLagProbe = EventLoopLagProbe.getInstance();
+            RtspNettyChannel rtspNettyChannel = NettyChannelManager.getInstance().getRtspChannel();
+            eventLoopLagProbe.probe(EventLoopLagProbe.GROUP_RTSP, rtspNettyChannel == null ? null : rtspNettyChannel.getWorkerGroup());
+            eventLoopLagProbe.probe(EventLoopLagProbe.GROUP_CALL, CallAffinityManager.getInstance().getEventLoopGroup());
+
+            // 한도를 넘으면 새 SETUP 을 거절한다.
+            ServerHealthMonitor serverHealthMonitor = ServerHealthMonitor.getInstance();
+            serverHealthMonitor.check();
+
+            logger.debug("| cpu=[{}], mem=[{}], thread=[{}] | eventLoopLag=[rtsp={}, call={}]us, pendingTasks=[{}], outbound=[{}/{}]bytes, pooled=[{}]bytes, overloaded=[{}]",
+                    cpuUsageStr, memoryUsageStr, Thread.activeCount(),
+                    eventLoopLagProbe.getMaxLagMicros(EventLoopLagProbe.GROUP_RTSP),
+                    eventLoopLagProbe.getMaxLagMicros(EventLoopLagProbe.GROUP_CALL),
+                    eventLoopLagProbe.getPendingTasks(),
+                    serverHealthMonitor.getMaxChannelOutboundBytes(), serverHealthMonitor.getChannelOutboundBytes(),
+                    serverHealthMonitor.getPooledMemoryBytes(), serverHealthMonitor.isOverloaded()
             );
         });
     }
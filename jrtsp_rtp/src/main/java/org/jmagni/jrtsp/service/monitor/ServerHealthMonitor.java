@@ -0,0 +1,221 @@
+package org.jmagni.jrtsp.service.monitor;
+
+import io.netty.buffer.PoolArenaMetric;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.buffer.PooledByteBufAllocatorMetric;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelOutboundBuffer;
+import org.jmagni.jrtsp.config.UserConfig;
+import org.jmagni.jrtsp.rtsp.Streamer;
+import org.jmagni.jrtsp.rtsp.netty.NettyChannelManager;
+import org.jmagni.jrtsp.rtsp.netty.module.RtspNettyChannel;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @class public class ServerHealthMonitor
+ * @brief EventLoop 지연, 대기 Task, 채널 출력 버퍼, Pooled 메모리를 한도와 비교해서 과부하 여부를 정하는 클래스
+ *
+ * - HaHandler 가 주기마다 EventLoopLagProbe 로 측정한 다음 check() 를 호출한다.
+ * - 한도를 하나라도 넘으면 과부하이다. 과부하인 동안 새 SETUP (Session 이 없는 요청) 은 453 Not Enough Bandwidth 로 거절한다.
+ *   > 지연이 무너지기 전에 새 시청자를 받지 않고, 이미 붙은 시청자는 그대로 보낸다.
+ * - 모든 값이 한도의 RECOVER_RATIO 아래로 내려가야 과부하가 풀린다. (한도 근처에서 주기마다 바뀌지 않도록)
+ * - 한도가 0 이면 그 값은 검사하지 않는다.
+ */
+public class ServerHealthMonitor {
+
+    ////////////////////////////////////////////////////////////
+    // VARIABLES
+    private static final Logger logger = LoggerFactory.getLogger(ServerHealthMonitor.class);
+
+    private static final ServerHealthMonitor serverHealthMonitor = new ServerHealthMonitor();
+
+    private static final double RECOVER_RATIO = 0.8;
+
+    // 한도
+    private volatile boolean isLoadSheddingEnabled = false;
+    private volatile long maxLagMicros = 0;
+    private volatile long maxPendingTasks = 0;
+    private volatile long maxChannelOutboundBytes = 0;
+    private volatile long maxPooledMemoryBytes = 0;
+
+    // 마지막 측정 값
+    private volatile long channelOutboundBytes = 0; // 전체 채널 합
+    private volatile long maxChannelOutboundBytesSeen = 0; // 채널 하나의 최대
+    private volatile long pooledMemoryBytes = 0;
+
+    private volatile boolean isOverloaded = false;
+    private volatile String overloadReason = null;
+    ////////////////////////////////////////////////////////////
+
+    ////////////////////////////////////////////////////////////
+    // CONSTRUCTOR
+    public ServerHealthMonitor() {
+        // Nothing
+    }
+
+    public static ServerHealthMonitor getInstance() {
+        return serverHealthMonitor;
+    }
+    ////////////////////////////////////////////////////////////
+
+    ////////////////////////////////////////////////////////////
+    // FUNCTIONS
+    public void configure(UserConfig userConfig) {
+        setThresholds(
+                userConfig.isLoadSheddingEnabled(),
+                TimeUnit.MILLISECONDS.toMicros(userConfig.getMaxEventLoopLagMs()),
+                userConfig.getMaxPendingTasks(),
+                userConfig.getMaxChannelOutboundKb() * 1024L,
+                userConfig.getMaxPooledMemoryMb() * 1024L * 1024L
+        );
+    }
+
+    public void setThresholds(boolean isLoadSheddingEnabled, long maxLagMicros, long maxPendingTasks,
+                              long maxChannelOutboundBytes, long maxPooledMemoryBytes) {
+        this.isLoadSheddingEnabled = isLoadSheddingEnabled;
+        this.maxLagMicros = maxLagMicros;
+        this.maxPendingTasks = maxPendingTasks;
+        this.maxChannelOutboundBytes = maxChannelOutboundBytes;
+        this.maxPooledMemoryBytes = maxPooledMemoryBytes;
+    }
+
+    /**
+     * @fn public void check()
+     * @brief 채널 출력 버퍼와 Pooled 메모리를 읽고, EventLoopLagProbe 의 마지막 결과와 함께 과부하 여부를 정하는 함수
+     */
+    public void check() {
+        measureChannelOutbound();
+        pooledMemoryBytes = getPooledActiveBytes();
+
+        EventLoopLagProbe eventLoopLagProbe = EventLoopLagProbe.getInstance();
+        update(eventLoopLagProbe.getMaxLagMicros(), eventLoopLagProbe.getPendingTasks(), maxChannelOutboundBytesSeen, pooledMemoryBytes);
+    }
+
+    /**
+     * @fn public boolean update(long lagMicros, long pendingTasks, long channelOutboundBytes, long pooledMemoryBytes)
+     * @brief 측정 값을 한도와 비교해서 과부하 상태를 바꾸는 함수
+     * @param lagMicros EventLoop 최대 스케줄링 지연
+     * @param pendingTasks 모든 EventLoop 의 대기 Task 수
+     * @param channelOutboundBytes 채널 하나의 최대 출력 버퍼 크기
+     * @param pooledMemoryBytes Pooled Arena 사용량
+     * @return 과부하 여부
+     */
+    public boolean update(long lagMicros, long pendingTasks, long channelOutboundBytes, long pooledMemoryBytes) {
+        String reason = getExceededReason(lagMicros, pendingTasks, channelOutboundBytes, pooledMemoryBytes, 1.0);
+        if (isOverloaded) {
+            // 모두 한도의 RECOVER_RATIO 아래로 내려가야 풀린다.
+            String recoverReason = getExceededReason(lagMicros, pendingTasks, channelOutboundBytes, pooledMemoryBytes, RECOVER_RATIO);
+            if (recoverReason == null) {
+                isOverloaded = false;
+                overloadReason = null;
+                logger.warn("Server is recovered from overload. New SETUP is accepted.");
+            } else {
+                overloadReason = recoverReason;
+            }
+        } else if (reason != null) {
+            isOverloaded = true;
+            overloadReason = reason;
+            logger.warn("Server is overloaded. ({}) New SETUP is rejected: [{}]", reason, isLoadSheddingEnabled);
+        }
+        return isOverloaded;
+    }
+
+    /**
+     * @fn public boolean isSetupAllowed()
+     * @brief 새 SETUP 을 받을 수 있는지 반환하는 함수 (LOAD_SHEDDING_ENABLE 이 꺼져 있으면 항상 true)
+     */
+    public boolean isSetupAllowed() {
+        return !isLoadSheddingEnabled || !isOverloaded;
+    }
+
+    public boolean isOverloaded() {
+        return isOverloaded;
+    }
+
+    public String getOverloadReason() {
+        return overloadReason;
+    }
+
+    public long getChannelOutboundBytes() {
+        return channelOutboundBytes;
+    }
+
+    public long getMaxChannelOutboundBytes() {
+        return maxChannelOutboundBytesSeen;
+    }
+
+    public long getPooledMemoryBytes() {
+        return pooledMemoryBytes;
+    }
+
+    private String getExceededReason(long lagMicros, long pendingTasks, long channelOutboundBytes, long pooledMemoryBytes, double ratio) {
+        if (isExceeded(lagMicros, maxLagMicros, ratio)) {
+            return "eventLoopLag=" + lagMicros + "us";
+        }
+        if (isExceeded(pendingTasks, maxPendingTasks, ratio)) {
+            return "pendingTasks=" + pendingTasks;
+        }
+        if (isExceeded(channelOutboundBytes, maxChannelOutboundBytes, ratio)) {
+            return "channelOutbound=" + channelOutboundBytes + "bytes";
+        }
+        if (isExceeded(pooledMemoryBytes, maxPooledMemoryBytes, ratio)) {
+            return "pooledMemory=" + pooledMemoryBytes + "bytes";
+        }
+        return null;
+    }
+
+    private static boolean isExceeded(long value, long limit, double ratio) {
+        return limit > 0 && value > limit * ratio;
+    }
+
+    /**
+     * @fn private void measureChannelOutbound()
+     * @brief 시청자가 쓰는 모든 채널의 출력 버퍼 (아직 Flush 되지 않은 바이트) 를 합과 최대로 읽는 함수
+     */
+    private void measureChannelOutbound() {
+        RtspNettyChannel rtspNettyChannel = NettyChannelManager.getInstance().getRtspChannel();
+        if (rtspNettyChannel == null) {
+            channelOutboundBytes = 0;
+            maxChannelOutboundBytesSeen = 0;
+            return;
+        }
+
+        // 같은 RTSP 연결을 여러 Track 이 쓰므로 채널 단위로 한 번만 센다.
+        Set<Channel> channelSet = new HashSet<>();
+        for (Streamer streamer : rtspNettyChannel.getStreamerRegistry().getAll()) {
+            streamer.collectOutboundChannels(channelSet);
+        }
+
+        long totalBytes = 0;
+        long maxBytes = 0;
+        for (Channel channel : channelSet) {
+            ChannelOutboundBuffer outboundBuffer = channel.unsafe().outboundBuffer();
+            if (outboundBuffer == null) { continue; }
+
+            long pendingBytes = outboundBuffer.totalPendingWriteBytes();
+            totalBytes += pendingBytes;
+            maxBytes = Math.max(maxBytes, pendingBytes);
+        }
+        channelOutboundBytes = totalBytes;
+        maxChannelOutboundBytesSeen = maxBytes;
+    }
+
+    private static long getPooledActiveBytes() {
+        PooledByteBufAllocatorMetric allocatorMetric = PooledByteBufAllocator.DEFAULT.metric();
+        long activeBytes = 0;
+        for (PoolArenaMetric arenaMetric : allocatorMetric.directArenas()) {
+            activeBytes += arenaMetric.numActiveBytes();
+        }
+        for (PoolArenaMetric arenaMetric : allocatorMetric.heapArenas()) {
+            activeBytes += arenaMetric.numActiveBytes();
+        }
+        return activeBytes;
+    }
+    ////////////////////////////////////////////////////////////
+
+}
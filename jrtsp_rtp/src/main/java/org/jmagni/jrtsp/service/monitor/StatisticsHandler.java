@@ -0,0 +1,42 @@
+package org.jmagni.jrtsp.service.monitor;
+
+import org.jmagni.jrtsp.rtsp.statistics.StatisticsManager;
+import org.jmagni.jrtsp.rtsp.statistics.StatisticsSnapshot;
+import org.jmagni.jrtsp.service.scheduler.job.Job;
+import org.jmagni.jrtsp.service.scheduler.job.JobContainer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * @class public class StatisticsHandler extends JobContainer
+ * @brief 주기마다 StatisticsManager 의 전송 통계를 계산하는 Job 클래스 (Streamer 별 스레드 대신 하나만 실행)
+ */
+public class StatisticsHandler extends JobContainer {
+
+    private static final Logger logger = LoggerFactory.getLogger(StatisticsHandler.class);
+
+    ////////////////////////////////////////////////////////////////////////////////
+
+    public StatisticsHandler(Job statisticsJob) {
+        setJob(statisticsJob);
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////
+
+    public void init () {
+        getJob().setRunnable(() -> {
+            try {
+                StatisticsSnapshot snapshot = StatisticsManager.getInstance().aggregate();
+                if (snapshot.getStreamerCount() > 0) {
+                    logger.debug("| [RTP] bitrate=[{}]kbps, pps=[{}], streamers=[{}], calls=[{}]",
+                            snapshot.getBitrate(), snapshot.getPps(),
+                            snapshot.getStreamerCount(), snapshot.getCallStatisticsMap().size()
+                    );
+                }
+            } catch (Exception e) {
+                logger.warn("| StatisticsHandler.Exception", e);
+            }
+        });
+    }
+
+}
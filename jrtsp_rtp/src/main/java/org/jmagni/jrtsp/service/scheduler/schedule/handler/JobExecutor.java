@@ -7,10 +7,13 @@ import org.slf4j.LoggerFactory;
 
 import java.util.Comparator;
 import java.util.concurrent.PriorityBlockingQueue;
-import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.ThreadFactory;
-import java.util.concurrent.TimeUnit;
 
+/**
+ * @class public class JobExecutor
+ * @brief 실행 시점이 된 Job 을 우선순위 순서로 실행하는 Worker 클래스
+ * Job 이 들어올 때까지 큐에서 기다린다. (주기적으로 깨어나서 큐를 확인하지 않음 > 할 일이 없으면 CPU 를 쓰지 않음)
+ */
 public class JobExecutor {
 
     ////////////////////////////////////////////////////////////////////////////////
@@ -20,7 +23,8 @@ public class JobExecutor {
     private final int index;
 
     private final PriorityBlockingQueue<Job> priorityQueue;
-    private final ScheduledThreadPoolExecutor scheduledThreadPoolExecutor;
+    private final Thread workerThread;
+    private volatile boolean isStopped = false;
     ////////////////////////////////////////////////////////////////////////////////
 
     ////////////////////////////////////////////////////////////////////////////////
@@ -29,7 +33,7 @@ public class JobExecutor {
         this.index = index;
 
         priorityQueue = new PriorityBlockingQueue<>(
-                queueSize,
+                Math.max(1, queueSize),
                 Comparator.comparing(Job::getPriority)
         );
 
@@ -39,13 +43,8 @@ public class JobExecutor {
                 .daemon(true)
                 .build();
 
-        scheduledThreadPoolExecutor = new ScheduledThreadPoolExecutor(1, threadFactory);
-        scheduledThreadPoolExecutor.scheduleAtFixedRate(
-                new Worker(),
-                0,
-                1,
-                TimeUnit.MILLISECONDS
-        );
+        workerThread = threadFactory.newThread(new Worker());
+        workerThread.start();
     }
     ////////////////////////////////////////////////////////////////////////////////
 
@@ -54,11 +53,24 @@ public class JobExecutor {
 
         @Override
         public void run() {
+            while (!isStopped) {
+                Job job;
+                try {
+                    // take(): Job 이 들어올 때까지 기다림
+                    job = priorityQueue.take();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+
+                execute(job);
+            }
+            logger.debug("[JobExecutor({})] Worker({}) is finished.", scheduleUnitKey, index);
+        }
+
+        private void execute(Job job) {
             try {
-                // poll(): dequeue 후 객체 null 여부에 상관없이 기다리지 않음
-                // take(): dequeue 후 객체가 null 이 아닐 때까지 기다림
-                Job job = priorityQueue.poll();
-                if (job == null) { return; }
+                if (job.getIsFinished()) { return; }
 
                 Runnable runnable = job.getRunnable();
                 if (runnable == null) { return; }
@@ -71,21 +83,27 @@ public class JobExecutor {
                     }
                 }
             } catch (Exception e) {
-                // ignore
+                logger.warn("[JobExecutor({})] Fail to run the job. ({})", scheduleUnitKey, job.getName(), e);
             }
         }
 
     }
 
     public void stop() {
-        scheduledThreadPoolExecutor.shutdown();
+        isStopped = true;
+        workerThread.interrupt();
         priorityQueue.clear();
     }
 
     public boolean addJob(Job job) {
+        if (isStopped) { return false; }
         return priorityQueue.offer(job);
     }
 
+    public int getQueueSize() {
+        return priorityQueue.size();
+    }
+
     public int getIndex() {
         return index;
     }
@@ -8,6 +8,11 @@ import org.slf4j.LoggerFactory;
 import java.util.HashMap;
 import java.util.concurrent.locks.ReentrantLock;
 
+/**
+ * @class public class JobScheduler
+ * @brief ScheduleUnit 의 Job 을 JobTimer (Hashed timing wheel) 에 등록하고 JobExecutor 에 나눠주는 클래스
+ * Job 은 등록 순서대로 JobExecutor 에 돌아가면서 (Round-Robin) 배정된다.
+ */
 public class JobScheduler {
 
     ////////////////////////////////////////////////////////////////////////////////
@@ -31,8 +36,8 @@ public class JobScheduler {
         this.poolSize = poolSize;
         this.queueSize = queueSize;
 
-        jobExecutors = new JobExecutor[poolSize];
-        for (int i = 0; i < poolSize; i++) {
+        jobExecutors = new JobExecutor[Math.max(1, poolSize)];
+        for (int i = 0; i < jobExecutors.length; i++) {
             jobExecutors[i] = new JobExecutor(scheduleUnitKey, i, queueSize);
         }
     }
@@ -60,7 +65,7 @@ public class JobScheduler {
             JobAdder jobAdder = new JobAdder(this, job, curExecutorIndex);
             jobAdder.run();
             curExecutorIndex++;
-            if (curExecutorIndex >= poolSize) {
+            if (curExecutorIndex >= jobExecutors.length) {
                 curExecutorIndex = 0;
             }
             scheduleMap.put(
@@ -114,8 +119,8 @@ public class JobScheduler {
 
         executorLock.lock();
         try {
-            for (int i = 0; i < poolSize; i++) {
-                jobExecutors[i].stop();
+            for (JobExecutor jobExecutor : jobExecutors) {
+                jobExecutor.stop();
             }
         } catch (Exception e) {
             logger.warn("[JobScheduler({})] Fail to stop the job executors. Exception", scheduleUnitKey, e);
@@ -128,15 +133,16 @@ public class JobScheduler {
     ////////////////////////////////////////////////////////////////////////////////
 
     ////////////////////////////////////////////////////////////////////////////////
+    /**
+     * @fn public void addJobToExecutor(int executorIndex, Job job)
+     * @brief 실행 시점이 된 Job 을 JobExecutor 큐에 넣는 함수 (JobTimer 스레드에서 호출, 잠그지 않음)
+     * 같은 Job 은 항상 같은 JobExecutor 에서 실행된다. (동시에 두 번 실행되지 않음)
+     */
     public void addJobToExecutor(int executorIndex, Job job) {
-        executorLock.lock();
         try {
             jobExecutors[executorIndex].addJob(job);
-            //logger.debug("jobExecutor[{}] add job ({})", curExecutorIndex, job.getName());
         } catch (Exception e) {
             logger.warn("[JobScheduler({})] Fail to add the job to executors. Exception", scheduleUnitKey, e);
-        } finally {
-            executorLock.unlock();
         }
     }
 
@@ -0,0 +1,74 @@
+package org.jmagni.jrtsp.service.scheduler.schedule.handler;
+
+import io.netty.util.HashedWheelTimer;
+import io.netty.util.Timeout;
+import io.netty.util.TimerTask;
+import io.netty.util.concurrent.DefaultThreadFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @class public class JobTimer
+ * @brief 모든 ScheduleUnit 이 같이 쓰는 Hashed timing wheel 클래스
+ *
+ * - Job 의 실행 시점만 관리하고, 실행은 JobExecutor (Worker) 에 넘긴다. (Wheel 스레드는 큐에 넣기만 함)
+ * - 등록, 취소 모두 O(1), Job 이 많아도 (세션 단위 타이머 수십만 개) 스레드는 하나다.
+ * - Tick 단위로만 깨어난다. (Tick 10ms > 실행 시점 오차도 최대 10ms)
+ */
+public class JobTimer {
+
+    ////////////////////////////////////////////////////////////
+    // VARIABLES
+    private static final Logger logger = LoggerFactory.getLogger(JobTimer.class);
+
+    private static final long TICK_DURATION_MS = 10;
+    private static final int TICKS_PER_WHEEL = 512;
+
+    private static final JobTimer jobTimer = new JobTimer();
+
+    private final HashedWheelTimer timer = new HashedWheelTimer(
+            new DefaultThreadFactory("JobTimer", true),
+            TICK_DURATION_MS, TimeUnit.MILLISECONDS, TICKS_PER_WHEEL
+    );
+    ////////////////////////////////////////////////////////////
+
+    ////////////////////////////////////////////////////////////
+    // CONSTRUCTOR
+    private JobTimer() {
+        // Nothing
+    }
+
+    public static JobTimer getInstance() {
+        return jobTimer;
+    }
+    ////////////////////////////////////////////////////////////
+
+    ////////////////////////////////////////////////////////////
+    // FUNCTIONS
+    /**
+     * @fn public Timeout newTimeout(TimerTask task, long delay, TimeUnit timeUnit)
+     * @brief delay 후에 task 를 Wheel 스레드에서 실행하도록 등록하는 함수 (task 는 짧게 끝나야 함)
+     * @return 취소용 Timeout, 타이머가 종료되었으면 null
+     */
+    public Timeout newTimeout(TimerTask task, long delay, TimeUnit timeUnit) {
+        try {
+            return timer.newTimeout(task, Math.max(0, delay), timeUnit);
+        } catch (IllegalStateException e) {
+            // 타이머 종료 후 (프로그램 종료 중)
+            logger.debug("Fail to add the timeout. ({})", e.getMessage());
+            return null;
+        }
+    }
+
+    public long getPendingCount() {
+        return timer.pendingTimeouts();
+    }
+
+    public void stop() {
+        timer.stop();
+    }
+    ////////////////////////////////////////////////////////////
+
+}
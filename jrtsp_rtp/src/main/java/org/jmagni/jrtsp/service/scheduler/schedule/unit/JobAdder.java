@@ -1,44 +1,102 @@
 package org.jmagni.jrtsp.service.scheduler.schedule.unit;
 
+import io.netty.util.Timeout;
+import io.netty.util.TimerTask;
 import org.jmagni.jrtsp.service.scheduler.job.Job;
 import org.jmagni.jrtsp.service.scheduler.schedule.handler.JobScheduler;
+import org.jmagni.jrtsp.service.scheduler.schedule.handler.JobTimer;
 
-import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
-public class JobAdder implements Runnable {
-
-    ScheduledThreadPoolExecutor scheduledThreadPoolExecutor = new ScheduledThreadPoolExecutor(1);
+/**
+ * @class public class JobAdder implements Runnable, TimerTask
+ * @brief Job 을 실행 시점마다 JobExecutor 에 넣는 클래스
+ * Job 마다 스레드 (Executor) 를 만들지 않고 JobTimer (Hashed timing wheel) 에 Timeout 하나만 등록한다.
+ * 반복 Job 은 다음 실행 시점을 (시작 시점 + N * interval) 로 계산해서 다시 등록한다. (fixed rate, 밀림 없음)
+ * 반복 Job 의 interval 은 등록할 때 한 번만 읽고, 0 이하면 등록하지 않는다. (ScheduledExecutorService.scheduleAtFixedRate 와 같음)
+ */
+public class JobAdder implements Runnable, TimerTask {
 
     private final JobScheduler jobScheduler;
     private final Job job;
     private final int executorIndex;
+    private final long intervalNanos; // 반복 Job 만 사용
+
+    private volatile Timeout timeout = null;
+    private volatile boolean isStopped = false;
+    private long nextDeadlineNanos = 0; // Wheel 스레드에서만 사용
 
+    /**
+     * @fn public JobAdder(JobScheduler jobScheduler, Job job, int executorIndex)
+     * @brief 반복 Job 의 interval 이 0 이하 (또는 TimeUnit 이 없음) 이면 IllegalArgumentException 을 던진다.
+     * 0 ns 로 등록하면 Wheel tick 마다 끝없이 다시 실행되므로 등록 시점에 거절한다.
+     */
     public JobAdder(JobScheduler jobScheduler, Job job, int executorIndex) {
         this.jobScheduler = jobScheduler;
         this.job = job;
         this.executorIndex = executorIndex;
+
+        if (job.isLasted()) {
+            intervalNanos = toNanos(job.getInterval());
+            if (intervalNanos <= 0) {
+                throw new IllegalArgumentException("Interval of the lasted job is not positive. (name=" + job.getName()
+                        + ", interval=" + job.getInterval() + ", timeUnit=" + job.getTimeUnit() + ")");
+            }
+        } else {
+            intervalNanos = 0;
+        }
     }
 
+    /**
+     * @fn public void run()
+     * @brief Job 을 시작하는 함수 (첫 실행 시점을 등록, 지연이 없는 1 회성 Job 은 바로 넣음)
+     */
     @Override
     public void run() {
-        if (job.isLasted()) {
-            scheduledThreadPoolExecutor.scheduleAtFixedRate(
-                    () -> {
-                        if (isJobFinished(job)) {
-                            jobScheduler.cancel(job);
-                        } else {
-                            jobScheduler.addJobToExecutor(executorIndex, job);
-                        }
-                    },
-                    job.getInitialDelay(), job.getInterval(), job.getTimeUnit()
-            );
-        } else {
+        long initialDelayNanos = toNanos(job.getInitialDelay());
+        if (!job.isLasted() && initialDelayNanos <= 0) {
             jobScheduler.addJobToExecutor(executorIndex, job);
+            return;
         }
+
+        nextDeadlineNanos = System.nanoTime() + initialDelayNanos;
+        schedule(initialDelayNanos);
+    }
+
+    /**
+     * @fn public void run(Timeout timeout)
+     * @brief 실행 시점이 되면 Wheel 스레드에서 호출되는 함수
+     */
+    @Override
+    public void run(Timeout timeout) {
+        if (isStopped) { return; }
+
+        if (!job.isLasted()) {
+            jobScheduler.addJobToExecutor(executorIndex, job);
+            return;
+        }
+
+        if (isJobFinished(job)) {
+            jobScheduler.cancel(job);
+            return;
+        }
+        jobScheduler.addJobToExecutor(executorIndex, job);
+
+        long now = System.nanoTime();
+        nextDeadlineNanos += intervalNanos;
+        if (nextDeadlineNanos - now < -intervalNanos) {
+            // 너무 밀렸으면 (GC, 일시 정지 등) 한꺼번에 따라잡지 않고 지금부터 다시 센다.
+            nextDeadlineNanos = now + intervalNanos;
+        }
+        schedule(nextDeadlineNanos - now);
     }
 
     public void stop() {
-        scheduledThreadPoolExecutor.shutdown();
+        isStopped = true;
+        Timeout curTimeout = timeout;
+        if (curTimeout != null) {
+            curTimeout.cancel();
+        }
     }
 
     public boolean isJobFinished(Job job) {
@@ -50,4 +108,19 @@ public class JobAdder implements Runnable {
                 (!job.isLasted() && (job.decCurRemainRunCount() < 0));
     }
 
+    private void schedule(long delayNanos) {
+        Timeout newTimeout = JobTimer.getInstance().newTimeout(this, delayNanos, TimeUnit.NANOSECONDS);
+        timeout = newTimeout;
+        // 등록하는 동안 stop() 되었을 수 있다.
+        if (isStopped && newTimeout != null) {
+            newTimeout.cancel();
+        }
+    }
+
+    private long toNanos(int duration) {
+        TimeUnit timeUnit = job.getTimeUnit();
+        if (timeUnit == null || duration <= 0) { return 0; }
+        return timeUnit.toNanos(duration);
+    }
+
 }
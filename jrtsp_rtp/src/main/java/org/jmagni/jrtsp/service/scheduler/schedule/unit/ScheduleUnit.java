@@ -29,7 +29,7 @@ public class ScheduleUnit {
             this.poolSize = DEFAULT_THREAD_COUNT;
         }
 
-        jobScheduler = new JobScheduler(scheduleUnitKey, poolSize, queueSize);
+        jobScheduler = new JobScheduler(scheduleUnitKey, this.poolSize, queueSize);
     }
     ////////////////////////////////////////////////////////////////////////////////
 
@@ -3,12 +3,23 @@ package org.jmagni.jrtsp.session;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
+import org.jmagni.jrtsp.config.UserConfig;
 import org.jmagni.jrtsp.rtsp.Streamer;
 import org.jmagni.jrtsp.rtsp.base.MediaType;
 import org.jmagni.jrtsp.rtsp.base.RtpInfo;
+import org.jmagni.jrtsp.rtsp.base.RtpPacket;
+import org.jmagni.jrtsp.rtsp.codec.h264.H264ParameterSets;
 import org.jmagni.jrtsp.rtsp.netty.NettyChannelManager;
+import org.jmagni.jrtsp.rtsp.stream.rtp.feedback.KeyframeRequestCoalescer;
+import org.jmagni.jrtsp.rtsp.stream.rtp.feedback.SourceFeedbackListener;
+import org.jmagni.jrtsp.rtsp.stream.rtp.gop.GopCache;
+import org.jmagni.jrtsp.rtsp.stream.rtp.retransmission.RtpRetransmissionCache;
+import org.jmagni.jrtsp.service.AppInstance;
 
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 
 @Getter
 @Setter
@@ -21,10 +32,225 @@ public class CallInfo {
 
     private MediaInfo mediaInfo = null;
 
+    // 원본 비디오 SSRC 의 재전송 캐시 (모든 시청자가 공유, SSRC 가 바뀌면 이전 캐시는 닫고 새로 만든다)
+    @Getter(lombok.AccessLevel.NONE)
+    private final AtomicReference<RtpRetransmissionCache> retransmissionCache = new AtomicReference<>();
+    @Setter(lombok.AccessLevel.NONE)
+    private volatile boolean isClosed = false;
+
+    // 시청자 Feedback (PLI/FIR ...) 을 원본 쪽으로 전달하는 Listener (ingest 쪽에서 등록)
+    private volatile SourceFeedbackListener sourceFeedbackListener = null;
+    private final KeyframeRequestCoalescer keyframeRequestCoalescer = new KeyframeRequestCoalescer();
+
+    // Key : Streamer key, Value : 시청자가 TMMBR 로 요청한 최대 전송률 (bps)
+    private final ConcurrentHashMap<String, Long> bitrateLimitMap = new ConcurrentHashMap<>();
+    private final AtomicLong aggregatedBitrateLimit = new AtomicLong(0);
+
+    // 마지막 IDR 부터의 비디오 패킷 (새 시청자에게 먼저 보내고, Keyframe 요청에 대신 응답한다)
+    // Call 을 만들 때 같이 만든다. (RtpInfoSender 와 DESCRIBE/PLAY 처리 스레드가 동시에 처음 접근해도 하나만 쓰도록)
+    private final GopCache gopCache;
+
+    // 마지막 SPS/PPS (DESCRIBE 의 sprop-parameter-sets)
+    private final H264ParameterSets h264ParameterSets = new H264ParameterSets();
+
     public CallInfo(String conferenceId, String callId, boolean isHost) {
         this.conferenceId = conferenceId;
         this.callId = callId;
         this.isHost = isHost;
+
+        UserConfig userConfig = AppInstance.getInstance().getConfigManager().getUserConfig();
+        this.gopCache = new GopCache(callId, userConfig.getGopCacheMaxPackets());
+    }
+
+    /**
+     * @fn public void storeRetransmissionPacket(RtpPacket rtpPacket, String mediaType)
+     * @brief 원본 비디오 RTP 패킷을 재전송 캐시에 한 번만 저장하는 함수 (시청자 수와 무관)
+     * NACK 재전송은 비디오만 한다. (오디오는 늦게 다시 받아도 쓸 수 없다)
+     * @param rtpPacket 원본 RTP 패킷
+     * @param mediaType 미디어 타입
+     */
+    public void storeRetransmissionPacket(RtpPacket rtpPacket, String mediaType) {
+        if (isClosed || !MediaType.VIDEO.getName().equals(mediaType)) { return; }
+
+        UserConfig userConfig = AppInstance.getInstance().getConfigManager().getUserConfig();
+        if (!userConfig.isRetransmissionEnabled()) { return; }
+
+        long ssrc = rtpPacket.getSyncSource();
+        RtpRetransmissionCache curCache = retransmissionCache.get();
+        if (curCache == null || curCache.getSsrc() != ssrc) {
+            RtpRetransmissionCache newCache = new RtpRetransmissionCache(
+                    ssrc,
+                    userConfig.getRetransmissionCacheSize(),
+                    userConfig.getRetransmissionCacheWindowMs()
+            );
+            if (!retransmissionCache.compareAndSet(curCache, newCache)) { return; }
+            if (curCache != null) {
+                curCache.close();
+                log.debug("({}) Source video SSRC is changed. Retransmission cache is renewed. ({} > {})", callId, curCache.getSsrc(), ssrc);
+            }
+            // 교체하는 동안 close() 되었으면 새 캐시도 닫는다.
+            if (isClosed) {
+                newCache.close();
+                return;
+            }
+            curCache = newCache;
+        }
+        curCache.put(rtpPacket, System.currentTimeMillis());
+    }
+
+    /**
+     * @fn public RtpRetransmissionCache getRetransmissionCache(long ssrc)
+     * @return 원본 비디오 SSRC 가 ssrc 인 재전송 캐시, 없으면 null
+     */
+    public RtpRetransmissionCache getRetransmissionCache(long ssrc) {
+        RtpRetransmissionCache curCache = retransmissionCache.get();
+        return (curCache != null && curCache.getSsrc() == ssrc) ? curCache : null;
+    }
+
+    /**
+     * @fn public void storeGopPacket(RtpPacket rtpPacket, String mediaType)
+     * @brief 원본 비디오 RTP 패킷을 Call 의 GOP 캐시에 한 번만 저장하는 함수 (시청자 수와 무관)
+     * @param rtpPacket 원본 RTP 패킷
+     * @param mediaType 미디어 타입
+     */
+    public void storeGopPacket(RtpPacket rtpPacket, String mediaType) {
+        if (!MediaType.VIDEO.getName().equals(mediaType)) { return; }
+
+        UserConfig userConfig = AppInstance.getInstance().getConfigManager().getUserConfig();
+        if (!userConfig.isGopCacheEnabled()) { return; }
+
+        gopCache.put(rtpPacket, System.currentTimeMillis());
+    }
+
+    /**
+     * @fn public void storeParameterSets(RtpPacket rtpPacket, String mediaType)
+     * @brief 원본 비디오 RTP 패킷에 SPS/PPS 가 있으면 Call 의 Parameter set 캐시를 갱신하는 함수
+     */
+    public void storeParameterSets(RtpPacket rtpPacket, String mediaType) {
+        if (!MediaType.VIDEO.getName().equals(mediaType)) { return; }
+
+        UserConfig userConfig = AppInstance.getInstance().getConfigManager().getUserConfig();
+        if (!userConfig.isH264Video()) { return; }
+
+        if (h264ParameterSets.update(rtpPacket)) {
+            log.debug("({}) H.264 parameter sets are changed. (version={})", callId, h264ParameterSets.getVersion());
+        }
+    }
+
+    public String getVideoFmtp(int videoPayloadType) {
+        return h264ParameterSets.getFmtp(videoPayloadType);
+    }
+
+    /**
+     * @fn public void close()
+     * @brief Call 삭제 시 원본 패킷을 보관하는 캐시의 버퍼를 모두 놓는 함수 (이후 store 는 저장하지 않는다)
+     * 삭제와 동시에 Call 의 event loop 가 relay 중이어도 닫힌 캐시는 복사본을 남기지 않는다.
+     */
+    public void close() {
+        isClosed = true;
+
+        RtpRetransmissionCache curCache = retransmissionCache.getAndSet(null);
+        if (curCache != null) {
+            curCache.close();
+        }
+        gopCache.close();
+    }
+
+    public void clearGopCache() {
+        gopCache.clear();
+    }
+
+    /**
+     * @fn public void answerKeyframeLocally(String streamerKey, long mediaSourceSsrc)
+     * @brief 원본으로 전달하지 않고 GOP 캐시로 처리한 Keyframe 요청을 기록하는 함수 (GOP 를 받는 중인 시청자의 요청)
+     */
+    public void answerKeyframeLocally(String streamerKey, long mediaSourceSsrc) {
+        keyframeRequestCoalescer.markLocallyAnswered();
+        log.trace("({}) Keyframe request is answered from the GOP cache. (from={}, ssrc={}, locallyAnswered={})",
+                callId, streamerKey, mediaSourceSsrc, keyframeRequestCoalescer.getLocallyAnsweredCount()
+        );
+    }
+
+    /**
+     * @fn public boolean requestKeyframe(String streamerKey, long mediaSourceSsrc)
+     * @brief 시청자의 Keyframe 요청 (PLI/FIR) 을 Coalescing 해서 원본으로 전달하는 함수
+     * 최근 IDR 이 GOP 캐시에 있어도 요청한 시청자는 그 뒤에 손실이 난 것이므로 새 IDR 이 필요하다.
+     * (캐시된 GOP 를 다시 보내는 것은 아직 GOP 를 받는 중인 새 시청자만 해당, Streamer.handleKeyframeRequest())
+     * @param streamerKey 요청한 Streamer key
+     * @param mediaSourceSsrc 요청 대상 원본 SSRC
+     * @return 원본으로 전달되었으면 true, 윈도우 안에서 합쳐졌으면 false
+     */
+    public boolean requestKeyframe(String streamerKey, long mediaSourceSsrc) {
+        keyframeRequestCoalescer.markReceived();
+
+        UserConfig userConfig = AppInstance.getInstance().getConfigManager().getUserConfig();
+        if (!keyframeRequestCoalescer.tryForward(System.currentTimeMillis(), userConfig.getKeyframeRequestWindowMs())) {
+            return false;
+        }
+
+        SourceFeedbackListener listener = sourceFeedbackListener;
+        if (listener != null) {
+            listener.onKeyframeRequest(callId, mediaSourceSsrc);
+        }
+
+        log.debug("({}) Keyframe request is forwarded to the source. (from={}, ssrc={}, received={}, forwarded={}, listener={})",
+                callId, streamerKey, mediaSourceSsrc,
+                keyframeRequestCoalescer.getReceivedCount(), keyframeRequestCoalescer.getForwardedCount(),
+                listener != null
+        );
+        return true;
+    }
+
+    public long getKeyframeRequestReceivedCount() {
+        return keyframeRequestCoalescer.getReceivedCount();
+    }
+
+    public long getKeyframeRequestForwardedCount() {
+        return keyframeRequestCoalescer.getForwardedCount();
+    }
+
+    public long getKeyframeRequestLocallyAnsweredCount() {
+        return keyframeRequestCoalescer.getLocallyAnsweredCount();
+    }
+
+    /**
+     * @fn public void updateBitrateLimit(String streamerKey, long mediaSourceSsrc, long bitrate)
+     * @brief 시청자의 TMMBR 값을 저장하고 Call 단위 최대 전송률을 다시 계산하는 함수
+     */
+    public void updateBitrateLimit(String streamerKey, long mediaSourceSsrc, long bitrate) {
+        bitrateLimitMap.put(streamerKey, bitrate);
+        aggregateBitrateLimit(mediaSourceSsrc);
+    }
+
+    public void removeBitrateLimit(String streamerKey) {
+        if (bitrateLimitMap.remove(streamerKey) != null) {
+            aggregateBitrateLimit(0);
+        }
+    }
+
+    public long getAggregatedBitrateLimit() {
+        return aggregatedBitrateLimit.get();
+    }
+
+    private synchronized void aggregateBitrateLimit(long mediaSourceSsrc) {
+        long minBitrate = 0;
+        for (long bitrate : bitrateLimitMap.values()) {
+            if (minBitrate == 0 || bitrate < minBitrate) {
+                minBitrate = bitrate;
+            }
+        }
+
+        long prevBitrate = aggregatedBitrateLimit.getAndSet(minBitrate);
+        if (prevBitrate == minBitrate) { return; }
+
+        SourceFeedbackListener listener = sourceFeedbackListener;
+        if (listener != null) {
+            listener.onBitrateLimit(callId, mediaSourceSsrc, minBitrate);
+        }
+
+        log.debug("({}) Aggregated bitrate limit is changed. ({} > {}, viewers={}, listener={})",
+                callId, prevBitrate, minBitrate, bitrateLimitMap.size(), listener != null
+        );
     }
 
     private void relayToRtspClient(RtpInfo rtpInfo) {
@@ -48,7 +274,7 @@ public class CallInfo {
             }
 
             if (streamer.isStarted()) {
-                streamer.sendRtpPacket(rtpInfo.getRtpPacket(), rtpInfo.getMediaType());
+                streamer.sendRtpPacket(rtpInfo.getRtpPacket(), MediaType.getInstance(rtpInfo.getMediaType()));
             }
         }
     }
@@ -3,16 +3,26 @@ package org.jmagni.jrtsp.session;
 import lombok.extern.slf4j.Slf4j;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * @class public class ConferenceInfo
+ * @brief Conference 와 소속 Call 목록을 관리하는 클래스
+ *
+ * - 소속 Call 은 배열 두 개 (Call-ID, CallInfo) 로 보관한다. (Map entry 없이 Call 당 참조 2 개)
+ * - 추가, 삭제는 배열을 새로 만들어서 교체하고 (copy-on-write), 읽는 쪽은 잠그지 않는다.
+ */
 @Slf4j
 public class ConferenceInfo {
 
-    private static final int MAX_CLIENT_COUNT = 100;
+    private static final String[] EMPTY_CALL_IDS = new String[0];
+    private static final CallInfo[] EMPTY_CALL_INFOS = new CallInfo[0];
 
-    private final Map<String, CallInfo> callInfos;
+    private final int maxCallCount;
+
+    // 두 배열은 항상 같은 순서, 같은 길이 (members 하나로 함께 교체)
+    private volatile Members members = new Members(EMPTY_CALL_IDS, EMPTY_CALL_INFOS);
 
     private final long createdTime;
 
@@ -20,11 +30,11 @@ public class ConferenceInfo {
 
     private String hostCallId;
 
-    private ConferenceState state = ConferenceState.INIT;
+    private volatile ConferenceState state = ConferenceState.INIT;
 
-    public ConferenceInfo(String conferenceId) {
+    public ConferenceInfo(String conferenceId, int maxCallCount) {
         this.conferenceId = conferenceId;
-        callInfos = new ConcurrentHashMap<>();
+        this.maxCallCount = maxCallCount;
         createdTime = System.currentTimeMillis();
     }
 
@@ -32,43 +42,63 @@ public class ConferenceInfo {
         return conferenceId;
     }
 
-    public boolean addCall(String callId, CallInfo callInfo) {
-        if (callInfos.containsKey(callId)) {
+    public synchronized boolean addCall(String callId, CallInfo callInfo) {
+        Members curMembers = members;
+        if (curMembers.indexOf(callId) >= 0) {
             log.warn("Call-Id({}) is already exist. (conferenceId={})", callId, conferenceId);
             return false;
         }
-        if (callInfos.size() >= MAX_CLIENT_COUNT) {
-            log.warn("Conference's Call-ID list is full. (Call-ID={}, conferenceId={})", callId, conferenceId);
+        if (curMembers.callIds.length >= maxCallCount) {
+            log.warn("Conference's Call-ID list is full. (Call-ID={}, conferenceId={}, max={})", callId, conferenceId, maxCallCount);
             return false;
         }
-        boolean result = callInfos.put(callId, callInfo) == null;
-        if (result && state != ConferenceState.ACTIVATE) {
+
+        int size = curMembers.callIds.length;
+        String[] callIds = Arrays.copyOf(curMembers.callIds, size + 1);
+        CallInfo[] callInfos = Arrays.copyOf(curMembers.callInfos, size + 1);
+        callIds[size] = callId;
+        callInfos[size] = callInfo;
+        members = new Members(callIds, callInfos);
+
+        if (state != ConferenceState.ACTIVATE) {
             state = ConferenceState.ACTIVATE;
         }
-        return result;
+        return true;
     }
 
-    public void removeCall(String callId) {
-        callInfos.remove(callId);
-        if (callInfos.isEmpty() && state != ConferenceState.EMPTY) {
+    public synchronized void removeCall(String callId) {
+        Members curMembers = members;
+        int index = curMembers.indexOf(callId);
+        if (index >= 0) {
+            int size = curMembers.callIds.length;
+            String[] callIds = new String[size - 1];
+            CallInfo[] callInfos = new CallInfo[size - 1];
+            System.arraycopy(curMembers.callIds, 0, callIds, 0, index);
+            System.arraycopy(curMembers.callIds, index + 1, callIds, index, size - index - 1);
+            System.arraycopy(curMembers.callInfos, 0, callInfos, 0, index);
+            System.arraycopy(curMembers.callInfos, index + 1, callInfos, index, size - index - 1);
+            members = new Members(callIds, callInfos);
+        }
+
+        if (members.callIds.length == 0 && state != ConferenceState.EMPTY && state != ConferenceState.DELETED) {
             state = ConferenceState.EMPTY;
         }
     }
 
     public List<String> getCallIds() {
-        synchronized (callInfos) {
-            return new ArrayList<>(callInfos.keySet());
-        }
+        return new ArrayList<>(Arrays.asList(members.callIds));
     }
 
     public List<CallInfo> getCallInfos() {
-        synchronized (callInfos) {
-            return new ArrayList<>(callInfos.values());
-        }
+        return new ArrayList<>(Arrays.asList(members.callInfos));
     }
 
     public int getCallIdSize() {
-        return callInfos.size();
+        return members.callIds.length;
+    }
+
+    public int getMaxCallCount() {
+        return maxCallCount;
     }
 
     public long getCreatedTime() {
@@ -92,4 +122,23 @@ public class ConferenceInfo {
         return this;
     }
 
+    private static class Members {
+
+        private final String[] callIds;
+        private final CallInfo[] callInfos;
+
+        private Members(String[] callIds, CallInfo[] callInfos) {
+            this.callIds = callIds;
+            this.callInfos = callInfos;
+        }
+
+        private int indexOf(String callId) {
+            for (int i = 0; i < callIds.length; i++) {
+                if (callIds[i].equals(callId)) { return i; }
+            }
+            return -1;
+        }
+
+    }
+
 }
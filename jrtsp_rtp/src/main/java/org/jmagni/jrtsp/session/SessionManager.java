@@ -1,25 +1,46 @@
 package org.jmagni.jrtsp.session;
 
 import lombok.extern.slf4j.Slf4j;
+import org.jmagni.jrtsp.config.ConfigManager;
+import org.jmagni.jrtsp.rtsp.sdp.DescribeSdpCache;
+import org.jmagni.jrtsp.service.AppInstance;
+import org.jmagni.jrtsp.service.metrics.PacketLatencyMetrics;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * @class public class SessionManager
+ * @brief Conference, Call 을 관리하는 클래스
+ *
+ * - 조회는 잠그지 않고 (ConcurrentHashMap), 생성은 putIfAbsent / computeIfAbsent 로 한 번에 처리한다. (확인 후 추가 경쟁 없음)
+ * - Call 개수는 따로 센다. (size() 를 매번 계산하지 않고, 최대 개수 검사와 추가 사이의 경쟁도 없음)
+ * - 최대 개수는 [SESSION] 설정을 따른다.
+ */
 @Slf4j
 public class SessionManager {
 
-
-    private static final int MAX_SESSION_COUNT = 100;
+    private static final int DEFAULT_MAX_CALL_COUNT = 100000;
+    private static final int DEFAULT_MAX_CALL_COUNT_PER_CONFERENCE = 1000;
 
     private static final SessionManager sessionManager = new SessionManager();
 
-    private final HashMap<String, CallInfo> callInfos;
-    private final HashMap<String, ConferenceInfo> conferenceInfos;
+    private final ConcurrentHashMap<String, CallInfo> callInfos;
+    private final ConcurrentHashMap<String, ConferenceInfo> conferenceInfos;
+
+    // 최대 개수 검사용 (추가 전에 먼저 올리고, 실패하면 되돌린다)
+    private final AtomicInteger callCount = new AtomicInteger(0);
+
+    private final LongAdder createdCallCount = new LongAdder();
+    private final LongAdder deletedCallCount = new LongAdder();
+    private final LongAdder rejectedCallCount = new LongAdder();
 
     private SessionManager() {
-        callInfos = new HashMap<>();
-        conferenceInfos = new HashMap<>();
+        callInfos = new ConcurrentHashMap<>();
+        conferenceInfos = new ConcurrentHashMap<>();
     }
 
     public static SessionManager getInstance() {
@@ -27,19 +48,10 @@ public class SessionManager {
     }
 
     public ConferenceInfo createConference(String conferenceId) {
-        boolean created = false;
-        ConferenceInfo conferenceInfo = conferenceInfos.get(conferenceId);
-        if (conferenceInfo == null) {
-            conferenceInfo = new ConferenceInfo(conferenceId);
-            created = true;
-        }
-
-        if (created) {
-            synchronized (conferenceInfos) {
-                conferenceInfos.put(conferenceId, conferenceInfo);
-            }
-        }
-        return conferenceInfo;
+        return conferenceInfos.computeIfAbsent(
+                conferenceId,
+                key -> new ConferenceInfo(key, getMaxCallCountPerConference())
+        );
     }
 
     public synchronized void deleteConference(String conferenceId) {
@@ -62,34 +74,58 @@ public class SessionManager {
     }
 
     public CallInfo createCall(String conferenceId, String callId, boolean isHost) {
-        if (callInfos.containsKey(callId)) {
-            log.warn("({}) () () Call is already exist.", callId);
+        int maxCallCount = getMaxCallCount();
+        if (callCount.incrementAndGet() > maxCallCount) {
+            callCount.decrementAndGet();
+            rejectedCallCount.increment();
+            log.warn("({}) () () Call count is maximum size. ({})", callId, maxCallCount);
             return null;
         }
-        if (callInfos.size() >= MAX_SESSION_COUNT) {
-            log.warn("({}) () () Call count is maximum size. ({})", callId, callInfos.size());
+
+        CallInfo newCallInfo = new CallInfo(conferenceId, callId, isHost);
+        CallInfo callInfo = callInfos.putIfAbsent(callId, newCallInfo);
+        if (callInfo != null) {
+            callCount.decrementAndGet();
+            log.warn("({}) () () Call is already exist.", callId);
             return null;
         }
 
-        CallInfo callInfo = new CallInfo(conferenceId, callId, isHost);
-        synchronized (callInfos) {
-            callInfos.put(callId, callInfo);
+        if (conferenceId != null) {
+            ConferenceInfo conferenceInfo = createConference(conferenceId);
+            if (!conferenceInfo.addCall(callId, newCallInfo)) {
+                callInfos.remove(callId, newCallInfo);
+                callCount.decrementAndGet();
+                rejectedCallCount.increment();
+                return null;
+            }
+            if (isHost) {
+                conferenceInfo.setHostCallId(callId);
+            }
         }
 
-        return callInfo;
+        createdCallCount.increment();
+        return newCallInfo;
     }
 
     public void deleteCall(String callId) {
-        CallInfo callInfo = findCall(callId);
+        CallInfo callInfo = callInfos.remove(callId);
         if (callInfo == null) return;
 
-        try {
-            log.info("({}) ({}) () Call Deleted [{}]", callInfo.getConferenceId(), callInfo.getCallId(), callInfo.getCallId());
-        } finally {
-            synchronized (callInfos) {
-                callInfos.remove(callId);
+        callCount.decrementAndGet();
+        deletedCallCount.increment();
+
+        String conferenceId = callInfo.getConferenceId();
+        if (conferenceId != null) {
+            ConferenceInfo conferenceInfo = findConference(conferenceId);
+            if (conferenceInfo != null) {
+                conferenceInfo.removeCall(callId);
             }
         }
+
+        callInfo.close();
+        DescribeSdpCache.getInstance().remove(callId);
+        PacketLatencyMetrics.getInstance().removeCall(callId);
+        log.info("({}) ({}) () Call Deleted [{}]", callInfo.getConferenceId(), callInfo.getCallId(), callInfo.getCallId());
     }
 
     public CallInfo findCall(String callId) {
@@ -97,18 +133,36 @@ public class SessionManager {
     }
 
     public int getCallInfoSize() {
-        return callInfos.size();
+        return callCount.get();
+    }
+
+    public long getCreatedCallCount() {
+        return createdCallCount.sum();
+    }
+
+    public long getDeletedCallCount() {
+        return deletedCallCount.sum();
+    }
+
+    public long getRejectedCallCount() {
+        return rejectedCallCount.sum();
     }
 
     public List<CallInfo> getCallInfos() {
-        synchronized (callInfos) {
-            return new ArrayList<>(callInfos.values());
-        }
+        return new ArrayList<>(callInfos.values());
     }
 
     public List<ConferenceInfo> getConferenceInfos() {
-        synchronized (conferenceInfos) {
-            return new ArrayList<>(conferenceInfos.values());
-        }
+        return new ArrayList<>(conferenceInfos.values());
+    }
+
+    private static int getMaxCallCount() {
+        ConfigManager configManager = AppInstance.getInstance().getConfigManager();
+        return (configManager == null) ? DEFAULT_MAX_CALL_COUNT : configManager.getUserConfig().getMaxCallCount();
+    }
+
+    private static int getMaxCallCountPerConference() {
+        ConfigManager configManager = AppInstance.getInstance().getConfigManager();
+        return (configManager == null) ? DEFAULT_MAX_CALL_COUNT_PER_CONFERENCE : configManager.getUserConfig().getMaxCallCountPerConference();
     }
 }
@@ -0,0 +1,141 @@
+package org.jmagni.jrtsp.session;
+
+import io.netty.util.HashedWheelTimer;
+import io.netty.util.Timeout;
+import io.netty.util.concurrent.DefaultThreadFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.jmagni.jrtsp.config.ConfigManager;
+import org.jmagni.jrtsp.rtsp.Streamer;
+import org.jmagni.jrtsp.rtsp.netty.NettyChannelManager;
+import org.jmagni.jrtsp.service.AppInstance;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * @class public class SessionTimeoutManager
+ * @brief RTSP 세션 (Streamer) 이 일정 시간 동안 아무 요청도 없으면 정리하는 클래스
+ *
+ * @Reference https://datatracker.ietf.org/doc/html/rfc2326#section-12.37
+ *
+ *    Session: 123456;timeout=60
+ *
+ * - 세션 갱신 : 같은 세션의 RTSP 요청 (OPTIONS, GET_PARAMETER ...), RTCP 패킷 수신 시 Streamer.touch() (시간만 기록)
+ * - 만료 확인 : Streamer 마다 Hashed timer wheel 에 Timeout 하나를 등록한다.
+ *   > 갱신할 때마다 타이머를 다시 등록하지 않는다. 만료 시점에 마지막 갱신 시각을 보고, 남은 시간만큼 다시 등록하거나 정리한다.
+ *   > 등록, 만료 처리 모두 O(1)
+ * - TCP (interleaved) 시청자는 RTSP 연결이 살아 있으면 갱신된 것으로 본다.
+ */
+@Slf4j
+public class SessionTimeoutManager {
+
+    ////////////////////////////////////////////////////////////
+    // VARIABLES
+    private static final int DEFAULT_TIMEOUT_SEC = 60;
+    private static final long TICK_DURATION_MS = 100;
+    private static final int TICKS_PER_WHEEL = 1024;
+
+    private static final SessionTimeoutManager sessionTimeoutManager = new SessionTimeoutManager();
+
+    private final HashedWheelTimer timer = new HashedWheelTimer(
+            new DefaultThreadFactory("SessionTimeout", true),
+            TICK_DURATION_MS, TimeUnit.MILLISECONDS, TICKS_PER_WHEEL
+    );
+
+    private final LongAdder expiredCount = new LongAdder();
+    ////////////////////////////////////////////////////////////
+
+    ////////////////////////////////////////////////////////////
+    // CONSTRUCTOR
+    private SessionTimeoutManager() {
+        // Nothing
+    }
+
+    public static SessionTimeoutManager getInstance() {
+        return sessionTimeoutManager;
+    }
+    ////////////////////////////////////////////////////////////
+
+    ////////////////////////////////////////////////////////////
+    // FUNCTIONS
+    /**
+     * @fn public void register(Streamer streamer)
+     * @brief Streamer 의 세션 만료 타이머를 등록하는 함수 (timeout 이 0 이면 등록하지 않음)
+     */
+    public void register(Streamer streamer) {
+        int timeoutSec = getTimeoutSec();
+        if (timeoutSec <= 0) { return; }
+
+        streamer.touch();
+        schedule(streamer, TimeUnit.SECONDS.toMillis(timeoutSec));
+    }
+
+    /**
+     * @fn public void unregister(Streamer streamer)
+     * @brief Streamer 가 삭제될 때 세션 만료 타이머를 취소하는 함수
+     */
+    public void unregister(Streamer streamer) {
+        Timeout timeout = streamer.getSessionTimeout();
+        streamer.setSessionTimeout(null);
+        if (timeout != null) {
+            timeout.cancel();
+        }
+    }
+
+    public void stop() {
+        timer.stop();
+    }
+
+    public long getExpiredCount() {
+        return expiredCount.sum();
+    }
+
+    /**
+     * @fn public static int getTimeoutSec()
+     * @brief Session 헤더로 알려줄 세션 timeout (초) 을 반환하는 함수, 0 이면 사용하지 않음
+     */
+    public static int getTimeoutSec() {
+        ConfigManager configManager = AppInstance.getInstance().getConfigManager();
+        return (configManager == null) ? DEFAULT_TIMEOUT_SEC : configManager.getUserConfig().getSessionTimeoutSec();
+    }
+
+    private void schedule(Streamer streamer, long delayMs) {
+        try {
+            streamer.setSessionTimeout(
+                    timer.newTimeout(timeout -> expire(streamer), delayMs, TimeUnit.MILLISECONDS)
+            );
+        } catch (IllegalStateException e) {
+            // 타이머 종료 후 (프로그램 종료 중)
+            log.debug("({}) Fail to schedule the session timeout. ({})", streamer.getKey(), e.getMessage());
+        }
+    }
+
+    private void expire(Streamer streamer) {
+        if (streamer.getSessionTimeout() == null) { return; } // 이미 삭제됨
+        if (NettyChannelManager.getInstance().getStreamer(streamer.getKey()) != streamer) { return; } // 교체됨
+
+        long timeoutMs = TimeUnit.SECONDS.toMillis(getTimeoutSec());
+        if (timeoutMs <= 0) { return; } // 설정으로 꺼짐
+
+        if (streamer.isTcp() && streamer.isRtspChannelActive()) {
+            streamer.touch();
+        }
+
+        long idleMs = System.currentTimeMillis() - streamer.getLastActiveTime();
+        if (idleMs < timeoutMs) {
+            schedule(streamer, timeoutMs - idleMs);
+            return;
+        }
+
+        expiredCount.increment();
+        log.warn("({}) Session is expired. (idle={}ms, timeout={}ms)", streamer.getKey(), idleMs, timeoutMs);
+        try {
+            NettyChannelManager.getInstance().stopStreaming(streamer.getKey());
+            NettyChannelManager.getInstance().deleteStreamer(streamer);
+        } catch (Exception e) {
+            log.warn("({}) Fail to delete the expired session.", streamer.getKey(), e);
+        }
+    }
+    ////////////////////////////////////////////////////////////
+
+}
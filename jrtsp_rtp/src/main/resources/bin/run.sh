@@ -60,6 +60,18 @@ function exec_status() {
 	fi
 }
 
+function exec_jfr() {
+	PID=`ps -ef | grep java | grep ${MAIN_CLASS_NAME} | awk '{print $2}'`
+	if [ -z "$PID" ]
+	then
+		echo "[${SERVICE_NAME}] is not running"
+	else
+		JFR_FILE=${SERVICE_HOME}/logs/${SERVICE_NAME}_`date +%Y%m%d%H%M%S`.jfr
+		jcmd "$PID" JFR.start name=${SERVICE_NAME} settings=default,${SERVICE_HOME}/config/jrtsp.jfc duration=${1:-60s} filename=${JFR_FILE}
+		echo "[${SERVICE_NAME}] recording to ${JFR_FILE}"
+	fi
+}
+
 case $2 in
     restart)
 		exec_stop
@@ -74,4 +86,7 @@ case $2 in
     status)
     exec_status
     ;;
+    jfr)
+    exec_jfr $3
+    ;;
 esac
@@ -0,0 +1,60 @@
+package rtsp;
+
+import io.netty.channel.EventLoop;
+import org.jmagni.jrtsp.config.ConfigManager;
+import org.jmagni.jrtsp.rtsp.netty.CallAffinityManager;
+import org.jmagni.jrtsp.service.AppInstance;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class CallAffinityManagerTest {
+
+    @BeforeClass
+    public static void init() {
+        AppInstance instance = AppInstance.getInstance();
+        if (instance.getConfigManager() == null) {
+            instance.setConfigManager(new ConfigManager(System.getProperty("user.dir") + "/src/test/resources/config/user_conf.ini"));
+        }
+    }
+
+    @Test
+    public void placeCallsOnLeastLoadedEventLoop() {
+        CallAffinityManager callAffinityManager = CallAffinityManager.getInstance();
+        int prevCallCount = callAffinityManager.getCallCount();
+
+        // 같은 Call 은 항상 같은 EventLoop
+        EventLoop callA1 = callAffinityManager.acquire("affinityA");
+        EventLoop callA2 = callAffinityManager.acquire("affinityA");
+        assertSame(callA1, callA2);
+        assertSame(callA1, callAffinityManager.getEventLoop("affinityA"));
+
+        // 다른 Call 은 가장 덜 바쁜 EventLoop 로
+        int[] loads = callAffinityManager.getEventLoopLoads();
+        int minLoad = Integer.MAX_VALUE;
+        for (int load : loads) {
+            minLoad = Math.min(minLoad, load);
+        }
+        callAffinityManager.acquire("affinityB");
+        int[] newLoads = callAffinityManager.getEventLoopLoads();
+        int placedIndex = -1;
+        for (int i = 0; i < loads.length; i++) {
+            if (newLoads[i] == loads[i] + 1) { placedIndex = i; }
+        }
+        assertTrue(placedIndex >= 0);
+        assertEquals(minLoad, loads[placedIndex]);
+        assertEquals(prevCallCount + 2, callAffinityManager.getCallCount());
+
+        // acquire 한 만큼 release 해야 풀린다.
+        callAffinityManager.release("affinityA");
+        assertNotNull(callAffinityManager.getEventLoop("affinityA"));
+        callAffinityManager.release("affinityA");
+        assertNull(callAffinityManager.getEventLoop("affinityA"));
+
+        callAffinityManager.release("affinityB");
+        callAffinityManager.release("affinityB"); // 중복 release 는 무시
+        assertEquals(prevCallCount, callAffinityManager.getCallCount());
+    }
+
+}
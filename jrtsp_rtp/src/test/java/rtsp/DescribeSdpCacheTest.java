@@ -0,0 +1,135 @@
+package rtsp;
+
+import org.jmagni.jrtsp.config.ConfigManager;
+import org.jmagni.jrtsp.config.UserConfig;
+import org.jmagni.jrtsp.rtsp.base.MediaType;
+import org.jmagni.jrtsp.rtsp.base.RtpPacket;
+import org.jmagni.jrtsp.rtsp.sdp.DescribeSdpCache;
+import org.jmagni.jrtsp.service.AppInstance;
+import org.jmagni.jrtsp.session.CallInfo;
+import org.jmagni.jrtsp.session.SessionManager;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Base64;
+
+import static org.junit.Assert.*;
+
+public class DescribeSdpCacheTest {
+
+    private static final int AUDIO_PAYLOAD_TYPE = 0;
+    private static final int VIDEO_PAYLOAD_TYPE = 96;
+
+    private static final byte[] SPS_BASELINE_31 = {0x67, 0x42, (byte) 0xE0, 0x1F, (byte) 0x96, 0x54, 0x05, 0x01};
+    private static final byte[] SPS_HIGH_40 = {0x67, 0x64, 0x00, 0x28, (byte) 0xAC, 0x2B, 0x40, 0x3C};
+    private static final byte[] PPS = {0x68, (byte) 0xCE, 0x3C, (byte) 0x80};
+
+    private int seqNum = 0;
+
+    @BeforeClass
+    public static void init() {
+        StreamerRegistryTest.init();
+    }
+
+    private byte[] describe(CallInfo callInfo) {
+        // RtspChannelHandler.handleDescribe 와 같은 인자
+        return DescribeSdpCache.getInstance().getSdpData(
+                callInfo.getCallId(), AUDIO_PAYLOAD_TYPE, VIDEO_PAYLOAD_TYPE, callInfo.getVideoFmtp(VIDEO_PAYLOAD_TYPE)
+        );
+    }
+
+    private void storeNalUnit(CallInfo callInfo, byte[] nalUnit) {
+        RtpPacket rtpPacket = new RtpPacket(RtpPacket.RTP_PACKET_MAX_SIZE, true);
+        rtpPacket.wrap(false, VIDEO_PAYLOAD_TYPE, seqNum++, 9000, 1234L, nalUnit, 0, nalUnit.length);
+        callInfo.storeParameterSets(rtpPacket, MediaType.VIDEO.getName());
+    }
+
+    private static String spropParameterSets(byte[] sps, byte[] pps) {
+        Base64.Encoder encoder = Base64.getEncoder();
+        return "sprop-parameter-sets=" + encoder.encodeToString(sps) + "," + encoder.encodeToString(pps);
+    }
+
+    @Test
+    public void testParameterSetsChange() {
+        String callId = "sdp_cache_sps_call";
+        CallInfo callInfo = SessionManager.getInstance().createCall("sdp_cache_conference", callId, true);
+        assertNotNull(callInfo);
+        DescribeSdpCache describeSdpCache = DescribeSdpCache.getInstance();
+        try {
+            // SPS/PPS 를 받기 전에는 fmtp 가 없다.
+            String sdp = new String(describe(callInfo), StandardCharsets.UTF_8);
+            assertFalse(sdp.contains("sprop-parameter-sets"));
+
+            storeNalUnit(callInfo, SPS_BASELINE_31);
+            storeNalUnit(callInfo, PPS);
+            long missCount = describeSdpCache.getMissCount();
+            byte[] data = describe(callInfo);
+            sdp = new String(data, StandardCharsets.UTF_8);
+            assertTrue(sdp.contains("profile-level-id=42e01f"));
+            assertTrue(sdp.contains(spropParameterSets(SPS_BASELINE_31, PPS)));
+            assertEquals(missCount + 1, describeSdpCache.getMissCount());
+
+            // 같은 SPS/PPS 가 다시 와도 (매 GOP) 캐시는 그대로 쓴다.
+            long hitCount = describeSdpCache.getHitCount();
+            storeNalUnit(callInfo, SPS_BASELINE_31);
+            storeNalUnit(callInfo, PPS);
+            assertSame(data, describe(callInfo));
+            assertEquals(hitCount + 1, describeSdpCache.getHitCount());
+
+            // 인코더 설정이 바뀌면 (다른 SPS) 예전 sprop-parameter-sets 를 내보내면 안 된다.
+            storeNalUnit(callInfo, SPS_HIGH_40);
+            sdp = new String(describe(callInfo), StandardCharsets.UTF_8);
+            assertTrue(sdp.contains("profile-level-id=640028"));
+            assertTrue(sdp.contains(spropParameterSets(SPS_HIGH_40, PPS)));
+            assertFalse(sdp.contains(Base64.getEncoder().encodeToString(SPS_BASELINE_31)));
+            assertEquals(missCount + 2, describeSdpCache.getMissCount());
+        } finally {
+            SessionManager.getInstance().deleteCall(callId);
+        }
+    }
+
+    @Test
+    public void testConfigReload() throws Exception {
+        File configFile = File.createTempFile("user_conf", ".ini");
+        configFile.deleteOnExit();
+        String config = new String(Files.readAllBytes(new File(System.getProperty("user.dir") + "/src/test/resources/config/user_conf.ini").toPath()), StandardCharsets.UTF_8);
+        Files.write(configFile.toPath(), config.getBytes(StandardCharsets.UTF_8));
+
+        AppInstance instance = AppInstance.getInstance();
+        ConfigManager prevConfigManager = instance.getConfigManager();
+        instance.setConfigManager(new ConfigManager(configFile.getAbsolutePath()));
+
+        String callId = "sdp_cache_config_call";
+        try {
+            CallInfo callInfo = SessionManager.getInstance().createCall("sdp_cache_conference", callId, true);
+            assertNotNull(callInfo);
+
+            byte[] data = describe(callInfo);
+            assertTrue(new String(data, StandardCharsets.UTF_8).contains("a=ptime:20"));
+            assertSame(data, describe(callInfo));
+
+            // 설정 파일이 바뀌면 ConfigChangedListener 가 다시 읽고 (configVersion 증가) 캐시된 SDP 는 모두 다시 만든다.
+            UserConfig userConfig = instance.getConfigManager().getUserConfig();
+            long configVersion = userConfig.getConfigVersion();
+            Files.write(configFile.toPath(), config.replace("AUDIO_ATTR_1=ptime:20", "AUDIO_ATTR_1=ptime:40").getBytes(StandardCharsets.UTF_8));
+            assertTrue(configFile.setLastModified(System.currentTimeMillis() + 2000));
+
+            long deadline = System.currentTimeMillis() + 5000;
+            while (userConfig.getConfigVersion() == configVersion && System.currentTimeMillis() < deadline) {
+                Thread.sleep(100);
+            }
+            assertTrue(userConfig.getConfigVersion() > configVersion);
+
+            String sdp = new String(describe(callInfo), StandardCharsets.UTF_8);
+            assertTrue(sdp.contains("a=ptime:40"));
+            assertFalse(sdp.contains("a=ptime:20"));
+        } finally {
+            SessionManager.getInstance().deleteCall(callId);
+            instance.setConfigManager(prevConfigManager);
+        }
+    }
+
+}
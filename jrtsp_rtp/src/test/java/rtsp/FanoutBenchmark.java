@@ -0,0 +1,560 @@
+package rtsp;
+
+import ch.qos.logback.classic.Level;
+import io.netty.bootstrap.Bootstrap;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.*;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.DatagramPacket;
+import io.netty.channel.socket.nio.NioDatagramChannel;
+import io.netty.channel.socket.nio.NioSocketChannel;
+import io.netty.handler.codec.ByteToMessageDecoder;
+import io.netty.util.concurrent.DefaultThreadFactory;
+import org.jmagni.jrtsp.config.UserConfig;
+import org.jmagni.jrtsp.rtsp.PortManager;
+import org.jmagni.jrtsp.rtsp.Streamer;
+import org.jmagni.jrtsp.rtsp.base.ConcurrentCyclicFIFO;
+import org.jmagni.jrtsp.rtsp.base.MediaType;
+import org.jmagni.jrtsp.rtsp.base.RtpInfo;
+import org.jmagni.jrtsp.rtsp.base.RtpPacket;
+import org.jmagni.jrtsp.rtsp.netty.CallAffinityManager;
+import org.jmagni.jrtsp.rtsp.netty.NettyChannelManager;
+import org.jmagni.jrtsp.rtsp.netty.base.RtspRequestParser;
+import org.jmagni.jrtsp.rtsp.stream.rtp.RtpInfoSender;
+import org.jmagni.jrtsp.service.AppInstance;
+import org.jmagni.jrtsp.service.metrics.MetricLatency;
+import org.jmagni.jrtsp.service.metrics.PacketLatencyMetrics;
+import org.jmagni.jrtsp.session.SessionManager;
+import org.slf4j.LoggerFactory;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.net.DatagramSocket;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * @class public class FanoutBenchmark
+ * @brief Call 하나의 시청자 전달 (Fan-out) 처리량 벤치마크 (단위 테스트 아님, main 으로 실행)
+ *
+ * - 서버를 같은 프로세스에서 loopback 으로 띄우고, 시청자마다 실제 RTSP 연결로 SETUP/PLAY 를 보낸다. (UDP, Interleaved TCP)
+ *   > 세션 ID 는 서버가 SETUP 응답으로 알려준 값을 쓴다.
+ * - 합성 RTP 소스가 정해진 bitrate 와 패킷 크기 분포로 RtpInfo 를 만들어 Relay 버퍼에 넣는다. (RtpInfoSender > Call EventLoop > 시청자)
+ *   > 페이로드에 생성 시각을 넣어서 시청자 소켓에서 받은 시각까지의 지연을 잰다.
+ * - 단계마다 bitrate 를 배수로 올리면서 아래를 출력한다. 전달률이나 Relay 버퍼가 기준을 넘으면 멈춘다.
+ *   > 전달 pps (수신 패킷 / 초), 전달률, 서버 스레드 CPU (코어 수, 시청자 1000 명당), 지연 p50/p99/max,
+ *     서버 스레드 할당량 (전달 패킷당, 원본 패킷당)
+ * - 서버 스레드 = 이 하네스가 만든 스레드 (main, 소스, 시청자 소켓) 를 뺀 나머지
+ *
+ *    mvn -q test-compile dependency:build-classpath -Dmdep.outputFile=cp.txt
+ *    java -Dudp=500 -Dtcp=500 -cp target/classes:target/test-classes:$(cat cp.txt) rtsp.FanoutBenchmark
+ *
+ * - 옵션 (System property)
+ *   udp, tcp : 시청자 수 (기본 50, 50)
+ *   bitrate : 첫 단계 원본 bitrate kbps (기본 2000)
+ *   mix : RTP 패킷 크기:비율 목록 (기본 1200:9,200:1)
+ *   stages : 단계별 bitrate 배수 (기본 1,2,4,8,16,32)
+ *   duration, warmup : 단계 측정 시간, 첫 예열 시간 (초, 기본 5, 2)
+ *   maxLoss : 유지 가능으로 보는 최대 손실률 % (기본 0.5)
+ *   sinkPort : UDP 시청자 수신 포트 시작 (기본 30000, 시청자마다 짝수/홀수 쌍)
+ *   sampleRate : 서버 PacketLatencyMetrics 표본 비율 (기본 설정 파일 값)
+ *   log : 로그 수준 (기본 ERROR)
+ */
+public class FanoutBenchmark {
+
+    private static final String CALL_ID = "fanout_bench";
+    private static final String VIDEO_TRACK = "trackID=2";
+    private static final int VIDEO_PAYLOAD_TYPE = 96;
+    private static final int VIDEO_CLOCK_RATE = 90000;
+    private static final int INTERLEAVED_RTP_CHANNEL = 2;
+    private static final int STAMP_OFFSET = RtpPacket.FIXED_HEADER_SIZE + 1; // NAL 헤더 다음
+    private static final long RESPONSE_TIMEOUT_MS = 5000;
+
+    private static final Set<Long> harnessThreadIds = ConcurrentHashMap.newKeySet();
+
+    private static final LongAdder receivedPackets = new LongAdder();
+    private static volatile MetricLatency stageLatency = newLatency();
+
+    public static void main(String[] args) throws Exception {
+        ((ch.qos.logback.classic.Logger) LoggerFactory.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME))
+                .setLevel(Level.toLevel(System.getProperty("log", "ERROR")));
+        StreamerRegistryTest.init();
+        harnessThreadIds.add(Thread.currentThread().getId());
+
+        int udpViewers = Integer.getInteger("udp", 50);
+        int tcpViewers = Integer.getInteger("tcp", 50);
+        int bitrateKbps = Integer.getInteger("bitrate", 2000);
+        int[][] mix = parseMix(System.getProperty("mix", "1200:9,200:1"));
+        double[] stages = Arrays.stream(System.getProperty("stages", "1,2,4,8,16,32").split(","))
+                .mapToDouble(Double::parseDouble).toArray();
+        int durationSec = Integer.getInteger("duration", 5);
+        int warmupSec = Integer.getInteger("warmup", 2);
+        double maxLossPercent = Double.parseDouble(System.getProperty("maxLoss", "0.5"));
+        int sinkPort = Integer.getInteger("sinkPort", 30000);
+        int viewers = udpViewers + tcpViewers;
+
+        // 1) 서버 (RTSP, 포트 자원, Call)
+        UserConfig userConfig = AppInstance.getInstance().getConfigManager().getUserConfig();
+        PortManager.getInstance().initResource(
+                userConfig.getLocalRtcpPortMin(),
+                Math.max(userConfig.getLocalRtcpPortMax(), userConfig.getLocalRtcpPortMin() + udpViewers * 2 + 1)
+        );
+        PacketLatencyMetrics.getInstance().setSampleRate(Integer.getInteger("sampleRate", userConfig.getMetricsLatencySampleRate()));
+        NettyChannelManager.getInstance().openRtspChannel(userConfig.getLocalListenIp(), userConfig.getLocalRtspListenPort());
+        if (SessionManager.getInstance().createCall(null, CALL_ID, true) == null) {
+            throw new IllegalStateException("Fail to create the call.");
+        }
+        InetSocketAddress serverAddress = new InetSocketAddress(userConfig.getLocalListenIp(), userConfig.getLocalRtspListenPort());
+        String baseUri = "rtsp://" + serverAddress.getHostString() + ":" + serverAddress.getPort() + "/" + CALL_ID;
+
+        // 2) 시청자
+        NioEventLoopGroup sinkGroup = new NioEventLoopGroup(0, new DefaultThreadFactory("FanoutSink", true) {
+            @Override
+            protected Thread newThread(Runnable r, String name) {
+                Thread thread = super.newThread(r, name);
+                harnessThreadIds.add(thread.getId());
+                return thread;
+            }
+        });
+        List<RtspClient> clientList = new ArrayList<>();
+        for (int i = 0; i < viewers; i++) {
+            boolean isTcp = i >= udpViewers;
+            RtspClient rtspClient = new RtspClient(sinkGroup, serverAddress, baseUri);
+            if (isTcp) {
+                rtspClient.setup("RTP/AVP/TCP;unicast;interleaved=" + INTERLEAVED_RTP_CHANNEL + "-" + (INTERLEAVED_RTP_CHANNEL + 1));
+            } else {
+                sinkPort = bindUdpSink(sinkGroup, sinkPort, rtspClient);
+                rtspClient.setup("RTP/AVP;unicast;client_port=" + sinkPort + "-" + (sinkPort + 1));
+                sinkPort += 2;
+            }
+            rtspClient.play();
+            clientList.add(rtspClient);
+        }
+        System.out.printf("viewers: udp=%d, tcp=%d, streamers=%d, mix=%s, cpus=%d%n",
+                udpViewers, tcpViewers, NettyChannelManager.getInstance().getStreamerListByCallId(CALL_ID).size(),
+                System.getProperty("mix", "1200:9,200:1"), Runtime.getRuntime().availableProcessors()
+        );
+
+        // 3) 소스 > Relay 버퍼 > RtpInfoSender
+        ConcurrentCyclicFIFO<RtpInfo> rtpInfoBuf = new ConcurrentCyclicFIFO<>();
+        RtpInfoSender rtpInfoSender = new RtpInfoSender(CALL_ID, rtpInfoBuf);
+        rtpInfoSender.setName("RtpInfoSender-" + CALL_ID);
+        rtpInfoSender.setDaemon(true);
+        rtpInfoSender.start();
+        SyntheticSource source = new SyntheticSource(rtpInfoBuf, mix);
+        source.start();
+        harnessThreadIds.add(source.getId());
+
+        source.setBitrate(bitrateKbps * 1000L);
+        TimeUnit.SECONDS.sleep(warmupSec);
+        int notPlaying = 0;
+        for (RtspClient rtspClient : clientList) {
+            if (rtspClient.getReceivedPackets() == 0) { notPlaying++; }
+        }
+        if (notPlaying > 0) {
+            System.out.printf("WARN: %d viewer(s) received nothing during warmup.%n", notPlaying);
+        }
+
+        // 4) 단계별 측정
+        System.out.printf("%9s %9s %11s %9s %7s %9s %8s %8s %8s %10s %10s %7s%n",
+                "kbps", "ingestPps", "egressPps", "deliver%", "cores", "cores/1k",
+                "p50us", "p99us", "maxUs", "B/egress", "B/ingest", "queue"
+        );
+        double maxSustainableEgressPps = 0;
+        for (double stage : stages) {
+            long bitrate = (long) (bitrateKbps * 1000L * stage);
+            source.setBitrate(bitrate);
+            TimeUnit.MILLISECONDS.sleep(500); // 새 속도로 안정화
+            touchStreamers();
+
+            Snapshot begin = Snapshot.take(source);
+            stageLatency = newLatency();
+            TimeUnit.SECONDS.sleep(durationSec);
+            Snapshot end = Snapshot.take(source);
+            MetricLatency latency = stageLatency;
+
+            double seconds = (end.nanos - begin.nanos) / 1e9;
+            long ingest = end.sentPackets - begin.sentPackets;
+            long egress = end.receivedPackets - begin.receivedPackets;
+            double deliveredPercent = ingest == 0 ? 0 : egress * 100.0 / ((double) ingest * viewers);
+            double cores = (end.serverCpuNanos - begin.serverCpuNanos) / 1e9 / seconds;
+            long allocated = end.serverAllocatedBytes - begin.serverAllocatedBytes;
+            int queue = rtpInfoBuf.size();
+
+            System.out.printf("%9d %9.0f %11.0f %9.2f %7.2f %9.2f %8d %8d %8d %10.1f %10.1f %7d%n",
+                    bitrate / 1000, ingest / seconds, egress / seconds, deliveredPercent,
+                    cores, cores * 1000 / Math.max(1, viewers),
+                    latency.getPercentile(0.5), latency.getPercentile(0.99), latency.getMax(),
+                    egress == 0 ? 0 : (double) allocated / egress, ingest == 0 ? 0 : (double) allocated / ingest, queue
+            );
+
+            // 손실이 기준을 넘거나 Relay 버퍼가 0.5 초 분량 이상 밀리면 유지할 수 없는 속도
+            if (100 - deliveredPercent > maxLossPercent || queue > ingest / seconds / 2) { break; }
+            maxSustainableEgressPps = egress / seconds;
+        }
+
+        PacketLatencyMetrics packetLatencyMetrics = PacketLatencyMetrics.getInstance();
+        System.out.printf("max sustainable egress pps=%.0f (viewers=%d), server wire p99 udp=%dus tcp=%dus (sampled, whole run), gc count=%d time=%dms%n",
+                maxSustainableEgressPps, viewers,
+                packetLatencyMetrics.getUdpWireLatency().getPercentile(0.99), packetLatencyMetrics.getTcpWireLatency().getPercentile(0.99),
+                getGcCount(), getGcTimeMillis()
+        );
+
+        // 5) 정리
+        source.interrupt();
+        rtpInfoSender.interrupt();
+        for (RtspClient rtspClient : clientList) {
+            rtspClient.close();
+        }
+        NettyChannelManager.getInstance().stop();
+        SessionManager.getInstance().deleteCall(CALL_ID);
+        CallAffinityManager.getInstance().stop();
+        sinkGroup.shutdownGracefully();
+        System.exit(0);
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////
+
+    private static MetricLatency newLatency() {
+        return new MetricLatency("fanout_bench_latency_us", "Source to viewer socket latency.", null);
+    }
+
+    /**
+     * @fn private static void recordReceived(ByteBuf buf, int rtpOffset, int rtpLength)
+     * @brief 시청자 소켓에서 받은 RTP 패킷 하나를 세고, 페이로드의 생성 시각으로 지연을 기록하는 함수
+     */
+    private static void recordReceived(ByteBuf buf, int rtpOffset, int rtpLength) {
+        receivedPackets.increment();
+        if (rtpLength >= STAMP_OFFSET + Long.BYTES) {
+            stageLatency.record(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - buf.getLong(rtpOffset + STAMP_OFFSET)));
+        }
+    }
+
+    /**
+     * @fn private static void touchStreamers()
+     * @brief 측정이 SESSION TIMEOUT_SEC 보다 길어도 세션이 지워지지 않도록 단계 사이에 세션을 갱신하는 함수 (GET_PARAMETER 대신)
+     */
+    private static void touchStreamers() {
+        for (Streamer streamer : NettyChannelManager.getInstance().getStreamerListByCallId(CALL_ID)) {
+            streamer.touch();
+        }
+    }
+
+    /**
+     * @fn private static int bindUdpSink(EventLoopGroup sinkGroup, int port, RtspClient rtspClient)
+     * @brief port 부터 RTP 포트를 bind 하고 RTCP 포트 (+ 1) 가 비어 있는 쌍을 찾아 UDP 시청자 소켓을 여는 함수
+     * RTCP 포트는 서버가 bind 하므로 (RtcpNettyChannel) 여기서는 비어 있는지만 확인한다.
+     * @return bind 한 RTP 포트
+     */
+    private static int bindUdpSink(EventLoopGroup sinkGroup, int port, RtspClient rtspClient) throws InterruptedException {
+        Bootstrap bootstrap = new Bootstrap().group(sinkGroup).channel(NioDatagramChannel.class)
+                .option(ChannelOption.SO_RCVBUF, 4 * 1024 * 1024)
+                .handler(new SimpleChannelInboundHandler<DatagramPacket>() {
+                    @Override
+                    protected void channelRead0(ChannelHandlerContext ctx, DatagramPacket packet) {
+                        ByteBuf content = packet.content();
+                        rtspClient.onReceived(content, content.readerIndex(), content.readableBytes());
+                    }
+                });
+
+        for (int rtpPort = port + (port & 1); rtpPort < 65534; rtpPort += 2) {
+            if (!isUdpPortFree(rtpPort + 1)) { continue; }
+
+            ChannelFuture channelFuture = bootstrap.bind("127.0.0.1", rtpPort).await();
+            if (channelFuture.isSuccess()) {
+                return rtpPort;
+            }
+        }
+        throw new IllegalStateException("No free UDP port pair from " + port);
+    }
+
+    private static boolean isUdpPortFree(int port) {
+        try (DatagramSocket ignored = new DatagramSocket(new InetSocketAddress("127.0.0.1", port))) {
+            return true;
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    private static int[][] parseMix(String mix) {
+        String[] entries = mix.split(",");
+        int[][] sizeWeights = new int[entries.length][2];
+        for (int i = 0; i < entries.length; i++) {
+            String[] sizeWeight = entries[i].trim().split(":");
+            sizeWeights[i][0] = Math.max(STAMP_OFFSET + Long.BYTES, Math.min(Integer.parseInt(sizeWeight[0]), RtpPacket.RTP_PACKET_MAX_SIZE));
+            sizeWeights[i][1] = sizeWeight.length > 1 ? Integer.parseInt(sizeWeight[1]) : 1;
+        }
+        return sizeWeights;
+    }
+
+    private static long getGcCount() {
+        long count = 0;
+        for (GarbageCollectorMXBean gcBean : ManagementFactory.getGarbageCollectorMXBeans()) {
+            count += Math.max(0, gcBean.getCollectionCount());
+        }
+        return count;
+    }
+
+    private static long getGcTimeMillis() {
+        long time = 0;
+        for (GarbageCollectorMXBean gcBean : ManagementFactory.getGarbageCollectorMXBeans()) {
+            time += Math.max(0, gcBean.getCollectionTime());
+        }
+        return time;
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * @class private static class Snapshot
+     * @brief 단계 시작, 끝의 누적 값 (송신, 수신 패킷, 서버 스레드 CPU, 할당량)
+     */
+    private static class Snapshot {
+
+        private long nanos;
+        private long sentPackets;
+        private long receivedPackets;
+        private long serverCpuNanos;
+        private long serverAllocatedBytes;
+
+        private static Snapshot take(SyntheticSource source) {
+            com.sun.management.ThreadMXBean threadMXBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+            long[] threadIds = Arrays.stream(threadMXBean.getAllThreadIds())
+                    .filter(threadId -> !harnessThreadIds.contains(threadId))
+                    .toArray();
+
+            Snapshot snapshot = new Snapshot();
+            for (long threadId : threadIds) {
+                snapshot.serverCpuNanos += Math.max(0, threadMXBean.getThreadCpuTime(threadId));
+            }
+            for (long allocatedBytes : threadMXBean.getThreadAllocatedBytes(threadIds)) {
+                snapshot.serverAllocatedBytes += Math.max(0, allocatedBytes);
+            }
+            snapshot.sentPackets = source.getSentPackets();
+            snapshot.receivedPackets = FanoutBenchmark.receivedPackets.sum();
+            snapshot.nanos = System.nanoTime();
+            return snapshot;
+        }
+
+    }
+
+    /**
+     * @class private static class SyntheticSource extends Thread
+     * @brief 정해진 bitrate 와 패킷 크기 분포로 원본 RTP 패킷 (H.264 non-IDR slice) 을 만드는 스레드
+     * 1 ms 마다 밀린 만큼 보낸다. (한 번에 최대 100 ms 분량)
+     */
+    private static class SyntheticSource extends Thread {
+
+        private final ConcurrentCyclicFIFO<RtpInfo> rtpInfoBuf;
+        private final int[] sizes;
+        private final int[] cumulativeWeights;
+        private final double averageSize;
+        private final long ssrc = ThreadLocalRandom.current().nextInt() & 0xFFFFFFFFL;
+        private final byte[] payload = new byte[RtpPacket.RTP_PACKET_MAX_SIZE];
+
+        private volatile double packetsPerSecond = 0;
+        private volatile long sentPackets = 0;
+
+        private SyntheticSource(ConcurrentCyclicFIFO<RtpInfo> rtpInfoBuf, int[][] mix) {
+            super("FanoutSource");
+            setDaemon(true);
+            this.rtpInfoBuf = rtpInfoBuf;
+
+            sizes = new int[mix.length];
+            cumulativeWeights = new int[mix.length];
+            long weightedSize = 0;
+            int totalWeight = 0;
+            for (int i = 0; i < mix.length; i++) {
+                sizes[i] = mix[i][0];
+                totalWeight += mix[i][1];
+                cumulativeWeights[i] = totalWeight;
+                weightedSize += (long) mix[i][0] * mix[i][1];
+            }
+            averageSize = (double) weightedSize / Math.max(1, totalWeight);
+
+            Arrays.fill(payload, (byte) 0xA5);
+            payload[0] = 0x41; // NAL : nal_ref_idc=2, type=1 (non-IDR slice)
+        }
+
+        private void setBitrate(long bitrate) {
+            packetsPerSecond = bitrate / 8.0 / averageSize;
+        }
+
+        private long getSentPackets() {
+            return sentPackets;
+        }
+
+        @Override
+        public void run() {
+            int seqNumber = 0;
+            long startNanos = System.nanoTime();
+            double duePackets = 0;
+            long lastNanos = startNanos;
+
+            while (!isInterrupted()) {
+                long now = System.nanoTime();
+                duePackets = Math.min(duePackets + (now - lastNanos) / 1e9 * packetsPerSecond, packetsPerSecond / 10 + 1);
+                lastNanos = now;
+
+                for (; duePackets >= 1; duePackets--) {
+                    int size = nextSize();
+                    long timestamp = (now - startNanos) * VIDEO_CLOCK_RATE / 1_000_000_000L;
+                    // 생성 시각 (nanoTime) 을 페이로드 NAL 헤더 다음에 넣는다.
+                    long stamp = System.nanoTime();
+                    for (int i = 0; i < Long.BYTES; i++) {
+                        payload[1 + i] = (byte) (stamp >>> (56 - i * 8));
+                    }
+
+                    RtpPacket rtpPacket = new RtpPacket(size, false);
+                    rtpPacket.wrap(false, VIDEO_PAYLOAD_TYPE, seqNumber, timestamp, ssrc, payload, 0, size - RtpPacket.FIXED_HEADER_SIZE);
+                    seqNumber = (seqNumber + 1) & 0xFFFF;
+                    rtpInfoBuf.offer(new RtpInfo(rtpPacket, null, null, MediaType.VIDEO.getName()));
+                    sentPackets++;
+                }
+                LockSupport.parkNanos(1_000_000L);
+            }
+        }
+
+        private int nextSize() {
+            if (sizes.length == 1) { return sizes[0]; }
+
+            int pick = ThreadLocalRandom.current().nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+            for (int i = 0; i < cumulativeWeights.length; i++) {
+                if (pick < cumulativeWeights[i]) { return sizes[i]; }
+            }
+            return sizes[sizes.length - 1];
+        }
+
+    }
+
+    /**
+     * @class private static class RtspClient
+     * @brief 시청자 하나의 RTSP 연결 (SETUP, PLAY 전송, 응답과 Interleaved RTP 수신)
+     */
+    private static class RtspClient {
+
+        private final Channel channel;
+        private final InterleavedDecoder decoder = new InterleavedDecoder(this);
+        private final String baseUri;
+        private String sessionId = null; // SETUP 응답으로 받는다.
+        private int cSeq = 0;
+        private volatile long receivedPackets = 0; // 시청자 소켓 하나는 EventLoop 하나에서만 갱신
+
+        private RtspClient(EventLoopGroup sinkGroup, InetSocketAddress serverAddress, String baseUri) throws InterruptedException {
+            this.baseUri = baseUri;
+            this.channel = new Bootstrap().group(sinkGroup).channel(NioSocketChannel.class)
+                    .option(ChannelOption.TCP_NODELAY, true)
+                    .option(ChannelOption.SO_RCVBUF, 1024 * 1024)
+                    .handler(decoder)
+                    .connect(serverAddress).sync().channel();
+        }
+
+        private void setup(String transport) throws InterruptedException {
+            send("SETUP " + baseUri + "/" + VIDEO_TRACK, "Transport: " + transport);
+            String response = decoder.responseQueue.poll(RESPONSE_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+            if (response == null || !response.startsWith("RTSP/1.0 200")) {
+                throw new IllegalStateException("SETUP is failed. (response=" + response + ")");
+            }
+
+            for (String line : response.split("\r\n")) {
+                if (line.regionMatches(true, 0, "Session:", 0, 8)) {
+                    sessionId = RtspRequestParser.parseSessionId(line.substring(8));
+                }
+            }
+            if (sessionId == null) {
+                throw new IllegalStateException("SETUP response has no session. (response=" + response + ")");
+            }
+        }
+
+        /**
+         * @fn private void play()
+         * @brief PLAY 를 보내는 함수 (서버는 첫 RTP 패킷과 함께 응답하므로 기다리지 않는다)
+         */
+        private void play() {
+            send("PLAY " + baseUri, null);
+        }
+
+        private void send(String requestLine, String header) {
+            String request = requestLine + " RTSP/1.0\r\n"
+                    + "CSeq: " + (++cSeq) + "\r\n"
+                    + (sessionId == null ? "" : "Session: " + sessionId + "\r\n")
+                    + "User-Agent: FanoutBenchmark\r\n"
+                    + (header == null ? "" : header + "\r\n")
+                    + "\r\n";
+            channel.writeAndFlush(Unpooled.copiedBuffer(request, StandardCharsets.US_ASCII));
+        }
+
+        private void onReceived(ByteBuf buf, int rtpOffset, int rtpLength) {
+            receivedPackets++;
+            recordReceived(buf, rtpOffset, rtpLength);
+        }
+
+        private long getReceivedPackets() {
+            return receivedPackets;
+        }
+
+        private void close() {
+            channel.close();
+        }
+
+    }
+
+    /**
+     * @class private static class InterleavedDecoder extends ByteToMessageDecoder
+     * @brief RTSP 연결에서 응답 (텍스트) 과 Interleaved RTP ($, 채널, 길이 2 byte, 데이터) 를 나누는 클래스
+     */
+    private static class InterleavedDecoder extends ByteToMessageDecoder {
+
+        private static final byte INTERLEAVED_MAGIC = '$';
+        private static final int INTERLEAVED_HEADER_SIZE = 4;
+
+        private final RtspClient rtspClient;
+        private final BlockingQueue<String> responseQueue = new LinkedBlockingQueue<>();
+
+        private InterleavedDecoder(RtspClient rtspClient) {
+            this.rtspClient = rtspClient;
+        }
+
+        @Override
+        protected void decode(ChannelHandlerContext ctx, ByteBuf in, List<Object> out) {
+            while (in.isReadable()) {
+                int readerIndex = in.readerIndex();
+                if (in.getByte(readerIndex) == INTERLEAVED_MAGIC) {
+                    if (in.readableBytes() < INTERLEAVED_HEADER_SIZE) { return; }
+
+                    int length = in.getUnsignedShort(readerIndex + 2);
+                    if (in.readableBytes() < INTERLEAVED_HEADER_SIZE + length) { return; }
+
+                    if (in.getUnsignedByte(readerIndex + 1) == INTERLEAVED_RTP_CHANNEL) {
+                        rtspClient.onReceived(in, readerIndex + INTERLEAVED_HEADER_SIZE, length);
+                    }
+                    in.skipBytes(INTERLEAVED_HEADER_SIZE + length);
+                } else {
+                    // 응답은 본문 없이 헤더만 온다. (SETUP, PLAY)
+                    int headerEnd = indexOfHeaderEnd(in);
+                    if (headerEnd < 0) { return; }
+
+                    String response = in.toString(readerIndex, headerEnd - readerIndex, StandardCharsets.US_ASCII);
+                    in.readerIndex(headerEnd);
+                    responseQueue.offer(response);
+                }
+            }
+        }
+
+        private static int indexOfHeaderEnd(ByteBuf in) {
+            for (int i = in.readerIndex(); i + 3 < in.writerIndex(); i++) {
+                if (in.getByte(i) == '\r' && in.getByte(i + 1) == '\n' && in.getByte(i + 2) == '\r' && in.getByte(i + 3) == '\n') {
+                    return i + 4;
+                }
+            }
+            return -1;
+        }
+
+    }
+
+}
@@ -0,0 +1,214 @@
+package rtsp;
+
+import org.jmagni.jrtsp.rtsp.base.ByteUtil;
+import org.jmagni.jrtsp.rtsp.base.RtpPacket;
+import org.jmagni.jrtsp.rtsp.stream.rtp.fec.FlexFecEncoder;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class FlexFecTest {
+
+    private static final long MEDIA_SSRC = 0x11223344L;
+    private static final long FEC_SSRC = 0x55667788L;
+    private static final int FEC_PAYLOAD_TYPE = 98;
+
+    private static byte[] makeRtpData(int seqNum, long timestamp, boolean marker, int payloadLength) {
+        byte[] payload = new byte[payloadLength];
+        for (int i = 0; i < payloadLength; i++) {
+            payload[i] = (byte) (seqNum * 31 + i);
+        }
+        RtpPacket rtpPacket = new RtpPacket(RtpPacket.RTP_PACKET_MAX_SIZE, true);
+        rtpPacket.wrap(marker, 96, seqNum, timestamp, MEDIA_SSRC, payload, 0, payloadLength);
+        return rtpPacket.getRawData();
+    }
+
+    /**
+     * @fn private static byte[] recover(byte[] fec, int seqNum, List<byte[]> receivedList)
+     * @brief FEC 패킷과 같은 그룹에서 받은 패킷들로 잃어버린 패킷 하나를 복구하는 함수 (RFC 8627 6.3.2)
+     */
+    private static byte[] recover(byte[] fec, int seqNum, List<byte[]> receivedList) {
+        int headerLength = RtpPacket.FIXED_HEADER_SIZE + 4 * (fec[0] & 0x0F);
+        byte[] bits = Arrays.copyOfRange(fec, headerLength, fec.length);
+        for (byte[] rtpData : receivedList) {
+            int protectedLength = rtpData.length - RtpPacket.FIXED_HEADER_SIZE;
+            bits[0] ^= rtpData[0];
+            bits[1] ^= rtpData[1];
+            bits[2] ^= (byte) (protectedLength >> 8);
+            bits[3] ^= (byte) protectedLength;
+            ByteUtil.xor(bits, 4, rtpData, 4, 4);
+            ByteUtil.xor(bits, FlexFecEncoder.FEC_HEADER_LENGTH, rtpData, RtpPacket.FIXED_HEADER_SIZE, protectedLength);
+        }
+
+        int protectedLength = ((bits[2] & 0xFF) << 8) | (bits[3] & 0xFF);
+        byte[] rtpData = new byte[RtpPacket.FIXED_HEADER_SIZE + protectedLength];
+        rtpData[0] = (byte) (0x80 | (bits[0] & 0x3F)); // V=2
+        rtpData[1] = bits[1];
+        rtpData[2] = (byte) (seqNum >> 8);
+        rtpData[3] = (byte) seqNum;
+        System.arraycopy(bits, 4, rtpData, 4, 4);
+        System.arraycopy(fec, RtpPacket.FIXED_HEADER_SIZE, rtpData, 8, 4); // CSRC (보호 대상 SSRC)
+        System.arraycopy(bits, FlexFecEncoder.FEC_HEADER_LENGTH, rtpData, RtpPacket.FIXED_HEADER_SIZE, protectedLength);
+        return rtpData;
+    }
+
+    private static List<byte[]> except(List<byte[]> rtpDataList, int index) {
+        List<byte[]> receivedList = new ArrayList<>(rtpDataList);
+        receivedList.remove(index);
+        return receivedList;
+    }
+
+    private static int getUnsignedShort(byte[] data, int offset) {
+        return ((data[offset] & 0xFF) << 8) | (data[offset + 1] & 0xFF);
+    }
+
+    private static void assertFecHeader(byte[] fec, int fecSeqNum, int snBase, int columns, int rows) {
+        int headerLength = RtpPacket.FIXED_HEADER_SIZE + 4;
+        assertEquals((byte) 0x81, fec[0]); // V=2, CC=1
+        assertEquals(FEC_PAYLOAD_TYPE, fec[1] & 0x7F);
+        assertEquals(fecSeqNum, getUnsignedShort(fec, 2));
+        assertEquals((int) (FEC_SSRC >>> 16), getUnsignedShort(fec, 8));
+        assertEquals((int) (MEDIA_SSRC >>> 16), getUnsignedShort(fec, 12));
+
+        assertEquals(0, fec[headerLength] & 0x80); // R
+        assertEquals(0x40, fec[headerLength] & 0x40); // F (고정 L/D)
+        assertEquals(snBase, getUnsignedShort(fec, headerLength + 8));
+        assertEquals(columns, fec[headerLength + 10] & 0xFF); // L
+        assertEquals(rows, fec[headerLength + 11] & 0xFF); // D
+    }
+
+    @Test
+    public void testRowRecovery() {
+        FlexFecEncoder encoder = new FlexFecEncoder(FlexFecEncoder.Mode.ROW, FEC_PAYLOAD_TYPE, FEC_SSRC, 500, 4, 0);
+
+        // 길이가 모두 다르고 (8 bytes 단위가 아닌 꼬리 포함) Marker 도 섞여 있다.
+        int[] payloadLengths = {100, 37, 1200, 9};
+        List<byte[]> rtpDataList = new ArrayList<>();
+        List<byte[]> fecList = null;
+        for (int i = 0; i < payloadLengths.length; i++) {
+            byte[] rtpData = makeRtpData((65534 + i) & 0xFFFF, 9000 + i * 3000L, i == 1, payloadLengths[i]);
+            rtpDataList.add(rtpData);
+            fecList = encoder.protect(rtpData);
+            if (i < payloadLengths.length - 1) {
+                assertNull(fecList);
+            }
+        }
+        assertNotNull(fecList);
+        assertEquals(1, fecList.size());
+
+        byte[] fec = fecList.get(0);
+        assertFecHeader(fec, 500, 65534, 4, 0);
+        assertEquals(RtpPacket.FIXED_HEADER_SIZE + 4 + FlexFecEncoder.FEC_HEADER_LENGTH + 1200, fec.length);
+
+        for (int i = 0; i < rtpDataList.size(); i++) {
+            int seqNum = getUnsignedShort(rtpDataList.get(i), 2);
+            assertArrayEquals("lost=" + i, rtpDataList.get(i), recover(fec, seqNum, except(rtpDataList, i)));
+        }
+
+        // 다음 그룹은 누적 버퍼를 비우고 새로 시작한다.
+        List<byte[]> nextList = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            byte[] rtpData = makeRtpData(2 + i, 21000, false, 20 + i);
+            nextList.add(rtpData);
+            fecList = encoder.protect(rtpData);
+        }
+        assertNotNull(fecList);
+        assertFecHeader(fecList.get(0), 501, 2, 4, 0);
+        assertArrayEquals(nextList.get(3), recover(fecList.get(0), 5, except(nextList, 3)));
+    }
+
+    @Test
+    public void testColumnRecovery() {
+        // L=3, D=2 : 6 개 블록에서 3 간격으로 떨어진 패킷들을 묶는다. (0,3) (1,4) (2,5)
+        FlexFecEncoder encoder = new FlexFecEncoder(FlexFecEncoder.Mode.COLUMN, FEC_PAYLOAD_TYPE, FEC_SSRC, 0, 3, 2);
+
+        List<byte[]> rtpDataList = new ArrayList<>();
+        List<byte[]> fecList = null;
+        for (int i = 0; i < 6; i++) {
+            byte[] rtpData = makeRtpData(100 + i, 9000 + i / 2 * 3000L, i % 2 == 1, 50 + i * 13);
+            rtpDataList.add(rtpData);
+            fecList = encoder.protect(rtpData);
+            if (i < 5) {
+                assertNull(fecList);
+            }
+        }
+        assertNotNull(fecList);
+        assertEquals(3, fecList.size());
+        for (int column = 0; column < 3; column++) {
+            assertFecHeader(fecList.get(column), column, 100 + column, 3, 2);
+        }
+
+        // 연속 손실 (101, 102) 도 열이 다르므로 둘 다 복구된다.
+        assertArrayEquals(rtpDataList.get(1), recover(fecList.get(1), 101, Arrays.asList(rtpDataList.get(4))));
+        assertArrayEquals(rtpDataList.get(2), recover(fecList.get(2), 102, Arrays.asList(rtpDataList.get(5))));
+        assertArrayEquals(rtpDataList.get(3), recover(fecList.get(0), 103, Arrays.asList(rtpDataList.get(0))));
+    }
+
+    @Test
+    public void testGroupSizeAppliedAtBlockBoundary() {
+        FlexFecEncoder encoder = new FlexFecEncoder(FlexFecEncoder.Mode.ROW, FEC_PAYLOAD_TYPE, FEC_SSRC, 0, 4, 0);
+
+        assertNull(encoder.protect(makeRtpData(0, 0, false, 10)));
+        assertNull(encoder.protect(makeRtpData(1, 0, false, 10)));
+        encoder.setGroupSize(2);
+        assertEquals(4, encoder.getGroupSize()); // 현재 블록은 L=4 로 끝난다.
+
+        assertNull(encoder.protect(makeRtpData(2, 0, false, 10)));
+        List<byte[]> fecList = encoder.protect(makeRtpData(3, 0, false, 10));
+        assertNotNull(fecList);
+        assertFecHeader(fecList.get(0), 0, 0, 4, 0);
+        assertEquals(2, encoder.getGroupSize());
+
+        assertNull(encoder.protect(makeRtpData(4, 0, false, 10)));
+        fecList = encoder.protect(makeRtpData(5, 0, false, 10));
+        assertNotNull(fecList);
+        assertFecHeader(fecList.get(0), 1, 4, 2, 0);
+
+        // COLUMN 모드는 D 가 바뀐다.
+        FlexFecEncoder columnEncoder = new FlexFecEncoder(FlexFecEncoder.Mode.COLUMN, FEC_PAYLOAD_TYPE, FEC_SSRC, 0, 2, 2);
+        columnEncoder.setGroupSize(3);
+        for (int i = 0; i < 3; i++) {
+            assertNull(columnEncoder.protect(makeRtpData(i, 0, false, 10)));
+        }
+        fecList = columnEncoder.protect(makeRtpData(3, 0, false, 10));
+        assertEquals(2, fecList.size());
+        assertFecHeader(fecList.get(1), 1, 1, 2, 2);
+        assertEquals(3, columnEncoder.getGroupSize());
+    }
+
+    @Test
+    public void testGroupSizeByLoss() {
+        assertEquals(20, FlexFecEncoder.getGroupSizeByLoss(0, 4, 20));
+        assertEquals(10, FlexFecEncoder.getGroupSizeByLoss(0.025f, 4, 20));
+        assertEquals(4, FlexFecEncoder.getGroupSizeByLoss(0.5f, 4, 20));
+    }
+
+    @Test
+    public void testXor() {
+        Random random = new Random(1);
+        for (int dstOffset = 0; dstOffset < 8; dstOffset++) {
+            for (int srcOffset = 0; srcOffset < 8; srcOffset += 3) {
+                for (int length = 0; length <= 25; length++) {
+                    byte[] dst = new byte[dstOffset + length + 8];
+                    byte[] src = new byte[srcOffset + length + 8];
+                    random.nextBytes(dst);
+                    random.nextBytes(src);
+
+                    byte[] expected = dst.clone();
+                    for (int i = 0; i < length; i++) {
+                        expected[dstOffset + i] ^= src[srcOffset + i];
+                    }
+
+                    ByteUtil.xor(dst, dstOffset, src, srcOffset, length);
+                    assertArrayEquals("dstOffset=" + dstOffset + ", srcOffset=" + srcOffset + ", length=" + length, expected, dst);
+                }
+            }
+        }
+    }
+
+}
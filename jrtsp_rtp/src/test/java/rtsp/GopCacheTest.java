@@ -0,0 +1,84 @@
+package rtsp;
+
+import org.jmagni.jrtsp.rtsp.base.RtpPacket;
+import org.jmagni.jrtsp.rtsp.stream.rtp.gop.GopBurst;
+import org.jmagni.jrtsp.rtsp.stream.rtp.gop.GopCache;
+import org.jmagni.jrtsp.rtsp.stream.rtp.gop.GopPacket;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class GopCacheTest {
+
+    private static final byte[] SPS = {0x67, 0x42, 0x00, 0x1F};
+    private static final byte[] PPS = {0x68, (byte) 0xCE, 0x3C, (byte) 0x80};
+    private static final byte[] IDR = {0x65, (byte) 0x88, (byte) 0x84, 0x00};
+    private static final byte[] NON_IDR = {0x41, (byte) 0x9A, 0x02, 0x00};
+
+    private static RtpPacket makePacket(int seqNum, long timestamp, byte[] payload) {
+        RtpPacket rtpPacket = new RtpPacket(RtpPacket.RTP_PACKET_MAX_SIZE, true);
+        rtpPacket.wrap(true, 96, seqNum, timestamp, 1234L, payload, 0, payload.length);
+        return rtpPacket;
+    }
+
+    @Test
+    public void testGopFromLastIdr() {
+        GopCache gopCache = new GopCache("test", 100);
+        gopCache.put(makePacket(1, 0, NON_IDR), 0); // IDR 전 > 무시
+        gopCache.put(makePacket(2, 3000, SPS), 0);
+        gopCache.put(makePacket(3, 3000, PPS), 0);
+        gopCache.put(makePacket(4, 3000, IDR), 0);
+        gopCache.put(makePacket(5, 6000, NON_IDR), 0);
+        gopCache.put(makePacket(6, 9000, IDR), 100); // 새 GOP, SPS/PPS 를 앞에 붙인다.
+        gopCache.put(makePacket(7, 12000, NON_IDR), 100);
+        assertEquals(4, gopCache.size());
+        assertEquals(50, gopCache.getKeyframeAge(150));
+
+        List<GopPacket> gopPacketList = gopCache.snapshot();
+        assertEquals(4, gopPacketList.size());
+
+        GopBurst gopBurst = new GopBurst(gopPacketList, 1000, 10, 90000);
+        assertEquals(4, gopBurst.getFirstSeqNum());
+        assertEquals(12000 - 900, gopBurst.getFirstTimestamp());
+        assertTrue(gopBurst.isCovered(7));
+        assertFalse(gopBurst.isCovered(8));
+
+        // 첫 프레임 (SPS, PPS, IDR) 은 바로, 다음 프레임은 10ms 뒤
+        List<byte[]> first = gopBurst.pollDue(1000);
+        assertEquals(3, first.size());
+        assertEquals(0x67, first.get(0)[12]);
+        assertEquals(5, first.get(1)[3]);
+        assertTrue(gopBurst.pollDue(1005).isEmpty());
+        assertEquals(1, gopBurst.pollDue(1010).size());
+        assertTrue(gopBurst.isDone());
+        assertEquals(0, gopPacketList.get(0).getData().refCnt()); // 보낸 뒤 release
+        gopCache.clear();
+    }
+
+    @Test
+    public void testPutAfterClose() {
+        GopCache gopCache = new GopCache("test", 100);
+        gopCache.put(makePacket(1, 3000, SPS), 0);
+        gopCache.put(makePacket(2, 3000, IDR), 0);
+        List<GopPacket> gopPacketList = gopCache.snapshot();
+        assertEquals(2, gopPacketList.size());
+
+        // 닫으면 캐시가 가진 참조는 놓고, 이미 꺼내 간 snapshot 은 그대로 쓸 수 있다.
+        gopCache.close();
+        assertTrue(gopCache.isClosed());
+        assertEquals(0, gopCache.size());
+        for (GopPacket gopPacket : gopPacketList) {
+            assertEquals(1, gopPacket.getData().refCnt());
+            gopPacket.release();
+        }
+
+        // Call 삭제 뒤에 relay 중이던 패킷이 들어와도 복사본을 남기지 않는다.
+        gopCache.put(makePacket(3, 6000, IDR), 0);
+        gopCache.put(makePacket(4, 9000, NON_IDR), 0);
+        assertEquals(0, gopCache.size());
+        assertTrue(gopCache.snapshot().isEmpty());
+    }
+
+}
@@ -0,0 +1,120 @@
+package rtsp;
+
+import org.jmagni.jrtsp.rtsp.base.RtpPacket;
+import org.jmagni.jrtsp.rtsp.codec.h264.H264NalUnit;
+import org.jmagni.jrtsp.rtsp.codec.h264.H264ParameterSets;
+import org.jmagni.jrtsp.rtsp.codec.h264.H264RtpDepacketizer;
+import org.jmagni.jrtsp.rtsp.codec.h264.H264RtpPacketizer;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class H264PacketizationTest {
+
+    private static byte[] makeNalUnit(int header, int length) {
+        byte[] nalUnit = new byte[length];
+        nalUnit[0] = (byte) header;
+        for (int i = 1; i < length; i++) {
+            nalUnit[i] = (byte) i;
+        }
+        return nalUnit;
+    }
+
+    private static byte[] makeRtpData(int seqNum, byte[] payload, boolean marker) {
+        RtpPacket rtpPacket = new RtpPacket(RtpPacket.RTP_PACKET_MAX_SIZE * 4, true);
+        rtpPacket.wrap(marker, 96, seqNum, 9000, 1234L, payload, 0, payload.length);
+        return rtpPacket.getRawData();
+    }
+
+    private static List<H264NalUnit> depacketize(H264RtpDepacketizer depacketizer, byte[] rtpData, int seqNum) {
+        return depacketizer.depacketize(ByteBuffer.wrap(rtpData), rtpData.length, seqNum, 9000);
+    }
+
+    @Test
+    public void testPacketizeAndDepacketize() {
+        byte[] sps = makeNalUnit(0x67, 10);
+        byte[] pps = makeNalUnit(0x68, 4);
+        byte[] idr = makeNalUnit(0x65, 3000);
+
+        H264RtpPacketizer packetizer = new H264RtpPacketizer(1000);
+        List<byte[]> payloadList = packetizer.packetize(Arrays.asList(
+                H264NalUnit.wrap(sps), H264NalUnit.wrap(pps), H264NalUnit.wrap(idr)
+        ));
+        assertEquals(1 + 4, payloadList.size()); // STAP-A(SPS, PPS) + FU-A * 4
+        assertEquals(24, payloadList.get(0)[0] & 0x1F);
+
+        H264RtpDepacketizer depacketizer = new H264RtpDepacketizer();
+        List<H264NalUnit> nalUnitList = new ArrayList<>();
+        for (int i = 0; i < payloadList.size(); i++) {
+            nalUnitList.addAll(depacketize(depacketizer, makeRtpData(i, payloadList.get(i), false), i));
+        }
+        assertEquals(3, nalUnitList.size());
+        assertTrue(nalUnitList.get(0).isSps());
+        assertTrue(nalUnitList.get(1).isPps());
+        assertTrue(nalUnitList.get(2).isIdr());
+        assertArrayEquals(idr, nalUnitList.get(2).toByteArray());
+
+        // 중간 조각이 빠지면 NAL unit 을 버린다.
+        depacketize(depacketizer, makeRtpData(10, payloadList.get(1), false), 10);
+        assertTrue(depacketize(depacketizer, makeRtpData(12, payloadList.get(3), false), 12).isEmpty());
+        assertEquals(1, depacketizer.getDroppedNalUnitCount());
+    }
+
+    @Test
+    public void testRefragment() {
+        byte[] idr = makeNalUnit(0x65, 3000);
+        byte[] rtpData = makeRtpData(100, idr, true);
+
+        List<byte[]> rtpDataList = H264RtpPacketizer.refragment(rtpData, 1200);
+        assertEquals(3, rtpDataList.size());
+        for (byte[] packet : rtpDataList) {
+            assertTrue(packet.length <= 1200);
+        }
+        assertEquals(0, rtpDataList.get(0)[1] & 0x80);
+        assertEquals(0x80, rtpDataList.get(2)[1] & 0x80);
+
+        // FU-A 를 더 작게 나눠도 원본 NAL unit 으로 다시 조립된다.
+        H264RtpDepacketizer depacketizer = new H264RtpDepacketizer();
+        List<H264NalUnit> nalUnitList = new ArrayList<>();
+        int seqNum = 0;
+        for (byte[] packet : rtpDataList) {
+            for (byte[] smaller : H264RtpPacketizer.refragment(packet, 500)) {
+                nalUnitList.addAll(depacketize(depacketizer, smaller, seqNum++));
+            }
+        }
+        assertEquals(1, nalUnitList.size());
+        assertArrayEquals(idr, nalUnitList.get(0).toByteArray());
+
+        assertSame(rtpData, H264RtpPacketizer.refragment(rtpData, 0).get(0));
+    }
+
+    @Test
+    public void testParameterSetsFmtp() {
+        byte[] sps = {0x67, 0x42, (byte) 0xE0, 0x1F, 0x11};
+        byte[] pps = {0x68, (byte) 0xCE, 0x3C, (byte) 0x80};
+        byte[] stapA = new byte[1 + 2 + sps.length + 2 + pps.length];
+        stapA[0] = 0x78; // NRI 3, STAP-A
+        stapA[2] = (byte) sps.length;
+        System.arraycopy(sps, 0, stapA, 3, sps.length);
+        stapA[3 + sps.length + 1] = (byte) pps.length;
+        System.arraycopy(pps, 0, stapA, 3 + sps.length + 2, pps.length);
+
+        RtpPacket rtpPacket = new RtpPacket(RtpPacket.RTP_PACKET_MAX_SIZE, true);
+        rtpPacket.wrap(false, 96, 1, 9000, 1234L, stapA, 0, stapA.length);
+
+        H264ParameterSets parameterSets = new H264ParameterSets();
+        assertNull(parameterSets.getFmtp(96));
+        assertTrue(parameterSets.update(rtpPacket));
+        assertFalse(parameterSets.update(rtpPacket)); // 같은 SPS/PPS
+        assertEquals(
+                "fmtp:96 packetization-mode=1;profile-level-id=42e01f;sprop-parameter-sets=Z0LgHxE=,aM48gA==",
+                parameterSets.getFmtp(96)
+        );
+    }
+
+}
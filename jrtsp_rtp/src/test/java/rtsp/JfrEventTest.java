@@ -0,0 +1,69 @@
+package rtsp;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.jmagni.jrtsp.service.jfr.FanoutBatchEvent;
+import org.jmagni.jrtsp.service.jfr.RtspRequestEvent;
+import org.junit.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class JfrEventTest {
+
+    @Test
+    public void eventsAreRecordedOnlyWithSettings() throws Exception {
+        // 기본은 꺼져 있음
+        RtspRequestEvent disabledEvent = new RtspRequestEvent();
+        disabledEvent.begin();
+        disabledEvent.end();
+        assertFalse(disabledEvent.shouldCommit());
+        assertNull(FanoutBatchEvent.sample());
+
+        Configuration configuration = Configuration.create(Paths.get("src/main/resources/config/jrtsp.jfc"));
+        Path jfrFile = Files.createTempFile("jrtsp", ".jfr");
+        try (Recording recording = new Recording(configuration)) {
+            recording.start();
+
+            RtspRequestEvent rtspRequestEvent = new RtspRequestEvent();
+            rtspRequestEvent.begin();
+            rtspRequestEvent.end();
+            assertTrue(rtspRequestEvent.shouldCommit());
+            rtspRequestEvent.method = "SETUP";
+            rtspRequestEvent.callId = "call-1";
+            rtspRequestEvent.status = 200;
+            rtspRequestEvent.commit();
+
+            FanoutBatchEvent fanoutBatchEvent = null;
+            for (int i = 0; i < FanoutBatchEvent.SAMPLE_RATE * 100 && fanoutBatchEvent == null; i++) {
+                fanoutBatchEvent = FanoutBatchEvent.sample();
+            }
+            assertNotNull(fanoutBatchEvent);
+            fanoutBatchEvent.packets = 3;
+            fanoutBatchEvent.commit();
+
+            recording.stop();
+            recording.dump(jfrFile);
+        }
+
+        try {
+            List<RecordedEvent> recordedEvents = RecordingFile.readAllEvents(jfrFile);
+            RecordedEvent rtspEvent = recordedEvents.stream()
+                    .filter(event -> event.getEventType().getName().equals("org.jmagni.jrtsp.RtspRequest"))
+                    .findFirst().orElse(null);
+            assertNotNull(rtspEvent);
+            assertEquals("SETUP", rtspEvent.getString("method"));
+            assertEquals(200, rtspEvent.getInt("status"));
+            assertTrue(recordedEvents.stream().anyMatch(event -> event.getEventType().getName().equals("org.jmagni.jrtsp.FanoutBatch")));
+        } finally {
+            Files.deleteIfExists(jfrFile);
+        }
+    }
+
+}
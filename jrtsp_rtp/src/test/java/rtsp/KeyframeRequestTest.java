@@ -0,0 +1,119 @@
+package rtsp;
+
+import org.jmagni.jrtsp.rtsp.base.MediaType;
+import org.jmagni.jrtsp.rtsp.base.RtpPacket;
+import org.jmagni.jrtsp.rtsp.rtcp.base.RtcpType;
+import org.jmagni.jrtsp.rtsp.rtcp.packet.RtcpCompoundPacket;
+import org.jmagni.jrtsp.rtsp.rtcp.packet.RtcpPacket;
+import org.jmagni.jrtsp.rtsp.rtcp.type.extended.feedback.base.RtcpFeedbackMessageHeader;
+import org.jmagni.jrtsp.rtsp.rtcp.type.extended.feedback.payloadspecific.RtcpFullIntraRequest;
+import org.jmagni.jrtsp.rtsp.rtcp.type.extended.feedback.payloadspecific.RtcpPictureLossIndication;
+import org.jmagni.jrtsp.rtsp.rtcp.type.extended.feedback.payloadspecific.base.RtcpFirEntry;
+import org.jmagni.jrtsp.rtsp.rtcp.type.extended.feedback.payloadspecific.base.RtcpPayloadSpecificFeedbackType;
+import org.jmagni.jrtsp.rtsp.stream.rtp.feedback.KeyframeRequestCoalescer;
+import org.jmagni.jrtsp.session.CallInfo;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class KeyframeRequestTest {
+
+    @BeforeClass
+    public static void init() {
+        StreamerRegistryTest.init();
+    }
+
+    @Test
+    public void testPliParsing() {
+        RtcpFeedbackMessageHeader header = new RtcpFeedbackMessageHeader(
+                2, 0, 0, RtcpPayloadSpecificFeedbackType.PLI, RtcpType.PSFB,
+                2, 0x11111111L, 0x22222222L, null
+        );
+        RtcpCompoundPacket compoundPacket = new RtcpCompoundPacket(new RtcpPictureLossIndication(header).getData());
+        assertEquals(1, compoundPacket.getRtcpPacketList().size());
+
+        RtcpPacket rtcpPacket = compoundPacket.getRtcpPacketByIndex(0);
+        assertEquals(RtcpType.PSFB, rtcpPacket.getRtcpHeader().getPacketType());
+        assertTrue(rtcpPacket.getRtcpFormat() instanceof RtcpPictureLossIndication);
+
+        RtcpPictureLossIndication parsed = (RtcpPictureLossIndication) rtcpPacket.getRtcpFormat();
+        assertEquals(0x11111111L, parsed.getRtcpFeedbackMessageHeader().getPacketSenderSsrc());
+        assertEquals(0x22222222L, parsed.getRtcpFeedbackMessageHeader().getMediaSourceSsrc());
+    }
+
+    @Test
+    public void testFirParsing() {
+        // FIR 은 Media source SSRC 를 쓰지 않고 (0) FCI entry 마다 대상 SSRC 와 Command sequence number 를 담는다.
+        RtcpFeedbackMessageHeader header = new RtcpFeedbackMessageHeader(
+                2, 0, 0, RtcpPayloadSpecificFeedbackType.FIR, RtcpType.PSFB,
+                2 + 2 * 2, 0x11111111L, 0, null
+        );
+        RtcpFullIntraRequest fir = new RtcpFullIntraRequest(header, Arrays.asList(
+                new RtcpFirEntry(0x22222222L, 7),
+                new RtcpFirEntry(0x33333333L, 255)
+        ));
+        assertEquals(RtcpFeedbackMessageHeader.LENGTH + 2 * RtcpFirEntry.LENGTH, fir.getData().length);
+
+        RtcpCompoundPacket compoundPacket = new RtcpCompoundPacket(fir.getData());
+        RtcpPacket rtcpPacket = compoundPacket.getRtcpPacketByIndex(0);
+        assertTrue(rtcpPacket.getRtcpFormat() instanceof RtcpFullIntraRequest);
+
+        List<RtcpFirEntry> entryList = ((RtcpFullIntraRequest) rtcpPacket.getRtcpFormat()).getRtcpFirEntryList();
+        assertEquals(2, entryList.size());
+        assertEquals(0x22222222L, entryList.get(0).getSsrc());
+        assertEquals(7, entryList.get(0).getSeqNr());
+        assertEquals(0x33333333L, entryList.get(1).getSsrc());
+        assertEquals(255, entryList.get(1).getSeqNr());
+    }
+
+    @Test
+    public void testCoalescerWindow() {
+        KeyframeRequestCoalescer coalescer = new KeyframeRequestCoalescer();
+
+        // 윈도우 (500ms) 마다 첫 요청만 전달된다.
+        long[] requestTimes = {1000, 1100, 1499, 1500, 1700, 2100};
+        boolean[] expected = {true, false, false, true, false, true};
+        for (int i = 0; i < requestTimes.length; i++) {
+            coalescer.markReceived();
+            assertEquals("t=" + requestTimes[i], expected[i], coalescer.tryForward(requestTimes[i], 500));
+        }
+        coalescer.markLocallyAnswered();
+
+        assertEquals(6, coalescer.getReceivedCount());
+        assertEquals(3, coalescer.getForwardedCount());
+        assertEquals(1, coalescer.getLocallyAnsweredCount());
+    }
+
+    @Test
+    public void testRequestWithCachedKeyframe() {
+        CallInfo callInfo = new CallInfo("conference1", "keyframe_call", true);
+        List<Long> forwardedSsrcList = new ArrayList<>();
+        callInfo.setSourceFeedbackListener((callId, mediaSourceSsrc) -> forwardedSsrcList.add(mediaSourceSsrc));
+
+        // 방금 받은 IDR 이 GOP 캐시에 있어도 시청자의 요청은 (윈도우마다 한 번) 원본으로 전달되어야 한다.
+        RtpPacket idrPacket = new RtpPacket(RtpPacket.RTP_PACKET_MAX_SIZE, true);
+        idrPacket.wrap(true, 96, 1, 9000, 1234L, new byte[]{0x65, 1, 2, 3}, 0, 4);
+        callInfo.storeGopPacket(idrPacket, MediaType.VIDEO.getName());
+        assertNotNull(callInfo.getGopCache());
+        assertTrue(callInfo.getGopCache().getKeyframeAge(System.currentTimeMillis()) >= 0);
+
+        assertTrue(callInfo.requestKeyframe("viewer1", 1234L));
+        assertFalse(callInfo.requestKeyframe("viewer2", 1234L));
+
+        // GOP 를 받는 중인 시청자의 요청은 Streamer 가 직접 처리한다.
+        callInfo.answerKeyframeLocally("viewer3", 1234L);
+
+        assertEquals(Arrays.asList(1234L), forwardedSsrcList);
+        assertEquals(2, callInfo.getKeyframeRequestReceivedCount());
+        assertEquals(1, callInfo.getKeyframeRequestForwardedCount());
+        assertEquals(1, callInfo.getKeyframeRequestLocallyAnsweredCount());
+
+        callInfo.clearGopCache();
+    }
+
+}
@@ -0,0 +1,92 @@
+package rtsp;
+
+import org.jmagni.jrtsp.service.metrics.Metric;
+import org.jmagni.jrtsp.service.metrics.MetricCounter;
+import org.jmagni.jrtsp.service.metrics.MetricHistogram;
+import org.jmagni.jrtsp.service.metrics.MetricsHttpServer;
+import org.jmagni.jrtsp.service.metrics.MetricsRegistry;
+import org.jmagni.jrtsp.service.metrics.ServerMetrics;
+import org.junit.Test;
+
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.*;
+
+public class MetricsRegistryTest {
+
+    @Test
+    public void scrapePrometheusTextFormat() throws Exception {
+        MetricsRegistry metricsRegistry = new MetricsRegistry();
+        MetricCounter setupCounter = metricsRegistry.counter("test_requests_total", "Requests.", "method=\"SETUP\"");
+        MetricCounter playCounter = metricsRegistry.counter("test_requests_total", "Requests.", "method=\"PLAY\"");
+        MetricHistogram histogram = metricsRegistry.histogram("test_duration_us", "Duration.", null, new long[]{10, 100});
+        metricsRegistry.gauge("test_gauge", "Gauge.", () -> 42);
+        metricsRegistry.counterFunction("test_expired_total", "Expired.", () -> 7);
+
+        // 같은 키는 같은 지표
+        assertSame(setupCounter, metricsRegistry.counter("test_requests_total", "Requests.", "method=\"SETUP\""));
+
+        setupCounter.inc();
+        setupCounter.add(2);
+        playCounter.inc();
+        histogram.record(5);
+        histogram.record(50);
+        histogram.record(5000);
+
+        String text = metricsRegistry.scrape();
+        assertEquals(1, text.split("# TYPE test_requests_total counter", -1).length - 1);
+        assertTrue(text.contains("test_requests_total{method=\"SETUP\"} 3\n"));
+        assertTrue(text.contains("test_requests_total{method=\"PLAY\"} 1\n"));
+        assertTrue(text.contains("test_duration_us_bucket{le=\"10\"} 1\n"));
+        assertTrue(text.contains("test_duration_us_bucket{le=\"100\"} 2\n"));
+        assertTrue(text.contains("test_duration_us_bucket{le=\"+Inf\"} 3\n"));
+        assertTrue(text.contains("test_duration_us_sum 5055\n"));
+        assertTrue(text.contains("test_gauge 42\n"));
+        // 다른 모듈이 세는 누적 값은 counter 로 노출한다. (_total 이름의 gauge 가 아님)
+        assertTrue(text.contains("# TYPE test_expired_total counter\ntest_expired_total 7\n"));
+
+        MetricsHttpServer metricsHttpServer = new MetricsHttpServer(metricsRegistry);
+        assertTrue(metricsHttpServer.start("127.0.0.1", 0));
+        try {
+            URL url = new URL("http://127.0.0.1:" + metricsHttpServer.getPort() + MetricsHttpServer.METRICS_PATH);
+            HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+            assertEquals(200, connection.getResponseCode());
+            try (InputStream inputStream = connection.getInputStream()) {
+                String body = new String(inputStream.readAllBytes(), StandardCharsets.UTF_8);
+                assertTrue(body.contains("test_gauge 42"));
+            }
+        } finally {
+            metricsHttpServer.stop();
+        }
+    }
+
+    @Test
+    public void escapeLabelValue() {
+        assertEquals("method=\"SETUP\"", Metric.label("method", "SETUP"));
+        assertEquals("call_id=\"a\\\\b\\\"c\\nd\"", Metric.label("call_id", "a\\b\"c\nd"));
+
+        // 값에 줄바꿈, 따옴표가 있어도 샘플은 한 줄이고 Label 이 닫힌다.
+        MetricsRegistry metricsRegistry = new MetricsRegistry();
+        metricsRegistry.counter("test_calls_total", "Calls.", Metric.label("call_id", "x\"} 1\nfake_metric 9")).inc();
+        String text = metricsRegistry.scrape();
+        assertTrue(text.contains("test_calls_total{call_id=\"x\\\"} 1\\nfake_metric 9\"} 1\n"));
+        assertFalse(text.contains("\nfake_metric"));
+    }
+
+    @Test
+    public void serverMetricsSingleton() {
+        // 정적 필드 초기화 순서 (구간 경계 > 싱글톤)
+        ServerMetrics serverMetrics = ServerMetrics.getInstance();
+        assertNotNull(serverMetrics);
+        assertNotNull(serverMetrics.getRtcpRtt());
+        serverMetrics.registerGauges();
+        String text = MetricsRegistry.getInstance().scrape();
+        assertTrue(text.contains("# TYPE jrtsp_rtcp_rtt_ms histogram"));
+        assertTrue(text.contains("# TYPE jrtsp_session_expired_total counter"));
+        assertTrue(text.contains("# TYPE jrtsp_calls_rejected_total counter"));
+    }
+
+}
@@ -0,0 +1,103 @@
+package rtsp;
+
+import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.jmagni.jrtsp.service.metrics.MetricLatency;
+import org.jmagni.jrtsp.service.metrics.MetricsRegistry;
+import org.jmagni.jrtsp.service.metrics.PacketLatencyMetrics;
+import org.jmagni.jrtsp.session.SessionManager;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.*;
+
+public class PacketLatencyMetricsTest {
+
+    @Test
+    public void percentileWithinRelativeError() {
+        MetricLatency latency = new MetricLatency("test_latency_us", "Latency.", null);
+        for (long value = 1; value <= 100000; value++) {
+            latency.record(value);
+        }
+
+        assertEquals(100000, latency.getCount());
+        assertEquals(100000, latency.getMax());
+        assertEquals(50000, latency.getPercentile(0.5), 50000 / 32.0);
+        assertEquals(99000, latency.getPercentile(0.99), 99000 / 32.0);
+        assertEquals(100000, latency.getPercentile(1.0));
+
+        StringBuilder builder = new StringBuilder();
+        latency.writeTo(builder);
+        assertTrue(builder.toString().contains("test_latency_us{quantile=\"1\"} 100000\n"));
+        assertTrue(builder.toString().contains("test_latency_us_count 100000\n"));
+    }
+
+    @Test
+    public void samplingAndWireCompletion() {
+        PacketLatencyMetrics packetLatencyMetrics = new PacketLatencyMetrics(new MetricsRegistry());
+        assertEquals(0, packetLatencyMetrics.stamp()); // 기본은 꺼져 있음
+
+        packetLatencyMetrics.setSampleRate(1);
+        long ingestNanos = packetLatencyMetrics.stamp() - TimeUnit.MILLISECONDS.toNanos(2);
+        packetLatencyMetrics.recordQueue(ingestNanos);
+        assertEquals(1, packetLatencyMetrics.getQueueLatency().getCount());
+        assertTrue(packetLatencyMetrics.getQueueLatency().getMax() >= 2000);
+
+        EmbeddedChannel channel = new EmbeddedChannel();
+        ChannelFuture channelFuture = channel.writeAndFlush(Unpooled.wrappedBuffer(new byte[]{1, 2, 3}));
+        packetLatencyMetrics.recordWrite("no-call", PacketLatencyMetrics.TRANSPORT_UDP, ingestNanos, channelFuture);
+        channel.runPendingTasks();
+
+        assertEquals(1, packetLatencyMetrics.getFanoutLatency().getCount());
+        assertEquals(1, packetLatencyMetrics.getUdpWireLatency().getCount());
+        assertEquals(0, packetLatencyMetrics.getTcpWireLatency().getCount());
+        // 없는 Call 은 Call 별 지표를 만들지 않음
+        assertNull(packetLatencyMetrics.getCallLatency("no-call"));
+        channel.finishAndReleaseAll();
+
+        packetLatencyMetrics.setSampleRate(0);
+        assertEquals(0, packetLatencyMetrics.stamp());
+    }
+
+    @Test
+    public void callLatencyRemovedWithCall() throws Exception {
+        StreamerRegistryTest.init();
+        PacketLatencyMetrics packetLatencyMetrics = PacketLatencyMetrics.getInstance();
+        SessionManager sessionManager = SessionManager.getInstance();
+        String callId = "latency\"call";
+        String callLabel = "call_id=\"latency\\\"call\"";
+
+        assertNotNull(sessionManager.createCall("latency_conference", callId, true));
+        packetLatencyMetrics.recordWire(callId, PacketLatencyMetrics.TRANSPORT_TCP, System.nanoTime());
+        assertEquals(1, packetLatencyMetrics.getCallLatency(callId).getCount());
+        assertTrue(MetricsRegistry.getInstance().scrape().contains(callLabel));
+
+        sessionManager.deleteCall(callId);
+        assertNull(packetLatencyMetrics.getCallLatency(callId));
+        assertFalse(MetricsRegistry.getInstance().scrape().contains(callLabel));
+
+        // 전송 완료가 Call 삭제와 겹쳐도 삭제된 Call 의 지표가 남지 않는다.
+        AtomicBoolean isRunning = new AtomicBoolean(true);
+        Thread wireThread = new Thread(() -> {
+            while (isRunning.get()) {
+                packetLatencyMetrics.recordWire(callId, PacketLatencyMetrics.TRANSPORT_TCP, System.nanoTime());
+            }
+        });
+        wireThread.start();
+        try {
+            for (int i = 0; i < 500; i++) {
+                assertNotNull(sessionManager.createCall("latency_conference", callId, true));
+                sessionManager.deleteCall(callId);
+            }
+        } finally {
+            isRunning.set(false);
+            wireThread.join();
+        }
+        assertNull(packetLatencyMetrics.getCallLatency(callId));
+        assertFalse(MetricsRegistry.getInstance().scrape().contains(callLabel));
+    }
+
+}
@@ -0,0 +1,48 @@
+package rtsp;
+
+import org.jmagni.jrtsp.rtsp.PortManager;
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+public class PortManagerTest {
+
+    @Test
+    public void takeAndRestorePairs() {
+        PortManager portManager = new PortManager();
+        // 홀수 시작은 다음 짝수부터, 마지막 RTP 포트의 RTCP (+1) 까지 범위 안이어야 한다.
+        portManager.initResource(5001, 5200);
+        assertEquals(99, portManager.getTotalPairCount()); // 5002 ~ 5198 (+1)
+        assertEquals(99, portManager.getFreePairCount());
+
+        Set<Integer> ports = new HashSet<>();
+        int port;
+        while ((port = portManager.takePort()) > 0) {
+            assertEquals(0, port % 2);
+            assertTrue(port >= 5002 && port + 1 <= 5200);
+            assertTrue(ports.add(port));
+        }
+        assertEquals(99, ports.size());
+        assertEquals(0, portManager.getFreePairCount());
+
+        // RTCP 포트로 반환해도 같은 쌍이 반환된다.
+        portManager.restorePort(5011);
+        assertEquals(1, portManager.getFreePairCount());
+        assertEquals(5010, portManager.takePort());
+
+        // 중복 반환은 무시
+        portManager.restorePort(5010);
+        portManager.restorePort(5010);
+        assertEquals(1, portManager.getFreePairCount());
+
+        portManager.removePort(5010);
+        assertEquals(-1, portManager.takePort());
+
+        portManager.releaseResource();
+        assertEquals(-1, portManager.takePort());
+    }
+
+}
@@ -0,0 +1,218 @@
+package rtsp;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.embedded.EmbeddedChannel;
+import lombok.extern.slf4j.Slf4j;
+import org.jmagni.jrtsp.config.ConfigManager;
+import org.jmagni.jrtsp.rtsp.Streamer;
+import org.jmagni.jrtsp.rtsp.base.MediaType;
+import org.jmagni.jrtsp.rtsp.base.RtpPacket;
+import org.jmagni.jrtsp.rtsp.codec.h264.H264RtpPacketizer;
+import org.jmagni.jrtsp.rtsp.rtcp.base.RtcpType;
+import org.jmagni.jrtsp.rtsp.rtcp.packet.RtcpCompoundPacket;
+import org.jmagni.jrtsp.rtsp.rtcp.packet.RtcpPacket;
+import org.jmagni.jrtsp.rtsp.rtcp.type.extended.feedback.base.RtcpFeedbackMessageHeader;
+import org.jmagni.jrtsp.rtsp.rtcp.type.extended.feedback.transportlayer.RtcpNegativeAck;
+import org.jmagni.jrtsp.rtsp.rtcp.type.extended.feedback.transportlayer.base.RtcpNackBlock;
+import org.jmagni.jrtsp.rtsp.rtcp.type.extended.feedback.transportlayer.base.RtcpTransportLayerFeedbackType;
+import org.jmagni.jrtsp.rtsp.stream.rtp.retransmission.RtpRetransmissionCache;
+import org.jmagni.jrtsp.rtsp.stream.rtp.retransmission.RtxPacketEncoder;
+import org.jmagni.jrtsp.service.AppInstance;
+import org.jmagni.jrtsp.session.CallInfo;
+import org.jmagni.jrtsp.session.SessionManager;
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.jmagni.jrtsp.rtsp.stream.rtp.base.RtpMeta.VIDEO_TRACK_ID;
+import static org.junit.Assert.*;
+
+@Slf4j
+public class RtpRetransmissionTest {
+
+    @Test
+    public void testNackParsing() {
+        RtcpFeedbackMessageHeader header = new RtcpFeedbackMessageHeader(
+                2, 0, 0, RtcpTransportLayerFeedbackType.NACK, (short) RtcpType.RTPFB,
+                3, 0x11111111L, 0x22222222L, null
+        );
+        RtcpNegativeAck nack = new RtcpNegativeAck(
+                header, Collections.singletonList(new RtcpNackBlock(65535, 0x0005))
+        );
+
+        RtcpCompoundPacket compoundPacket = new RtcpCompoundPacket(nack.getData());
+        assertEquals(1, compoundPacket.getRtcpPacketList().size());
+
+        RtcpPacket rtcpPacket = compoundPacket.getRtcpPacketByIndex(0);
+        assertEquals(RtcpType.RTPFB, rtcpPacket.getRtcpHeader().getPacketType());
+        assertTrue(rtcpPacket.getRtcpFormat() instanceof RtcpNegativeAck);
+
+        RtcpNegativeAck parsed = (RtcpNegativeAck) rtcpPacket.getRtcpFormat();
+        assertEquals(0x22222222L, parsed.getRtcpFeedbackMessageHeader().getMediaSourceSsrc());
+        assertArrayEquals(new int[]{65535, 0, 2}, parsed.getRtcpNackBlockList().get(0).getLostSequenceNumbers());
+    }
+
+    @Test
+    public void testCacheAndRtx() {
+        RtpRetransmissionCache cache = new RtpRetransmissionCache(1234L, 100, 1000);
+        assertEquals(128, cache.getCapacity());
+
+        RtpPacket rtpPacket = new RtpPacket(RtpPacket.RTP_PACKET_MAX_SIZE, true);
+        rtpPacket.wrap(true, 96, 7, 9000, 1234L, new byte[]{1, 2, 3}, 0, 3);
+        assertTrue(cache.put(rtpPacket, 0));
+
+        byte[] original = cache.get(7, 500);
+        assertNotNull(original);
+        assertArrayEquals(rtpPacket.getRawData(), original);
+        assertNull(cache.get(7 + 128, 500)); // overwritten slot is not matched
+        assertNull(cache.get(7, 2000)); // out of window
+
+        byte[] rtx = RtxPacketEncoder.encode(original, 97, 100, 5678L);
+        assertNotNull(rtx);
+        assertEquals(original.length + RtxPacketEncoder.OSN_LENGTH, rtx.length);
+        assertEquals((byte) (0x80 | 97), rtx[1]);
+        assertEquals(0, rtx[12]);
+        assertEquals(7, rtx[13]);
+        assertEquals(1, rtx[14]);
+    }
+
+    @Test
+    public void testCallCacheLifecycle() {
+        StreamerRegistryTest.init();
+        CallInfo callInfo = new CallInfo("conference1", "retransmission_cache_call", true);
+
+        RtpPacket audioPacket = new RtpPacket(RtpPacket.RTP_PACKET_MAX_SIZE, true);
+        audioPacket.wrap(false, 0, 1, 160, 1111L, new byte[160], 0, 160);
+        callInfo.storeRetransmissionPacket(audioPacket, MediaType.AUDIO.getName());
+        assertNull(callInfo.getRetransmissionCache(1111L)); // 오디오는 저장하지 않는다.
+
+        RtpPacket videoPacket = new RtpPacket(RtpPacket.RTP_PACKET_MAX_SIZE, true);
+        videoPacket.wrap(true, 96, 1, 9000, 1234L, new byte[]{0x41, 1, 2, 3}, 0, 4);
+        callInfo.storeRetransmissionPacket(videoPacket, MediaType.VIDEO.getName());
+        RtpRetransmissionCache cache = callInfo.getRetransmissionCache(1234L);
+        assertNotNull(cache);
+        assertEquals(1, cache.size());
+
+        // 원본 SSRC 가 바뀌면 이전 캐시는 닫히고 (버퍼 반환) 새 SSRC 만 남는다.
+        videoPacket.wrap(true, 96, 2, 9000, 5678L, new byte[]{0x41, 1, 2, 3}, 0, 4);
+        callInfo.storeRetransmissionPacket(videoPacket, MediaType.VIDEO.getName());
+        assertTrue(cache.isClosed());
+        assertEquals(0, cache.size());
+        assertNull(callInfo.getRetransmissionCache(1234L));
+        RtpRetransmissionCache newCache = callInfo.getRetransmissionCache(5678L);
+        assertNotNull(newCache);
+        assertEquals(1, newCache.size());
+
+        // Call 을 닫으면 캐시도 닫히고, 그 뒤에 들어온 패킷은 저장하지 않는다.
+        callInfo.close();
+        assertTrue(newCache.isClosed());
+        assertEquals(0, newCache.size());
+        callInfo.storeRetransmissionPacket(videoPacket, MediaType.VIDEO.getName());
+        assertNull(callInfo.getRetransmissionCache(5678L));
+        assertFalse(newCache.put(videoPacket, 0));
+    }
+
+    @Test
+    public void testNackAfterRefragment() throws Exception {
+        // IDR (Single NAL unit, 1400 bytes) 를 Interleaved TCP 시청자에게 600 bytes 로 다시 나눠 보낸다.
+        assertNackAfterRefragment("nack_refragment_call", 1400, 600);
+    }
+
+    @Test
+    public void testNackAfterRefragmentOverMtu() throws Exception {
+        // 원본이 MTU (1500) 보다 큰 패킷도 재전송 캐시에 있어야 조각을 다시 보낼 수 있다.
+        assertNackAfterRefragment("nack_refragment_over_mtu_call", 4000, 1400);
+    }
+
+    private void assertNackAfterRefragment(String callId, int idrLength, int maxPacketSize) throws Exception {
+        File configFile = File.createTempFile("user_conf", ".ini");
+        configFile.deleteOnExit();
+        String config = new String(Files.readAllBytes(new File(System.getProperty("user.dir") + "/src/test/resources/config/user_conf.ini").toPath()), StandardCharsets.UTF_8);
+        Files.write(configFile.toPath(), config.replace("TCP_MAX_PACKET_SIZE=0", "TCP_MAX_PACKET_SIZE=" + maxPacketSize).getBytes(StandardCharsets.UTF_8));
+
+        AppInstance instance = AppInstance.getInstance();
+        ConfigManager prevConfigManager = instance.getConfigManager();
+        instance.setConfigManager(new ConfigManager(configFile.getAbsolutePath()));
+
+        EmbeddedChannel ch = new EmbeddedChannel(new ChannelInboundHandlerAdapter());
+        try {
+            CallInfo callInfo = SessionManager.getInstance().createCall("nack_refragment_conference", callId, true);
+            assertNotNull(callInfo);
+
+            Streamer streamer = new Streamer(MediaType.VIDEO, callId, "1000", VIDEO_TRACK_ID, true, "127.0.0.1", 0);
+            streamer.setRtspChannelContext(ch.pipeline().firstContext());
+            streamer.setVideoSsrc(1234L);
+            streamer.setStarted(true);
+
+            // IDR 은 여러 조각으로, 다음 작은 패킷은 그대로 나간다.
+            byte[] idr = new byte[idrLength];
+            idr[0] = 0x65;
+            for (int i = 1; i < idr.length; i++) {
+                idr[i] = (byte) i;
+            }
+            RtpPacket idrPacket = new RtpPacket(RtpPacket.RTP_PACKET_MAX_SIZE, true);
+            idrPacket.wrap(true, 96, 100, 9000, 1234L, idr, 0, idr.length);
+            RtpPacket nextPacket = new RtpPacket(RtpPacket.RTP_PACKET_MAX_SIZE, true);
+            nextPacket.wrap(true, 96, 101, 12000, 1234L, new byte[]{0x41, 1, 2, 3}, 0, 4);
+
+            for (RtpPacket rtpPacket : new RtpPacket[]{idrPacket, nextPacket}) {
+                callInfo.storeRetransmissionPacket(rtpPacket, MediaType.VIDEO.getName());
+                streamer.sendRtpPacket(rtpPacket, MediaType.VIDEO);
+            }
+
+            List<byte[]> sentList = readRtpDataList(ch);
+            assertNotNull(callInfo.getRetransmissionCache(1234L).get(100, System.currentTimeMillis()));
+            List<byte[]> pieceList = H264RtpPacketizer.refragment(idrPacket.getRawData(), maxPacketSize);
+            assertTrue(pieceList.size() > 1);
+            assertEquals(pieceList.size() + 1, sentList.size());
+            for (int i = 0; i < sentList.size(); i++) {
+                assertEquals(100 + i, getSeqNum(sentList.get(i)));
+            }
+
+            // 잃어버린 조각만 (같은 크기, 같은 번호로) 다시 보낸다. 첫 조각은 번호를 다시 매기지 않았어도 찾을 수 있어야 한다.
+            for (int seqNum = 100; seqNum < 100 + sentList.size(); seqNum++) {
+                assertEquals(1, streamer.handleNack(makeNack(1234L, seqNum)));
+                List<byte[]> resentList = readRtpDataList(ch);
+                assertEquals(1, resentList.size());
+                assertArrayEquals(sentList.get(seqNum - 100), resentList.get(0));
+                assertTrue(resentList.get(0).length <= maxPacketSize);
+            }
+        } finally {
+            ch.finishAndReleaseAll();
+            SessionManager.getInstance().deleteCall(callId);
+            instance.setConfigManager(prevConfigManager);
+        }
+    }
+
+    private static RtcpNegativeAck makeNack(long mediaSourceSsrc, int seqNum) {
+        RtcpFeedbackMessageHeader header = new RtcpFeedbackMessageHeader(
+                2, 0, 0, RtcpTransportLayerFeedbackType.NACK, RtcpType.RTPFB,
+                3, 0x11111111L, mediaSourceSsrc, null
+        );
+        return new RtcpNegativeAck(header, Collections.singletonList(new RtcpNackBlock(seqNum, 0)));
+    }
+
+    private static List<byte[]> readRtpDataList(EmbeddedChannel ch) {
+        List<byte[]> rtpDataList = new ArrayList<>();
+        ByteBuf buf;
+        while ((buf = ch.readOutbound()) != null) {
+            // Interleaved 헤더 ($, channel, length) 를 뺀다.
+            byte[] rtpData = new byte[buf.readableBytes() - 4];
+            buf.getBytes(buf.readerIndex() + 4, rtpData);
+            buf.release();
+            rtpDataList.add(rtpData);
+        }
+        return rtpDataList;
+    }
+
+    private static int getSeqNum(byte[] rtpData) {
+        return ((rtpData[2] & 0xFF) << 8) | (rtpData[3] & 0xFF);
+    }
+
+}
@@ -0,0 +1,74 @@
+package rtsp;
+
+import io.netty.util.AsciiString;
+import org.jmagni.jrtsp.rtsp.netty.base.RtspRequestParser;
+import org.jmagni.jrtsp.rtsp.netty.base.RtspRequestUri;
+import org.jmagni.jrtsp.rtsp.netty.base.RtspResponseHeaders;
+import org.jmagni.jrtsp.rtsp.netty.base.RtspTransport;
+import org.junit.Test;
+
+import static org.jmagni.jrtsp.rtsp.stream.rtp.base.RtpMeta.AUDIO_TRACK_ID;
+import static org.jmagni.jrtsp.rtsp.stream.rtp.base.RtpMeta.VIDEO_TRACK_ID;
+import static org.junit.Assert.*;
+
+public class RtspRequestParserTest {
+
+    @Test
+    public void testParseUri() {
+        RtspRequestUri requestUri = RtspRequestParser.parseUri("rtsp://127.0.0.1:8554/0cdef179@192.168.5.222/trackID=2");
+        assertEquals("0cdef179@192.168.5.222", requestUri.getCallId());
+        assertSame(VIDEO_TRACK_ID, requestUri.getTrackId());
+        assertEquals("rtsp://127.0.0.1:8554/0cdef179@192.168.5.222", requestUri.getBaseUri());
+        assertTrue(requestUri.isTrackIdValid());
+
+        requestUri = RtspRequestParser.parseUri(new AsciiString("rtsp://127.0.0.1:8554/0cdef179/trackID=1/"));
+        assertEquals("0cdef179", requestUri.getCallId());
+        assertSame(AUDIO_TRACK_ID, requestUri.getTrackId());
+
+        requestUri = RtspRequestParser.parseUri("rtsp://127.0.0.1:8554/0cdef179/");
+        assertEquals("0cdef179", requestUri.getCallId());
+        assertNull(requestUri.getTrackId());
+
+        // 기본 SDP 밖의 Track ID 도 받는다. (N-track)
+        requestUri = RtspRequestParser.parseUri("rtsp://127.0.0.1/0cdef179/trackID=13");
+        assertTrue(requestUri.isTrackIdValid());
+        assertEquals("13", requestUri.getTrackId());
+        assertFalse(RtspRequestParser.parseUri("rtsp://127.0.0.1/0cdef179/trackID=a").isTrackIdValid());
+        assertNull(RtspRequestParser.parseUri("rtsp://127.0.0.1:8554/").getCallId());
+    }
+
+    @Test
+    public void testParseTransport() {
+        RtspTransport transport = RtspRequestParser.parseTransport("RTP/AVP;unicast;client_port=9406-9407");
+        assertFalse(transport.isTcp());
+        assertEquals(9406, transport.getRtpPort());
+        assertEquals(9407, transport.getRtcpPort());
+        assertNull(transport.getDestination());
+
+        transport = RtspRequestParser.parseTransport("RTP/AVP;multicast;destination=224.2.0.1;port=3456;ttl=16");
+        assertEquals("224.2.0.1", transport.getDestination());
+        assertEquals(3456, transport.getRtpPort());
+        assertEquals(3457, transport.getRtcpPort());
+
+        transport = RtspRequestParser.parseTransport("RTP/AVP/TCP;unicast;interleaved=4-5");
+        assertTrue(transport.isTcp());
+        assertEquals(4, transport.getInterleavedRtpChannel());
+        assertEquals(5, transport.getInterleavedRtcpChannel());
+        assertEquals(-1, transport.getRtpPort());
+        assertEquals(3, RtspRequestParser.parseTransport("RTP/AVP/TCP;interleaved=2").getInterleavedRtcpChannel());
+        assertEquals(-1, RtspRequestParser.parseTransport("RTP/AVP/TCP;interleaved=256-257").getInterleavedRtpChannel());
+        assertEquals(-1, RtspRequestParser.parseTransport("RTP/AVP;unicast;client_port=abc-9407").getRtpPort());
+    }
+
+    @Test
+    public void testParseSessionIdAndDate() {
+        String sessionId = "123456";
+        assertSame(sessionId, RtspRequestParser.parseSessionId(sessionId));
+        assertEquals("123456", RtspRequestParser.parseSessionId("123456;timeout=60"));
+        assertNull(RtspRequestParser.parseSessionId(""));
+
+        assertSame(RtspResponseHeaders.getDate(1000), RtspResponseHeaders.getDate(1999));
+        assertEquals("Thu, 01 Jan 1970 00:00:01 GMT", RtspResponseHeaders.getDate(1000).toString());
+    }
+
+}
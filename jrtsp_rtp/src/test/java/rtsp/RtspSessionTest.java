@@ -0,0 +1,219 @@
+package rtsp;
+
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.http.DefaultHttpRequest;
+import io.netty.handler.codec.http.HttpMethod;
+import io.netty.handler.codec.http.HttpRequest;
+import io.netty.handler.codec.http.HttpResponse;
+import io.netty.handler.codec.rtsp.RtspHeaderNames;
+import io.netty.handler.codec.rtsp.RtspMethods;
+import io.netty.handler.codec.rtsp.RtspResponseStatuses;
+import io.netty.handler.codec.rtsp.RtspVersions;
+import org.jmagni.jrtsp.config.ConfigManager;
+import org.jmagni.jrtsp.rtsp.PortManager;
+import org.jmagni.jrtsp.rtsp.Streamer;
+import org.jmagni.jrtsp.rtsp.netty.NettyChannelManager;
+import org.jmagni.jrtsp.rtsp.netty.base.RtspRequestParser;
+import org.jmagni.jrtsp.rtsp.netty.handler.RtspChannelHandler;
+import org.jmagni.jrtsp.service.AppInstance;
+import org.jmagni.jrtsp.service.metrics.MetricCounter;
+import org.jmagni.jrtsp.service.metrics.ServerMetrics;
+import org.jmagni.jrtsp.service.monitor.ServerHealthMonitor;
+import org.jmagni.jrtsp.session.SessionManager;
+import org.jmagni.jrtsp.session.SessionTimeoutManager;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * @class public class RtspSessionTest
+ * @brief RTSP 세션 (Session 헤더) 단위 처리 테스트
+ */
+public class RtspSessionTest {
+
+    private static final String CONFERENCE_ID = "session_test_conference";
+    private static final String CALL_ID = "session_test_call";
+    private static final String AUDIO_URI = "rtsp://127.0.0.1/" + CALL_ID + "/trackID=1";
+    private static final String VIDEO_URI = "rtsp://127.0.0.1/" + CALL_ID + "/trackID=2";
+
+    private int cSeq = 0;
+
+    @BeforeClass
+    public static void init() {
+        RtspTotalTest.init();
+        assertNotNull(SessionManager.getInstance().createCall(CONFERENCE_ID, CALL_ID, true));
+    }
+
+    @AfterClass
+    public static void close() {
+        SessionManager.getInstance().deleteCall(CALL_ID);
+        RtspTotalTest.close();
+    }
+
+    @Test
+    public void testOtherConnectionCannotControlSession() throws Exception {
+        EmbeddedChannel owner = new EmbeddedChannel(new RtspChannelHandler("127.0.0.1", 5000));
+        EmbeddedChannel other = new EmbeddedChannel(new RtspChannelHandler("127.0.0.1", 5000));
+
+        HttpResponse setupResponse = send(owner, RtspMethods.SETUP, VIDEO_URI, null, "RTP/AVP/TCP;unicast;interleaved=2-3");
+        assertEquals(RtspResponseStatuses.OK, setupResponse.status());
+        String sessionId = RtspRequestParser.parseSessionId(setupResponse.headers().get(RtspHeaderNames.SESSION));
+        Streamer streamer = NettyChannelManager.getInstance().getStreamerBySessionId(sessionId);
+        assertNotNull(streamer);
+
+        owner.writeInbound(newRequest(RtspMethods.PLAY, VIDEO_URI, sessionId, null));
+        assertTrue(streamer.isStarted());
+
+        // 다른 연결은 Session ID 를 알아도 PAUSE 할 수 없다.
+        assertEquals(RtspResponseStatuses.SESSION_NOT_FOUND, send(other, RtspMethods.PAUSE, VIDEO_URI, sessionId, null).status());
+        assertFalse(streamer.isPaused());
+
+        // 다른 연결은 Session ID 를 알아도 같은 Track 을 다시 SETUP 해서 Streamer 를 가져갈 수 없다.
+        assertEquals(RtspResponseStatuses.SESSION_NOT_FOUND, send(other, RtspMethods.SETUP, VIDEO_URI, sessionId, "RTP/AVP/TCP;unicast;interleaved=2-3").status());
+        assertSame(streamer, NettyChannelManager.getInstance().getStreamer(streamer.getKey()));
+        assertTrue(streamer.isStarted());
+
+        // 다른 연결의 요청으로는 세션이 갱신되지 않는다.
+        long lastActiveTime = streamer.getLastActiveTime();
+        Thread.sleep(20);
+        assertEquals(RtspResponseStatuses.OK, send(other, RtspMethods.GET_PARAMETER, VIDEO_URI, sessionId, null).status());
+        assertEquals(lastActiveTime, streamer.getLastActiveTime());
+        assertEquals(RtspResponseStatuses.OK, send(owner, RtspMethods.GET_PARAMETER, VIDEO_URI, sessionId, null).status());
+        assertTrue(streamer.getLastActiveTime() > lastActiveTime);
+
+        assertEquals(RtspResponseStatuses.OK, send(owner, RtspMethods.PAUSE, VIDEO_URI, sessionId, null).status());
+        assertTrue(streamer.isPaused());
+
+        assertEquals(RtspResponseStatuses.OK, send(owner, RtspMethods.TEARDOWN, VIDEO_URI, sessionId, null).status());
+        List<Streamer> streamerList = NettyChannelManager.getInstance().getStreamerListBySessionId(sessionId);
+        assertTrue(streamerList.isEmpty());
+
+        owner.finishAndReleaseAll();
+        other.finishAndReleaseAll();
+    }
+
+    @Test
+    public void testOverloadExemptsOnlyOwnedSession() {
+        EmbeddedChannel owner = new EmbeddedChannel(new RtspChannelHandler("127.0.0.1", 5000));
+        EmbeddedChannel other = new EmbeddedChannel(new RtspChannelHandler("127.0.0.1", 5000));
+        ServerHealthMonitor serverHealthMonitor = ServerHealthMonitor.getInstance();
+        MetricCounter setupRejects = ServerMetrics.getInstance().getSetupRejects();
+        String sessionId = null;
+        try {
+            HttpResponse setupResponse = send(owner, RtspMethods.SETUP, VIDEO_URI, null, "RTP/AVP/TCP;unicast;interleaved=2-3");
+            assertEquals(RtspResponseStatuses.OK, setupResponse.status());
+            sessionId = RtspRequestParser.parseSessionId(setupResponse.headers().get(RtspHeaderNames.SESSION));
+
+            // 과부하 (EventLoop 지연 한도 초과)
+            serverHealthMonitor.setThresholds(true, 100_000, 0, 0, 0);
+            assertTrue(serverHealthMonitor.update(150_000, 0, 0, 0));
+            long rejectCount = setupRejects.getValue();
+
+            // 아무 Session 헤더나 넣는다고 새 SETUP 이 면제되지 않는다.
+            assertEquals(RtspResponseStatuses.NOT_ENOUGH_BANDWIDTH, send(other, RtspMethods.SETUP, AUDIO_URI, "1", "RTP/AVP/TCP;unicast;interleaved=0-1").status());
+            assertEquals(RtspResponseStatuses.NOT_ENOUGH_BANDWIDTH, send(other, RtspMethods.SETUP, AUDIO_URI, sessionId, "RTP/AVP/TCP;unicast;interleaved=0-1").status());
+            assertEquals(rejectCount + 2, setupRejects.getValue());
+
+            // 이 연결이 가진 세션의 다음 Track 은 받는다.
+            setupResponse = send(owner, RtspMethods.SETUP, AUDIO_URI, sessionId, "RTP/AVP/TCP;unicast;interleaved=0-1");
+            assertEquals(RtspResponseStatuses.OK, setupResponse.status());
+            assertEquals(sessionId, RtspRequestParser.parseSessionId(setupResponse.headers().get(RtspHeaderNames.SESSION)));
+            assertEquals(2, NettyChannelManager.getInstance().getStreamerListBySessionId(sessionId).size());
+            assertEquals(rejectCount + 2, setupRejects.getValue());
+        } finally {
+            assertFalse(serverHealthMonitor.update(0, 0, 0, 0));
+            serverHealthMonitor.configure(AppInstance.getInstance().getConfigManager().getUserConfig());
+            if (sessionId != null) {
+                send(owner, RtspMethods.TEARDOWN, VIDEO_URI, sessionId, null);
+            }
+            owner.finishAndReleaseAll();
+            other.finishAndReleaseAll();
+        }
+    }
+
+    @Test
+    public void testSessionTimeout() throws Exception {
+        // 세션 timeout 1 초 (Timer wheel tick 100ms)
+        File configFile = File.createTempFile("user_conf", ".ini");
+        configFile.deleteOnExit();
+        String config = new String(Files.readAllBytes(new File(AppInstance.getInstance().getConfigPath() + "user_conf.ini").toPath()), StandardCharsets.UTF_8);
+        Files.write(configFile.toPath(), config.replace("TIMEOUT_SEC=60", "TIMEOUT_SEC=1").getBytes(StandardCharsets.UTF_8));
+
+        AppInstance instance = AppInstance.getInstance();
+        ConfigManager prevConfigManager = instance.getConfigManager();
+        instance.setConfigManager(new ConfigManager(configFile.getAbsolutePath()));
+
+        EmbeddedChannel ch = null;
+        try {
+            ch = new EmbeddedChannel(new RtspChannelHandler("127.0.0.1", 5000));
+            int freePairCount = PortManager.getInstance().getFreePairCount();
+            long expiredCount = SessionTimeoutManager.getInstance().getExpiredCount();
+
+            HttpResponse setupResponse = send(ch, RtspMethods.SETUP, VIDEO_URI, null, "RTP/AVP;unicast;client_port=3470-3471");
+            assertEquals(RtspResponseStatuses.OK, setupResponse.status());
+            String sessionHeader = setupResponse.headers().get(RtspHeaderNames.SESSION);
+            String sessionId = RtspRequestParser.parseSessionId(sessionHeader);
+            assertEquals(sessionId + ";timeout=1", sessionHeader);
+
+            Streamer streamer = NettyChannelManager.getInstance().getStreamerBySessionId(sessionId);
+            assertNotNull(streamer);
+            assertEquals(freePairCount - 1, PortManager.getInstance().getFreePairCount());
+
+            // 요청으로 갱신하면 첫 만료 시점에는 남은 시간만큼 다시 등록된다. (갱신할 때마다 타이머를 바꾸지 않음)
+            Thread.sleep(600);
+            assertEquals(RtspResponseStatuses.OK, send(ch, RtspMethods.GET_PARAMETER, VIDEO_URI, sessionId, null).status());
+            Thread.sleep(700);
+            assertSame(streamer, NettyChannelManager.getInstance().getStreamer(streamer.getKey()));
+            assertEquals(expiredCount, SessionTimeoutManager.getInstance().getExpiredCount());
+
+            // 갱신이 없으면 만료되어 Streamer 가 삭제되고 포트가 반환된다.
+            long deadline = System.currentTimeMillis() + 3000;
+            while (NettyChannelManager.getInstance().getStreamer(streamer.getKey()) != null && System.currentTimeMillis() < deadline) {
+                Thread.sleep(50);
+            }
+            assertNull(NettyChannelManager.getInstance().getStreamer(streamer.getKey()));
+            assertTrue(NettyChannelManager.getInstance().getStreamerListBySessionId(sessionId).isEmpty());
+            assertEquals(expiredCount + 1, SessionTimeoutManager.getInstance().getExpiredCount());
+            assertEquals(freePairCount, PortManager.getInstance().getFreePairCount());
+        } finally {
+            if (ch != null) {
+                ch.finishAndReleaseAll();
+            }
+            instance.setConfigManager(prevConfigManager);
+        }
+    }
+
+    private HttpRequest newRequest(HttpMethod method, String uri, String sessionId, String transport) {
+        HttpRequest request = new DefaultHttpRequest(RtspVersions.RTSP_1_0, method, uri);
+        request.headers().add(RtspHeaderNames.CSEQ, String.valueOf(++cSeq));
+        if (sessionId != null) {
+            request.headers().add(RtspHeaderNames.SESSION, sessionId);
+        }
+        if (transport != null) {
+            request.headers().add(RtspHeaderNames.TRANSPORT, transport);
+        }
+        return request;
+    }
+
+    /**
+     * @fn private HttpResponse send(EmbeddedChannel ch, HttpMethod method, String uri, String sessionId, String transport)
+     * @brief 요청을 보내고 바로 나온 응답을 반환하는 함수 (PLAY 처럼 나중에 응답하는 요청은 쓰지 않는다)
+     */
+    private HttpResponse send(EmbeddedChannel ch, HttpMethod method, String uri, String sessionId, String transport) {
+        ch.writeInbound(newRequest(method, uri, sessionId, transport));
+
+        Object outbound = ch.readOutbound();
+        assertTrue(method + " has no response", outbound instanceof HttpResponse);
+        HttpResponse response = (HttpResponse) outbound;
+        assertEquals(String.valueOf(cSeq), response.headers().get(RtspHeaderNames.CSEQ));
+        return response;
+    }
+
+}
@@ -24,13 +24,19 @@ import io.netty.handler.codec.http.DefaultFullHttpRequest;
 import io.netty.handler.codec.http.DefaultHttpRequest;
 import io.netty.handler.codec.http.FullHttpRequest;
 import io.netty.handler.codec.http.HttpRequest;
+import io.netty.handler.codec.http.HttpResponse;
+import io.netty.handler.codec.http.HttpResponseStatus;
 import io.netty.handler.codec.rtsp.RtspHeaderNames;
 import io.netty.handler.codec.rtsp.RtspMethods;
+import io.netty.handler.codec.rtsp.RtspResponseStatuses;
 import io.netty.handler.codec.rtsp.RtspVersions;
 import lombok.extern.slf4j.Slf4j;
 import org.jmagni.jrtsp.rtsp.Streamer;
 import org.jmagni.jrtsp.rtsp.netty.NettyChannelManager;
+import org.jmagni.jrtsp.rtsp.netty.base.RtspRequestParser;
 import org.jmagni.jrtsp.rtsp.netty.handler.RtspChannelHandler;
+import org.jmagni.jrtsp.session.CallInfo;
+import org.jmagni.jrtsp.session.MediaInfo;
 import org.jmagni.jrtsp.session.SessionManager;
 import org.junit.Test;
 
@@ -149,7 +155,7 @@ public class RtspTest_Scenario2_StreamingOfAContainerFile {
         sendHttpRequest(options);
 
         // 3) Then
-
+        assertResponse("1", RtspResponseStatuses.OK);
     }
 
     public void describe() throws Exception {
@@ -171,6 +177,7 @@ public class RtspTest_Scenario2_StreamingOfAContainerFile {
         sendHttpRequest(describe);
 
         // 3) Then
+        assertResponse("1", RtspResponseStatuses.OK);
     }
 
     public void audioSetup() throws Exception {
@@ -196,6 +203,7 @@ public class RtspTest_Scenario2_StreamingOfAContainerFile {
         sendHttpRequest(setup);
 
         // 3) Then
+        HttpResponse response = assertResponse("2", RtspResponseStatuses.OK);
         List<Streamer> streamerList = NettyChannelManager.getInstance().getStreamerListByCallId(callId);
         assertNotNull(streamerList);
         assertEquals(1, streamerList.size());
@@ -203,6 +211,10 @@ public class RtspTest_Scenario2_StreamingOfAContainerFile {
         for (Streamer streamer : streamerList) {
             sessionId = streamer.getSessionId();
         }
+
+        // 서버가 만든 Session ID (64 bits 난수) 를 응답으로 알려준다.
+        assertEquals(sessionId, RtspRequestParser.parseSessionId(response.headers().get(RtspHeaderNames.SESSION)));
+        Long.parseUnsignedLong(sessionId);
     }
 
     public void videoSetup() throws Exception {
@@ -228,6 +240,7 @@ public class RtspTest_Scenario2_StreamingOfAContainerFile {
         sendHttpRequest(setup);
 
         // 3) Then
+        assertResponse("3", RtspResponseStatuses.OK);
         List<Streamer> streamerList = NettyChannelManager.getInstance().getStreamerListByCallId(callId);
         assertNotNull(streamerList);
         assertEquals(2, streamerList.size());
@@ -261,6 +274,14 @@ public class RtspTest_Scenario2_StreamingOfAContainerFile {
         sendHttpRequest(play);
 
         // 3) Then
+        // PLAY 응답은 첫 RTP 패킷이 나갈 때 보내므로 그 전에는 아무 응답도 없어야 한다.
+        assertNull(ch.readOutbound());
+        for (Streamer streamer : streamerList) {
+            if (streamer.getPlayResponse() != null) {
+                streamer.sendPlayResponse();
+            }
+        }
+        assertResponse("4", RtspResponseStatuses.OK);
     }
 
     public void teardown() throws Exception {
@@ -288,6 +309,7 @@ public class RtspTest_Scenario2_StreamingOfAContainerFile {
         sendHttpRequest(teardown);
 
         // 3) Then
+        assertResponse("5", RtspResponseStatuses.OK);
         int streamerSize = NettyChannelManager.getInstance().getAllStreamers().size();
         assertEquals(0, streamerSize);
     }
@@ -296,17 +318,36 @@ public class RtspTest_Scenario2_StreamingOfAContainerFile {
         ch.writeInbound(httpRequest);
     }
 
+    private HttpResponse assertResponse(String cSeq, HttpResponseStatus expectedStatus) {
+        Object outbound = ch.readOutbound();
+        assertNotNull("No response for CSeq " + cSeq, outbound);
+        assertTrue(outbound instanceof HttpResponse);
+
+        HttpResponse response = (HttpResponse) outbound;
+        assertEquals(expectedStatus, response.status());
+        assertEquals(cSeq, response.headers().get(RtspHeaderNames.CSEQ));
+        assertNull(ch.readOutbound());
+        return response;
+    }
+
     @Test
     public void testAll() throws Exception {
         RtspTotalTest.init();
 
         ch = new EmbeddedChannel(new RtspChannelHandler("127.0.0.1", 5000));
 
-        SessionManager.getInstance().createCall(
+        CallInfo callInfo = SessionManager.getInstance().createCall(
                 conferenceId,
                 callId,
                 true
         );
+        assertNotNull(callInfo);
+
+        // DESCRIBE 는 원본이 알려준 미디어 정보로 SDP 를 만든다.
+        MediaInfo mediaInfo = new MediaInfo();
+        mediaInfo.setAudioPayloadType(0);
+        mediaInfo.setVideoPayloadType(108);
+        callInfo.setMediaInfo(mediaInfo);
 
         options();
 
@@ -0,0 +1,71 @@
+package rtsp;
+
+import org.jmagni.jrtsp.config.UserConfig;
+import org.jmagni.jrtsp.rtsp.Streamer;
+import org.jmagni.jrtsp.rtsp.base.MediaType;
+import org.jmagni.jrtsp.rtsp.netty.RtspTrackTable;
+import org.jmagni.jrtsp.service.AppInstance;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import static org.jmagni.jrtsp.rtsp.stream.rtp.base.RtpMeta.AUDIO_TRACK_ID;
+import static org.jmagni.jrtsp.rtsp.stream.rtp.base.RtpMeta.VIDEO_TRACK_ID;
+import static org.junit.Assert.*;
+
+public class RtspTrackTableTest {
+
+    @BeforeClass
+    public static void init() {
+        StreamerRegistryTest.init();
+    }
+
+    @Test
+    public void testTrackIndex() {
+        RtspTrackTable trackTable = new RtspTrackTable();
+        Streamer audio = StreamerRegistryTest.newStreamer("call1", "1000", AUDIO_TRACK_ID);
+        audio.setInterleavedChannel(0, 1);
+        Streamer video = StreamerRegistryTest.newStreamer("call1", "1000", VIDEO_TRACK_ID);
+        video.setInterleavedChannel(2, 3);
+        Streamer layer = StreamerRegistryTest.newStreamer("call1", "1000", "3");
+        layer.setInterleavedChannel(4, 5);
+
+        assertNull(trackTable.put(audio));
+        assertNull(trackTable.put(video));
+        assertNull(trackTable.put(layer));
+        assertEquals(3, trackTable.size());
+        assertSame(layer, trackTable.get("3"));
+        assertSame(audio, trackTable.getByChannel(1));
+        assertSame(video, trackTable.getByChannel(2));
+        assertSame(layer, trackTable.getByChannel(5));
+        assertTrue(trackTable.isChannelUsed(2, AUDIO_TRACK_ID));
+        assertFalse(trackTable.isChannelUsed(2, VIDEO_TRACK_ID));
+
+        // SSRC 는 처음 찾을 때 기억하고, 바뀌면 다시 찾는다.
+        video.setVideoSsrc(0x1234);
+        assertSame(video, trackTable.getBySsrc(0x1234));
+        video.setVideoSsrc(0x5678);
+        layer.setVideoSsrc(0x1234);
+        assertSame(layer, trackTable.getBySsrc(0x1234));
+
+        // 같은 Track ID 는 교체되고, 이전 Track 의 채널은 비워진다.
+        Streamer newVideo = StreamerRegistryTest.newStreamer("call1", "2000", VIDEO_TRACK_ID);
+        newVideo.setInterleavedChannel(6, 7);
+        assertSame(video, trackTable.put(newVideo));
+        assertNull(trackTable.getByChannel(2));
+        assertSame(newVideo, trackTable.getByChannel(6));
+        assertEquals(3, trackTable.size());
+
+        assertEquals(3, trackTable.clear().size());
+        assertTrue(trackTable.isEmpty());
+        assertNull(trackTable.getByChannel(0));
+    }
+
+    @Test
+    public void testMediaTypeByTrackId() {
+        UserConfig userConfig = AppInstance.getInstance().getConfigManager().getUserConfig();
+        assertEquals(MediaType.AUDIO, userConfig.getMediaTypeByTrackId(AUDIO_TRACK_ID));
+        assertEquals(MediaType.VIDEO, userConfig.getMediaTypeByTrackId(VIDEO_TRACK_ID));
+        assertNull(userConfig.getMediaTypeByTrackId("9"));
+    }
+
+}
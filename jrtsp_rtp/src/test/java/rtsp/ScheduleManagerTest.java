@@ -0,0 +1,96 @@
+package rtsp;
+
+import org.jmagni.jrtsp.service.scheduler.job.Job;
+import org.jmagni.jrtsp.service.scheduler.job.JobBuilder;
+import org.jmagni.jrtsp.service.scheduler.schedule.ScheduleManager;
+import org.jmagni.jrtsp.service.scheduler.schedule.unit.JobAdder;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class ScheduleManagerTest {
+
+    private static final String SCHEDULE_KEY = "TEST";
+
+    private static Job newJob(ScheduleManager scheduleManager, String name, int interval, boolean isLasted) {
+        return new JobBuilder()
+                .setScheduleManager(scheduleManager)
+                .setName(name)
+                .setInitialDelay(0)
+                .setInterval(interval)
+                .setTimeUnit(TimeUnit.MILLISECONDS)
+                .setPriority(5)
+                .setTotalRunCount(1)
+                .setIsLasted(isLasted)
+                .build();
+    }
+
+    @Test
+    public void testLastedJob() throws InterruptedException {
+        ScheduleManager scheduleManager = new ScheduleManager();
+        assertTrue(scheduleManager.initJob(SCHEDULE_KEY, 2, 4));
+
+        CountDownLatch latch = new CountDownLatch(3);
+        Job job = newJob(scheduleManager, "lasted", 20, true);
+        job.setRunnable(latch::countDown);
+        assertTrue(scheduleManager.startJob(SCHEDULE_KEY, job));
+        assertFalse(scheduleManager.startJob(SCHEDULE_KEY, job)); // 같은 이름은 한 번만
+        assertEquals(1, scheduleManager.getActiveJobNumber(SCHEDULE_KEY));
+
+        assertTrue(latch.await(2, TimeUnit.SECONDS));
+
+        // 취소하면 더 이상 실행되지 않는다.
+        AtomicInteger runCount = new AtomicInteger();
+        job.setRunnable(runCount::incrementAndGet);
+        scheduleManager.stopJob(SCHEDULE_KEY, job);
+        assertEquals(0, scheduleManager.getActiveJobNumber(SCHEDULE_KEY));
+        int stoppedCount = runCount.get();
+        Thread.sleep(100);
+        assertTrue(runCount.get() <= stoppedCount + 1);
+
+        scheduleManager.finish();
+    }
+
+    @Test
+    public void testOneShotJob() throws InterruptedException {
+        ScheduleManager scheduleManager = new ScheduleManager();
+        assertTrue(scheduleManager.initJob(SCHEDULE_KEY, 1, 1));
+
+        CountDownLatch latch = new CountDownLatch(1);
+        Job job = newJob(scheduleManager, "once", 0, false);
+        job.setInitialDelay(30);
+        job.setRunnable(latch::countDown);
+        assertTrue(scheduleManager.startJob(SCHEDULE_KEY, job));
+        assertTrue(latch.await(2, TimeUnit.SECONDS));
+
+        scheduleManager.finish();
+    }
+
+    @Test
+    public void testLastedJobWithoutInterval() {
+        ScheduleManager scheduleManager = new ScheduleManager();
+        assertTrue(scheduleManager.initJob(SCHEDULE_KEY, 1, 1));
+
+        // 0 ns 로 등록되면 Wheel tick 마다 계속 실행되므로 등록 시점에 거절한다.
+        Job zeroIntervalJob = newJob(scheduleManager, "zero", 0, true);
+        Job noTimeUnitJob = newJob(scheduleManager, "no_time_unit", 20, true);
+        noTimeUnitJob.setTimeUnit(null);
+        for (Job job : new Job[]{zeroIntervalJob, newJob(scheduleManager, "negative", -1, true), noTimeUnitJob}) {
+            try {
+                new JobAdder(null, job, 0);
+                fail(job.getName());
+            } catch (IllegalArgumentException e) {
+                // ok
+            }
+            assertFalse(scheduleManager.startJob(SCHEDULE_KEY, job));
+        }
+        assertEquals(0, scheduleManager.getActiveJobNumber(SCHEDULE_KEY));
+
+        scheduleManager.finish();
+    }
+
+}
@@ -0,0 +1,68 @@
+package rtsp;
+
+import io.netty.channel.DefaultEventLoopGroup;
+import io.netty.channel.EventLoopGroup;
+import org.jmagni.jrtsp.service.monitor.EventLoopLagProbe;
+import org.jmagni.jrtsp.service.monitor.ServerHealthMonitor;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class ServerHealthMonitorTest {
+
+    @Test
+    public void overloadWithHysteresis() {
+        ServerHealthMonitor serverHealthMonitor = new ServerHealthMonitor();
+        serverHealthMonitor.setThresholds(true, 100_000, 1000, 4096, 0);
+        assertTrue(serverHealthMonitor.isSetupAllowed());
+
+        assertTrue(serverHealthMonitor.update(150_000, 0, 0, Long.MAX_VALUE)); // Pooled 메모리 한도는 0 (검사 안 함)
+        assertFalse(serverHealthMonitor.isSetupAllowed());
+        assertTrue(serverHealthMonitor.getOverloadReason().startsWith("eventLoopLag"));
+
+        // 한도 아래지만 RECOVER_RATIO (80%) 위 > 유지
+        assertTrue(serverHealthMonitor.update(90_000, 0, 0, 0));
+        assertFalse(serverHealthMonitor.update(50_000, 0, 0, 0));
+        assertTrue(serverHealthMonitor.isSetupAllowed());
+
+        assertTrue(serverHealthMonitor.update(0, 0, 8192, 0));
+        assertTrue(serverHealthMonitor.getOverloadReason().startsWith("channelOutbound"));
+
+        // 거절을 끄면 과부하여도 SETUP 을 받는다.
+        serverHealthMonitor.setThresholds(false, 100_000, 1000, 4096, 0);
+        assertTrue(serverHealthMonitor.isOverloaded());
+        assertTrue(serverHealthMonitor.isSetupAllowed());
+    }
+
+    @Test
+    public void stuckEventLoopIsReportedAsLag() throws Exception {
+        EventLoopLagProbe eventLoopLagProbe = new EventLoopLagProbe();
+        EventLoopGroup eventLoopGroup = new DefaultEventLoopGroup(1);
+        CountDownLatch blockLatch = new CountDownLatch(1);
+        try {
+            eventLoopGroup.execute(() -> {
+                try {
+                    blockLatch.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+
+            eventLoopLagProbe.probe(EventLoopLagProbe.GROUP_CALL, eventLoopGroup);
+            Thread.sleep(50);
+            eventLoopLagProbe.probe(EventLoopLagProbe.GROUP_CALL, eventLoopGroup);
+
+            // 측정 Task 가 아직 실행되지 않았어도 넣은 시점부터의 지연으로 본다.
+            assertTrue(eventLoopLagProbe.getMaxLagMicros(EventLoopLagProbe.GROUP_CALL) >= 50_000);
+            assertEquals(1, eventLoopLagProbe.getPendingTasks(EventLoopLagProbe.GROUP_CALL));
+            assertEquals(0, eventLoopLagProbe.getMaxLagMicros(EventLoopLagProbe.GROUP_RTSP));
+        } finally {
+            blockLatch.countDown();
+            eventLoopGroup.shutdownGracefully(0, 1, TimeUnit.SECONDS);
+        }
+    }
+
+}
@@ -0,0 +1,71 @@
+package rtsp;
+
+import org.jmagni.jrtsp.session.CallInfo;
+import org.jmagni.jrtsp.session.ConferenceInfo;
+import org.jmagni.jrtsp.session.ConferenceState;
+import org.jmagni.jrtsp.session.SessionManager;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class SessionManagerTest {
+
+    @Test
+    public void testCreateAndDelete() {
+        SessionManager sessionManager = SessionManager.getInstance();
+        int callCount = sessionManager.getCallInfoSize();
+
+        assertNotNull(sessionManager.createCall("conf-test", "call-test-1", true));
+        assertNotNull(sessionManager.createCall("conf-test", "call-test-2", false));
+        assertNull(sessionManager.createCall("conf-test", "call-test-1", false));
+        assertEquals(callCount + 2, sessionManager.getCallInfoSize());
+
+        ConferenceInfo conferenceInfo = sessionManager.findConference("conf-test");
+        assertEquals(2, conferenceInfo.getCallIdSize());
+        assertEquals("call-test-1", conferenceInfo.getHostCallId());
+
+        sessionManager.deleteCall("call-test-1");
+        assertEquals(1, conferenceInfo.getCallIdSize());
+        assertEquals("call-test-2", conferenceInfo.getCallIds().get(0));
+
+        sessionManager.deleteConference("conf-test");
+        assertEquals(ConferenceState.DELETED, conferenceInfo.getState());
+        assertNull(sessionManager.findCall("call-test-2"));
+        assertEquals(callCount, sessionManager.getCallInfoSize());
+    }
+
+    @Test
+    public void testConcurrentCreate() throws Exception {
+        SessionManager sessionManager = SessionManager.getInstance();
+        AtomicInteger createdCount = new AtomicInteger(0);
+        CountDownLatch startLatch = new CountDownLatch(1);
+
+        Thread[] threads = new Thread[8];
+        for (int i = 0; i < threads.length; i++) {
+            threads[i] = new Thread(() -> {
+                try {
+                    startLatch.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                CallInfo callInfo = sessionManager.createCall(null, "call-race", false);
+                if (callInfo != null) {
+                    createdCount.incrementAndGet();
+                }
+            });
+            threads[i].start();
+        }
+        startLatch.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(1, createdCount.get());
+        sessionManager.deleteCall("call-race");
+        assertNull(sessionManager.findCall("call-race"));
+    }
+
+}
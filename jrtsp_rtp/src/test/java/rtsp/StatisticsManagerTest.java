@@ -0,0 +1,63 @@
+package rtsp;
+
+import org.jmagni.jrtsp.rtsp.statistics.CallStatistics;
+import org.jmagni.jrtsp.rtsp.statistics.RtpStatistics;
+import org.jmagni.jrtsp.rtsp.statistics.StatisticsManager;
+import org.jmagni.jrtsp.rtsp.statistics.StatisticsSnapshot;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class StatisticsManagerTest {
+
+    @Test
+    public void aggregatePerStreamerCallAndGlobal() {
+        StatisticsManager statisticsManager = StatisticsManager.getInstance();
+
+        RtpStatistics a1 = new RtpStatistics("statA:1:s1", "statA");
+        RtpStatistics a2 = new RtpStatistics("statA:1:s2", "statA");
+        RtpStatistics b1 = new RtpStatistics("statB:1:s1", "statB");
+        a1.start();
+        a2.start();
+        b1.start();
+        try {
+            statisticsManager.aggregate(); // 이전 주기 비우기
+
+            for (int i = 0; i < 10; i++) {
+                a1.calculate(1000);
+                a2.calculate(1000);
+            }
+            b1.calculate(500);
+
+            StatisticsSnapshot snapshot = statisticsManager.aggregate();
+            assertSame(snapshot, statisticsManager.getSnapshot());
+
+            assertEquals(10, a1.getTotalPackets());
+            assertEquals(10000, a1.getTotalBytes());
+            assertTrue(a1.getBitrate() > 0);
+
+            CallStatistics callA = snapshot.getCallStatistics("statA");
+            assertNotNull(callA);
+            assertEquals(2, callA.getStreamerCount());
+            assertTrue(callA.getPps() >= a1.getPps());
+
+            CallStatistics callB = snapshot.getCallStatistics("statB");
+            assertNotNull(callB);
+            assertEquals(1, callB.getStreamerCount());
+            assertTrue(snapshot.getBitrate() >= callA.getBitrate() + callB.getBitrate() - 1);
+
+            // 다음 주기에는 보낸 것이 없으므로 0
+            statisticsManager.aggregate();
+            assertEquals(0, a1.getBitrate());
+            assertEquals(10, a1.getTotalPackets());
+        } finally {
+            a1.stop();
+            a2.stop();
+            b1.stop();
+        }
+
+        assertNull(statisticsManager.getStatistics("statA:1:s1"));
+        assertNull(statisticsManager.aggregate().getCallStatistics("statA"));
+    }
+
+}
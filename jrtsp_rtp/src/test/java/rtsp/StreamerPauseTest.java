@@ -0,0 +1,47 @@
+package rtsp;
+
+import org.jmagni.jrtsp.rtsp.Streamer;
+import org.jmagni.jrtsp.rtsp.stream.rtp.forwarding.RtpSequenceRewriter;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import static org.jmagni.jrtsp.rtsp.stream.rtp.base.RtpMeta.VIDEO_TRACK_ID;
+import static org.junit.Assert.*;
+
+public class StreamerPauseTest {
+
+    @BeforeClass
+    public static void init() {
+        StreamerRegistryTest.init();
+    }
+
+    @Test
+    public void testPauseAndResume() {
+        Streamer streamer = StreamerRegistryTest.newStreamer("call1", "1000", VIDEO_TRACK_ID);
+
+        // 시작 전에는 PAUSE 할 수 없다.
+        streamer.pause();
+        assertFalse(streamer.isPaused());
+
+        streamer.setStarted(true);
+        streamer.pause();
+        assertTrue(streamer.isPaused());
+        assertTrue(streamer.isStarted());
+
+        streamer.resume();
+        assertFalse(streamer.isPaused());
+        assertTrue(streamer.isStarted());
+    }
+
+    @Test
+    public void testRtpInfoSeqNum() {
+        RtpSequenceRewriter rewriter = new RtpSequenceRewriter();
+        assertEquals(100, rewriter.toOutSeqNum(100));
+
+        rewriter.drop();
+        rewriter.drop();
+        assertEquals(98, rewriter.toOutSeqNum(100));
+        assertEquals(0xFFFF, rewriter.toOutSeqNum(1));
+    }
+
+}
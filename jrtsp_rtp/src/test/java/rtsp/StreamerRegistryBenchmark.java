@@ -0,0 +1,124 @@
+package rtsp;
+
+import org.jmagni.jrtsp.rtsp.Streamer;
+import org.jmagni.jrtsp.rtsp.netty.StreamerRegistry;
+import org.jmagni.jrtsp.rtsp.netty.module.RtspNettyChannel;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+import static org.jmagni.jrtsp.rtsp.stream.rtp.base.RtpMeta.AUDIO_TRACK_ID;
+import static org.jmagni.jrtsp.rtsp.stream.rtp.base.RtpMeta.VIDEO_TRACK_ID;
+
+/**
+ * @class public class StreamerRegistryBenchmark
+ * @brief Streamer 조회 경합 벤치마크 (단위 테스트 아님, main 으로 실행)
+ *
+ * - 여러 스레드가 Call-ID 로 시청자 목록을 조회하면서 (RtpInfoSender), 일부 스레드는 SETUP/TEARDOWN 을 반복한다.
+ * - 비교 대상 : 예전 방식 (전역 잠금 + HashMap 복제 + 전체 순회) vs StreamerRegistry
+ *
+ *    mvn -q test-compile dependency:build-classpath -Dmdep.outputFile=cp.txt
+ *    java -cp target/classes:target/test-classes:$(cat cp.txt) rtsp.StreamerRegistryBenchmark [threadCount]
+ */
+public class StreamerRegistryBenchmark {
+
+    private static final int CALL_COUNT = 1000;
+    private static final int SESSION_PER_CALL = 2;
+    private static final int DURATION_MS = 3000;
+
+    public static void main(String[] args) throws Exception {
+        StreamerRegistryTest.init();
+
+        int threadCount = (args.length > 0) ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+
+        // 1) 예전 방식
+        HashMap<String, Streamer> streamerMap = new HashMap<>();
+        ReentrantLock streamerMapLock = new ReentrantLock();
+        for (int call = 0; call < CALL_COUNT; call++) {
+            for (int session = 0; session < SESSION_PER_CALL; session++) {
+                Streamer streamer = StreamerRegistryTest.newStreamer("call" + call, call + "-" + session, VIDEO_TRACK_ID);
+                streamerMap.put(streamer.getKey(), streamer);
+            }
+        }
+        long legacy = run(threadCount, (callId, sessionId) -> {
+            HashMap<String, Streamer> cloneMap;
+            streamerMapLock.lock();
+            try {
+                cloneMap = new HashMap<>(streamerMap);
+            } finally {
+                streamerMapLock.unlock();
+            }
+            List<Streamer> list = cloneMap.values().stream()
+                    .filter(streamer -> streamer.getCallId().equals(callId))
+                    .collect(Collectors.toList());
+            return list.size();
+        }, (callId, sessionId) -> {
+            Streamer streamer = StreamerRegistryTest.newStreamer(callId, sessionId, AUDIO_TRACK_ID);
+            streamerMapLock.lock();
+            try {
+                streamerMap.remove(streamer.getKey());
+                streamerMap.put(streamer.getKey(), streamer);
+            } finally {
+                streamerMapLock.unlock();
+            }
+        });
+
+        // 2) StreamerRegistry
+        StreamerRegistry registry = new StreamerRegistry();
+        for (int call = 0; call < CALL_COUNT; call++) {
+            for (int session = 0; session < SESSION_PER_CALL; session++) {
+                StreamerRegistryTest.add(registry, "call" + call, call + "-" + session, VIDEO_TRACK_ID);
+            }
+        }
+        long sharded = run(threadCount, (callId, sessionId) -> registry.getByCallId(callId).size(), (callId, sessionId) -> registry.replace(
+                callId, RtspNettyChannel.getStreamerKey(callId, sessionId, AUDIO_TRACK_ID),
+                () -> StreamerRegistryTest.newStreamer(callId, sessionId, AUDIO_TRACK_ID), null
+        ));
+
+        System.out.printf("threads=%d, calls=%d, lookups/s legacy=%,d registry=%,d (x%.1f)%n",
+                threadCount, CALL_COUNT, legacy, sharded, (double) sharded / Math.max(1, legacy)
+        );
+    }
+
+    private interface Lookup { int apply(String callId, String sessionId); }
+    private interface Setup { void apply(String callId, String sessionId); }
+
+    /**
+     * @return 초당 조회 횟수
+     */
+    private static long run(int threadCount, Lookup lookup, Setup setup) throws Exception {
+        LongAdder lookupCount = new LongAdder();
+        ExecutorService executorService = Executors.newFixedThreadPool(threadCount + 1);
+        long deadline = System.currentTimeMillis() + DURATION_MS;
+
+        for (int i = 0; i < threadCount; i++) {
+            executorService.submit(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                while (System.currentTimeMillis() < deadline) {
+                    for (int j = 0; j < 100; j++) {
+                        lookup.apply("call" + random.nextInt(CALL_COUNT), null);
+                    }
+                    lookupCount.add(100);
+                }
+            });
+        }
+
+        // SETUP/TEARDOWN 을 반복하는 스레드 하나
+        executorService.submit(() -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            while (System.currentTimeMillis() < deadline) {
+                int call = random.nextInt(CALL_COUNT);
+                setup.apply("call" + call, call + "-setup");
+            }
+        });
+
+        executorService.shutdown();
+        executorService.awaitTermination(DURATION_MS * 2L, TimeUnit.MILLISECONDS);
+        return lookupCount.sum() * 1000 / DURATION_MS;
+    }
+
+}
@@ -0,0 +1,112 @@
+package rtsp;
+
+import org.jmagni.jrtsp.config.ConfigManager;
+import org.jmagni.jrtsp.rtsp.Streamer;
+import org.jmagni.jrtsp.rtsp.base.MediaType;
+import org.jmagni.jrtsp.rtsp.netty.StreamerRegistry;
+import org.jmagni.jrtsp.rtsp.netty.module.RtspNettyChannel;
+import org.jmagni.jrtsp.service.AppInstance;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+import static org.jmagni.jrtsp.rtsp.stream.rtp.base.RtpMeta.AUDIO_TRACK_ID;
+import static org.jmagni.jrtsp.rtsp.stream.rtp.base.RtpMeta.VIDEO_TRACK_ID;
+import static org.junit.Assert.*;
+
+public class StreamerRegistryTest {
+
+    @BeforeClass
+    public static void init() {
+        AppInstance instance = AppInstance.getInstance();
+        if (instance.getConfigManager() == null) {
+            instance.setConfigManager(new ConfigManager(System.getProperty("user.dir") + "/src/test/resources/config/user_conf.ini"));
+        }
+    }
+
+    static Streamer newStreamer(String callId, String sessionId, String trackId) {
+        return new Streamer(
+                AUDIO_TRACK_ID.equals(trackId) ? MediaType.AUDIO : MediaType.VIDEO,
+                callId, sessionId, trackId, true, "127.0.0.1", 0
+        );
+    }
+
+    static String add(StreamerRegistry registry, String callId, String sessionId, String trackId) {
+        String key = RtspNettyChannel.getStreamerKey(callId, sessionId, trackId);
+        registry.add(callId, key, () -> newStreamer(callId, sessionId, trackId));
+        return key;
+    }
+
+    @Test
+    public void testIndex() {
+        StreamerRegistry registry = new StreamerRegistry(4);
+        String audioKey = add(registry, "call1", "1000", AUDIO_TRACK_ID);
+        String videoKey = add(registry, "call1", "1000", VIDEO_TRACK_ID);
+        add(registry, "call2", "2000", VIDEO_TRACK_ID);
+        assertNull(registry.add("call1", audioKey, () -> newStreamer("call1", "1000", AUDIO_TRACK_ID)));
+
+        assertEquals(3, registry.size());
+        assertEquals(2, registry.getByCallId("call1").size());
+        assertEquals(2, registry.getBySessionId("1000").size());
+        assertSame(registry.get(audioKey), registry.getFirstBySessionId("1000"));
+
+        // 교체하면 모든 인덱스에서 이전 Streamer 가 빠진다.
+        Streamer oldStreamer = registry.get(videoKey);
+        List<Streamer> removedList = new ArrayList<>();
+        Streamer newStreamer = registry.replace("call1", videoKey, () -> newStreamer("call1", "1000", VIDEO_TRACK_ID), removedList::add);
+        assertSame(oldStreamer, removedList.get(0));
+        assertSame(newStreamer, registry.get(videoKey));
+        assertFalse(registry.getByCallId("call1").contains(oldStreamer));
+        assertEquals(2, registry.getBySessionId("1000").size());
+
+        registry.remove(audioKey);
+        registry.remove(videoKey);
+        assertTrue(registry.getByCallId("call1").isEmpty());
+        assertNull(registry.getFirstBySessionId("1000"));
+        assertEquals(1, registry.removeAll().size());
+        assertEquals(0, registry.size());
+    }
+
+    @Test
+    public void testCallIndexChurn() {
+        StreamerRegistry registry = new StreamerRegistry(4);
+        List<String> keyList = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            keyList.add(add(registry, "churn", String.valueOf(i), VIDEO_TRACK_ID));
+        }
+
+        // 바뀌지 않았으면 같은 목록을 그대로 준다. (조회마다 복사하지 않음)
+        List<Streamer> snapshot = registry.getByCallId("churn");
+        assertEquals(100, snapshot.size());
+        assertSame(snapshot, registry.getByCallId("churn"));
+
+        Set<Streamer> remainSet = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (int i = 0; i < keyList.size(); i++) {
+            if (i % 2 == 0) {
+                assertNotNull(registry.remove(keyList.get(i)));
+            } else {
+                remainSet.add(registry.get(keyList.get(i)));
+            }
+        }
+
+        // 이미 받은 목록은 바뀌지 않고, 새로 조회하면 남은 Streamer 만 (순서는 상관없음) 나온다.
+        assertEquals(100, snapshot.size());
+        List<Streamer> streamerList = registry.getByCallId("churn");
+        assertEquals(50, streamerList.size());
+        Set<Streamer> streamerSet = Collections.newSetFromMap(new IdentityHashMap<>());
+        streamerSet.addAll(streamerList);
+        assertEquals(remainSet, streamerSet);
+
+        for (int i = 1; i < keyList.size(); i += 2) {
+            assertNotNull(registry.remove(keyList.get(i)));
+        }
+        assertTrue(registry.getByCallId("churn").isEmpty());
+        assertEquals(0, registry.size());
+    }
+
+}
@@ -0,0 +1,188 @@
+package rtsp;
+
+import org.jmagni.jrtsp.rtsp.Streamer;
+import org.jmagni.jrtsp.rtsp.base.MediaType;
+import org.jmagni.jrtsp.rtsp.rtcp.base.RtcpType;
+import org.jmagni.jrtsp.rtsp.rtcp.packet.RtcpCompoundPacket;
+import org.jmagni.jrtsp.rtsp.rtcp.packet.RtcpPacket;
+import org.jmagni.jrtsp.rtsp.rtcp.type.extended.feedback.base.RtcpFeedbackMessageHeader;
+import org.jmagni.jrtsp.rtsp.rtcp.type.extended.feedback.transportlayer.RtcpTemporaryMaximumMediaStreamBitRateNotification;
+import org.jmagni.jrtsp.rtsp.rtcp.type.extended.feedback.transportlayer.RtcpTemporaryMaximumMediaStreamBitRateRequest;
+import org.jmagni.jrtsp.rtsp.rtcp.type.extended.feedback.transportlayer.base.RtcpTmmbrEntry;
+import org.jmagni.jrtsp.rtsp.rtcp.type.extended.feedback.transportlayer.base.RtcpTransportLayerFeedbackType;
+import org.jmagni.jrtsp.rtsp.stream.rtp.feedback.SourceFeedbackListener;
+import org.jmagni.jrtsp.session.CallInfo;
+import org.jmagni.jrtsp.session.SessionManager;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.jmagni.jrtsp.rtsp.stream.rtp.base.RtpMeta.VIDEO_TRACK_ID;
+import static org.junit.Assert.*;
+
+public class TmmbrTest {
+
+    private static final long VIDEO_SSRC = 0x11223344L;
+
+    @BeforeClass
+    public static void init() {
+        StreamerRegistryTest.init();
+    }
+
+    private static void assertRoundTrip(RtcpTmmbrEntry entry) {
+        RtcpTmmbrEntry decoded = new RtcpTmmbrEntry(entry.getData());
+        assertEquals(entry.getSsrc(), decoded.getSsrc());
+        assertEquals(entry.getExp(), decoded.getExp());
+        assertEquals(entry.getMantissa(), decoded.getMantissa());
+        assertEquals(entry.getMeasuredOverhead(), decoded.getMeasuredOverhead());
+        assertEquals(entry.getBitrate(), decoded.getBitrate());
+    }
+
+    @Test
+    public void testEntryFromBitrate() {
+        // Mantissa (17 bits) 에 들어가면 Exp 는 0 이다.
+        RtcpTmmbrEntry entry = RtcpTmmbrEntry.fromBitrate(VIDEO_SSRC, 64000, 40);
+        assertEquals(0, entry.getExp());
+        assertEquals(64000, entry.getMantissa());
+        assertRoundTrip(entry);
+
+        entry = RtcpTmmbrEntry.fromBitrate(VIDEO_SSRC, RtcpTmmbrEntry.MAX_MANTISSA, 40);
+        assertEquals(0, entry.getExp());
+        assertEquals(RtcpTmmbrEntry.MAX_MANTISSA, entry.getMantissa());
+
+        // 넘치면 Mantissa 가 17 bits 에 들어갈 때까지 Exp 를 올린다.
+        entry = RtcpTmmbrEntry.fromBitrate(VIDEO_SSRC, RtcpTmmbrEntry.MAX_MANTISSA + 1, 40);
+        assertEquals(1, entry.getExp());
+        assertEquals(0x10000, entry.getMantissa());
+        assertEquals(RtcpTmmbrEntry.MAX_MANTISSA + 1, entry.getBitrate());
+
+        entry = RtcpTmmbrEntry.fromBitrate(VIDEO_SSRC, 1000000, 40);
+        assertEquals(3, entry.getExp());
+        assertEquals(125000, entry.getMantissa());
+        assertEquals(1000000, entry.getBitrate());
+        assertRoundTrip(entry);
+
+        // 정밀도가 모자라면 내림 (요청보다 크게 알리지 않는다)
+        entry = RtcpTmmbrEntry.fromBitrate(VIDEO_SSRC, 1000007, 40);
+        assertEquals(3, entry.getExp());
+        assertEquals(1000000, entry.getBitrate());
+
+        entry = RtcpTmmbrEntry.fromBitrate(VIDEO_SSRC, 10000000000L, 40);
+        assertTrue(entry.getMantissa() <= RtcpTmmbrEntry.MAX_MANTISSA);
+        assertTrue(entry.getMantissa() > RtcpTmmbrEntry.MAX_MANTISSA >>> 1);
+        assertTrue(entry.getBitrate() <= 10000000000L);
+        assertTrue(entry.getBitrate() > 10000000000L - (1L << entry.getExp()));
+        assertRoundTrip(entry);
+
+        assertEquals(0, RtcpTmmbrEntry.fromBitrate(VIDEO_SSRC, -1, 40).getBitrate());
+    }
+
+    @Test
+    public void testEntryEncodeDecode() {
+        // 모든 필드의 경계값 (SSRC 최상위 bit, Exp 6 bits, Mantissa 17 bits, Overhead 9 bits)
+        RtcpTmmbrEntry entry = new RtcpTmmbrEntry(0xFFFFFFFFL, 0x3F, RtcpTmmbrEntry.MAX_MANTISSA, 0x1FF);
+        assertArrayEquals(new byte[]{(byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF}, entry.getData());
+        assertRoundTrip(entry);
+
+        entry = new RtcpTmmbrEntry(0x80000001L, 0x21, 0x10001, 0x100);
+        byte[] data = entry.getData();
+        assertArrayEquals(new byte[]{(byte) 0x80, 0, 0, 1, (byte) 0x86, 0x00, 0x03, 0x00}, data);
+        assertRoundTrip(entry);
+
+        // 범위를 넘는 값은 필드 크기로 잘린다.
+        entry = new RtcpTmmbrEntry(VIDEO_SSRC, 0x40, RtcpTmmbrEntry.MAX_MANTISSA + 1, 0x200);
+        assertEquals(0, entry.getExp());
+        assertEquals(0, entry.getMantissa());
+        assertEquals(0, entry.getMeasuredOverhead());
+    }
+
+    @Test
+    public void testTmmbrCapAndTmmbn() throws Exception {
+        String callId = "tmmbr_call";
+        CallInfo callInfo = SessionManager.getInstance().createCall("tmmbr_conference", callId, true);
+        assertNotNull(callInfo);
+        List<Long> aggregatedList = new ArrayList<>();
+        callInfo.setSourceFeedbackListener(new SourceFeedbackListener() {
+            @Override
+            public void onKeyframeRequest(String callId, long mediaSourceSsrc) {}
+
+            @Override
+            public void onBitrateLimit(String callId, long mediaSourceSsrc, long bitrate) {
+                aggregatedList.add(bitrate);
+            }
+        });
+
+        Streamer streamer = null;
+        try (DatagramSocket rtpSocket = new DatagramSocket(0, InetAddress.getLoopbackAddress());
+             DatagramSocket rtcpSocket = new DatagramSocket(0, InetAddress.getLoopbackAddress())) {
+            rtcpSocket.setSoTimeout(2000);
+
+            streamer = new Streamer(MediaType.VIDEO, callId, "1000", VIDEO_TRACK_ID, false, "127.0.0.1", 0);
+            streamer.setVideoSsrc(VIDEO_SSRC);
+            streamer.setDestIp("127.0.0.1");
+            streamer.setRtpDestPort(rtpSocket.getLocalPort());
+            streamer.setRtcpDestPort(rtcpSocket.getLocalPort());
+            streamer.open();
+
+            // 다른 SSRC 에 대한 요청은 무시한다.
+            streamer.handleTmmbr(makeTmmbr(0x55555555L, 500000));
+            assertEquals(0, callInfo.getAggregatedBitrateLimit());
+
+            streamer.handleTmmbr(makeTmmbr(VIDEO_SSRC, 500000));
+            assertEquals(500000, streamer.getBitrateLimit());
+            assertEquals(500000, callInfo.getAggregatedBitrateLimit());
+            assertTmmbn(receiveTmmbn(rtcpSocket), 500000);
+
+            // 최소값 (TMMBR_MIN_BITRATE=64000) 보다 낮게 제한하지 않고, 적용한 값으로 TMMBN 을 보낸다.
+            streamer.handleTmmbr(makeTmmbr(VIDEO_SSRC, 10000));
+            assertEquals(64000, streamer.getBitrateLimit());
+            assertEquals(64000, callInfo.getAggregatedBitrateLimit());
+            assertTmmbn(receiveTmmbn(rtcpSocket), 64000);
+
+            assertEquals(Arrays.asList(500000L, 64000L), aggregatedList);
+        } finally {
+            if (streamer != null) {
+                streamer.close();
+            }
+            SessionManager.getInstance().deleteCall(callId);
+        }
+    }
+
+    private static RtcpTemporaryMaximumMediaStreamBitRateRequest makeTmmbr(long ssrc, long bitrate) {
+        RtcpFeedbackMessageHeader header = new RtcpFeedbackMessageHeader(
+                2, 0, 0, RtcpTransportLayerFeedbackType.TMMBR, RtcpType.RTPFB,
+                (RtcpFeedbackMessageHeader.LENGTH + RtcpTmmbrEntry.LENGTH) / 4 - 1, 0x99999999L, 0, null
+        );
+        return new RtcpTemporaryMaximumMediaStreamBitRateRequest(
+                header, Collections.singletonList(RtcpTmmbrEntry.fromBitrate(ssrc, bitrate, 40))
+        );
+    }
+
+    private static RtcpTemporaryMaximumMediaStreamBitRateNotification receiveTmmbn(DatagramSocket rtcpSocket) throws Exception {
+        DatagramPacket datagramPacket = new DatagramPacket(new byte[1500], 1500);
+        rtcpSocket.receive(datagramPacket);
+
+        RtcpCompoundPacket compoundPacket = new RtcpCompoundPacket(Arrays.copyOf(datagramPacket.getData(), datagramPacket.getLength()));
+        assertEquals(1, compoundPacket.getRtcpPacketList().size());
+        RtcpPacket rtcpPacket = compoundPacket.getRtcpPacketByIndex(0);
+        assertEquals(RtcpType.RTPFB, rtcpPacket.getRtcpHeader().getPacketType());
+        assertTrue(rtcpPacket.getRtcpFormat() instanceof RtcpTemporaryMaximumMediaStreamBitRateNotification);
+        return (RtcpTemporaryMaximumMediaStreamBitRateNotification) rtcpPacket.getRtcpFormat();
+    }
+
+    private static void assertTmmbn(RtcpTemporaryMaximumMediaStreamBitRateNotification tmmbn, long bitrate) {
+        assertEquals(1, tmmbn.getRtcpTmmbrEntryList().size());
+        RtcpTmmbrEntry entry = tmmbn.getRtcpTmmbrEntryList().get(0);
+        assertEquals(VIDEO_SSRC, entry.getSsrc());
+        assertEquals(bitrate, entry.getBitrate());
+        assertEquals(40, entry.getMeasuredOverhead());
+    }
+
+}
@@ -0,0 +1,107 @@
+package rtsp;
+
+import org.jmagni.jrtsp.rtsp.base.RtpPacket;
+import org.jmagni.jrtsp.rtsp.stream.rtp.forwarding.VideoThinningPolicy;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.Assert.*;
+
+public class VideoThinningPolicyTest {
+
+    private static final int NAL_IDR = 0x65; // nal_ref_idc=3, type=5
+    private static final int NAL_SPS = 0x67;
+    private static final int NAL_REF_SLICE = 0x41; // nal_ref_idc=2, type=1
+    private static final int NAL_DISPOSABLE_SLICE = 0x01; // nal_ref_idc=0, type=1
+    private static final long RECOVERY_HOLD_MS = 3000;
+
+    private int seqNum = 0;
+
+    private boolean admit(VideoThinningPolicy policy, int nalHeader, long timestamp) {
+        RtpPacket rtpPacket = new RtpPacket(RtpPacket.RTP_PACKET_MAX_SIZE, true);
+        rtpPacket.wrap(false, 96, seqNum++, timestamp, 1234L, new byte[]{(byte) nalHeader, 1, 2, 3}, 0, 4);
+        byte[] rtpData = rtpPacket.getRawData();
+        return policy.admit(ByteBuffer.wrap(rtpData), rtpData.length, timestamp);
+    }
+
+    @Test
+    public void testLevelHysteresis() {
+        VideoThinningPolicy policy = new VideoThinningPolicy();
+
+        // 올라갈 때는 바로 적용된다.
+        assertFalse(policy.updateLevel(4, 1000, RECOVERY_HOLD_MS));
+        assertEquals(4, policy.getAppliedLevel());
+
+        // 내려갈 때는 recoveryHoldMs 마다 한 단계씩 내린다.
+        assertFalse(policy.updateLevel(0, 1000, RECOVERY_HOLD_MS));
+        assertFalse(policy.updateLevel(0, 3999, RECOVERY_HOLD_MS));
+        assertEquals(4, policy.getAppliedLevel());
+        assertTrue(policy.updateLevel(0, 4000, RECOVERY_HOLD_MS)); // 4 > 3 은 Keyframe 이 필요하다.
+        assertEquals(3, policy.getAppliedLevel());
+        assertFalse(policy.updateLevel(0, 5000, RECOVERY_HOLD_MS));
+        assertEquals(3, policy.getAppliedLevel());
+        assertFalse(policy.updateLevel(0, 7000, RECOVERY_HOLD_MS));
+        assertEquals(2, policy.getAppliedLevel());
+
+        // 다시 올라가면 유지 시간이 처음부터 다시 시작된다.
+        assertFalse(policy.updateLevel(2, 8000, RECOVERY_HOLD_MS));
+        assertFalse(policy.updateLevel(1, 9000, RECOVERY_HOLD_MS));
+        assertFalse(policy.updateLevel(1, 11999, RECOVERY_HOLD_MS));
+        assertEquals(2, policy.getAppliedLevel());
+        assertFalse(policy.updateLevel(1, 12000, RECOVERY_HOLD_MS));
+        assertEquals(1, policy.getAppliedLevel());
+
+        // 범위를 벗어난 측정값은 0~4 로 자른다.
+        assertFalse(policy.updateLevel(9, 13000, RECOVERY_HOLD_MS));
+        assertEquals(VideoThinningPolicy.LEVEL_KEYFRAME_ONLY, policy.getAppliedLevel());
+    }
+
+    @Test
+    public void testDropDisposableSlices() {
+        VideoThinningPolicy policy = new VideoThinningPolicy();
+        assertTrue(admit(policy, NAL_DISPOSABLE_SLICE, 0));
+
+        for (int level = VideoThinningPolicy.LEVEL_DROP_DISPOSABLE; level < VideoThinningPolicy.LEVEL_KEYFRAME_ONLY; level++) {
+            policy.updateLevel(level, 0, RECOVERY_HOLD_MS);
+            assertFalse(admit(policy, NAL_DISPOSABLE_SLICE, 3000L * level));
+            assertTrue(admit(policy, NAL_REF_SLICE, 3000L * level + 1));
+            assertTrue(admit(policy, NAL_IDR, 3000L * level + 2));
+        }
+    }
+
+    @Test
+    public void testKeyframeOnly() {
+        VideoThinningPolicy policy = new VideoThinningPolicy();
+        policy.updateLevel(VideoThinningPolicy.LEVEL_KEYFRAME_ONLY, 0, RECOVERY_HOLD_MS);
+
+        // 프레임 첫 패킷으로 결정하고, 같은 Timestamp 의 나머지 패킷도 따른다.
+        assertFalse(admit(policy, NAL_REF_SLICE, 3000));
+        assertFalse(admit(policy, NAL_IDR, 3000));
+
+        assertTrue(admit(policy, NAL_SPS, 6000));
+        assertTrue(admit(policy, NAL_IDR, 6000));
+        assertTrue(admit(policy, NAL_DISPOSABLE_SLICE, 6000));
+
+        assertTrue(admit(policy, NAL_IDR, 9000));
+        assertFalse(admit(policy, NAL_REF_SLICE, 12000));
+    }
+
+    @Test
+    public void testWaitKeyframeAfterKeyframeOnly() {
+        VideoThinningPolicy policy = new VideoThinningPolicy();
+        policy.updateLevel(VideoThinningPolicy.LEVEL_KEYFRAME_ONLY, 1000, RECOVERY_HOLD_MS);
+        policy.updateLevel(0, 1000, RECOVERY_HOLD_MS);
+        assertTrue(policy.updateLevel(0, 1000 + RECOVERY_HOLD_MS, RECOVERY_HOLD_MS));
+        assertEquals(3, policy.getAppliedLevel());
+
+        // 참조 프레임이 없으므로 Level 3 이어도 다음 Keyframe 까지는 참조 슬라이스도 보내지 않는다.
+        assertFalse(admit(policy, NAL_REF_SLICE, 3000));
+        assertFalse(admit(policy, NAL_REF_SLICE, 6000));
+
+        assertTrue(admit(policy, NAL_IDR, 9000));
+        assertTrue(admit(policy, NAL_REF_SLICE, 12000));
+        assertFalse(admit(policy, NAL_DISPOSABLE_SLICE, 15000));
+    }
+
+}